@@ -1,5 +1,8 @@
 package model;
 
+import java.util.ArrayList;
+import java.util.List;
+
 // 对应 course_info 表的部分字段
 public class Course {
     private String courseCode;
@@ -25,6 +28,7 @@ public class Course {
     private String classroom;      // 上课地点
     private String courseType;     // 课程类型
     private String description;    // 课程简介
+    private List<String> prerequisiteNames = new ArrayList<>(); // 先修课程名称（仅课程详情中填充）
     // Getter方法 (为简洁省略Setter)
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
@@ -40,11 +44,15 @@ public class Course {
 
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
+
+    public List<String> getPrerequisiteNames() { return prerequisiteNames; }
+    public void setPrerequisiteNames(List<String> prerequisiteNames) { this.prerequisiteNames = prerequisiteNames; }
     public String getCourseCode() { return courseCode; }
     public String getCourseName() { return courseName; }
     public double getCredit() { return credit; }
     public int getCapacityLimit() { return capacityLimit; }
     public int getCurrentSelected() { return currentSelected; }
+    public void setCurrentSelected(int currentSelected) { this.currentSelected = currentSelected; }
     public String getTeacherName() { return teacherName; }
     public String getScheduleTime() { return scheduleTime; }
 
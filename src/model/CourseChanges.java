@@ -0,0 +1,25 @@
+package model;
+
+import java.util.List;
+
+/**
+ * 课程目录增量（对应 CourseService.getCourseChangesSince 的返回结果）
+ * changedCourses 中状态不是 Published 的课程表示已下线/删除，客户端应从列表中移除
+ */
+public class CourseChanges {
+    private final List<Course> changedCourses;
+    private final long version;       // 本次结果对应的版本号，下次增量查询时传入
+
+    public CourseChanges(List<Course> changedCourses, long version) {
+        this.changedCourses = changedCourses;
+        this.version = version;
+    }
+
+    public List<Course> getChangedCourses() { return changedCourses; }
+    public long getVersion() { return version; }
+
+    // 自上次版本以来是否没有任何变化
+    public boolean isEmpty() {
+        return changedCourses.isEmpty();
+    }
+}
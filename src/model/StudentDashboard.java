@@ -0,0 +1,27 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// 学生主界面的数据快照：已选课程、学分统计（一次查询得到，周课表由已选课程的上课时间生成）
+public class StudentDashboard {
+    private final List<Course> selectedCourses;
+    private final int courseCount;
+    private final double totalCredits;
+
+    /**
+     * @param selectedCourses 已选且已发布的课程（课表只包含这些课程）
+     * @param courseCount 已选课程总数（含已下架的课程，与原统计口径一致）
+     * @param totalCredits 已选课程总学分
+     */
+    public StudentDashboard(List<Course> selectedCourses, int courseCount, double totalCredits) {
+        this.selectedCourses = Collections.unmodifiableList(new ArrayList<>(selectedCourses));
+        this.courseCount = courseCount;
+        this.totalCredits = totalCredits;
+    }
+
+    public List<Course> getSelectedCourses() { return selectedCourses; }
+    public int getCourseCount() { return courseCount; }
+    public double getTotalCredits() { return totalCredits; }
+}
@@ -0,0 +1,20 @@
+package repository;
+
+import java.util.List;
+
+/**
+ * 审核记录数据访问（audit_record 表）
+ */
+public interface AuditRepository {
+
+    /**
+     * @param auditType CourseOpen / SpecialSelect
+     * @param result Pass / Reject
+     */
+    boolean insert(String targetId, String auditType, String result, String opinion, String auditorId);
+
+    /**
+     * 某个审核对象的审核记录：[auditType, result, opinion, auditorId, auditTime]，按时间倒序
+     */
+    List<Object[]> findByTarget(String targetId);
+}
@@ -0,0 +1,58 @@
+package repository;
+
+import model.Course;
+import model.CourseChanges;
+
+import java.util.List;
+
+/**
+ * 课程数据访问（course_info 表，教师姓名来自 user_info）
+ * 查询失败时的返回值与原 CourseService 一致：列表查询返回空列表，标明"失败返回 null"的返回 null。
+ */
+public interface CourseRepository {
+
+    /**
+     * 批量查询课程详情（含简介和先修课程名称）
+     */
+    List<Course> findDetails(List<String> courseCodes);
+
+    /**
+     * 查询某个版本之后有变化的课程（version 为 0 时返回全部已发布课程）
+     * @return 变化的课程和新版本号；查询失败返回 null
+     */
+    CourseChanges findChangedSince(long version);
+
+    /**
+     * 已发布课程的名额（只有课程代码、容量和已选人数）
+     * @return 查询失败返回 null
+     */
+    List<Course> findPublishedSeats();
+
+    /**
+     * 单门课程的名额
+     * @return int[2]：[0]=capacity_limit，[1]=current_selected；课程不存在或查询失败返回 null
+     */
+    int[] findSeats(String courseCode);
+
+    List<Course> findByTeacher(String teacherId);
+
+    List<Course> findByStatus(String status);
+
+    /**
+     * 选课统计（已发布课程，对应视图 v_course_stats）
+     */
+    List<Course> findStatistics();
+
+    /**
+     * 新增课程，状态为 Pending，同时写入上课时间位图
+     */
+    boolean insert(Course course, String teacherId);
+
+    boolean updateStatus(String courseCode, String status);
+
+    /**
+     * 为尚未计算上课时间位图的课程补算位图
+     * @return 更新的课程数
+     */
+    int backfillScheduleMasks();
+}
@@ -0,0 +1,73 @@
+package repository;
+
+import util.DBUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 审核记录数据访问的 MySQL 实现
+ */
+public class JdbcAuditRepository implements AuditRepository {
+
+    @Override
+    public boolean insert(String targetId, String auditType, String result, String opinion, String auditorId) {
+        String sql = "INSERT INTO audit_record (target_id, audit_type, result, audit_opinion, auditor_id) " +
+                "VALUES (?, ?, ?, ?, ?)";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+
+        try {
+            conn = DBUtils.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, targetId);
+            pstmt.setString(2, auditType);
+            pstmt.setString(3, result);
+            pstmt.setString(4, opinion);
+            pstmt.setString(5, auditorId);
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("记录审核结果失败：" + e.getMessage());
+            e.printStackTrace();
+            return false;
+        } finally {
+            DBUtils.close(conn, pstmt, null);
+        }
+    }
+
+    @Override
+    public List<Object[]> findByTarget(String targetId) {
+        List<Object[]> records = new ArrayList<>();
+        String sql = "SELECT audit_type, result, audit_opinion, auditor_id, audit_time FROM audit_record " +
+                "WHERE target_id = ? ORDER BY audit_time DESC, audit_id DESC";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DBUtils.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, targetId);
+            rs = pstmt.executeQuery();
+            while (rs.next()) {
+                records.add(new Object[]{
+                        rs.getString("audit_type"),
+                        rs.getString("result"),
+                        rs.getString("audit_opinion"),
+                        rs.getString("auditor_id"),
+                        rs.getTimestamp("audit_time")
+                });
+            }
+        } catch (SQLException e) {
+            System.err.println("查询审核记录失败：" + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DBUtils.close(conn, pstmt, rs);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,396 @@
+package repository;
+
+import model.Course;
+import model.CourseChanges;
+import util.DBUtils;
+import util.ScheduleMask;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 课程数据访问的 MySQL 实现
+ */
+public class JdbcCourseRepository implements CourseRepository {
+
+    // 增量查询时向前多看的时间，覆盖查询时尚未提交的事务
+    private static final long VERSION_OVERLAP_MS = 2000;
+
+    /**
+     * 先修课程名称用子查询合并为一列，一条 SQL 完成
+     */
+    @Override
+    public List<Course> findDetails(List<String> courseCodes) {
+        List<Course> courses = new ArrayList<>();
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        String sql = "SELECT c.*, u.user_name AS teacher_name, " +
+                "(SELECT GROUP_CONCAT(p.course_name ORDER BY p.course_code SEPARATOR '\\n') " +
+                " FROM course_prerequisite cp JOIN course_info p ON cp.prereq_code = p.course_code " +
+                " WHERE cp.course_code = c.course_code) AS prereq_names " +
+                "FROM course_info c " +
+                "JOIN user_info u ON c.teacher_id = u.user_id " +
+                "WHERE c.course_code IN (" + String.join(",", Collections.nCopies(courseCodes.size(), "?")) + ")";
+
+        try {
+            conn = DBUtils.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            for (int i = 0; i < courseCodes.size(); i++) {
+                pstmt.setString(i + 1, courseCodes.get(i));
+            }
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                Course course = toCourse(rs);
+                course.setCourseType(rs.getString("course_type"));
+                course.setDescription(rs.getString("description"));
+                String prereqNames = rs.getString("prereq_names");
+                if (prereqNames != null) {
+                    course.setPrerequisiteNames(new ArrayList<>(List.of(prereqNames.split("\n"))));
+                }
+                courses.add(course);
+            }
+        } catch (SQLException e) {
+            System.err.println("查询课程详情失败: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DBUtils.close(conn, pstmt, rs);
+        }
+        return courses;
+    }
+
+    /**
+     * 按 course_info.updated_at 增量查询，包括已选人数变化、状态变化（下线的课程也会返回，状态不是 Published）。
+     * 为避免漏掉提交较晚的事务，实际查询会向前多看 VERSION_OVERLAP_MS，客户端按课程代码合并即可。
+     */
+    @Override
+    public CourseChanges findChangedSince(long version) {
+        List<Course> courses = new ArrayList<>();
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        // 使用 JOIN user_info 表获取教师姓名
+        String sql = "SELECT c.*, u.user_name AS teacher_name " +
+                "FROM course_info c " +
+                "JOIN user_info u ON c.teacher_id = u.user_id " +
+                (version <= 0 ? "WHERE c.status = 'Published'" : "WHERE c.updated_at > ?");
+        long newVersion = version;
+        boolean changed = version <= 0;
+
+        try {
+            conn = DBUtils.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            if (version > 0) {
+                pstmt.setTimestamp(1, toTimestamp(version - VERSION_OVERLAP_MS * 1000));
+            }
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                courses.add(toCourse(rs));
+                long rowVersion = toVersion(rs.getTimestamp("updated_at"));
+                if (rowVersion > version) {
+                    changed = true;
+                }
+                newVersion = Math.max(newVersion, rowVersion);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            DBUtils.close(conn, pstmt, rs);
+        }
+        if (!changed) {
+            // 只查到了向前多看的那部分旧记录，视为没有变化
+            return new CourseChanges(new ArrayList<>(), version);
+        }
+        return new CourseChanges(courses, newVersion);
+    }
+
+    // 版本号为 updated_at 的微秒时间戳
+    private static long toVersion(Timestamp ts) {
+        return ts == null ? 0 : ts.getTime() / 1000 * 1_000_000 + ts.getNanos() / 1000;
+    }
+
+    private static Timestamp toTimestamp(long version) {
+        Timestamp ts = new Timestamp(Math.floorDiv(version, 1_000_000) * 1000);
+        ts.setNanos(Math.floorMod(version, 1_000_000) * 1000);
+        return ts;
+    }
+
+    /**
+     * 只查 course_info 三列，比目录查询轻得多
+     */
+    @Override
+    public List<Course> findPublishedSeats() {
+        String sql = "SELECT course_code, capacity_limit, current_selected FROM course_info WHERE status = 'Published'";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        List<Course> seats = new ArrayList<>();
+
+        try {
+            conn = DBUtils.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            rs = pstmt.executeQuery();
+            while (rs.next()) {
+                seats.add(new Course(rs.getString("course_code"), null, 0,
+                        rs.getInt("capacity_limit"), rs.getInt("current_selected"), null, null));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            DBUtils.close(conn, pstmt, rs);
+        }
+        return seats;
+    }
+
+    @Override
+    public int[] findSeats(String courseCode) {
+        String sql = "SELECT capacity_limit, current_selected FROM course_info WHERE course_code = ?";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DBUtils.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, courseCode);
+            rs = pstmt.executeQuery();
+            if (rs.next()) {
+                return new int[]{rs.getInt("capacity_limit"), rs.getInt("current_selected")};
+            }
+        } catch (SQLException e) {
+            System.err.println("加载课程名额失败: " + e.getMessage());
+        } finally {
+            DBUtils.close(conn, pstmt, rs);
+        }
+        return null;
+    }
+
+    @Override
+    public List<Course> findByTeacher(String teacherId) {
+        List<Course> courses = new ArrayList<>();
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        // 【修正：使用 JOIN 获取教师姓名，保证 Course 构造完整性】
+        String sql = "SELECT c.*, u.user_name AS teacher_name " +
+                "FROM course_info c " +
+                "JOIN user_info u ON c.teacher_id = u.user_id " +
+                "WHERE c.teacher_id = ?";
+
+        try {
+            conn = DBUtils.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, teacherId);
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                Course course = toCourse(rs);
+                course.setCourseType(rs.getString("course_type"));
+                courses.add(course);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            DBUtils.close(conn, pstmt, rs);
+        }
+        return courses;
+    }
+
+    @Override
+    public List<Course> findByStatus(String status) {
+        List<Course> courses = new ArrayList<>();
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        String sql = "SELECT c.*, u.user_name AS teacher_name " +
+                "FROM course_info c " +
+                "JOIN user_info u ON c.teacher_id = u.user_id " +
+                "WHERE c.status = ?";
+
+        try {
+            conn = DBUtils.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, status);
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                Course course = toCourse(rs);
+                course.setCourseType(rs.getString("course_type"));
+                courses.add(course);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            DBUtils.close(conn, pstmt, rs);
+        }
+        return courses;
+    }
+
+    @Override
+    public List<Course> findStatistics() {
+        List<Course> courses = new ArrayList<>();
+        Connection conn = null;
+        Statement stmt = null;
+        ResultSet rs = null;
+
+        // v_course_stats 视图包含 course_code, course_name, teacher_name, credit, capacity_limit, current_selected, saturation_rate
+        String sql = "SELECT * FROM v_course_stats";
+
+        try {
+            conn = DBUtils.getConnection();
+            stmt = conn.createStatement();
+            rs = stmt.executeQuery(sql);
+
+            while (rs.next()) {
+                courses.add(new Course(
+                    rs.getString("course_code"),
+                    rs.getString("course_name"),
+                    rs.getDouble("credit"),            // 注意：getDouble不是getInt!
+                    rs.getInt("capacity_limit"),
+                    rs.getInt("current_selected"),
+                    rs.getString("teacher_name"),
+                    rs.getString("schedule_time")
+                ));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            DBUtils.close(conn, stmt, rs);
+        }
+        return courses;
+    }
+
+    @Override
+    public boolean insert(Course course, String teacherId) {
+        String sql = "INSERT INTO course_info " +
+                "(course_code, course_name, credit, class_hour, teacher_id, schedule_time, classroom, capacity_limit, course_type, status, description, " +
+                "schedule_mask_lo, schedule_mask_hi, schedule_weeks) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 'Pending', ?, ?, ?, ?)";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+
+        try {
+            conn = DBUtils.getConnection();
+            pstmt = conn.prepareStatement(sql);
+
+            pstmt.setString(1, course.getCourseCode());
+            pstmt.setString(2, course.getCourseName());
+            pstmt.setDouble(3, course.getCredit());
+            pstmt.setInt(4, course.getClassHour());
+            pstmt.setString(5, teacherId);
+            pstmt.setString(6, course.getScheduleTime());
+            pstmt.setString(7, course.getClassroom());
+            pstmt.setInt(8, course.getCapacityLimit());
+            pstmt.setString(9, course.getCourseType());
+            pstmt.setString(10, course.getDescription());
+
+            // 上课时间位图（供存储过程做冲突检测）
+            ScheduleMask mask = ScheduleMask.parse(course.getScheduleTime());
+            pstmt.setLong(11, mask.getLo());
+            pstmt.setLong(12, mask.getHi());
+            pstmt.setInt(13, mask.getWeeks());
+
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("教师申请开课异常：" + e.getMessage());
+            e.printStackTrace();
+            return false;
+        } finally {
+            DBUtils.close(conn, pstmt, null);
+        }
+    }
+
+    @Override
+    public boolean updateStatus(String courseCode, String status) {
+        String sql = "UPDATE course_info SET status = ? WHERE course_code = ?";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+
+        try {
+            conn = DBUtils.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, status);
+            pstmt.setString(2, courseCode);
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("课程审核操作异常：" + e.getMessage());
+            e.printStackTrace();
+            return false;
+        } finally {
+            DBUtils.close(conn, pstmt, null);
+        }
+    }
+
+    @Override
+    public int backfillScheduleMasks() {
+        String selectSql = "SELECT course_code, schedule_time FROM course_info " +
+                "WHERE schedule_mask_lo = 0 AND schedule_mask_hi = 0 " +
+                "AND schedule_time IS NOT NULL AND schedule_time <> ''";
+        String updateSql = "UPDATE course_info SET schedule_mask_lo = ?, schedule_mask_hi = ?, schedule_weeks = ? " +
+                "WHERE course_code = ?";
+        Connection conn = null;
+        PreparedStatement selectStmt = null;
+        PreparedStatement updateStmt = null;
+        ResultSet rs = null;
+        int updated = 0;
+
+        try {
+            conn = DBUtils.getConnection();
+            selectStmt = conn.prepareStatement(selectSql);
+            updateStmt = conn.prepareStatement(updateSql);
+            rs = selectStmt.executeQuery();
+            while (rs.next()) {
+                ScheduleMask mask = ScheduleMask.parse(rs.getString("schedule_time"));
+                if (mask.isEmpty()) {
+                    continue;
+                }
+                updateStmt.setLong(1, mask.getLo());
+                updateStmt.setLong(2, mask.getHi());
+                updateStmt.setInt(3, mask.getWeeks());
+                updateStmt.setString(4, rs.getString("course_code"));
+                updateStmt.addBatch();
+                updated++;
+            }
+            if (updated > 0) {
+                updateStmt.executeBatch();
+            }
+        } catch (SQLException e) {
+            System.err.println("补算上课时间位图失败: " + e.getMessage());
+            e.printStackTrace();
+            updated = 0;
+        } finally {
+            DBUtils.close(null, updateStmt, null);
+            DBUtils.close(conn, selectStmt, rs);
+        }
+        return updated;
+    }
+
+    /**
+     * course_info JOIN user_info 的一行 -> Course（含状态、学时、教室）
+     */
+    static Course toCourse(ResultSet rs) throws SQLException {
+        Course course = new Course(
+                rs.getString("course_code"),
+                rs.getString("course_name"),
+                rs.getDouble("credit"),
+                rs.getInt("capacity_limit"),
+                rs.getInt("current_selected"),
+                rs.getString("teacher_name"), // 对应 JOIN 后的别名
+                rs.getString("schedule_time")
+        );
+        course.setStatus(rs.getString("status"));
+        course.setClassHour(rs.getInt("class_hour"));
+        course.setClassroom(rs.getString("classroom"));
+        return course;
+    }
+}
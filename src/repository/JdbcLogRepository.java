@@ -0,0 +1,183 @@
+package repository;
+
+import model.OperationLog;
+import util.DBUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 操作日志数据访问的 MySQL 实现
+ */
+public class JdbcLogRepository implements LogRepository {
+
+    @Override
+    public List<OperationLog> findAll() {
+        List<OperationLog> logs = new ArrayList<>();
+        String sql = "SELECT * FROM operation_log ORDER BY operation_time DESC";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DBUtils.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                logs.add(toLog(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("查询操作日志失败：" + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DBUtils.close(conn, pstmt, rs);
+        }
+        return logs;
+    }
+
+    /**
+     * 以上一页最后一条日志的 (operation_time, log_id) 作为游标，翻页代价与页码无关
+     */
+    @Override
+    public List<OperationLog> findPage(String operatorId, String operationType, Timestamp from, Timestamp to,
+                                       OperationLog after, int pageSize) {
+        List<OperationLog> logs = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(
+                "SELECT log_id, operator_id, operation_type, operation_content, operation_time " +
+                "FROM operation_log WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (operatorId != null && !operatorId.trim().isEmpty()) {
+            sql.append(" AND operator_id = ?");
+            params.add(operatorId.trim());
+        }
+        if (operationType != null && !operationType.trim().isEmpty()) {
+            sql.append(" AND operation_type = ?");
+            params.add(operationType.trim());
+        }
+        if (from != null) {
+            sql.append(" AND operation_time >= ?");
+            params.add(from);
+        }
+        if (to != null) {
+            sql.append(" AND operation_time < ?");
+            params.add(to);
+        }
+        if (after != null) {
+            sql.append(" AND (operation_time < ? OR (operation_time = ? AND log_id < ?))");
+            params.add(after.getOperationTime());
+            params.add(after.getOperationTime());
+            params.add(after.getLogId());
+        }
+        sql.append(" ORDER BY operation_time DESC, log_id DESC LIMIT ?");
+        params.add(pageSize);
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DBUtils.getConnection();
+            pstmt = conn.prepareStatement(sql.toString());
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                logs.add(toLog(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("分页查询操作日志失败：" + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DBUtils.close(conn, pstmt, rs);
+        }
+        return logs;
+    }
+
+    @Override
+    public List<String> findOperationTypes() {
+        List<String> types = new ArrayList<>();
+        String sql = "SELECT DISTINCT operation_type FROM operation_log " +
+                "WHERE operation_type IS NOT NULL ORDER BY operation_type";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DBUtils.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            rs = pstmt.executeQuery();
+            while (rs.next()) {
+                types.add(rs.getString(1));
+            }
+        } catch (SQLException e) {
+            System.err.println("查询操作类型失败：" + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DBUtils.close(conn, pstmt, rs);
+        }
+        return types;
+    }
+
+    /**
+     * 一条多行 INSERT；回放时用 INSERT IGNORE + 唯一键 (source_id, source_seq) 保证幂等
+     */
+    @Override
+    public boolean insert(List<OperationLog> logs, String sourceId, List<Long> seqs) {
+        boolean replay = sourceId != null;
+        StringBuilder sql = new StringBuilder(replay
+                ? "INSERT IGNORE INTO operation_log (operator_id, operation_type, operation_content, operation_time, " +
+                  "source_id, source_seq) VALUES "
+                : "INSERT INTO operation_log (operator_id, operation_type, operation_content, operation_time) VALUES ");
+        String row = replay ? "(?, ?, ?, ?, ?, ?)" : "(?, ?, ?, ?)";
+        for (int i = 0; i < logs.size(); i++) {
+            sql.append(i == 0 ? row : ", " + row);
+        }
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+
+        try {
+            conn = DBUtils.getConnection();
+            if (conn == null) {
+                return false;
+            }
+            pstmt = conn.prepareStatement(sql.toString());
+            int index = 1;
+            for (int i = 0; i < logs.size(); i++) {
+                OperationLog log = logs.get(i);
+                pstmt.setString(index++, log.getOperatorId());
+                pstmt.setString(index++, log.getOperationType());
+                pstmt.setString(index++, log.getOperationContent());
+                pstmt.setTimestamp(index++, log.getOperationTime());
+                if (replay) {
+                    pstmt.setString(index++, sourceId);
+                    pstmt.setLong(index++, seqs.get(i));
+                }
+            }
+            pstmt.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            System.err.println("批量记录操作日志失败：" + e.getMessage());
+            return false;
+        } finally {
+            DBUtils.close(conn, pstmt, null);
+        }
+    }
+
+    private static OperationLog toLog(ResultSet rs) throws SQLException {
+        return new OperationLog(
+                rs.getInt("log_id"),
+                rs.getString("operator_id"),
+                rs.getString("operation_type"),
+                rs.getString("operation_content"),
+                rs.getTimestamp("operation_time")
+        );
+    }
+}
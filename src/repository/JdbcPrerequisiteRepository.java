@@ -0,0 +1,116 @@
+package repository;
+
+import util.DBUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * 先修关系数据访问的 MySQL 实现
+ */
+public class JdbcPrerequisiteRepository implements PrerequisiteRepository {
+
+    /**
+     * 行数 + 各行 CRC32 的异或
+     */
+    @Override
+    public String fingerprint() {
+        String sql = "SELECT COUNT(*), IFNULL(BIT_XOR(CRC32(CONCAT(course_code, '>', prereq_code))), 0) " +
+                "FROM course_prerequisite";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DBUtils.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            rs = pstmt.executeQuery();
+            if (rs.next()) {
+                return rs.getLong(1) + ":" + rs.getLong(2);
+            }
+        } catch (SQLException e) {
+            System.err.println("查询先修关系指纹失败: " + e.getMessage());
+        } finally {
+            DBUtils.close(conn, pstmt, rs);
+        }
+        return null;
+    }
+
+    @Override
+    public List<String[]> findAll() {
+        String sql = "SELECT cp.course_code, cp.prereq_code, ci.course_name AS prereq_name " +
+                "FROM course_prerequisite cp JOIN course_info ci ON cp.prereq_code = ci.course_code " +
+                "ORDER BY cp.course_code, cp.prereq_code";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        List<String[]> rows = new ArrayList<>();
+
+        try {
+            conn = DBUtils.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            rs = pstmt.executeQuery();
+            while (rs.next()) {
+                rows.add(new String[]{rs.getString("course_code"), rs.getString("prereq_code"),
+                        rs.getString("prereq_name")});
+            }
+        } catch (SQLException e) {
+            System.err.println("加载先修关系失败: " + e.getMessage());
+            return null;
+        } finally {
+            DBUtils.close(conn, pstmt, rs);
+        }
+        return rows;
+    }
+
+    @Override
+    public String replace(String courseCode, List<String> prereqCodes) {
+        String deleteSql = "DELETE FROM course_prerequisite WHERE course_code = ?";
+        String insertSql = "INSERT INTO course_prerequisite (course_code, prereq_code) VALUES (?, ?)";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+
+        try {
+            conn = DBUtils.getConnection();
+            conn.setAutoCommit(false);
+            pstmt = conn.prepareStatement(deleteSql);
+            pstmt.setString(1, courseCode);
+            pstmt.executeUpdate();
+            DBUtils.close(null, pstmt, null);
+
+            pstmt = conn.prepareStatement(insertSql);
+            for (String prereqCode : new TreeSet<>(prereqCodes)) {
+                pstmt.setString(1, courseCode);
+                pstmt.setString(2, prereqCode);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            conn.commit();
+            return "先修课设置成功";
+        } catch (SQLException e) {
+            e.printStackTrace();
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    ex.printStackTrace();
+                }
+            }
+            return "先修课设置失败：" + e.getMessage();
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+            DBUtils.close(conn, pstmt, null);
+        }
+    }
+}
@@ -0,0 +1,666 @@
+package repository;
+
+import model.Course;
+import model.StudentDashboard;
+import util.DBUtils;
+import util.ScheduleMask;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiFunction;
+
+/**
+ * 选课记录数据访问的 MySQL 实现
+ * 单门选课调用存储过程 sp_student_select_course；退课只更新选课记录状态，人数和日志由触发器 trg_after_drop_course 维护。
+ * 单门选课在调用存储过程前先取得该课程的一个选课名额锁（MySQL GET_LOCK，所有客户端共享），
+ * 同一门课程同时执行存储过程的请求数不超过 selection.dbSlotsPerCourse，其余请求在数据库端排队等待。
+ */
+public class JdbcSelectionRepository implements SelectionRepository {
+
+    // 每门课程同时执行选课存储过程的请求数上限（所有客户端合计）
+    private static final int DB_SLOTS_PER_COURSE = Math.max(1, Integer.getInteger("selection.dbSlotsPerCourse", 4));
+    // 等待名额锁的最长时间（秒），超时按系统繁忙处理
+    private static final int DB_SLOT_WAIT_SECONDS = Math.max(1, Integer.getInteger("selection.dbSlotWaitSec", 10));
+
+    @Override
+    public String select(String studentId, String courseCode) {
+        // 调用存储过程的 SQL 模板，存储过程有两个输入参数，一个输出参数
+        String sql = "{CALL sp_student_select_course(?, ?, ?)}";
+        Connection conn = null;
+        CallableStatement cstmt = null; // 使用 CallableStatement
+        String message = "选课失败：系统异常"; // 默认错误信息
+        String slot = null;
+
+        try {
+            conn = DBUtils.getConnection();
+            if (conn == null) {
+                return "选课失败：数据库错误：无法连接数据库";
+            }
+            // 0. 取得该课程的选课名额锁（跨客户端的准入控制），取不到时不进入存储过程
+            slot = acquireSlot(conn, courseCode);
+            if (slot == null) {
+                return BUSY_PREFIX + "该课程选课人数过多，请稍后重试";
+            }
+            cstmt = conn.prepareCall(sql);
+
+            // 1. 绑定输入参数 (IN parameters)
+            cstmt.setString(1, studentId);   // p_student_id
+            cstmt.setString(2, courseCode);  // p_course_code
+
+            // 2. 注册输出参数 (OUT parameter)
+            // 存储过程中的 p_message 是 VARCHAR(100)
+            cstmt.registerOutParameter(3, java.sql.Types.VARCHAR);
+
+            // 3. 执行存储过程
+            cstmt.execute();
+
+            // 4. 获取输出参数的值
+            message = cstmt.getString(3); // p_message
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+            message = "选课失败：数据库错误：" + e.getMessage();
+        } finally {
+            // 名额锁属于连接会话，归还连接池之前必须释放
+            releaseSlot(conn, slot);
+            DBUtils.close(conn, cstmt, null); // 关闭资源
+        }
+        return message;
+    }
+
+    /**
+     * 取得课程的一个选课名额锁：先依次尝试空闲的名额，全部被占用时在随机一个名额上等待
+     * @return 取得的锁名；等待超时返回 null
+     */
+    private String acquireSlot(Connection conn, String courseCode) throws SQLException {
+        String prefix = "course_select:" + courseCode + ":";
+        for (int i = 0; i < DB_SLOTS_PER_COURSE; i++) {
+            if (getLock(conn, prefix + i, 0)) {
+                return prefix + i;
+            }
+        }
+        String name = prefix + ThreadLocalRandom.current().nextInt(DB_SLOTS_PER_COURSE);
+        return getLock(conn, name, DB_SLOT_WAIT_SECONDS) ? name : null;
+    }
+
+    private boolean getLock(Connection conn, String name, int timeoutSeconds) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            pstmt.setString(1, name);
+            pstmt.setInt(2, timeoutSeconds);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private void releaseSlot(Connection conn, String slot) {
+        if (conn == null || slot == null) {
+            return;
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            pstmt.setString(1, slot);
+            pstmt.executeQuery().close();
+        } catch (SQLException e) {
+            System.err.println("释放选课名额锁失败: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public Map<String, String> selectAll(String studentId, List<String> courseCodes, boolean allOrNothing,
+                                         BiFunction<Set<String>, String, String> unmetPrerequisite) {
+        Map<String, String> results = new LinkedHashMap<>();
+        if (courseCodes.isEmpty()) {
+            return results;
+        }
+        String placeholders = String.join(",", Collections.nCopies(courseCodes.size(), "?"));
+        String lockSql = "SELECT course_code, course_name, capacity_limit, current_selected, status, schedule_time " +
+                "FROM course_info WHERE course_code IN (" + placeholders + ") ORDER BY course_code FOR UPDATE";
+        String existingSql = "SELECT sr.course_code, sr.status, ci.course_name, ci.schedule_time " +
+                "FROM selection_record sr JOIN course_info ci ON sr.course_code = ci.course_code " +
+                "WHERE sr.student_id = ?";
+        // 退课后重新选课时选课记录已存在，改为更新状态
+        String insertSql = "INSERT INTO selection_record (student_id, course_code, status) VALUES (?, ?, 'Selected') " +
+                "ON DUPLICATE KEY UPDATE status = 'Selected', selection_time = CURRENT_TIMESTAMP";
+        String updateSql = "UPDATE course_info SET current_selected = current_selected + 1 WHERE course_code = ?";
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        List<String> accepted = new ArrayList<>();
+
+        try {
+            conn = DBUtils.getConnection();
+            if (conn == null) {
+                for (String code : courseCodes) {
+                    results.put(code, "选课失败：数据库错误：无法连接数据库");
+                }
+                return results;
+            }
+            conn.setAutoCommit(false);
+
+            // 1. 锁定并读取所有待选课程
+            Map<String, Object[]> courseRows = new HashMap<>();
+            pstmt = conn.prepareStatement(lockSql);
+            for (int i = 0; i < courseCodes.size(); i++) {
+                pstmt.setString(i + 1, courseCodes.get(i));
+            }
+            rs = pstmt.executeQuery();
+            while (rs.next()) {
+                courseRows.put(rs.getString("course_code"), new Object[]{
+                        rs.getString("course_name"),
+                        rs.getInt("capacity_limit"),
+                        rs.getInt("current_selected"),
+                        rs.getString("status"),
+                        rs.getString("schedule_time")
+                });
+            }
+            DBUtils.close(null, pstmt, rs);
+
+            // 2. 学生已有的选课记录（已选课程用于时间冲突检查，已完成课程用于先修课检查）
+            Map<String, String> existingStatus = new HashMap<>();
+            Set<String> completed = new HashSet<>();
+            Map<String, String> occupiedNames = new LinkedHashMap<>();
+            Map<String, ScheduleMask> occupiedMasks = new HashMap<>();
+            pstmt = conn.prepareStatement(existingSql);
+            pstmt.setString(1, studentId);
+            rs = pstmt.executeQuery();
+            while (rs.next()) {
+                String code = rs.getString("course_code");
+                String status = rs.getString("status");
+                existingStatus.put(code, status);
+                if ("Completed".equals(status)) {
+                    completed.add(code);
+                } else if ("Selected".equals(status)) {
+                    occupiedNames.put(code, rs.getString("course_name"));
+                    occupiedMasks.put(code, ScheduleMask.parse(rs.getString("schedule_time")));
+                }
+            }
+            DBUtils.close(null, pstmt, rs);
+            pstmt = null;
+            rs = null;
+
+            // 3. 逐门校验（与存储过程的检查顺序一致）
+            ScheduleMask occupied = ScheduleMask.EMPTY;
+            for (ScheduleMask mask : occupiedMasks.values()) {
+                occupied = occupied.or(mask);
+            }
+            for (String code : courseCodes) {
+                Object[] row = courseRows.get(code);
+                String prereqName;
+                String message;
+                if (row == null || !"Published".equals(row[3])) {
+                    message = "错误：课程不存在或未开放选课";
+                } else if ((Integer) row[2] >= (Integer) row[1]) {
+                    message = "失败：课程容量已满";
+                } else if ("Selected".equals(existingStatus.get(code))) {
+                    message = "失败：你已选修过该课程";
+                } else if ("Completed".equals(existingStatus.get(code))) {
+                    message = "失败：你已修读完成该课程";
+                } else if ((prereqName = unmetPrerequisite.apply(completed, code)) != null) {
+                    message = "失败：请先修读完成《" + prereqName + "》";
+                } else {
+                    ScheduleMask mask = ScheduleMask.parse((String) row[4]);
+                    String conflictName = null;
+                    if (occupied.intersects(mask)) {
+                        for (Map.Entry<String, ScheduleMask> entry : occupiedMasks.entrySet()) {
+                            if (entry.getValue().intersects(mask)) {
+                                conflictName = occupiedNames.get(entry.getKey());
+                                break;
+                            }
+                        }
+                    }
+                    if (conflictName != null) {
+                        message = "失败：上课时间与已选课程《" + conflictName + "》冲突";
+                    } else {
+                        message = "选课成功";
+                        accepted.add(code);
+                        // 本批次已选中的课程也参与后续课程的冲突检查
+                        occupied = occupied.or(mask);
+                        occupiedMasks.put(code, mask);
+                        occupiedNames.put(code, (String) row[0]);
+                    }
+                }
+                results.put(code, message);
+            }
+
+            // 4. 写入选课记录并更新人数
+            if (allOrNothing && accepted.size() < courseCodes.size()) {
+                conn.rollback();
+            } else if (!accepted.isEmpty()) {
+                pstmt = conn.prepareStatement(insertSql);
+                for (String code : accepted) {
+                    pstmt.setString(1, studentId);
+                    pstmt.setString(2, code);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                DBUtils.close(null, pstmt, null);
+
+                pstmt = conn.prepareStatement(updateSql);
+                for (String code : accepted) {
+                    pstmt.setString(1, code);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                conn.commit();
+            } else {
+                conn.rollback();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    ex.printStackTrace();
+                }
+            }
+            for (String code : courseCodes) {
+                results.put(code, "选课失败：数据库错误：" + e.getMessage());
+            }
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+            DBUtils.close(conn, pstmt, rs);
+        }
+        return results;
+    }
+
+    @Override
+    public DropResult drop(String studentId, String courseCode,
+                           BiFunction<Set<String>, String, String> unmetPrerequisite) {
+        String sql = "UPDATE selection_record SET status = 'Dropped' WHERE student_id = ? AND course_code = ? AND status = 'Selected'";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+
+        try {
+            conn = DBUtils.getConnection();
+            conn.setAutoCommit(false);
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, studentId);
+            pstmt.setString(2, courseCode);
+            int rows = pstmt.executeUpdate();
+            if (rows == 0) {
+                conn.rollback();
+                return new DropResult(false, "退课失败：未找到选课记录", null);
+            }
+
+            // 触发器已释放名额，在同一事务中把名额递补给候补队列队首的学生
+            // （MySQL 触发器不能修改触发它的 selection_record 表，所以转正放在这里完成）
+            String promoted = null;
+            Savepoint savepoint = conn.setSavepoint();
+            try {
+                promoted = promoteHead(conn, courseCode, unmetPrerequisite);
+            } catch (SQLException e) {
+                // 候补转正失败不影响本次退课
+                e.printStackTrace();
+                conn.rollback(savepoint);
+            }
+            conn.commit();
+            return new DropResult(true, "退课成功", promoted);
+        } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    ex.printStackTrace();
+                }
+            }
+            return new DropResult(false, "退课失败：" + e.getMessage(), null);
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+            DBUtils.close(conn, pstmt, null);
+        }
+    }
+
+    @Override
+    public List<Course> findSelectedCourses(String studentId) {
+        List<Course> courses = new ArrayList<>();
+
+        // 查询学生已选且未退课的课程
+        String sql = "SELECT c.*, u.user_name AS teacher_name " +
+                     "FROM course_info c " +
+                     "JOIN user_info u ON c.teacher_id = u.user_id " +
+                     "JOIN selection_record sr ON c.course_code = sr.course_code " +
+                     "WHERE sr.student_id = ? AND sr.status = 'Selected' " +
+                     "AND c.status = 'Published' " +
+                     "ORDER BY c.schedule_time";
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DBUtils.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, studentId);
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                Course course = JdbcCourseRepository.toCourse(rs);
+                course.setCourseType(rs.getString("course_type"));
+                courses.add(course);
+            }
+        } catch (SQLException e) {
+            System.err.println("查询学生已选课程失败: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DBUtils.close(conn, pstmt, rs);
+        }
+        return courses;
+    }
+
+    /**
+     * 一次查询得到；统计口径含已下架课程，列表只包含已发布课程
+     */
+    @Override
+    public StudentDashboard findDashboard(String studentId) {
+        String sql = "SELECT c.*, u.user_name AS teacher_name " +
+                     "FROM selection_record sr " +
+                     "JOIN course_info c ON sr.course_code = c.course_code " +
+                     "JOIN user_info u ON c.teacher_id = u.user_id " +
+                     "WHERE sr.student_id = ? AND sr.status = 'Selected' " +
+                     "ORDER BY c.schedule_time";
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DBUtils.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, studentId);
+            rs = pstmt.executeQuery();
+
+            List<Course> published = new ArrayList<>();
+            int courseCount = 0;
+            double totalCredits = 0;
+            while (rs.next()) {
+                courseCount++;
+                totalCredits += rs.getDouble("credit");
+                if (!"Published".equals(rs.getString("status"))) {
+                    continue;
+                }
+                Course course = JdbcCourseRepository.toCourse(rs);
+                course.setCourseType(rs.getString("course_type"));
+                published.add(course);
+            }
+            return new StudentDashboard(published, courseCount, totalCredits);
+        } catch (SQLException e) {
+            System.err.println("查询学生主界面数据失败: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DBUtils.close(conn, pstmt, rs);
+        }
+        return null;
+    }
+
+    @Override
+    public Map<String, Object> findStats(String studentId) {
+        Map<String, Object> stats = new HashMap<>();
+
+        String sql = "SELECT COUNT(*) as course_count, SUM(c.credit) as total_credits " +
+                    "FROM selection_record sr " +
+                    "JOIN course_info c ON sr.course_code = c.course_code " +
+                    "WHERE sr.student_id = ? AND sr.status = 'Selected'";
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DBUtils.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, studentId);
+            rs = pstmt.executeQuery();
+
+            if (rs.next()) {
+                stats.put("courseCount", rs.getInt("course_count"));
+                stats.put("totalCredits", rs.getDouble("total_credits"));
+            }
+        } catch (SQLException e) {
+            System.err.println("查询学生课程统计失败: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DBUtils.close(conn, pstmt, rs);
+        }
+        return stats;
+    }
+
+    @Override
+    public boolean exists(String studentId, String courseCode) {
+        String sql = "SELECT COUNT(*) FROM selection_record WHERE student_id = ? AND course_code = ?";
+
+        try (Connection conn = DBUtils.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, studentId);
+            pstmt.setString(2, courseCode);
+
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) {
+                return rs.getInt(1) > 0; // 如果计数大于0，表示已经选了
+            }
+        } catch (SQLException e) {
+            System.err.println("检查选课记录失败：" + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    @Override
+    public List<Object[]> findStudents(String courseCode) {
+        List<Object[]> result = new ArrayList<>();
+
+        String sql = "SELECT u.user_id, u.user_name, u.department, sr.selection_time " +
+                    "FROM selection_record sr " +
+                    "JOIN user_info u ON sr.student_id = u.user_id " +
+                    "WHERE sr.course_code = ? AND sr.status = 'Selected' " +
+                    "ORDER BY sr.selection_time DESC";
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DBUtils.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, courseCode);
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                Object[] row = new Object[4];
+                row[0] = rs.getString("user_id");
+                row[1] = rs.getString("user_name");
+                row[2] = rs.getString("department");
+                row[3] = rs.getTimestamp("selection_time");
+                result.add(row);
+            }
+        } catch (SQLException e) {
+            System.err.println("查询选课学生失败: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DBUtils.close(conn, pstmt, rs);
+        }
+        return result;
+    }
+
+    @Override
+    public Set<String> findCompletedCodes(String studentId) {
+        String sql = "SELECT course_code FROM selection_record WHERE student_id = ? AND status = 'Completed'";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DBUtils.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, studentId);
+            rs = pstmt.executeQuery();
+            Set<String> codes = new HashSet<>();
+            while (rs.next()) {
+                codes.add(rs.getString("course_code"));
+            }
+            return codes;
+        } catch (SQLException e) {
+            System.err.println("加载学生已完成课程失败: " + e.getMessage());
+            return null;
+        } finally {
+            DBUtils.close(conn, pstmt, rs);
+        }
+    }
+
+    /**
+     * 候补转正：在调用方的事务中，把队首符合条件的学生转为已选
+     * 由 drop 在退课语句之后调用，与退课一起提交或回滚。
+     * 队首学生若已不满足选课条件（已选、先修课未完成、时间冲突），标记为跳过并继续看下一位。
+     * @param conn 已关闭自动提交的连接
+     * @return 转正的学生学号；没有可转正的学生或课程仍然已满时返回 null
+     */
+    private String promoteHead(Connection conn, String courseCode,
+                               BiFunction<Set<String>, String, String> unmetPrerequisite) throws SQLException {
+        String lockSql = "SELECT capacity_limit, current_selected, status, schedule_time " +
+                "FROM course_info WHERE course_code = ? FOR UPDATE";
+        String queueSql = "SELECT waitlist_id, student_id FROM course_waitlist " +
+                "WHERE course_code = ? AND status = 'Waiting' ORDER BY waitlist_id FOR UPDATE";
+        String markSql = "UPDATE course_waitlist SET status = ?, remark = ? WHERE waitlist_id = ?";
+        String insertSql = "INSERT INTO selection_record (student_id, course_code, status) VALUES (?, ?, 'Selected') " +
+                "ON DUPLICATE KEY UPDATE status = 'Selected', selection_time = CURRENT_TIMESTAMP";
+        String updateSql = "UPDATE course_info SET current_selected = current_selected + 1 WHERE course_code = ?";
+        String logSql = "INSERT INTO operation_log (operator_id, operation_type, operation_content) VALUES (?, ?, ?)";
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            // 1. 锁定课程行（退课触发器刚更新过该行，本事务已持有行锁）
+            pstmt = conn.prepareStatement(lockSql);
+            pstmt.setString(1, courseCode);
+            rs = pstmt.executeQuery();
+            if (!rs.next() || !"Published".equals(rs.getString("status"))
+                    || rs.getInt("current_selected") >= rs.getInt("capacity_limit")) {
+                return null;
+            }
+            ScheduleMask mask = ScheduleMask.parse(rs.getString("schedule_time"));
+            DBUtils.close(null, pstmt, rs);
+
+            // 2. 按入队顺序读取候补学生
+            List<Object[]> queue = new ArrayList<>();
+            pstmt = conn.prepareStatement(queueSql);
+            pstmt.setString(1, courseCode);
+            rs = pstmt.executeQuery();
+            while (rs.next()) {
+                queue.add(new Object[]{rs.getInt("waitlist_id"), rs.getString("student_id")});
+            }
+            DBUtils.close(null, pstmt, rs);
+            pstmt = null;
+            rs = null;
+
+            // 3. 依次检查，第一个符合条件的学生转正
+            for (Object[] entry : queue) {
+                int waitlistId = (Integer) entry[0];
+                String studentId = (String) entry[1];
+                String reason = checkEligibility(conn, studentId, courseCode, mask, unmetPrerequisite);
+
+                pstmt = conn.prepareStatement(markSql);
+                pstmt.setString(1, reason == null ? "Promoted" : "Skipped");
+                pstmt.setString(2, reason);
+                pstmt.setInt(3, waitlistId);
+                pstmt.executeUpdate();
+                DBUtils.close(null, pstmt, null);
+                pstmt = null;
+                if (reason != null) {
+                    continue;
+                }
+
+                pstmt = conn.prepareStatement(insertSql);
+                pstmt.setString(1, studentId);
+                pstmt.setString(2, courseCode);
+                pstmt.executeUpdate();
+                DBUtils.close(null, pstmt, null);
+
+                pstmt = conn.prepareStatement(updateSql);
+                pstmt.setString(1, courseCode);
+                pstmt.executeUpdate();
+                DBUtils.close(null, pstmt, null);
+
+                pstmt = conn.prepareStatement(logSql);
+                pstmt.setString(1, studentId);
+                pstmt.setString(2, "候补转正");
+                pstmt.setString(3, "候补学生自动选上课程:" + courseCode);
+                pstmt.executeUpdate();
+                return studentId;
+            }
+            return null;
+        } finally {
+            DBUtils.close(null, pstmt, rs);
+        }
+    }
+
+    /**
+     * 检查候补学生当前是否仍可选该课程（规则与选课存储过程一致）
+     * @return 不满足条件的原因；满足条件返回 null
+     */
+    private String checkEligibility(Connection conn, String studentId, String courseCode, ScheduleMask mask,
+                                    BiFunction<Set<String>, String, String> unmetPrerequisite) throws SQLException {
+        String recordSql = "SELECT sr.course_code, sr.status, ci.course_name, ci.schedule_time " +
+                "FROM selection_record sr JOIN course_info ci ON sr.course_code = ci.course_code " +
+                "WHERE sr.student_id = ? AND (sr.course_code = ? OR sr.status IN ('Selected', 'Completed'))";
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            String conflictName = null;
+            Set<String> completed = new HashSet<>();
+            pstmt = conn.prepareStatement(recordSql);
+            pstmt.setString(1, studentId);
+            pstmt.setString(2, courseCode);
+            rs = pstmt.executeQuery();
+            while (rs.next()) {
+                String status = rs.getString("status");
+                if (courseCode.equals(rs.getString("course_code"))) {
+                    if ("Selected".equals(status)) {
+                        return "已选修该课程";
+                    }
+                    if ("Completed".equals(status)) {
+                        return "已修读完成该课程";
+                    }
+                } else if ("Completed".equals(status)) {
+                    completed.add(rs.getString("course_code"));
+                } else if (conflictName == null
+                        && ScheduleMask.parse(rs.getString("schedule_time")).intersects(mask)) {
+                    conflictName = rs.getString("course_name");
+                }
+            }
+
+            String prereqName = unmetPrerequisite.apply(completed, courseCode);
+            if (prereqName != null) {
+                return "未修读完成先修课《" + prereqName + "》";
+            }
+            if (conflictName != null) {
+                return "上课时间与已选课程《" + conflictName + "》冲突";
+            }
+            return null;
+        } finally {
+            DBUtils.close(null, pstmt, rs);
+        }
+    }
+}
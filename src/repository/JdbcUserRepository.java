@@ -0,0 +1,226 @@
+package repository;
+
+import model.User;
+import util.DBUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 用户数据访问的 MySQL 实现
+ */
+public class JdbcUserRepository implements UserRepository {
+
+    @Override
+    public User findByAccount(String account) {
+        String sql = "SELECT user_id, user_name, role, contact, department, create_time, password " +
+                     "FROM user_info " +
+                     "WHERE account = ?";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DBUtils.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, account);
+            rs = pstmt.executeQuery();
+
+            if (rs.next()) {
+                User user = new User(rs.getString("user_id"), rs.getString("user_name"), rs.getString("role"));
+                user.setAccount(account);
+                user.setPassword(rs.getString("password"));
+                user.setContact(rs.getString("contact"));
+                user.setDepartment(rs.getString("department"));
+                return user;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            DBUtils.close(conn, pstmt, rs);
+        }
+        return null;
+    }
+
+    @Override
+    public String findPasswordHash(String userId) {
+        String sql = "SELECT password FROM user_info WHERE user_id = ?";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DBUtils.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, userId);
+            rs = pstmt.executeQuery();
+            if (rs.next()) {
+                return rs.getString("password");
+            }
+        } catch (SQLException e) {
+            System.err.println("验证密码失败: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DBUtils.close(conn, pstmt, rs);
+        }
+        return null;
+    }
+
+    @Override
+    public List<User> findByRole(String role) {
+        List<User> users = new ArrayList<>();
+        String sql = "SELECT user_id, user_name, department, contact FROM user_info WHERE role = ?";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DBUtils.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, role);
+            rs = pstmt.executeQuery();
+            while (rs.next()) {
+                User user = new User(rs.getString("user_id"), rs.getString("user_name"), role);
+                user.setDepartment(rs.getString("department"));
+                user.setContact(rs.getString("contact"));
+                users.add(user);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            DBUtils.close(conn, pstmt, rs);
+        }
+        return users;
+    }
+
+    @Override
+    public boolean insert(User user, String account, String passwordHash) {
+        String sql = "INSERT INTO user_info (user_id, user_name, account, password, role, department, contact) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+
+        try {
+            conn = DBUtils.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, user.getUserId());
+            pstmt.setString(2, user.getUserName());
+            pstmt.setString(3, account);
+            pstmt.setString(4, passwordHash);
+            pstmt.setString(5, user.getRole());
+            pstmt.setString(6, user.getDepartment());
+            pstmt.setString(7, user.getContact());
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("添加用户失败: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        } finally {
+            DBUtils.close(conn, pstmt, null);
+        }
+    }
+
+    @Override
+    public boolean updatePassword(String userId, String role, String passwordHash) {
+        String sql = "UPDATE user_info SET password = ? WHERE user_id = ? AND role = ?";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+
+        try {
+            conn = DBUtils.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, passwordHash);
+            pstmt.setString(2, userId);
+            pstmt.setString(3, role);
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("修改密码失败: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        } finally {
+            DBUtils.close(conn, pstmt, null);
+        }
+    }
+
+    @Override
+    public boolean update(User user, String role) {
+        String sql = "UPDATE user_info SET " +
+                     "user_name = ?, department = ? " +
+                     "WHERE user_id = ? AND role = ?";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+
+        try {
+            conn = DBUtils.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, user.getUserName());
+            pstmt.setString(2, user.getDepartment());
+            pstmt.setString(3, user.getUserId());
+            pstmt.setString(4, role);
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        } finally {
+            DBUtils.close(conn, pstmt, null);
+        }
+    }
+
+    @Override
+    public boolean delete(String userId, String role) {
+        String deleteSelectionSql = "DELETE FROM selection_record WHERE student_id = ?";
+        String deleteUserSql = "DELETE FROM user_info WHERE user_id = ? AND role = ?";
+        boolean student = "Student".equals(role);
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+
+        try {
+            conn = DBUtils.getConnection();
+            conn.setAutoCommit(false);
+
+            // 1. 删除学生时先删除选课记录
+            if (student) {
+                pstmt = conn.prepareStatement(deleteSelectionSql);
+                pstmt.setString(1, userId);
+                pstmt.executeUpdate();
+                DBUtils.close(null, pstmt, null);
+            }
+
+            // 2. 再删除用户信息
+            pstmt = conn.prepareStatement(deleteUserSql);
+            pstmt.setString(1, userId);
+            pstmt.setString(2, role);
+            int result = pstmt.executeUpdate();
+
+            conn.commit();
+            return result > 0;
+        } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    ex.printStackTrace();
+                }
+            }
+            if (e.getErrorCode() == 1451) {
+                System.err.println(student ? "删除失败：学生存在关联选课记录" : "删除失败：教师存在关联课程");
+            }
+            e.printStackTrace();
+            return false;
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+            DBUtils.close(conn, pstmt, null);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package repository;
+
+import util.DBUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 课程候补队列数据访问的 MySQL 实现
+ * 同一学生同一课程只能有一条 Waiting 记录，由唯一键 uk_waitlist_waiting 保证。
+ */
+public class JdbcWaitlistRepository implements WaitlistRepository {
+
+    @Override
+    public String join(String studentId, String courseCode) {
+        String courseSql = "SELECT status, capacity_limit, current_selected FROM course_info WHERE course_code = ?";
+        String selectedSql = "SELECT status FROM selection_record WHERE student_id = ? AND course_code = ?";
+        String insertSql = "INSERT INTO course_waitlist (student_id, course_code, status) VALUES (?, ?, 'Waiting')";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DBUtils.getConnection();
+            if (conn == null) {
+                return "加入候补失败：无法连接数据库";
+            }
+
+            // 1. 只有已发布且已满的课程才需要候补
+            pstmt = conn.prepareStatement(courseSql);
+            pstmt.setString(1, courseCode);
+            rs = pstmt.executeQuery();
+            if (!rs.next() || !"Published".equals(rs.getString("status"))) {
+                return "错误：课程不存在或未开放选课";
+            }
+            if (rs.getInt("current_selected") < rs.getInt("capacity_limit")) {
+                return "失败：课程尚有空余名额，请直接选课";
+            }
+            DBUtils.close(null, pstmt, rs);
+
+            // 2. 已选或已修读完成的课程不能候补
+            pstmt = conn.prepareStatement(selectedSql);
+            pstmt.setString(1, studentId);
+            pstmt.setString(2, courseCode);
+            rs = pstmt.executeQuery();
+            if (rs.next()) {
+                String status = rs.getString("status");
+                if ("Selected".equals(status)) {
+                    return "失败：你已选修过该课程";
+                }
+                if ("Completed".equals(status)) {
+                    return "失败：你已修读完成该课程";
+                }
+            }
+            DBUtils.close(null, pstmt, rs);
+            pstmt = null;
+            rs = null;
+
+            // 3. 已在队列中则直接返回当前位置
+            int position = queryPosition(conn, studentId, courseCode);
+            if (position > 0) {
+                return "你已在候补队列中，当前排第 " + position + " 位";
+            }
+
+            // 并发加入时由唯一键 uk_waitlist_waiting 保证只有一条 Waiting 记录
+            pstmt = conn.prepareStatement(insertSql);
+            pstmt.setString(1, studentId);
+            pstmt.setString(2, courseCode);
+            try {
+                pstmt.executeUpdate();
+            } catch (SQLException e) {
+                if (e.getErrorCode() != 1062) {
+                    throw e;
+                }
+                return "你已在候补队列中，当前排第 " + queryPosition(conn, studentId, courseCode) + " 位";
+            }
+            return "已加入候补队列，当前排第 " + queryPosition(conn, studentId, courseCode)
+                    + " 位，有同学退课时将自动为你选上";
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return "加入候补失败：" + e.getMessage();
+        } finally {
+            DBUtils.close(conn, pstmt, rs);
+        }
+    }
+
+    @Override
+    public boolean leave(String studentId, String courseCode) {
+        String sql = "UPDATE course_waitlist SET status = 'Cancelled' " +
+                "WHERE student_id = ? AND course_code = ? AND status = 'Waiting'";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+
+        try {
+            conn = DBUtils.getConnection();
+            if (conn == null) {
+                return false;
+            }
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, studentId);
+            pstmt.setString(2, courseCode);
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        } finally {
+            DBUtils.close(conn, pstmt, null);
+        }
+    }
+
+    @Override
+    public List<Object[]> findByStudent(String studentId) {
+        List<Object[]> result = new ArrayList<>();
+        String sql = "SELECT w.course_code, c.course_name, w.enqueue_time, " +
+                "(SELECT COUNT(*) FROM course_waitlist w2 WHERE w2.course_code = w.course_code " +
+                "AND w2.status = 'Waiting' AND w2.waitlist_id <= w.waitlist_id) AS position " +
+                "FROM course_waitlist w JOIN course_info c ON w.course_code = c.course_code " +
+                "WHERE w.student_id = ? AND w.status = 'Waiting' ORDER BY w.enqueue_time";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DBUtils.getConnection();
+            if (conn == null) {
+                return result;
+            }
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, studentId);
+            rs = pstmt.executeQuery();
+            while (rs.next()) {
+                Object[] row = new Object[4];
+                row[0] = rs.getString("course_code");
+                row[1] = rs.getString("course_name");
+                row[2] = rs.getInt("position");
+                row[3] = rs.getTimestamp("enqueue_time");
+                result.add(row);
+            }
+        } catch (SQLException e) {
+            System.err.println("查询候补课程失败: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DBUtils.close(conn, pstmt, rs);
+        }
+        return result;
+    }
+
+    private int queryPosition(Connection conn, String studentId, String courseCode) throws SQLException {
+        String sql = "SELECT COUNT(*) FROM course_waitlist w " +
+                "JOIN course_waitlist me ON me.course_code = w.course_code " +
+                "WHERE me.student_id = ? AND me.course_code = ? AND me.status = 'Waiting' " +
+                "AND w.status = 'Waiting' AND w.waitlist_id <= me.waitlist_id";
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        try {
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, studentId);
+            pstmt.setString(2, courseCode);
+            rs = pstmt.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        } finally {
+            DBUtils.close(null, pstmt, rs);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package repository;
+
+import model.OperationLog;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * 操作日志数据访问（operation_log 表）
+ */
+public interface LogRepository {
+
+    List<OperationLog> findAll();
+
+    /**
+     * 键集分页查询（按时间倒序），参数含义见 LogService.getOperationLogsPage
+     */
+    List<OperationLog> findPage(String operatorId, String operationType, Timestamp from, Timestamp to,
+                                OperationLog after, int pageSize);
+
+    List<String> findOperationTypes();
+
+    /**
+     * 批量写入日志；sourceId 不为空时同时写入幂等键 (source_id, source_seq)，已存在的记录忽略
+     * @return 是否写入成功
+     */
+    boolean insert(List<OperationLog> logs, String sourceId, List<Long> seqs);
+}
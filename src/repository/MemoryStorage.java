@@ -0,0 +1,1220 @@
+package repository;
+
+import model.Course;
+import model.CourseChanges;
+import model.OperationLog;
+import model.StudentDashboard;
+import model.User;
+import util.ScheduleMask;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+
+/**
+ * 内存存储引擎（压测和本地调试时代替 MySQL）
+ * 各表保存在并发 Map 中，业务语义与数据库一致：
+ *   选课 - 与存储过程 sp_student_select_course 的检查顺序、提示消息相同（状态、容量、重复、先修课、时间冲突）；
+ *   退课 - 与触发器 trg_after_drop_course 相同，已选人数减一并写入"退课"日志。
+ * 加锁顺序固定为"先学生、后课程（多门课程按课程代码顺序）"，相当于存储过程中的 SELECT ... FOR UPDATE：
+ * 同一门课程的选课、退课串行执行，不同课程互不阻塞；查询不加课程锁，读到的是各行最近提交的值。
+ * 与数据库的差别：
+ *   1. 退课后重新选课、已修读完成的课程再次选课，存储过程因唯一键冲突报数据库错误，这里与批量选课一致
+ *      （前者改为重新选上，后者提示已修读完成）；
+ *   2. 退课后的候补转正分两步加锁：先在课程锁下保留名额并取出队首，再按"先学生、后课程"的顺序检查并转正，
+ *      名额在两步之间不会被其他学生选走，但其他学生查询排队位置时已看不到正在处理的队首。
+ * 数据通过各仓库的写方法准备，例如 users().insert、courses().insert + updateStatus、prerequisites().replace，
+ * 历史选课记录（如已修读完成的课程）用 putSelection 写入。
+ */
+public class MemoryStorage {
+
+    // 与 JdbcCourseRepository 一致：增量查询时向前多看的时间
+    private static final long VERSION_OVERLAP_MS = 2000;
+    // 与存储过程一致：先修课递归展开的深度上限
+    private static final int MAX_PREREQ_DEPTH = 16;
+
+    private final ConcurrentHashMap<String, User> users = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, String> accounts = new ConcurrentHashMap<>();
+    private final Object userLock = new Object();
+
+    private final ConcurrentHashMap<String, CourseRow> courses = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, StudentRecords> selections = new ConcurrentHashMap<>();
+    // 课程代码 -> 有选课记录的学生（任意状态），用于按课程查询学生
+    private final ConcurrentHashMap<String, Set<String>> courseStudents = new ConcurrentHashMap<>();
+    private final AtomicInteger recordIds = new AtomicInteger();
+
+    private final ConcurrentHashMap<String, List<String>> prerequisites = new ConcurrentHashMap<>();
+    private final AtomicLong prerequisiteVersion = new AtomicLong();
+
+    private final List<OperationLog> logs = new ArrayList<>();
+    private final Set<String> replayedLogs = new HashSet<>();
+    private int logIds = 0;
+
+    private final List<Object[]> audits = new ArrayList<>();
+
+    // 课程代码 -> 候补队列（按入队顺序），在对应课程行的 lock 下读写
+    private final ConcurrentHashMap<String, List<WaitlistRow>> waitlists = new ConcurrentHashMap<>();
+    private final AtomicInteger waitlistIds = new AtomicInteger();
+
+    // 行版本（微秒时间戳，严格递增），对应 course_info.updated_at
+    private final AtomicLong clock = new AtomicLong();
+
+    private final CourseRepository courseRepository = new Courses();
+    private final SelectionRepository selectionRepository = new Selections();
+    private final PrerequisiteRepository prerequisiteRepository = new Prerequisites();
+    private final UserRepository userRepository = new Users();
+    private final LogRepository logRepository = new Logs();
+    private final AuditRepository auditRepository = new Audits();
+    private final WaitlistRepository waitlistRepository = new Waitlists();
+
+    public CourseRepository courses() { return courseRepository; }
+    public SelectionRepository selections() { return selectionRepository; }
+    public PrerequisiteRepository prerequisites() { return prerequisiteRepository; }
+    public UserRepository users() { return userRepository; }
+    public LogRepository logs() { return logRepository; }
+    public AuditRepository audits() { return auditRepository; }
+    public WaitlistRepository waitlists() { return waitlistRepository; }
+
+    /**
+     * 直接写入一条选课记录（准备历史数据用，与直接 INSERT selection_record 相同，不修改已选人数）
+     * @param status Selected / Dropped / Completed / Failed
+     */
+    public void putSelection(String studentId, String courseCode, String status) {
+        StudentRecords records = recordsOf(studentId);
+        records.lock.lock();
+        try {
+            records.put(courseCode, status);
+        } finally {
+            records.lock.unlock();
+        }
+    }
+
+    private long nextVersion() {
+        long now = System.currentTimeMillis() * 1000;
+        while (true) {
+            long last = clock.get();
+            long next = Math.max(now, last + 1);
+            if (clock.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+
+    private StudentRecords recordsOf(String studentId) {
+        return selections.computeIfAbsent(studentId, StudentRecords::new);
+    }
+
+    private String teacherName(CourseRow row) {
+        User teacher = users.get(row.teacherId);
+        return teacher == null ? null : teacher.getUserName();
+    }
+
+    /**
+     * course_info 的一行；课程基本信息不变，状态、已选人数和行版本在 lock 下修改
+     */
+    private static final class CourseRow {
+        final String code;
+        final String name;
+        final double credit;
+        final int classHour;
+        final String teacherId;
+        final String scheduleTime;
+        final String classroom;
+        final int capacity;
+        final String courseType;
+        final String description;
+        final ScheduleMask mask;
+        final ReentrantLock lock = new ReentrantLock();
+        volatile String status;
+        volatile int selected;
+        volatile long version;
+
+        CourseRow(Course course, String teacherId, long version) {
+            this.code = course.getCourseCode();
+            this.name = course.getCourseName();
+            this.credit = course.getCredit();
+            this.classHour = course.getClassHour();
+            this.teacherId = teacherId;
+            this.scheduleTime = course.getScheduleTime();
+            this.classroom = course.getClassroom();
+            this.capacity = course.getCapacityLimit();
+            this.courseType = course.getCourseType();
+            this.description = course.getDescription();
+            this.mask = ScheduleMask.parse(scheduleTime);
+            this.status = "Pending";
+            this.version = version;
+        }
+
+        /**
+         * 对应 SELECT c.*, u.user_name AS teacher_name（含状态、学时、教室、类型）
+         */
+        Course toCourse(String teacherName) {
+            Course course = new Course(code, name, credit, capacity, selected, teacherName, scheduleTime);
+            course.setStatus(status);
+            course.setClassHour(classHour);
+            course.setClassroom(classroom);
+            course.setCourseType(courseType);
+            return course;
+        }
+    }
+
+    /**
+     * 一个学生的全部选课记录（课程代码 -> 记录），lock 相当于该学生的行锁
+     */
+    private final class StudentRecords {
+        final String studentId;
+        final ReentrantLock lock = new ReentrantLock();
+        final Map<String, SelectionRow> rows = new LinkedHashMap<>();
+
+        StudentRecords(String studentId) {
+            this.studentId = studentId;
+        }
+
+        // 调用方持有 lock
+        void put(String courseCode, String status) {
+            SelectionRow row = rows.get(courseCode);
+            if (row == null) {
+                rows.put(courseCode, new SelectionRow(recordIds.incrementAndGet(), status));
+                courseStudents.computeIfAbsent(courseCode, k -> ConcurrentHashMap.newKeySet()).add(studentId);
+            } else {
+                row.status = status;
+                row.selectionTime = new Timestamp(System.currentTimeMillis());
+            }
+        }
+
+        // 调用方持有 lock
+        String statusOf(String courseCode) {
+            SelectionRow row = rows.get(courseCode);
+            return row == null ? null : row.status;
+        }
+
+        // 在 lock 下复制一份，供查询使用
+        Map<String, SelectionRow> snapshot() {
+            lock.lock();
+            try {
+                Map<String, SelectionRow> copy = new LinkedHashMap<>();
+                for (Map.Entry<String, SelectionRow> entry : rows.entrySet()) {
+                    copy.put(entry.getKey(), entry.getValue().copy());
+                }
+                return copy;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static final class SelectionRow {
+        final int recordId;
+        String status;
+        Timestamp selectionTime;
+
+        SelectionRow(int recordId, String status) {
+            this.recordId = recordId;
+            this.status = status;
+            this.selectionTime = new Timestamp(System.currentTimeMillis());
+        }
+
+        SelectionRow copy() {
+            SelectionRow copy = new SelectionRow(recordId, status);
+            copy.selectionTime = selectionTime;
+            return copy;
+        }
+    }
+
+    /**
+     * course_waitlist 的一行；status、remark 在对应课程行的 lock 下修改
+     */
+    private static final class WaitlistRow {
+        final int waitlistId;
+        final String studentId;
+        final Timestamp enqueueTime = new Timestamp(System.currentTimeMillis());
+        // Waiting / Promoted / Skipped / Cancelled；Promoting 为退课后正在检查的队首
+        String status = "Waiting";
+        String remark;
+
+        WaitlistRow(int waitlistId, String studentId) {
+            this.waitlistId = waitlistId;
+            this.studentId = studentId;
+        }
+    }
+
+    private List<WaitlistRow> waitlistOf(String courseCode) {
+        return waitlists.computeIfAbsent(courseCode, k -> new ArrayList<>());
+    }
+
+    // 调用方持有课程行的 lock；不在队列中返回 0
+    private static int positionOf(List<WaitlistRow> queue, String studentId) {
+        int position = 0;
+        for (WaitlistRow row : queue) {
+            if ("Waiting".equals(row.status)) {
+                position++;
+                if (row.studentId.equals(studentId)) {
+                    return position;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private void appendLog(String operatorId, String operationType, String operationContent) {
+        synchronized (logs) {
+            logs.add(new OperationLog(++logIds, operatorId, operationType, operationContent,
+                    new Timestamp(System.currentTimeMillis())));
+        }
+    }
+
+    // ==================== 课程 ====================
+
+    private final class Courses implements CourseRepository {
+
+        @Override
+        public List<Course> findDetails(List<String> courseCodes) {
+            List<Course> result = new ArrayList<>();
+            for (String code : new LinkedHashSet<>(courseCodes)) {
+                CourseRow row = courses.get(code);
+                String teacherName = row == null ? null : teacherName(row);
+                if (teacherName == null) {
+                    continue;
+                }
+                Course course = row.toCourse(teacherName);
+                course.setDescription(row.description);
+                // 先修课程名称按先修课程代码排序
+                List<String> names = new ArrayList<>();
+                for (String prereq : new TreeSet<>(prerequisites.getOrDefault(code, Collections.emptyList()))) {
+                    CourseRow prereqRow = courses.get(prereq);
+                    if (prereqRow != null) {
+                        names.add(prereqRow.name);
+                    }
+                }
+                if (!names.isEmpty()) {
+                    course.setPrerequisiteNames(names);
+                }
+                result.add(course);
+            }
+            return result;
+        }
+
+        @Override
+        public CourseChanges findChangedSince(long version) {
+            List<Course> changed = new ArrayList<>();
+            long newVersion = version;
+            boolean anyNewer = version <= 0;
+            for (CourseRow row : courses.values()) {
+                String teacherName = teacherName(row);
+                if (teacherName == null) {
+                    continue;
+                }
+                long rowVersion = row.version;
+                if (version <= 0 ? !"Published".equals(row.status)
+                        : rowVersion <= version - VERSION_OVERLAP_MS * 1000) {
+                    continue;
+                }
+                changed.add(row.toCourse(teacherName));
+                if (rowVersion > version) {
+                    anyNewer = true;
+                }
+                newVersion = Math.max(newVersion, rowVersion);
+            }
+            if (!anyNewer) {
+                return new CourseChanges(new ArrayList<>(), version);
+            }
+            return new CourseChanges(changed, newVersion);
+        }
+
+        @Override
+        public List<Course> findPublishedSeats() {
+            List<Course> seats = new ArrayList<>();
+            for (CourseRow row : courses.values()) {
+                if ("Published".equals(row.status)) {
+                    seats.add(new Course(row.code, null, 0, row.capacity, row.selected, null, null));
+                }
+            }
+            return seats;
+        }
+
+        @Override
+        public int[] findSeats(String courseCode) {
+            CourseRow row = courses.get(courseCode);
+            return row == null ? null : new int[]{row.capacity, row.selected};
+        }
+
+        @Override
+        public List<Course> findByTeacher(String teacherId) {
+            List<Course> result = new ArrayList<>();
+            for (CourseRow row : courses.values()) {
+                String teacherName = teacherName(row);
+                if (teacherId.equals(row.teacherId) && teacherName != null) {
+                    result.add(row.toCourse(teacherName));
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public List<Course> findByStatus(String status) {
+            List<Course> result = new ArrayList<>();
+            for (CourseRow row : courses.values()) {
+                String teacherName = teacherName(row);
+                if (status.equals(row.status) && teacherName != null) {
+                    result.add(row.toCourse(teacherName));
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public List<Course> findStatistics() {
+            List<Course> result = new ArrayList<>();
+            for (CourseRow row : courses.values()) {
+                String teacherName = teacherName(row);
+                if ("Published".equals(row.status) && teacherName != null) {
+                    result.add(new Course(row.code, row.name, row.credit, row.capacity, row.selected,
+                            teacherName, row.scheduleTime));
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public boolean insert(Course course, String teacherId) {
+            // 外键：教师必须存在
+            if (course.getCourseCode() == null || !users.containsKey(teacherId)) {
+                return false;
+            }
+            return courses.putIfAbsent(course.getCourseCode(), new CourseRow(course, teacherId, nextVersion())) == null;
+        }
+
+        @Override
+        public boolean updateStatus(String courseCode, String status) {
+            CourseRow row = courses.get(courseCode);
+            if (row == null) {
+                return false;
+            }
+            row.lock.lock();
+            try {
+                row.status = status;
+                row.version = nextVersion();
+            } finally {
+                row.lock.unlock();
+            }
+            return true;
+        }
+
+        /**
+         * 课程写入时已计算位图，没有需要补算的课程
+         */
+        @Override
+        public int backfillScheduleMasks() {
+            return 0;
+        }
+    }
+
+    // ==================== 选课记录 ====================
+
+    private final class Selections implements SelectionRepository {
+
+        @Override
+        public String select(String studentId, String courseCode) {
+            if (!users.containsKey(studentId)) {
+                return "选课失败：数据库错误：学生不存在";
+            }
+            CourseRow course = courses.get(courseCode);
+            if (course == null) {
+                return "错误：课程不存在或未开放选课";
+            }
+            StudentRecords records = recordsOf(studentId);
+            records.lock.lock();
+            course.lock.lock();
+            try {
+                if (!"Published".equals(course.status)) {
+                    return "错误：课程不存在或未开放选课";
+                }
+                if (course.selected >= course.capacity) {
+                    return "失败：课程容量已满";
+                }
+                String existing = records.statusOf(courseCode);
+                if ("Selected".equals(existing)) {
+                    return "失败：你已选修过该课程";
+                }
+                if ("Completed".equals(existing)) {
+                    return "失败：你已修读完成该课程";
+                }
+                String prereqName = deepestUnmetPrerequisite(records, courseCode);
+                if (prereqName != null) {
+                    return "失败：请先修读完成《" + prereqName + "》";
+                }
+                String conflictName = findConflict(records, course);
+                if (conflictName != null) {
+                    return "失败：上课时间与已选课程《" + conflictName + "》冲突";
+                }
+                records.put(courseCode, "Selected");
+                course.selected++;
+                course.version = nextVersion();
+                return "选课成功";
+            } finally {
+                course.lock.unlock();
+                records.lock.unlock();
+            }
+        }
+
+        /**
+         * 与存储过程相同：递归展开先修课（深度不超过 16，不含课程自身），
+         * 返回学生没有"已完成"记录的先修课中最基础（深度最大）的一门
+         */
+        private String deepestUnmetPrerequisite(StudentRecords records, String courseCode) {
+            Map<String, Integer> depth = new LinkedHashMap<>();
+            List<String> level = Collections.singletonList(courseCode);
+            for (int d = 1; d <= MAX_PREREQ_DEPTH && !level.isEmpty(); d++) {
+                List<String> next = new ArrayList<>();
+                for (String code : level) {
+                    for (String prereq : prerequisites.getOrDefault(code, Collections.emptyList())) {
+                        depth.put(prereq, d);
+                        next.add(prereq);
+                    }
+                }
+                level = next;
+            }
+            String deepest = null;
+            int deepestDepth = 0;
+            for (Map.Entry<String, Integer> entry : depth.entrySet()) {
+                String prereq = entry.getKey();
+                CourseRow row = courses.get(prereq);
+                if (prereq.equals(courseCode) || row == null || "Completed".equals(records.statusOf(prereq))) {
+                    continue;
+                }
+                if (entry.getValue() > deepestDepth) {
+                    deepest = row.name;
+                    deepestDepth = entry.getValue();
+                }
+            }
+            return deepest;
+        }
+
+        /**
+         * 与存储过程相同：先按位图（含周次）查找冲突课程，位图未计算时退回到上课时间字符串相等
+         */
+        private String findConflict(StudentRecords records, CourseRow target) {
+            List<CourseRow> selected = new ArrayList<>();
+            for (Map.Entry<String, SelectionRow> entry : records.rows.entrySet()) {
+                CourseRow row = courses.get(entry.getKey());
+                if (row != null && "Selected".equals(entry.getValue().status)) {
+                    selected.add(row);
+                }
+            }
+            if (!target.mask.isEmpty()) {
+                for (CourseRow row : selected) {
+                    if (row.mask.intersects(target.mask)) {
+                        return row.name;
+                    }
+                }
+            }
+            for (CourseRow row : selected) {
+                if ((target.mask.isEmpty() || row.mask.isEmpty())
+                        && row.scheduleTime != null && row.scheduleTime.equals(target.scheduleTime)) {
+                    return row.name;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Map<String, String> selectAll(String studentId, List<String> courseCodes, boolean allOrNothing,
+                                             BiFunction<Set<String>, String, String> unmetPrerequisite) {
+            Map<String, String> results = new LinkedHashMap<>();
+            if (courseCodes.isEmpty()) {
+                return results;
+            }
+            if (!users.containsKey(studentId)) {
+                for (String code : courseCodes) {
+                    results.put(code, "选课失败：数据库错误：学生不存在");
+                }
+                return results;
+            }
+            // 1. 先锁学生，再按课程代码顺序锁定所有待选课程
+            List<CourseRow> locked = new ArrayList<>();
+            for (String code : new TreeSet<>(courseCodes)) {
+                CourseRow row = courses.get(code);
+                if (row != null) {
+                    locked.add(row);
+                }
+            }
+            StudentRecords records = recordsOf(studentId);
+            records.lock.lock();
+            for (CourseRow row : locked) {
+                row.lock.lock();
+            }
+            try {
+                // 2. 学生已有的选课记录
+                Set<String> completed = new HashSet<>();
+                Map<String, String> occupiedNames = new LinkedHashMap<>();
+                Map<String, ScheduleMask> occupiedMasks = new HashMap<>();
+                for (Map.Entry<String, SelectionRow> entry : records.rows.entrySet()) {
+                    CourseRow row = courses.get(entry.getKey());
+                    if ("Completed".equals(entry.getValue().status)) {
+                        completed.add(entry.getKey());
+                    } else if ("Selected".equals(entry.getValue().status) && row != null) {
+                        occupiedNames.put(row.code, row.name);
+                        occupiedMasks.put(row.code, row.mask);
+                    }
+                }
+
+                // 3. 逐门校验（与 JdbcSelectionRepository.selectAll 相同）
+                ScheduleMask occupied = ScheduleMask.EMPTY;
+                for (ScheduleMask mask : occupiedMasks.values()) {
+                    occupied = occupied.or(mask);
+                }
+                List<CourseRow> accepted = new ArrayList<>();
+                for (String code : courseCodes) {
+                    CourseRow row = courses.get(code);
+                    String existing = records.statusOf(code);
+                    String prereqName;
+                    String message;
+                    if (row == null || !"Published".equals(row.status)) {
+                        message = "错误：课程不存在或未开放选课";
+                    } else if (row.selected >= row.capacity) {
+                        message = "失败：课程容量已满";
+                    } else if ("Selected".equals(existing)) {
+                        message = "失败：你已选修过该课程";
+                    } else if ("Completed".equals(existing)) {
+                        message = "失败：你已修读完成该课程";
+                    } else if ((prereqName = unmetPrerequisite.apply(completed, code)) != null) {
+                        message = "失败：请先修读完成《" + prereqName + "》";
+                    } else {
+                        String conflictName = null;
+                        if (occupied.intersects(row.mask)) {
+                            for (Map.Entry<String, ScheduleMask> entry : occupiedMasks.entrySet()) {
+                                if (entry.getValue().intersects(row.mask)) {
+                                    conflictName = occupiedNames.get(entry.getKey());
+                                    break;
+                                }
+                            }
+                        }
+                        if (conflictName != null) {
+                            message = "失败：上课时间与已选课程《" + conflictName + "》冲突";
+                        } else {
+                            message = "选课成功";
+                            accepted.add(row);
+                            occupied = occupied.or(row.mask);
+                            occupiedMasks.put(code, row.mask);
+                            occupiedNames.put(code, row.name);
+                        }
+                    }
+                    results.put(code, message);
+                }
+
+                // 4. 写入选课记录并更新人数（全部成功模式下有失败时不写入）
+                if (!(allOrNothing && accepted.size() < courseCodes.size())) {
+                    for (CourseRow row : accepted) {
+                        records.put(row.code, "Selected");
+                        row.selected++;
+                        row.version = nextVersion();
+                    }
+                }
+                return results;
+            } finally {
+                for (CourseRow row : locked) {
+                    row.lock.unlock();
+                }
+                records.lock.unlock();
+            }
+        }
+
+        @Override
+        public DropResult drop(String studentId, String courseCode,
+                               BiFunction<Set<String>, String, String> unmetPrerequisite) {
+            StudentRecords records = selections.get(studentId);
+            CourseRow course = courses.get(courseCode);
+            if (records == null) {
+                return new DropResult(false, "退课失败：未找到选课记录", null);
+            }
+            boolean reserved = false;
+            records.lock.lock();
+            try {
+                if (!"Selected".equals(records.statusOf(courseCode))) {
+                    return new DropResult(false, "退课失败：未找到选课记录", null);
+                }
+                records.rows.get(courseCode).status = "Dropped";
+                // 触发器 trg_after_drop_course：已选人数减一并记录日志；
+                // 有候补学生时名额先保留，由 promoteHead 转正或释放
+                if (course != null) {
+                    course.lock.lock();
+                    try {
+                        reserved = "Published".equals(course.status) && course.selected - 1 < course.capacity
+                                && waitlistOf(courseCode).stream().anyMatch(row -> "Waiting".equals(row.status));
+                        if (!reserved) {
+                            course.selected--;
+                            course.version = nextVersion();
+                        }
+                    } finally {
+                        course.lock.unlock();
+                    }
+                }
+                appendLog(studentId, "退课", "学生退选课程:" + courseCode);
+            } finally {
+                records.lock.unlock();
+            }
+            String promoted = reserved ? promoteHead(course, unmetPrerequisite) : null;
+            return new DropResult(true, "退课成功", promoted);
+        }
+
+        /**
+         * 把退课保留的名额递补给候补队列中第一个符合条件的学生（规则与 JdbcSelectionRepository.promoteHead 相同），
+         * 没有可转正的学生时释放名额
+         * @return 转正的学生学号；没有可转正的学生时返回 null
+         */
+        private String promoteHead(CourseRow course, BiFunction<Set<String>, String, String> unmetPrerequisite) {
+            while (true) {
+                // 1. 在课程锁下取出队首
+                WaitlistRow head = null;
+                course.lock.lock();
+                try {
+                    if ("Published".equals(course.status)) {
+                        for (WaitlistRow row : waitlistOf(course.code)) {
+                            if ("Waiting".equals(row.status)) {
+                                head = row;
+                                break;
+                            }
+                        }
+                    }
+                    if (head == null) {
+                        course.selected--;
+                        course.version = nextVersion();
+                        return null;
+                    }
+                    head.status = "Promoting";
+                } finally {
+                    course.lock.unlock();
+                }
+
+                // 2. 先学生、后课程加锁，检查并转正
+                StudentRecords records = recordsOf(head.studentId);
+                records.lock.lock();
+                course.lock.lock();
+                try {
+                    String reason = checkEligibility(records, course, unmetPrerequisite);
+                    head.status = reason == null ? "Promoted" : "Skipped";
+                    head.remark = reason;
+                    if (reason == null) {
+                        records.put(course.code, "Selected");
+                        course.version = nextVersion();
+                        appendLog(head.studentId, "候补转正", "候补学生自动选上课程:" + course.code);
+                        return head.studentId;
+                    }
+                } finally {
+                    course.lock.unlock();
+                    records.lock.unlock();
+                }
+            }
+        }
+
+        /**
+         * 候补学生当前是否仍可选该课程（与 JdbcSelectionRepository.checkEligibility 相同）
+         * @return 不满足条件的原因；满足条件返回 null
+         */
+        private String checkEligibility(StudentRecords records, CourseRow course,
+                                        BiFunction<Set<String>, String, String> unmetPrerequisite) {
+            String existing = records.statusOf(course.code);
+            if ("Selected".equals(existing)) {
+                return "已选修该课程";
+            }
+            if ("Completed".equals(existing)) {
+                return "已修读完成该课程";
+            }
+            Set<String> completed = new HashSet<>();
+            String conflictName = null;
+            for (Map.Entry<String, SelectionRow> entry : records.rows.entrySet()) {
+                CourseRow row = courses.get(entry.getKey());
+                if ("Completed".equals(entry.getValue().status)) {
+                    completed.add(entry.getKey());
+                } else if (conflictName == null && "Selected".equals(entry.getValue().status)
+                        && row != null && row.mask.intersects(course.mask)) {
+                    conflictName = row.name;
+                }
+            }
+            String prereqName = unmetPrerequisite.apply(completed, course.code);
+            if (prereqName != null) {
+                return "未修读完成先修课《" + prereqName + "》";
+            }
+            if (conflictName != null) {
+                return "上课时间与已选课程《" + conflictName + "》冲突";
+            }
+            return null;
+        }
+
+        // 学生已选课程的课程行（不论课程状态），按上课时间排序
+        private List<CourseRow> selectedRows(String studentId) {
+            StudentRecords records = selections.get(studentId);
+            List<CourseRow> rows = new ArrayList<>();
+            if (records == null) {
+                return rows;
+            }
+            for (Map.Entry<String, SelectionRow> entry : records.snapshot().entrySet()) {
+                CourseRow row = courses.get(entry.getKey());
+                if (row != null && "Selected".equals(entry.getValue().status)) {
+                    rows.add(row);
+                }
+            }
+            rows.sort(Comparator.comparing(row -> row.scheduleTime, Comparator.nullsFirst(Comparator.naturalOrder())));
+            return rows;
+        }
+
+        @Override
+        public List<Course> findSelectedCourses(String studentId) {
+            List<Course> result = new ArrayList<>();
+            for (CourseRow row : selectedRows(studentId)) {
+                String teacherName = teacherName(row);
+                if ("Published".equals(row.status) && teacherName != null) {
+                    result.add(row.toCourse(teacherName));
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public StudentDashboard findDashboard(String studentId) {
+            List<Course> published = new ArrayList<>();
+            int courseCount = 0;
+            double totalCredits = 0;
+            for (CourseRow row : selectedRows(studentId)) {
+                String teacherName = teacherName(row);
+                if (teacherName == null) {
+                    continue;
+                }
+                courseCount++;
+                totalCredits += row.credit;
+                if ("Published".equals(row.status)) {
+                    published.add(row.toCourse(teacherName));
+                }
+            }
+            return new StudentDashboard(published, courseCount, totalCredits);
+        }
+
+        @Override
+        public Map<String, Object> findStats(String studentId) {
+            int courseCount = 0;
+            double totalCredits = 0;
+            for (CourseRow row : selectedRows(studentId)) {
+                courseCount++;
+                totalCredits += row.credit;
+            }
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("courseCount", courseCount);
+            stats.put("totalCredits", totalCredits);
+            return stats;
+        }
+
+        @Override
+        public boolean exists(String studentId, String courseCode) {
+            StudentRecords records = selections.get(studentId);
+            return records != null && records.snapshot().containsKey(courseCode);
+        }
+
+        @Override
+        public List<Object[]> findStudents(String courseCode) {
+            List<Object[]> result = new ArrayList<>();
+            for (String studentId : courseStudents.getOrDefault(courseCode, Collections.emptySet())) {
+                StudentRecords records = selections.get(studentId);
+                User student = users.get(studentId);
+                SelectionRow row = records == null ? null : records.snapshot().get(courseCode);
+                if (student != null && row != null && "Selected".equals(row.status)) {
+                    result.add(new Object[]{studentId, student.getUserName(), student.getDepartment(),
+                            row.selectionTime});
+                }
+            }
+            result.sort((a, b) -> ((Timestamp) b[3]).compareTo((Timestamp) a[3]));
+            return result;
+        }
+
+        @Override
+        public Set<String> findCompletedCodes(String studentId) {
+            Set<String> codes = new HashSet<>();
+            StudentRecords records = selections.get(studentId);
+            if (records != null) {
+                for (Map.Entry<String, SelectionRow> entry : records.snapshot().entrySet()) {
+                    if ("Completed".equals(entry.getValue().status)) {
+                        codes.add(entry.getKey());
+                    }
+                }
+            }
+            return codes;
+        }
+    }
+
+    // ==================== 先修关系 ====================
+
+    private final class Prerequisites implements PrerequisiteRepository {
+
+        /**
+         * 每次修改先修关系时递增的版本号
+         */
+        @Override
+        public String fingerprint() {
+            return "memory:" + prerequisiteVersion.get();
+        }
+
+        @Override
+        public List<String[]> findAll() {
+            List<String[]> rows = new ArrayList<>();
+            for (String code : new TreeSet<>(prerequisites.keySet())) {
+                for (String prereq : new TreeSet<>(prerequisites.getOrDefault(code, Collections.emptyList()))) {
+                    CourseRow row = courses.get(prereq);
+                    if (row != null) {
+                        rows.add(new String[]{code, prereq, row.name});
+                    }
+                }
+            }
+            return rows;
+        }
+
+        @Override
+        public String replace(String courseCode, List<String> prereqCodes) {
+            // 外键：课程和先修课都必须存在
+            if (!courses.containsKey(courseCode)) {
+                return "先修课设置失败：课程 " + courseCode + " 不存在";
+            }
+            for (String prereq : prereqCodes) {
+                if (!courses.containsKey(prereq)) {
+                    return "先修课设置失败：课程 " + prereq + " 不存在";
+                }
+            }
+            if (prereqCodes.isEmpty()) {
+                prerequisites.remove(courseCode);
+            } else {
+                prerequisites.put(courseCode, List.copyOf(new TreeSet<>(prereqCodes)));
+            }
+            prerequisiteVersion.incrementAndGet();
+            return "先修课设置成功";
+        }
+    }
+
+    // ==================== 用户 ====================
+
+    private final class Users implements UserRepository {
+
+        @Override
+        public User findByAccount(String account) {
+            String userId = accounts.get(account);
+            User user = userId == null ? null : users.get(userId);
+            return user == null ? null : copyOf(user, true);
+        }
+
+        @Override
+        public String findPasswordHash(String userId) {
+            User user = users.get(userId);
+            return user == null ? null : user.getPassword();
+        }
+
+        @Override
+        public List<User> findByRole(String role) {
+            List<User> result = new ArrayList<>();
+            for (User user : users.values()) {
+                if (role.equals(user.getRole())) {
+                    result.add(copyOf(user, false));
+                }
+            }
+            result.sort(Comparator.comparing(User::getUserId));
+            return result;
+        }
+
+        @Override
+        public boolean insert(User user, String account, String passwordHash) {
+            synchronized (userLock) {
+                if (users.containsKey(user.getUserId()) || accounts.containsKey(account)) {
+                    return false;
+                }
+                User stored = copyOf(user, false);
+                stored.setAccount(account);
+                stored.setPassword(passwordHash);
+                users.put(stored.getUserId(), stored);
+                accounts.put(account, stored.getUserId());
+                return true;
+            }
+        }
+
+        @Override
+        public boolean updatePassword(String userId, String role, String passwordHash) {
+            synchronized (userLock) {
+                User user = users.get(userId);
+                if (user == null || !role.equals(user.getRole())) {
+                    return false;
+                }
+                User updated = copyOf(user, true);
+                updated.setPassword(passwordHash);
+                users.put(userId, updated);
+                return true;
+            }
+        }
+
+        @Override
+        public boolean update(User user, String role) {
+            synchronized (userLock) {
+                User stored = users.get(user.getUserId());
+                if (stored == null || !role.equals(stored.getRole())) {
+                    return false;
+                }
+                User updated = copyOf(stored, true);
+                updated.setUserName(user.getUserName());
+                updated.setDepartment(user.getDepartment());
+                users.put(updated.getUserId(), updated);
+                return true;
+            }
+        }
+
+        @Override
+        public boolean delete(String userId, String role) {
+            synchronized (userLock) {
+                User stored = users.get(userId);
+                if (stored == null || !role.equals(stored.getRole())) {
+                    return false;
+                }
+                if ("Teacher".equals(role)) {
+                    for (CourseRow row : courses.values()) {
+                        if (userId.equals(row.teacherId)) {
+                            System.err.println("删除失败：教师存在关联课程");
+                            return false;
+                        }
+                    }
+                }
+                if ("Student".equals(role)) {
+                    // 与数据库一致：直接删除选课记录，不修改已选人数
+                    StudentRecords records = selections.remove(userId);
+                    if (records != null) {
+                        for (String code : records.snapshot().keySet()) {
+                            Set<String> students = courseStudents.get(code);
+                            if (students != null) {
+                                students.remove(userId);
+                            }
+                        }
+                    }
+                }
+                users.remove(userId);
+                accounts.remove(stored.getAccount());
+                return true;
+            }
+        }
+
+        // 存储的用户对象不对外暴露，返回副本
+        private User copyOf(User user, boolean withCredentials) {
+            User copy = new User(user.getUserId(), user.getUserName(), user.getRole());
+            copy.setContact(user.getContact());
+            copy.setDepartment(user.getDepartment());
+            if (withCredentials) {
+                copy.setAccount(user.getAccount());
+                copy.setPassword(user.getPassword());
+            }
+            return copy;
+        }
+    }
+
+    // ==================== 操作日志 ====================
+
+    private final class Logs implements LogRepository {
+
+        // 与数据库的排序一致：时间倒序，同一时间按日志ID倒序
+        private final Comparator<OperationLog> newestFirst = Comparator
+                .comparing(OperationLog::getOperationTime).reversed()
+                .thenComparing(Comparator.comparingInt(OperationLog::getLogId).reversed());
+
+        @Override
+        public List<OperationLog> findAll() {
+            List<OperationLog> result;
+            synchronized (logs) {
+                result = new ArrayList<>(logs);
+            }
+            result.sort(newestFirst);
+            return result;
+        }
+
+        @Override
+        public List<OperationLog> findPage(String operatorId, String operationType, Timestamp from, Timestamp to,
+                                           OperationLog after, int pageSize) {
+            String operator = operatorId == null || operatorId.trim().isEmpty() ? null : operatorId.trim();
+            String type = operationType == null || operationType.trim().isEmpty() ? null : operationType.trim();
+            List<OperationLog> result = new ArrayList<>();
+            for (OperationLog log : findAll()) {
+                if (operator != null && !operator.equals(log.getOperatorId())
+                        || type != null && !type.equals(log.getOperationType())
+                        || from != null && log.getOperationTime().before(from)
+                        || to != null && !log.getOperationTime().before(to)
+                        || after != null && newestFirst.compare(log, after) <= 0) {
+                    continue;
+                }
+                result.add(log);
+                if (result.size() >= pageSize) {
+                    break;
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public List<String> findOperationTypes() {
+            Set<String> types = new TreeSet<>();
+            synchronized (logs) {
+                for (OperationLog log : logs) {
+                    if (log.getOperationType() != null) {
+                        types.add(log.getOperationType());
+                    }
+                }
+            }
+            return new ArrayList<>(types);
+        }
+
+        @Override
+        public boolean insert(List<OperationLog> entries, String sourceId, List<Long> seqs) {
+            synchronized (logs) {
+                for (int i = 0; i < entries.size(); i++) {
+                    // 回放时同一 (sourceId, seq) 只写入一次
+                    if (sourceId != null && !replayedLogs.add(sourceId + ":" + seqs.get(i))) {
+                        continue;
+                    }
+                    OperationLog log = entries.get(i);
+                    Timestamp time = log.getOperationTime() != null
+                            ? log.getOperationTime() : new Timestamp(System.currentTimeMillis());
+                    logs.add(new OperationLog(++logIds, log.getOperatorId(), log.getOperationType(),
+                            log.getOperationContent(), time));
+                }
+            }
+            return true;
+        }
+    }
+
+    // ==================== 审核记录 ====================
+
+    private final class Audits implements AuditRepository {
+
+        @Override
+        public boolean insert(String targetId, String auditType, String result, String opinion, String auditorId) {
+            if (auditorId != null && !users.containsKey(auditorId)) {
+                return false;
+            }
+            synchronized (audits) {
+                audits.add(new Object[]{targetId, auditType, result, opinion, auditorId,
+                        new Timestamp(System.currentTimeMillis())});
+            }
+            return true;
+        }
+
+        @Override
+        public List<Object[]> findByTarget(String targetId) {
+            List<Object[]> result = new ArrayList<>();
+            synchronized (audits) {
+                for (Object[] row : audits) {
+                    if (targetId.equals(row[0])) {
+                        result.add(0, new Object[]{row[1], row[2], row[3], row[4], row[5]});
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+    // ==================== 候补队列 ====================
+
+    private final class Waitlists implements WaitlistRepository {
+
+        @Override
+        public String join(String studentId, String courseCode) {
+            if (!users.containsKey(studentId)) {
+                return "加入候补失败：学生不存在";
+            }
+            CourseRow course = courses.get(courseCode);
+            if (course == null) {
+                return "错误：课程不存在或未开放选课";
+            }
+            StudentRecords records = recordsOf(studentId);
+            records.lock.lock();
+            course.lock.lock();
+            try {
+                // 与 JdbcWaitlistRepository 相同：只有已发布且已满、学生未选也未修读完成的课程可以候补
+                if (!"Published".equals(course.status)) {
+                    return "错误：课程不存在或未开放选课";
+                }
+                if (course.selected < course.capacity) {
+                    return "失败：课程尚有空余名额，请直接选课";
+                }
+                String existing = records.statusOf(courseCode);
+                if ("Selected".equals(existing)) {
+                    return "失败：你已选修过该课程";
+                }
+                if ("Completed".equals(existing)) {
+                    return "失败：你已修读完成该课程";
+                }
+                List<WaitlistRow> queue = waitlistOf(courseCode);
+                int position = positionOf(queue, studentId);
+                if (position > 0) {
+                    return "你已在候补队列中，当前排第 " + position + " 位";
+                }
+                queue.add(new WaitlistRow(waitlistIds.incrementAndGet(), studentId));
+                return "已加入候补队列，当前排第 " + positionOf(queue, studentId)
+                        + " 位，有同学退课时将自动为你选上";
+            } finally {
+                course.lock.unlock();
+                records.lock.unlock();
+            }
+        }
+
+        @Override
+        public boolean leave(String studentId, String courseCode) {
+            CourseRow course = courses.get(courseCode);
+            if (course == null) {
+                return false;
+            }
+            course.lock.lock();
+            try {
+                for (WaitlistRow row : waitlistOf(courseCode)) {
+                    if ("Waiting".equals(row.status) && row.studentId.equals(studentId)) {
+                        row.status = "Cancelled";
+                        return true;
+                    }
+                }
+                return false;
+            } finally {
+                course.lock.unlock();
+            }
+        }
+
+        @Override
+        public List<Object[]> findByStudent(String studentId) {
+            List<Object[]> result = new ArrayList<>();
+            for (String courseCode : waitlists.keySet()) {
+                CourseRow course = courses.get(courseCode);
+                if (course == null) {
+                    continue;
+                }
+                course.lock.lock();
+                try {
+                    List<WaitlistRow> queue = waitlistOf(courseCode);
+                    int position = positionOf(queue, studentId);
+                    if (position == 0) {
+                        continue;
+                    }
+                    for (WaitlistRow row : queue) {
+                        if ("Waiting".equals(row.status) && row.studentId.equals(studentId)) {
+                            result.add(new Object[]{courseCode, course.name, position, row.enqueueTime});
+                            break;
+                        }
+                    }
+                } finally {
+                    course.lock.unlock();
+                }
+            }
+            result.sort(Comparator.comparing(row -> (Timestamp) row[3]));
+            return result;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package repository;
+
+import java.util.List;
+
+/**
+ * 先修关系数据访问（course_prerequisite 表）
+ */
+public interface PrerequisiteRepository {
+
+    /**
+     * 先修关系指纹，任意增删改都会改变指纹
+     * @return 查询失败返回 null
+     */
+    String fingerprint();
+
+    /**
+     * 全部先修关系：[course_code, prereq_code, prereq_name]，按 (course_code, prereq_code) 排序
+     * @return 查询失败返回 null
+     */
+    List<String[]> findAll();
+
+    /**
+     * 整体替换课程的直接先修课
+     * @return 结果消息
+     */
+    String replace(String courseCode, List<String> prereqCodes);
+}
@@ -0,0 +1,75 @@
+package repository;
+
+/**
+ * 当前使用的存储后端（一组仓库）
+ * 启动时由系统属性 storage.backend 决定：
+ *   jdbc   - MySQL（默认）
+ *   memory - 内存存储引擎（见 MemoryStorage），不连接数据库
+ * 压测程序可以在创建任何服务对象之前调用 use(Repositories.memory(storage)) 换成自己准备好数据的内存引擎；
+ * 服务对象在创建时取得当前仓库，之后再切换不影响已创建的对象。
+ */
+public final class Repositories {
+
+    private static volatile Repositories current = create(System.getProperty("storage.backend", "jdbc"));
+
+    private final CourseRepository courses;
+    private final SelectionRepository selections;
+    private final PrerequisiteRepository prerequisites;
+    private final UserRepository users;
+    private final LogRepository logs;
+    private final AuditRepository audits;
+    private final WaitlistRepository waitlists;
+
+    public Repositories(CourseRepository courses, SelectionRepository selections,
+                        PrerequisiteRepository prerequisites, UserRepository users,
+                        LogRepository logs, AuditRepository audits, WaitlistRepository waitlists) {
+        this.courses = courses;
+        this.selections = selections;
+        this.prerequisites = prerequisites;
+        this.users = users;
+        this.logs = logs;
+        this.audits = audits;
+        this.waitlists = waitlists;
+    }
+
+    public static Repositories jdbc() {
+        return new Repositories(new JdbcCourseRepository(), new JdbcSelectionRepository(),
+                new JdbcPrerequisiteRepository(), new JdbcUserRepository(),
+                new JdbcLogRepository(), new JdbcAuditRepository(), new JdbcWaitlistRepository());
+    }
+
+    public static Repositories memory(MemoryStorage storage) {
+        return new Repositories(storage.courses(), storage.selections(), storage.prerequisites(),
+                storage.users(), storage.logs(), storage.audits(), storage.waitlists());
+    }
+
+    private static Repositories create(String backend) {
+        if ("memory".equalsIgnoreCase(backend.trim())) {
+            System.out.println("使用内存存储引擎（数据不会写入数据库）");
+            return memory(new MemoryStorage());
+        }
+        if (!"jdbc".equalsIgnoreCase(backend.trim())) {
+            System.err.println("存储后端 " + backend + " 无效，使用默认值 jdbc");
+        }
+        return jdbc();
+    }
+
+    public static Repositories get() {
+        return current;
+    }
+
+    /**
+     * 切换存储后端（应在创建服务对象之前调用）
+     */
+    public static void use(Repositories repositories) {
+        current = repositories;
+    }
+
+    public CourseRepository courses() { return courses; }
+    public SelectionRepository selections() { return selections; }
+    public PrerequisiteRepository prerequisites() { return prerequisites; }
+    public UserRepository users() { return users; }
+    public LogRepository logs() { return logs; }
+    public AuditRepository audits() { return audits; }
+    public WaitlistRepository waitlists() { return waitlists; }
+}
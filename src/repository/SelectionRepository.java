@@ -0,0 +1,96 @@
+package repository;
+
+import model.Course;
+import model.StudentDashboard;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+/**
+ * 选课记录数据访问（selection_record 表）
+ * 选课、退课的校验和人数维护与存储过程 sp_student_select_course、触发器 trg_after_drop_course 一致。
+ */
+public interface SelectionRepository {
+
+    // 系统繁忙被拒绝时结果消息的前缀（界面据此提示稍后重试）
+    String BUSY_PREFIX = "系统繁忙：";
+
+    /**
+     * 单门选课（存储过程 sp_student_select_course 的语义）
+     * @return 结果消息；成功为"选课成功"
+     */
+    String select(String studentId, String courseCode);
+
+    /**
+     * 批量选课：在一个事务中按课程代码顺序加锁、逐门校验并提交
+     * @param courseCodes 已按课程代码排序、去重的课程
+     * @param allOrNothing true：任意一门失败则全部不提交
+     * @param unmetPrerequisite (学生已完成课程, 课程代码) -> 未完成的先修课名称，全部完成时返回 null
+     * @return 每门课程的结果消息；"选课成功"的课程在 allOrNothing 且有失败时未提交
+     */
+    Map<String, String> selectAll(String studentId, List<String> courseCodes, boolean allOrNothing,
+                                  BiFunction<Set<String>, String, String> unmetPrerequisite);
+
+    /**
+     * 退课（触发器 trg_after_drop_course 的语义：已选人数减一并记录日志），
+     * 随后在同一事务中把名额递补给候补队列中符合条件的学生
+     * @param unmetPrerequisite (学生已完成课程, 课程代码) -> 未完成的先修课名称，全部完成时返回 null；
+     *                          用于检查候补学生是否仍可转正
+     */
+    DropResult drop(String studentId, String courseCode,
+                    BiFunction<Set<String>, String, String> unmetPrerequisite);
+
+    /**
+     * 学生已选的已发布课程（按上课时间排序）
+     */
+    List<Course> findSelectedCourses(String studentId);
+
+    /**
+     * 学生主界面数据
+     * @return 查询失败返回 null
+     */
+    StudentDashboard findDashboard(String studentId);
+
+    /**
+     * 学生已选课程数和总学分（courseCount、totalCredits）
+     */
+    Map<String, Object> findStats(String studentId);
+
+    /**
+     * 是否存在该学生该课程的选课记录（任意状态）
+     */
+    boolean exists(String studentId, String courseCode);
+
+    /**
+     * 课程已选学生：[userId, userName, department, selectionTime]，按选课时间倒序
+     */
+    List<Object[]> findStudents(String courseCode);
+
+    /**
+     * 学生已修读完成的课程代码
+     * @return 查询失败返回 null
+     */
+    Set<String> findCompletedCodes(String studentId);
+
+    /**
+     * 退课结果
+     */
+    final class DropResult {
+        private final boolean dropped;
+        private final String message;
+        private final String promotedStudentId;
+
+        public DropResult(boolean dropped, String message, String promotedStudentId) {
+            this.dropped = dropped;
+            this.message = message;
+            this.promotedStudentId = promotedStudentId;
+        }
+
+        public boolean isDropped() { return dropped; }
+        public String getMessage() { return message; }
+        // 候补转正的学生学号；名额没有被递补时为 null
+        public String getPromotedStudentId() { return promotedStudentId; }
+    }
+}
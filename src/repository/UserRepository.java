@@ -0,0 +1,41 @@
+package repository;
+
+import model.User;
+
+import java.util.List;
+
+/**
+ * 用户数据访问（user_info 表），密码均为 SHA-256 后的十六进制串
+ */
+public interface UserRepository {
+
+    /**
+     * 按账号查询用户，password 字段为数据库中的密码 hash
+     * @return 账号不存在或查询失败返回 null
+     */
+    User findByAccount(String account);
+
+    /**
+     * @return 用户不存在或查询失败返回 null
+     */
+    String findPasswordHash(String userId);
+
+    List<User> findByRole(String role);
+
+    /**
+     * 新增用户，角色取 user.getRole()
+     */
+    boolean insert(User user, String account, String passwordHash);
+
+    boolean updatePassword(String userId, String role, String passwordHash);
+
+    /**
+     * 修改姓名和所属学院
+     */
+    boolean update(User user, String role);
+
+    /**
+     * 删除用户；删除学生时同时删除其选课记录，教师有关联课程时删除失败
+     */
+    boolean delete(String userId, String role);
+}
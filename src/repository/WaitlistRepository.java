@@ -0,0 +1,27 @@
+package repository;
+
+import java.util.List;
+
+/**
+ * 课程候补队列数据访问（course_waitlist 表）
+ * 候补转正在退课事务中完成，见 SelectionRepository.drop。
+ */
+public interface WaitlistRepository {
+
+    /**
+     * 加入课程候补队列：只有已发布且已满的课程可以候补，已选或已修读完成的课程不能候补
+     * @return 结果消息（成功或已在队列中时包含当前排队位置）
+     */
+    String join(String studentId, String courseCode);
+
+    /**
+     * 退出课程候补队列
+     * @return 学生原本在队列中并已退出时返回 true
+     */
+    boolean leave(String studentId, String courseCode);
+
+    /**
+     * 学生正在候补的课程：[courseCode, courseName, position, enqueueTime]，按入队时间排序
+     */
+    List<Object[]> findByStudent(String studentId);
+}
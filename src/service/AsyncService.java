@@ -0,0 +1,79 @@
+package service;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 异步调用服务层（界面线程不再直接访问数据库）
+ * 所有界面的查询和修改都通过 call/run 提交到共享的有界线程池，返回 CompletableFuture；
+ * 界面侧由 view.UiTasks 负责加载提示、窗口关闭时取消、在 EDT 上处理结果。
+ * 运行在 Java 21 及以上时使用虚拟线程，同时执行的任务数仍受 async.maxConcurrency 限制
+ * （默认 8，不宜超过数据库连接池大小）；否则使用同样大小的平台线程池，排队上限 async.maxQueue。
+ */
+public final class AsyncService {
+
+    private static final int MAX_CONCURRENCY = Math.max(1, Integer.getInteger("async.maxConcurrency", 8));
+    private static final int MAX_QUEUE = Math.max(1, Integer.getInteger("async.maxQueue", 500));
+
+    private static final Executor EXECUTOR = createExecutor();
+
+    private AsyncService() {}
+
+    /**
+     * 在后台执行有返回值的服务调用
+     * 任务开始执行前被取消（如窗口已关闭）时不会执行；线程池已满时返回的 future 以 RejectedExecutionException 失败
+     */
+    public static <T> CompletableFuture<T> call(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, EXECUTOR);
+    }
+
+    /**
+     * 在后台执行没有返回值的服务调用
+     */
+    public static CompletableFuture<Void> run(Runnable task) {
+        return CompletableFuture.runAsync(task, EXECUTOR);
+    }
+
+    private static Executor createExecutor() {
+        ExecutorService virtual = newVirtualThreadExecutor();
+        if (virtual != null) {
+            // 虚拟线程本身不限数量，用信号量限制同时访问数据库的任务数
+            Semaphore permits = new Semaphore(MAX_CONCURRENCY, true);
+            return command -> virtual.execute(() -> {
+                permits.acquireUninterruptibly();
+                try {
+                    command.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+        AtomicInteger seq = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(MAX_CONCURRENCY, MAX_CONCURRENCY, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(MAX_QUEUE), r -> {
+                    Thread t = new Thread(r, "service-async-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    // Java 21 的 Executors.newVirtualThreadPerTaskExecutor()，更早的版本返回 null
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
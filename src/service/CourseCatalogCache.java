@@ -0,0 +1,326 @@
+package service;
+
+import model.Course;
+import model.CourseChanges;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+/**
+ * 已发布课程目录缓存（进程内共享）
+ * 1. 课程目录（课程、教师、时间地点等基本不变的信息）按 TTL 缓存，审核/开课时显式失效；
+ *    过期后按 course_info.updated_at 只拉取变化的课程合并到缓存中，没有变化时不传输任何课程
+ * 2. 已选人数单独缓存（查询只涉及 course_info 一张表的两列），TTL 更短，本进程选课/退课时直接增减
+ * 3. 多个线程同时未命中时只有一个线程查询数据库，其余线程等待同一次加载的结果
+ * 4. 目录合并增量时同步更新关键词倒排索引（见 CourseSearchIndex），搜索不再逐门课程比较字符串
+ * 5. 同时维护筛选位图（见 CourseFacetIndex），学分/教师/类型/星期/有余量的任意组合只需几次位运算
+ * 返回给调用方的是课程对象的副本，调用方修改不会影响缓存。
+ */
+public class CourseCatalogCache {
+
+    private static final CourseCatalogCache INSTANCE = new CourseCatalogCache(
+            Long.getLong("catalog.ttlMs", 60_000L),
+            Long.getLong("catalog.seatTtlMs", 5_000L));
+
+    private final long catalogTtlMs;
+    private final long seatTtlMs;
+
+    private final Loader<List<Course>> catalog = new Loader<>();
+    // 当前缓存的目录及其版本号（增量合并的基础），只在 syncLock 下替换
+    private volatile CatalogState state;
+    // 同步目录的锁：失效后新发起的加载可能与旧的加载同时进行，合并增量和更新索引必须串行
+    private final Object syncLock = new Object();
+    private final Loader<Map<String, Integer>> seats = new Loader<>();
+    // 关键词倒排索引，与目录同步更新
+    private final CourseSearchIndex searchIndex = new CourseSearchIndex();
+    // 筛选位图，与目录同步更新
+    private final CourseFacetIndex facetIndex = new CourseFacetIndex();
+
+    CourseCatalogCache(long catalogTtlMs, long seatTtlMs) {
+        this.catalogTtlMs = catalogTtlMs;
+        this.seatTtlMs = seatTtlMs;
+    }
+
+    public static CourseCatalogCache getInstance() {
+        return INSTANCE;
+    }
+
+    private static final class CatalogState {
+        final Map<String, Course> courses;
+        final long version;
+
+        CatalogState(Map<String, Course> courses, long version) {
+            this.courses = courses;
+            this.version = version;
+        }
+    }
+
+    /**
+     * 获取已发布课程（目录 + 已选人数叠加）
+     * @param changesLoader 目录过期时的增量加载方法（参数为当前版本号，0 表示全量）
+     * @param seatLoader 已选人数未命中时的加载方法（课程代码 -> 已选人数）
+     */
+    public List<Course> getPublishedCourses(LongFunction<CourseChanges> changesLoader,
+                                            Supplier<Map<String, Integer>> seatLoader) {
+        List<Course> courses = catalog.get(() -> syncCatalog(changesLoader), catalogTtlMs);
+        if (courses == null) {
+            return new ArrayList<>();
+        }
+        Map<String, Integer> counts = seatCounts(seatLoader);
+        List<Course> result = new ArrayList<>(courses.size());
+        for (Course course : courses) {
+            result.add(withSeats(course, counts));
+        }
+        return result;
+    }
+
+    private Map<String, Integer> seatCounts(Supplier<Map<String, Integer>> seatLoader) {
+        // 已选人数会被 adjustSeats 并发修改，加载后转为 ConcurrentHashMap
+        return seats.get(() -> {
+            Map<String, Integer> loaded = seatLoader.get();
+            return loaded == null ? null : new ConcurrentHashMap<>(loaded);
+        }, seatTtlMs);
+    }
+
+    // 课程副本，叠加最新的已选人数
+    private static Course withSeats(Course course, Map<String, Integer> counts) {
+        Course copy = copyOf(course);
+        Integer selected = counts == null ? null : counts.get(course.getCourseCode());
+        if (selected != null) {
+            copy.setCurrentSelected(selected);
+        }
+        return copy;
+    }
+
+    /**
+     * 按关键词搜索已发布课程（目录过期时先同步增量）
+     * @param field 搜索范围
+     * @return 命中的课程（已叠加已选人数），按相关度排序
+     */
+    public List<Course> searchPublishedCourses(String keyword, CourseSearchIndex.Field field,
+                                               LongFunction<CourseChanges> changesLoader,
+                                               Supplier<Map<String, Integer>> seatLoader) {
+        if (catalog.get(() -> syncCatalog(changesLoader), catalogTtlMs) == null) {
+            return new ArrayList<>();
+        }
+        CatalogState current = state;
+        Map<String, Integer> counts = seatCounts(seatLoader);
+        List<Course> result = new ArrayList<>();
+        // 只复制命中的课程
+        for (String code : searchIndex.search(keyword, field)) {
+            Course course = current.courses.get(code);
+            if (course != null) {
+                result.add(withSeats(course, counts));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按关键词和筛选条件查询已发布课程，同时统计各筛选项取值的课程数
+     * @param keyword 关键词，为空时不按关键词过滤（保持目录顺序）
+     * @param selections 各筛选项选中的取值，没有的筛选项不限制
+     * @param onlyWithSeats 是否只保留有余量的课程
+     * @return 筛选结果；目录加载失败返回 null
+     */
+    public CourseFacetIndex.Result filterPublishedCourses(String keyword, CourseSearchIndex.Field field,
+                                                         Map<CourseFacetIndex.Facet, String> selections,
+                                                         boolean onlyWithSeats,
+                                                         LongFunction<CourseChanges> changesLoader,
+                                                         Supplier<Map<String, Integer>> seatLoader) {
+        if (catalog.get(() -> syncCatalog(changesLoader), catalogTtlMs) == null) {
+            return null;
+        }
+        CatalogState current = state;
+        facetIndex.syncSeats(seatCounts(seatLoader));
+        Collection<String> scope = keyword == null || keyword.trim().isEmpty()
+                ? current.courses.keySet() : searchIndex.search(keyword, field);
+        return facetIndex.query(scope, selections, onlyWithSeats);
+    }
+
+    /**
+     * 按课程代码取已发布课程（已叠加已选人数），用于显示 filterPublishedCourses 的结果
+     */
+    public List<Course> getPublishedCourses(List<String> courseCodes, Supplier<Map<String, Integer>> seatLoader) {
+        CatalogState current = state;
+        List<Course> result = new ArrayList<>(courseCodes.size());
+        if (current == null) {
+            return result;
+        }
+        Map<String, Integer> counts = seatCounts(seatLoader);
+        for (String code : courseCodes) {
+            Course course = current.courses.get(code);
+            if (course != null) {
+                result.add(withSeats(course, counts));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 拉取增量并合并到当前目录
+     * 在 syncLock 下执行：每次都以上一次合并后的目录为基础，较早开始的加载不会用旧结果覆盖较新的目录
+     * @return 合并后的课程列表；加载失败返回 null
+     */
+    private List<Course> syncCatalog(LongFunction<CourseChanges> changesLoader) {
+        synchronized (syncLock) {
+            return mergeChanges(changesLoader);
+        }
+    }
+
+    // 调用方持有 syncLock
+    private List<Course> mergeChanges(LongFunction<CourseChanges> changesLoader) {
+        CatalogState current = state;
+        CourseChanges changes = changesLoader.apply(current == null ? 0 : current.version);
+        if (changes == null) {
+            return null;
+        }
+        // 只有比当前目录更新的结果才替换目录
+        if (current != null && (changes.isEmpty() || changes.getVersion() <= current.version)) {
+            return new ArrayList<>(current.courses.values());
+        }
+        Map<String, Course> merged = current == null ? new LinkedHashMap<>() : new LinkedHashMap<>(current.courses);
+        if (current == null) {
+            searchIndex.clear();
+            facetIndex.clear();
+        }
+        for (Course course : changes.getChangedCourses()) {
+            if ("Published".equals(course.getStatus())) {
+                merged.put(course.getCourseCode(), course);
+                searchIndex.upsert(course);
+                facetIndex.upsert(course);
+            } else {
+                merged.remove(course.getCourseCode());
+                searchIndex.remove(course.getCourseCode());
+                facetIndex.remove(course.getCourseCode());
+            }
+        }
+        state = new CatalogState(merged, changes.getVersion());
+        return new ArrayList<>(merged.values());
+    }
+
+    /**
+     * 课程目录已变化（审核、开课申请、课程信息修改），下次访问时立即拉取增量
+     */
+    public void invalidateCatalog() {
+        catalog.invalidate();
+        seats.invalidate();
+    }
+
+    /**
+     * 本进程选课/退课成功后同步调整已选人数，不必等到下次加载
+     */
+    public void adjustSeats(String courseCode, int delta) {
+        Map<String, Integer> counts = seats.peek();
+        if (counts != null) {
+            Integer selected = counts.computeIfPresent(courseCode, (k, v) -> Math.max(0, v + delta));
+            if (selected != null) {
+                facetIndex.updateSeats(courseCode, selected);
+            }
+        }
+    }
+
+    /**
+     * 使已选人数缓存失效（如批量选课、候补递补后）
+     */
+    public void invalidateSeats() {
+        seats.invalidate();
+    }
+
+    /**
+     * 复制课程对象（缓存中的对象由多个线程共享，交给调用方的总是副本）
+     */
+    static Course copyOf(Course c) {
+        Course copy = new Course(c.getCourseCode(), c.getCourseName(), c.getCredit(), c.getCapacityLimit(),
+                c.getCurrentSelected(), c.getTeacherName(), c.getScheduleTime());
+        copy.setStatus(c.getStatus());
+        copy.setClassHour(c.getClassHour());
+        copy.setClassroom(c.getClassroom());
+        copy.setCourseType(c.getCourseType());
+        copy.setDescription(c.getDescription());
+        copy.setPrerequisiteNames(new ArrayList<>(c.getPrerequisiteNames()));
+        return copy;
+    }
+
+    /**
+     * 带 TTL 的单值缓存，并发未命中时合并为一次加载（single-flight）
+     * 加载方法返回 null 表示加载失败，失败结果不缓存
+     */
+    private static final class Loader<T> {
+        private static final class Entry<T> {
+            final FutureTask<T> task;
+            final long generation;
+            volatile long loadedAt;
+
+            Entry(FutureTask<T> task, long generation) {
+                this.task = task;
+                this.generation = generation;
+            }
+        }
+
+        private final AtomicReference<Entry<T>> current = new AtomicReference<>();
+        private volatile long generation = 0;
+
+        T get(Supplier<T> loader, long ttlMs) {
+            while (true) {
+                Entry<T> entry = current.get();
+                if (entry != null && entry.generation == generation
+                        && (!entry.task.isDone() || System.currentTimeMillis() - entry.loadedAt < ttlMs)) {
+                    T value = await(entry);
+                    if (value == null) {
+                        // 加载失败：清掉这次结果，由下一个调用方重新加载
+                        current.compareAndSet(entry, null);
+                    }
+                    return value;
+                }
+                Entry<T> fresh = new Entry<>(new FutureTask<>(loader::get), generation);
+                if (current.compareAndSet(entry, fresh)) {
+                    fresh.loadedAt = System.currentTimeMillis();
+                    fresh.task.run();
+                    T value = await(fresh);
+                    if (value == null) {
+                        current.compareAndSet(fresh, null);
+                    }
+                    return value;
+                }
+            }
+        }
+
+        private T await(Entry<T> entry) {
+            try {
+                return entry.task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException e) {
+                e.getCause().printStackTrace();
+                return null;
+            }
+        }
+
+        /**
+         * 已加载完成的值（未加载或加载中返回 null）
+         */
+        T peek() {
+            Entry<T> entry = current.get();
+            if (entry == null || !entry.task.isDone()) {
+                return null;
+            }
+            return await(entry);
+        }
+
+        synchronized void invalidate() {
+            generation++;
+            current.set(null);
+        }
+    }
+}
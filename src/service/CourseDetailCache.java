@@ -0,0 +1,101 @@
+package service;
+
+import model.Course;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 课程详情缓存（LRU，进程内共享）
+ * 详情对话框打开前，界面把表格中可见的课程代码交给 prefetch 在后台批量加载，
+ * 打开对话框时通常直接命中缓存。条目有效期较短，保证已选人数不会过旧。
+ */
+class CourseDetailCache {
+
+    private static final CourseDetailCache INSTANCE = new CourseDetailCache(64, 30_000);
+
+    private final int maxSize;
+    private final long ttlMs;
+    private final Map<String, Entry> cache;
+    // 单线程后台预取，队列中的重复请求在执行时会因命中缓存而跳过
+    private final ExecutorService prefetcher = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(16), r -> {
+                Thread t = new Thread(r, "course-detail-prefetch");
+                t.setDaemon(true);
+                return t;
+            }, new ThreadPoolExecutor.DiscardOldestPolicy());
+
+    private static final class Entry {
+        final Course course;
+        final long loadedAt;
+
+        Entry(Course course) {
+            this.course = course;
+            this.loadedAt = System.currentTimeMillis();
+        }
+    }
+
+    CourseDetailCache(int maxSize, long ttlMs) {
+        this.maxSize = maxSize;
+        this.ttlMs = ttlMs;
+        this.cache = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > CourseDetailCache.this.maxSize;
+            }
+        };
+    }
+
+    static CourseDetailCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 取缓存中未过期的课程详情，未命中返回 null
+     */
+    synchronized Course get(String courseCode) {
+        Entry entry = cache.get(courseCode);
+        if (entry == null || System.currentTimeMillis() - entry.loadedAt > ttlMs) {
+            return null;
+        }
+        return entry.course;
+    }
+
+    synchronized void put(Course course) {
+        cache.put(course.getCourseCode(), new Entry(course));
+    }
+
+    synchronized void invalidate(String courseCode) {
+        cache.remove(courseCode);
+    }
+
+    /**
+     * 后台批量加载缓存中没有的课程详情
+     * @param loader 批量加载方法（课程代码列表 -> 课程详情列表）
+     */
+    void prefetch(Collection<String> courseCodes, Function<List<String>, List<Course>> loader) {
+        List<String> codes = new ArrayList<>(courseCodes);
+        prefetcher.execute(() -> {
+            List<String> missing = new ArrayList<>();
+            for (String code : codes) {
+                if (code != null && get(code) == null && !missing.contains(code)) {
+                    missing.add(code);
+                }
+            }
+            if (missing.isEmpty()) {
+                return;
+            }
+            for (Course course : loader.apply(missing)) {
+                put(course);
+            }
+        });
+    }
+}
@@ -0,0 +1,294 @@
+package service;
+
+import model.Course;
+import util.ScheduleMask;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 已发布课程的筛选位图（由 CourseCatalogCache 维护）
+ * 每个筛选项的每个取值对应一个课程编号位图（学分档、教师、课程类型、上课星期），
+ * 另有一个"有余量"位图随已选人数更新。任意筛选组合只需几次 BitSet 与运算，
+ * 各取值的课程数（下拉框中的"王老师 (12)"）也由位图求交后计数得到。
+ */
+public class CourseFacetIndex {
+
+    /**
+     * 筛选项
+     */
+    public enum Facet { CREDIT, TEACHER, TYPE, WEEKDAY }
+
+    public static final String[] WEEKDAYS = {"周一", "周二", "周三", "周四", "周五", "周六", "周日"};
+    private static final String NO_TYPE = "未分类";
+
+    // 课程编号分配（编号回收后重用）
+    private final Map<String, Integer> docIds = new HashMap<>();
+    private final List<String> docCodes = new ArrayList<>();
+    private final List<Map<Facet, List<String>>> docValues = new ArrayList<>();
+    private final List<Integer> docCapacity = new ArrayList<>();
+    private final Deque<Integer> freeIds = new ArrayDeque<>();
+    // 筛选项 -> 取值 -> 课程编号位图
+    private final Map<Facet, Map<String, BitSet>> postings = new EnumMap<>(Facet.class);
+    // 还有余量的课程
+    private final BitSet withSeats = new BitSet();
+    // 当前使用的已选人数（课程代码 -> 已选人数），换了一份才整体重算 withSeats
+    private Map<String, Integer> seatSource;
+
+    /**
+     * 筛选结果：命中的课程代码（保持传入的顺序）和各筛选项取值的课程数
+     */
+    public static final class Result {
+        private final List<String> courseCodes;
+        private final Map<Facet, Map<String, Integer>> counts;
+
+        Result(List<String> courseCodes, Map<Facet, Map<String, Integer>> counts) {
+            this.courseCodes = courseCodes;
+            this.counts = counts;
+        }
+
+        public List<String> getCourseCodes() { return courseCodes; }
+
+        /**
+         * 某筛选项各取值的课程数（按显示顺序）
+         * 计数考虑了关键词和其他筛选项，不考虑该筛选项自身的选择，切换取值时能看到切换后的结果数
+         */
+        public Map<String, Integer> getCounts(Facet facet) { return counts.get(facet); }
+    }
+
+    CourseFacetIndex() {
+        for (Facet facet : Facet.values()) {
+            postings.put(facet, new HashMap<>());
+        }
+    }
+
+    synchronized void upsert(Course course) {
+        String code = course.getCourseCode();
+        Integer id = docIds.get(code);
+        if (id != null) {
+            unindex(id);
+        } else {
+            id = freeIds.isEmpty() ? docCodes.size() : freeIds.pop();
+            if (id == docCodes.size()) {
+                docCodes.add(null);
+                docValues.add(null);
+                docCapacity.add(0);
+            }
+            docIds.put(code, id);
+            docCodes.set(id, code);
+        }
+        Map<Facet, List<String>> values = valuesOf(course);
+        for (Map.Entry<Facet, List<String>> entry : values.entrySet()) {
+            for (String value : entry.getValue()) {
+                postings.get(entry.getKey()).computeIfAbsent(value, k -> new BitSet()).set(id);
+            }
+        }
+        docValues.set(id, values);
+        docCapacity.set(id, course.getCapacityLimit());
+        Integer selected = seatSource == null ? null : seatSource.get(code);
+        withSeats.set(id, course.getCapacityLimit() - (selected != null ? selected : course.getCurrentSelected()) > 0);
+    }
+
+    synchronized void remove(String courseCode) {
+        Integer id = docIds.remove(courseCode);
+        if (id == null) {
+            return;
+        }
+        unindex(id);
+        withSeats.clear(id);
+        docCodes.set(id, null);
+        docValues.set(id, null);
+        freeIds.push(id);
+    }
+
+    synchronized void clear() {
+        docIds.clear();
+        docCodes.clear();
+        docValues.clear();
+        docCapacity.clear();
+        freeIds.clear();
+        withSeats.clear();
+        for (Map<String, BitSet> p : postings.values()) {
+            p.clear();
+        }
+    }
+
+    private void unindex(int id) {
+        for (Map.Entry<Facet, List<String>> entry : docValues.get(id).entrySet()) {
+            Map<String, BitSet> p = postings.get(entry.getKey());
+            for (String value : entry.getValue()) {
+                BitSet bits = p.get(value);
+                if (bits != null) {
+                    bits.clear(id);
+                    if (bits.isEmpty()) {
+                        p.remove(value);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 使用新加载的已选人数；与上次是同一份数据时什么也不做
+     */
+    synchronized void syncSeats(Map<String, Integer> counts) {
+        if (counts == null || counts == seatSource) {
+            return;
+        }
+        seatSource = counts;
+        for (int id = 0; id < docCodes.size(); id++) {
+            if (docCodes.get(id) != null) {
+                Integer selected = counts.get(docCodes.get(id));
+                if (selected != null) {
+                    withSeats.set(id, docCapacity.get(id) - selected > 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * 单门课程已选人数变化（本进程选课/退课）
+     */
+    synchronized void updateSeats(String courseCode, int selected) {
+        Integer id = docIds.get(courseCode);
+        if (id != null) {
+            withSeats.set(id, docCapacity.get(id) - selected > 0);
+        }
+    }
+
+    /**
+     * 在给定课程范围内按筛选条件过滤，并统计各筛选项取值的课程数
+     * @param courseCodes 课程范围（关键词搜索结果或全部课程），结果保持其顺序
+     * @param selections 各筛选项选中的取值，没有的筛选项不限制
+     * @param onlyWithSeats 是否只保留有余量的课程
+     */
+    synchronized Result query(Collection<String> courseCodes, Map<Facet, String> selections, boolean onlyWithSeats) {
+        BitSet scope = new BitSet();
+        for (String code : courseCodes) {
+            Integer id = docIds.get(code);
+            if (id != null) {
+                scope.set(id);
+            }
+        }
+        if (onlyWithSeats) {
+            scope.and(withSeats);
+        }
+
+        Map<Facet, BitSet> selected = new EnumMap<>(Facet.class);
+        for (Map.Entry<Facet, String> entry : selections.entrySet()) {
+            BitSet bits = postings.get(entry.getKey()).get(entry.getValue());
+            selected.put(entry.getKey(), bits != null ? bits : new BitSet());
+        }
+
+        BitSet hits = (BitSet) scope.clone();
+        for (BitSet bits : selected.values()) {
+            hits.and(bits);
+        }
+        List<String> codes = new ArrayList<>(hits.cardinality());
+        for (String code : courseCodes) {
+            Integer id = docIds.get(code);
+            if (id != null && hits.get(id)) {
+                codes.add(code);
+            }
+        }
+
+        Map<Facet, Map<String, Integer>> counts = new EnumMap<>(Facet.class);
+        for (Facet facet : Facet.values()) {
+            // 计数时不考虑该筛选项自身的选择
+            BitSet base = (BitSet) scope.clone();
+            for (Map.Entry<Facet, BitSet> entry : selected.entrySet()) {
+                if (entry.getKey() != facet) {
+                    base.and(entry.getValue());
+                }
+            }
+            counts.put(facet, countValues(facet, base, selections.get(facet)));
+        }
+        return new Result(codes, counts);
+    }
+
+    private Map<String, Integer> countValues(Facet facet, BitSet base, String selectedValue) {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>();
+        for (Map.Entry<String, BitSet> entry : postings.get(facet).entrySet()) {
+            BitSet bits = (BitSet) entry.getValue().clone();
+            bits.and(base);
+            int count = bits.cardinality();
+            // 已选中的取值即使没有课程也保留，避免下拉框的选择被清掉
+            if (count > 0 || entry.getKey().equals(selectedValue)) {
+                entries.add(Map.entry(entry.getKey(), count));
+            }
+        }
+        if (facet == Facet.CREDIT) {
+            entries.sort((a, b) -> Double.compare(creditOrder(a.getKey()), creditOrder(b.getKey())));
+        } else if (facet == Facet.WEEKDAY) {
+            entries.sort((a, b) -> Integer.compare(weekdayOrder(a.getKey()), weekdayOrder(b.getKey())));
+        } else {
+            // 教师、课程类型：课程多的在前
+            entries.sort((a, b) -> a.getValue().equals(b.getValue())
+                    ? a.getKey().compareTo(b.getKey()) : Integer.compare(b.getValue(), a.getValue()));
+        }
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : entries) {
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    private static Map<Facet, List<String>> valuesOf(Course course) {
+        Map<Facet, List<String>> values = new EnumMap<>(Facet.class);
+        values.put(Facet.CREDIT, List.of(creditBucket(course.getCredit())));
+        String teacher = course.getTeacherName();
+        values.put(Facet.TEACHER, teacher == null || teacher.isEmpty() ? List.of() : List.of(teacher));
+        String type = course.getCourseType();
+        values.put(Facet.TYPE, List.of(type == null || type.trim().isEmpty() ? NO_TYPE : type.trim()));
+        List<String> days = new ArrayList<>();
+        ScheduleMask mask = ScheduleMask.parse(course.getScheduleTime());
+        for (int day = 0; day < ScheduleMask.DAYS; day++) {
+            for (int period = 1; period <= ScheduleMask.PERIODS; period++) {
+                if (mask.hasSlot(day, period)) {
+                    days.add(WEEKDAYS[day]);
+                    break;
+                }
+            }
+        }
+        values.put(Facet.WEEKDAY, days);
+        return values;
+    }
+
+    /**
+     * 学分档："1学分"~"4学分"，5 学分及以上为"5学分以上"，非整数学分单独成档（如"2.5学分"）
+     */
+    public static String creditBucket(double credit) {
+        if (credit >= 5.0) {
+            return "5学分以上";
+        }
+        if (credit == Math.floor(credit)) {
+            return (int) credit + "学分";
+        }
+        return credit + "学分";
+    }
+
+    private static double creditOrder(String bucket) {
+        try {
+            return Double.parseDouble(bucket.substring(0, bucket.indexOf("学分")));
+        } catch (RuntimeException e) {
+            return Double.MAX_VALUE;
+        }
+    }
+
+    private static int weekdayOrder(String day) {
+        for (int i = 0; i < WEEKDAYS.length; i++) {
+            if (WEEKDAYS[i].equals(day)) {
+                return i;
+            }
+        }
+        return WEEKDAYS.length;
+    }
+}
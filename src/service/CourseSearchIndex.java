@@ -0,0 +1,393 @@
+package service;
+
+import model.Course;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 已发布课程的关键词倒排索引（由 CourseCatalogCache 维护）
+ * 对课程名称、课程代码、教师姓名分别建立 1/2/3 字 n-gram 倒排表（n-gram -> 课程编号位图），
+ * 查询时取关键词的 n-gram 倒排表求交集得到候选课程，再按匹配方式和字段计算相关度排序。
+ * 中文没有空格分词，按字切分 n-gram 即可支持任意位置的子串匹配。
+ * 目录变化时只更新变化的课程（upsert/remove），不重建整个索引。
+ * 课程名称和教师姓名另外按拼音建索引（拼音来自 PinyinTable），纯字母关键词可以用全拼、首字母
+ * 或二者混合从任意一个字开始前缀匹配，如 "gdsx"、"gaodeng"、"gaodsx" 都能找到"高等数学"。
+ */
+public class CourseSearchIndex {
+
+    /**
+     * 搜索范围（对应界面上的"搜索类型"）
+     */
+    public enum Field { ALL, NAME, CODE, TEACHER }
+
+    private static final int NAME = 0;
+    private static final int CODE = 1;
+    private static final int TEACHER = 2;
+    private static final int FIELD_COUNT = 3;
+    // 字段权重：名称和代码命中比教师命中更相关
+    private static final int[] FIELD_WEIGHT = {3, 3, 2};
+    private static final int MAX_GRAM = 3;
+    // 建拼音索引的字段
+    private static final int[] PINYIN_FIELDS = {NAME, TEACHER};
+
+    // 课程编号 -> 课程代码 / 各字段规范化文本（编号回收后重用，空位为 null）
+    private final List<String> docCodes = new ArrayList<>();
+    private final List<String[]> docTexts = new ArrayList<>();
+    private final Map<String, Integer> docIds = new HashMap<>();
+    private final Deque<Integer> freeIds = new ArrayDeque<>();
+    // 课程编号 -> 各字段每个字的读音（只有 PINYIN_FIELDS 有值，查不到拼音的字为 null）
+    private final List<String[][][]> docPinyin = new ArrayList<>();
+    // 每个字段一张倒排表（按字段序号）
+    private final List<Map<String, BitSet>> postings = new ArrayList<>(FIELD_COUNT);
+    // 拼音倒排表：拼音前缀键（见 pinyinKeys）-> 课程编号位图
+    private final List<Map<String, BitSet>> pinyinPostings = new ArrayList<>(FIELD_COUNT);
+
+    CourseSearchIndex() {
+        for (int f = 0; f < FIELD_COUNT; f++) {
+            postings.add(new HashMap<>());
+            pinyinPostings.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * 新增或更新一门课程（索引字段没有变化时什么也不做）
+     */
+    synchronized void upsert(Course course) {
+        String[] texts = new String[FIELD_COUNT];
+        texts[NAME] = normalize(course.getCourseName());
+        texts[CODE] = normalize(course.getCourseCode());
+        texts[TEACHER] = normalize(course.getTeacherName());
+
+        Integer id = docIds.get(course.getCourseCode());
+        if (id != null) {
+            String[] old = docTexts.get(id);
+            boolean same = true;
+            for (int f = 0; f < FIELD_COUNT && same; f++) {
+                same = old[f].equals(texts[f]);
+            }
+            if (same) {
+                return;
+            }
+            unindex(id, old);
+        } else {
+            id = freeIds.isEmpty() ? docCodes.size() : freeIds.pop();
+            if (id == docCodes.size()) {
+                docCodes.add(null);
+                docTexts.add(null);
+                docPinyin.add(null);
+            }
+            docIds.put(course.getCourseCode(), id);
+            docCodes.set(id, course.getCourseCode());
+        }
+        int docId = id;
+        docTexts.set(docId, texts);
+        for (int f = 0; f < FIELD_COUNT; f++) {
+            for (String gram : grams(texts[f])) {
+                postings.get(f).computeIfAbsent(gram, k -> new BitSet()).set(docId);
+            }
+        }
+        String[][][] pinyin = new String[FIELD_COUNT][][];
+        for (int f : PINYIN_FIELDS) {
+            pinyin[f] = readings(texts[f]);
+            for (String key : pinyinKeys(pinyin[f])) {
+                pinyinPostings.get(f).computeIfAbsent(key, k -> new BitSet()).set(docId);
+            }
+        }
+        docPinyin.set(docId, pinyin);
+    }
+
+    /**
+     * 移除一门课程（已下线或被驳回）
+     */
+    synchronized void remove(String courseCode) {
+        Integer id = docIds.remove(courseCode);
+        if (id == null) {
+            return;
+        }
+        unindex(id, docTexts.get(id));
+        docCodes.set(id, null);
+        docTexts.set(id, null);
+        docPinyin.set(id, null);
+        freeIds.push(id);
+    }
+
+    synchronized void clear() {
+        docCodes.clear();
+        docTexts.clear();
+        docPinyin.clear();
+        docIds.clear();
+        freeIds.clear();
+        for (int f = 0; f < FIELD_COUNT; f++) {
+            postings.get(f).clear();
+            pinyinPostings.get(f).clear();
+        }
+    }
+
+    private void unindex(int id, String[] texts) {
+        for (int f = 0; f < FIELD_COUNT; f++) {
+            for (String gram : grams(texts[f])) {
+                BitSet bits = postings.get(f).get(gram);
+                if (bits != null) {
+                    bits.clear(id);
+                    if (bits.isEmpty()) {
+                        postings.get(f).remove(gram);
+                    }
+                }
+            }
+        }
+        String[][][] pinyin = docPinyin.get(id);
+        for (int f : PINYIN_FIELDS) {
+            for (String key : pinyinKeys(pinyin[f])) {
+                BitSet bits = pinyinPostings.get(f).get(key);
+                if (bits != null) {
+                    bits.clear(id);
+                    if (bits.isEmpty()) {
+                        pinyinPostings.get(f).remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 关键词搜索，多个关键词用空格分隔（须全部命中）
+     * @return 命中的课程代码，按相关度从高到低排序
+     */
+    synchronized List<String> search(String keyword, Field field) {
+        List<String> terms = new ArrayList<>();
+        for (String t : keyword.trim().split("\\s+")) {
+            String term = normalize(t);
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        List<String> result = new ArrayList<>();
+        if (terms.isEmpty()) {
+            return result;
+        }
+
+        int[] fields = fieldsOf(field);
+        BitSet hits = null;
+        int[] scores = new int[docCodes.size()];
+        for (String term : terms) {
+            BitSet termHits = new BitSet();
+            int[] termScores = new int[docCodes.size()];
+            boolean pinyinTerm = isLetters(term);
+            for (int f : fields) {
+                BitSet candidates = candidates(f, term);
+                if (candidates != null) {
+                    for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+                        // 关键词长于 n-gram 时倒排表交集可能误命中，用原文确认
+                        int score = matchScore(docTexts.get(id)[f], term);
+                        if (score > 0) {
+                            termHits.set(id);
+                            termScores[id] = Math.max(termScores[id], score * FIELD_WEIGHT[f]);
+                        }
+                    }
+                }
+                // 纯字母关键词再按拼音匹配，倒排表只按前两个字母筛选，逐个用读音确认
+                BitSet pinyinCandidates = pinyinTerm
+                        ? pinyinPostings.get(f).get(term.substring(0, Math.min(2, term.length()))) : null;
+                if (pinyinCandidates != null) {
+                    for (int id = pinyinCandidates.nextSetBit(0); id >= 0; id = pinyinCandidates.nextSetBit(id + 1)) {
+                        int score = pinyinScore(docPinyin.get(id)[f], term);
+                        if (score > 0) {
+                            termHits.set(id);
+                            termScores[id] = Math.max(termScores[id], score * FIELD_WEIGHT[f]);
+                        }
+                    }
+                }
+            }
+            // 每个关键词取得分最高的字段，多个关键词得分相加
+            for (int id = termHits.nextSetBit(0); id >= 0; id = termHits.nextSetBit(id + 1)) {
+                scores[id] += termScores[id];
+            }
+            if (hits == null) {
+                hits = termHits;
+            } else {
+                hits.and(termHits);
+            }
+            if (hits.isEmpty()) {
+                return result;
+            }
+        }
+
+        List<Integer> ids = new ArrayList<>(hits.cardinality());
+        for (int id = hits.nextSetBit(0); id >= 0; id = hits.nextSetBit(id + 1)) {
+            ids.add(id);
+        }
+        // 相关度高的在前；相同时名称短的在前（更接近关键词），再按课程代码
+        ids.sort((a, b) -> {
+            if (scores[a] != scores[b]) {
+                return Integer.compare(scores[b], scores[a]);
+            }
+            int lenCmp = Integer.compare(docTexts.get(a)[NAME].length(), docTexts.get(b)[NAME].length());
+            return lenCmp != 0 ? lenCmp : docCodes.get(a).compareTo(docCodes.get(b));
+        });
+        for (int id : ids) {
+            result.add(docCodes.get(id));
+        }
+        return result;
+    }
+
+    /**
+     * 关键词在某字段上的候选课程：关键词所有 n-gram 倒排表的交集
+     * @return 候选课程位图（调用方不能修改）；某个 n-gram 不存在时返回 null
+     */
+    private BitSet candidates(int field, String term) {
+        int n = Math.min(term.length(), MAX_GRAM);
+        BitSet result = null;
+        boolean copied = false;
+        for (int i = 0; i + n <= term.length(); i++) {
+            BitSet bits = postings.get(field).get(term.substring(i, i + n));
+            if (bits == null) {
+                return null;
+            }
+            if (result == null) {
+                result = bits;
+            } else {
+                if (!copied) {
+                    result = (BitSet) result.clone();
+                    copied = true;
+                }
+                result.and(bits);
+            }
+        }
+        return result;
+    }
+
+    // 匹配方式得分：完全相同 > 前缀 > 包含；不包含返回 0
+    private static int matchScore(String text, String term) {
+        if (text.equals(term)) {
+            return 10;
+        }
+        if (text.startsWith(term)) {
+            return 6;
+        }
+        return text.contains(term) ? 3 : 0;
+    }
+
+    /**
+     * 拼音匹配得分：从第一个字开始匹配 > 从中间某个字开始匹配；不匹配返回 0
+     * 得分低于同样位置的汉字匹配，拼音毕竟有同音字
+     */
+    private static int pinyinScore(String[][] readings, String term) {
+        for (int i = 0; i < readings.length; i++) {
+            if (matchPinyin(readings, i, term, 0)) {
+                return i == 0 ? 5 : 2;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 从第 i 个字、关键词第 p 个字母开始匹配：每个字可以输入读音的任意前缀（至少一个字母），
+     * 所以全拼、首字母、混合输入（"gaodsx"）和最后一个字只输入一半（"gaodengsh"）都能匹配
+     */
+    private static boolean matchPinyin(String[][] readings, int i, String term, int p) {
+        if (p == term.length()) {
+            return true;
+        }
+        if (i == readings.length || readings[i] == null) {
+            return false;
+        }
+        for (String reading : readings[i]) {
+            int max = Math.min(reading.length(), term.length() - p);
+            for (int k = 1; k <= max && reading.charAt(k - 1) == term.charAt(p + k - 1); k++) {
+                if (matchPinyin(readings, i + 1, term, p + k)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // 文本每个字的读音
+    private static String[][] readings(String text) {
+        String[][] result = new String[text.length()][];
+        for (int i = 0; i < text.length(); i++) {
+            result[i] = PinyinTable.readings(text.charAt(i));
+        }
+        return result;
+    }
+
+    /**
+     * 拼音倒排表的键：任一字读音的首字母、前两个字母，以及该字与下一个字的首字母组合。
+     * 拼音匹配从某个字开始，关键词的前两个字母必然是其中之一
+     */
+    private static Set<String> pinyinKeys(String[][] readings) {
+        Set<String> keys = new HashSet<>();
+        for (int i = 0; i < readings.length; i++) {
+            if (readings[i] == null) {
+                continue;
+            }
+            for (String reading : readings[i]) {
+                keys.add(reading.substring(0, 1));
+                if (reading.length() > 1) {
+                    keys.add(reading.substring(0, 2));
+                }
+                if (i + 1 < readings.length && readings[i + 1] != null) {
+                    for (String next : readings[i + 1]) {
+                        keys.add(reading.charAt(0) + next.substring(0, 1));
+                    }
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static boolean isLetters(String term) {
+        for (int i = 0; i < term.length(); i++) {
+            char c = term.charAt(i);
+            if (c < 'a' || c > 'z') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] fieldsOf(Field field) {
+        switch (field) {
+            case NAME:
+                return new int[]{NAME};
+            case CODE:
+                return new int[]{CODE};
+            case TEACHER:
+                return new int[]{TEACHER};
+            default:
+                return new int[]{NAME, CODE, TEACHER};
+        }
+    }
+
+    // 文本的所有 1~3 字 n-gram（去重）
+    private static List<String> grams(String text) {
+        List<String> result = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (int n = 1; n <= MAX_GRAM; n++) {
+            for (int i = 0; i + n <= text.length(); i++) {
+                String gram = text.substring(i, i + n);
+                if (seen.add(gram)) {
+                    result.add(gram);
+                }
+            }
+        }
+        return result;
+    }
+
+    // 统一小写并去掉空白，使 "Java 程序设计" 与 "java程序设计" 等价
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.toLowerCase(Locale.ROOT).replaceAll("\\s+", "");
+    }
+}
@@ -1,61 +1,151 @@
 package service;
 
 import model.Course;
+import model.CourseChanges;
+import model.StudentDashboard;
 import model.User;
-import util.DBUtils;
-import java.sql.*;
+import repository.CourseRepository;
+import repository.PrerequisiteRepository;
+import repository.Repositories;
+import repository.SelectionRepository;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeSet;
 
 public class CourseService {
 
+    // 数据访问（MySQL 或内存存储引擎，见 Repositories）
+    private final CourseRepository courseRepository = Repositories.get().courses();
+    private final SelectionRepository selectionRepository = Repositories.get().selections();
+    private final PrerequisiteRepository prerequisiteRepository = Repositories.get().prerequisites();
+    // 进程内名额预占引擎（所有 CourseService 实例共享）
+    private final SeatReservationEngine seatEngine = SeatReservationEngine.getInstance();
+    // 选课请求调度器（准入控制与排队）
+    private final SelectionScheduler scheduler = SelectionScheduler.getInstance();
+    // 先修关系图（内存中判断先修课，包括间接先修课）
+    private final PrerequisiteGraph prerequisiteGraph = PrerequisiteGraph.getInstance();
+    // 已发布课程目录缓存（所有 CourseService 实例共享）
+    private final CourseCatalogCache catalogCache = CourseCatalogCache.getInstance();
+    // 课程详情缓存（详情对话框使用，所有 CourseService 实例共享）
+    private final CourseDetailCache detailCache = CourseDetailCache.getInstance();
+
     /**
      * 查询所有已发布的课程及其教师名称
+     * 课程目录和已选人数分别缓存（见 CourseCatalogCache），多数调用不访问数据库
      */
 
     public List<Course> getPublishedCourses() {
-        List<Course> courses = new ArrayList<>();
-        Connection conn = null;
-        Statement stmt = null;
-        ResultSet rs = null;
+        return catalogCache.getPublishedCourses(this::getCourseChangesSince, this::loadSeatCounts);
+    }
 
-        // 使用 JOIN user_info 表获取教师姓名
-        String sql = "SELECT c.*, u.user_name AS teacher_name " +
-                "FROM course_info c " +
-                "JOIN user_info u ON c.teacher_id = u.user_id " +
-                "WHERE c.status = 'Published'";
+    /**
+     * 立即与数据库同步课程目录（只拉取变化的课程）后返回已发布课程，用于"刷新"按钮
+     */
+    public List<Course> refreshPublishedCourses() {
+        catalogCache.invalidateCatalog();
+        return getPublishedCourses();
+    }
 
-        try {
-            conn = DBUtils.getConnection();
-            stmt = conn.createStatement();
-            rs = stmt.executeQuery(sql);
-
-            while (rs.next()) {
-                Course course = new Course(
-                        rs.getString("course_code"),
-                        rs.getString("course_name"),
-                        rs.getDouble("credit"),
-                        rs.getInt("capacity_limit"),
-                        rs.getInt("current_selected"),
-                        rs.getString("teacher_name"), // 对应 JOIN 后的别名
-                        rs.getString("schedule_time")
-                );
-                // 确保 Course Model 有这些 Setter
-                course.setStatus(rs.getString("status"));
-                course.setClassHour(rs.getInt("class_hour"));
-                course.setClassroom(rs.getString("classroom"));
-
-                courses.add(course);
+    /**
+     * 按关键词搜索已发布课程（倒排索引，见 CourseSearchIndex）
+     * @param keyword 关键词，多个关键词用空格分隔
+     * @param field 搜索范围（全部/课程名称/课程代码/授课教师）
+     * @return 命中的课程，按相关度排序
+     */
+    public List<Course> searchPublishedCourses(String keyword, CourseSearchIndex.Field field) {
+        return catalogCache.searchPublishedCourses(keyword, field, this::getCourseChangesSince, this::loadSeatCounts);
+    }
+
+    /**
+     * 按关键词和筛选条件（学分/教师/类型/星期/有余量）查询已发布课程，并统计各筛选项取值的课程数
+     * @param keyword 关键词，为空时不按关键词过滤
+     * @param selections 各筛选项选中的取值，没有的筛选项不限制
+     * @return 筛选结果（命中课程代码 + 取值计数）；查询失败返回 null
+     */
+    public CourseFacetIndex.Result filterPublishedCourses(String keyword, CourseSearchIndex.Field field,
+                                                         Map<CourseFacetIndex.Facet, String> selections,
+                                                         boolean onlyWithSeats) {
+        return catalogCache.filterPublishedCourses(keyword, field, selections, onlyWithSeats,
+                this::getCourseChangesSince, this::loadSeatCounts);
+    }
+
+    /**
+     * 按课程代码取已发布课程（保持传入顺序，已叠加已选人数）
+     */
+    public List<Course> getPublishedCourses(List<String> courseCodes) {
+        return catalogCache.getPublishedCourses(courseCodes, this::loadSeatCounts);
+    }
+
+    /**
+     * 查询课程详情（课程信息、教师、先修课程、简介、已选人数）
+     * 优先使用缓存（通常已由 prefetchCourseDetails 在后台加载），未命中时一次查询得到全部信息
+     * @return 课程详情；课程不存在或查询失败返回 null
+     */
+    public Course getCourseDetail(String courseCode) {
+        Course course = detailCache.get(courseCode);
+        if (course == null) {
+            List<Course> loaded = courseRepository.findDetails(Collections.singletonList(courseCode));
+            if (loaded.isEmpty()) {
+                return null;
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        } finally {
-            // 【修正：补全资源关闭】
-            DBUtils.close(conn, stmt, rs);
+            course = loaded.get(0);
+            detailCache.put(course);
+        }
+        // 缓存中的已选人数可能略旧，在副本上用名额引擎中的实时计数覆盖（缓存对象由多个线程共享，不能修改）
+        Course copy = CourseCatalogCache.copyOf(course);
+        int selected = seatEngine.getSelectedCount(courseCode);
+        if (selected >= 0) {
+            copy.setCurrentSelected(selected);
+        }
+        return copy;
+    }
+
+    /**
+     * 在后台预先加载一批课程的详情（如表格中当前可见的行），不阻塞调用线程
+     */
+    public void prefetchCourseDetails(List<String> courseCodes) {
+        if (courseCodes == null || courseCodes.isEmpty()) {
+            return;
         }
-        return courses;
+        detailCache.prefetch(courseCodes, courseRepository::findDetails);
+    }
+
+    /**
+     * 查询某个版本之后有变化的课程（course_info.updated_at 晚于该版本）
+     * 包括已选人数变化、状态变化（下线的课程也会返回，状态不是 Published）。
+     * 为避免漏掉提交较晚的事务，实际查询会向前多看一小段时间（见 JdbcCourseRepository），客户端按课程代码合并即可。
+     * @param version 上次得到的版本号；0 表示首次加载，返回全部已发布课程
+     * @return 变化的课程和新版本号；没有任何变化时课程列表为空；查询失败返回 null
+     */
+    public CourseChanges getCourseChangesSince(long version) {
+        CourseChanges changes = courseRepository.findChangedSince(version);
+        if (changes != null && !changes.isEmpty()) {
+            // 顺便刷新名额计数器，无需额外查询
+            seatEngine.seed(changes.getChangedCourses());
+        }
+        return changes;
+    }
+
+    /**
+     * 加载已发布课程的已选人数（只查 course_info 两列，比目录查询轻得多）
+     * @return 课程代码 -> 已选人数；查询失败返回 null
+     */
+    private Map<String, Integer> loadSeatCounts() {
+        List<Course> seats = courseRepository.findPublishedSeats();
+        if (seats == null) {
+            return null;
+        }
+        Map<String, Integer> counts = new HashMap<>();
+        for (Course seat : seats) {
+            counts.put(seat.getCourseCode(), seat.getCurrentSelected());
+        }
+        // 已选人数来自数据库，同步刷新名额计数器
+        seatEngine.seed(seats);
+        return counts;
     }
 
     /**
@@ -65,85 +155,154 @@ public class CourseService {
      * @return 选课结果消息（包含成功、容量满、先修课冲突、时间冲突的详细信息）
      */
     public String selectCourse(String studentId, String courseCode) {
-        // 调用存储过程的 SQL 模板，存储过程有两个输入参数，一个输出参数
-        String sql = "{CALL sp_student_select_course(?, ?, ?)}";
-        Connection conn = null;
-        CallableStatement cstmt = null; // 使用 CallableStatement
-        String message = "选课失败：系统异常"; // 默认错误信息
-
-        try {
-            conn = DBUtils.getConnection();
-            cstmt = conn.prepareCall(sql);
-
-            // 1. 绑定输入参数 (IN parameters)
-            cstmt.setString(1, studentId);   // p_student_id
-            cstmt.setString(2, courseCode);  // p_course_code
-
-            // 2. 注册输出参数 (OUT parameter)
-            // 存储过程中的 p_message 是 VARCHAR(100)
-            cstmt.registerOutParameter(3, java.sql.Types.VARCHAR); 
+        return selectCourse(studentId, courseCode, null);
+    }
 
-            // 3. 执行存储过程
-            cstmt.execute();
+    /**
+     * 学生选课操作（经调度器排队执行）
+     * @param positionListener 排队位置回调，可为 null
+     * @return 选课结果消息；系统繁忙被拒绝时以 SelectionRepository.BUSY_PREFIX 开头
+     */
+    public String selectCourse(String studentId, String courseCode, java.util.function.IntConsumer positionListener) {
+        // 先修课未完成的请求在内存中直接拒绝，不进入排队和存储过程
+        String unmetPrereq = prerequisiteGraph.findUnmetPrerequisite(studentId, courseCode);
+        if (unmetPrereq != null) {
+            return "失败：请先修读完成《" + unmetPrereq + "》";
+        }
+        // 已满的课程无需排队，直接拒绝
+        if (seatEngine.isFull(courseCode)) {
+            if (!seatEngine.tryReserve(courseCode)) {
+                return "失败：课程容量已满";
+            }
+            // 对账后发现有空位：归还探测时占用的名额，交给排队流程重新预占
+            seatEngine.release(courseCode);
+        }
+        return scheduler.submit(courseCode, () -> doSelectCourse(studentId, courseCode), positionListener);
+    }
 
-            // 4. 获取输出参数的值
-            message = cstmt.getString(3); // p_message
+    private String doSelectCourse(String studentId, String courseCode) {
+        // 0. 先在内存中预占名额，已满的课程直接拒绝，不再访问数据库
+        if (!seatEngine.tryReserve(courseCode)) {
+            return "失败：课程容量已满";
+        }
 
-        } catch (SQLException e) {
-            e.printStackTrace();
-            message = "选课失败：数据库错误：" + e.getMessage();
+        String message = null;
+        boolean selected = false;
+        try {
+            // 1. 执行选课（存储过程 sp_student_select_course）
+            message = selectionRepository.select(studentId, courseCode);
+            selected = message != null && message.contains("成功");
         } finally {
-            DBUtils.close(conn, cstmt, null); // 关闭资源
+            // 2. 根据存储过程结果回写名额计数器；出现异常时同样归还预占的名额
+            if (selected) {
+                catalogCache.adjustSeats(courseCode, 1);
+            } else {
+                seatEngine.release(courseCode);
+                if (message != null && message.contains("容量已满")) {
+                    // 数据库判定已满，说明内存计数落后，与数据库对账
+                    seatEngine.reconcile(courseCode);
+                }
+            }
         }
-
         return message;
     }
+
     /**
-     * 根据教师ID查询该教师开设的所有课程
+     * 批量选课：在同一个事务中校验并提交多门课程
+     * 校验规则与存储过程 sp_student_select_course 一致（状态、容量、重复、先修课、时间冲突），
+     * 同一批次内的课程之间也会做时间冲突检查。
+     * @param studentId 学生ID
+     * @param courseCodes 课程代码列表
+     * @param allOrNothing true：任意一门失败则全部不提交；false：尽量提交能选上的课程
+     * @return 每门课程的选课结果消息（按传入顺序）
      */
-    public List<Course> getCoursesByTeacher(String teacherId) {
-        List<Course> courses = new ArrayList<>();
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
+    public Map<String, String> selectCourses(String studentId, List<String> courseCodes, boolean allOrNothing) {
+        // 批量请求只受全局并发限制；被拒绝时所有课程返回同一条繁忙提示
+        return scheduler.submit(null, () -> doSelectCourses(studentId, courseCodes, allOrNothing), null,
+                message -> {
+                    Map<String, String> rejected = new LinkedHashMap<>();
+                    for (String code : courseCodes) {
+                        rejected.put(code, message);
+                    }
+                    return rejected;
+                });
+    }
 
-        // 【修正：使用 JOIN 获取教师姓名，保证 Course 构造完整性】
-        String sql = "SELECT c.*, u.user_name AS teacher_name " +
-                "FROM course_info c " +
-                "JOIN user_info u ON c.teacher_id = u.user_id " +
-                "WHERE c.teacher_id = ?";
+    private Map<String, String> doSelectCourses(String studentId, List<String> courseCodes, boolean allOrNothing) {
+        Map<String, String> results = new LinkedHashMap<>();
+        for (String code : courseCodes) {
+            results.put(code, null);
+        }
+        if (results.isEmpty()) {
+            return results;
+        }
 
+        // 0. 内存预占名额，已满的课程直接判定失败
+        List<String> reserved = new ArrayList<>();
+        for (String code : results.keySet()) {
+            if (seatEngine.tryReserve(code)) {
+                reserved.add(code);
+            } else {
+                results.put(code, "失败：课程容量已满");
+            }
+        }
+        if (allOrNothing && reserved.size() < results.size()) {
+            for (String code : reserved) {
+                seatEngine.release(code);
+            }
+            return fillNotSubmitted(results);
+        }
+
+        List<String> accepted = new ArrayList<>();
         try {
-            conn = DBUtils.getConnection();
-            pstmt = conn.prepareStatement(sql);
-            pstmt.setString(1, teacherId);
-            rs = pstmt.executeQuery();
-
-            while (rs.next()) {
-                Course course = new Course(
-                        rs.getString("course_code"),
-                        rs.getString("course_name"),
-                        rs.getDouble("credit"),
-                        rs.getInt("capacity_limit"),
-                        rs.getInt("current_selected"),
-                        rs.getString("teacher_name"), // 从 JOIN 结果中获取教师姓名
-                        rs.getString("schedule_time")
-                );
-                // 必须使用 Setter 补全 TeacherMainFrame 需要的状态等信息
-                course.setStatus(rs.getString("status"));
-                course.setClassHour(rs.getInt("class_hour"));
-                course.setClassroom(rs.getString("classroom"));
-                course.setCourseType(rs.getString("course_type"));
-
-                courses.add(course);
+            // 1. 按课程代码排序后加锁，保证并发批量选课时加锁顺序一致，避免死锁；
+            //    先修课由内存中的先修关系图判断（包括间接先修课）
+            List<String> lockOrder = new ArrayList<>(new TreeSet<>(reserved));
+            Map<String, String> checked = selectionRepository.selectAll(studentId, lockOrder, allOrNothing,
+                    prerequisiteGraph::findUnmetPrerequisite);
+            results.putAll(checked);
+            for (Map.Entry<String, String> entry : checked.entrySet()) {
+                if ("选课成功".equals(entry.getValue())) {
+                    accepted.add(entry.getKey());
+                }
+            }
+            if (allOrNothing && accepted.size() < lockOrder.size()) {
+                // 整体回滚，没有课程被提交
+                accepted.clear();
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         } finally {
-            // 【修正：补全资源关闭】
-            DBUtils.close(conn, pstmt, rs);
+            // 2. 未能提交的课程（包括出现异常时）释放预占名额，已提交的课程同步目录缓存中的已选人数
+            for (String code : reserved) {
+                if (!accepted.contains(code)) {
+                    seatEngine.release(code);
+                } else {
+                    catalogCache.adjustSeats(code, 1);
+                }
+            }
+        }
+        if (allOrNothing && accepted.isEmpty()) {
+            fillNotSubmitted(results);
+        }
+        return results;
+    }
+
+    /**
+     * 全部成功模式下整体回滚时，把原本可以选上的课程标记为未提交
+     */
+    private Map<String, String> fillNotSubmitted(Map<String, String> results) {
+        for (Map.Entry<String, String> entry : results.entrySet()) {
+            if (entry.getValue() == null || entry.getValue().contains("成功")) {
+                entry.setValue("未提交：同批次其他课程选课失败");
+            }
         }
-        return courses;
+        return results;
+    }
+
+    /**
+     * 根据教师ID查询该教师开设的所有课程
+     */
+    public List<Course> getCoursesByTeacher(String teacherId) {
+        return courseRepository.findByTeacher(teacherId);
     }
 
     /**
@@ -153,39 +312,12 @@ public class CourseService {
      * @return 成功返回 true，失败返回 false
      */
     public boolean applyForNewCourse(Course course, String teacherId) {
-        String sql = "INSERT INTO course_info " +
-                "(course_code, course_name, credit, class_hour, teacher_id, schedule_time, classroom, capacity_limit, course_type, status, description) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 'Pending', ?)";
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-
-        try {
-            conn = DBUtils.getConnection();
-            pstmt = conn.prepareStatement(sql);
-
-            // 绑定参数
-            pstmt.setString(1, course.getCourseCode());
-            pstmt.setString(2, course.getCourseName());
-            pstmt.setDouble(3, course.getCredit());
-            pstmt.setInt(4, course.getClassHour());
-            pstmt.setString(5, teacherId); // 绑定当前教师工号
-            pstmt.setString(6, course.getScheduleTime());
-            pstmt.setString(7, course.getClassroom());
-            pstmt.setInt(8, course.getCapacityLimit());
-            pstmt.setString(9, course.getCourseType());
-            pstmt.setString(10, course.getDescription());
-
-            return pstmt.executeUpdate() > 0;
-        } catch (SQLException e) {
-            System.err.println("教师申请开课异常：" + e.getMessage());
-            e.printStackTrace();
-            return false;
-        } finally {
-            // 【修正：补全资源关闭】
-            DBUtils.close(conn, pstmt, null);
+        boolean inserted = courseRepository.insert(course, teacherId);
+        if (inserted) {
+            catalogCache.invalidateCatalog();
         }
+        return inserted;
     }
-    // 延续 package service; 中的 CourseService.java 类
 
     /**
      * 教务管理员审核课程申请
@@ -197,314 +329,117 @@ public class CourseService {
         // newStatus 应该对应数据库 ENUM 中的 'Published' 或 'Rejected'
         String statusToSet = "Published".equals(newStatus) ? "Published" : "Rejected";
 
-        String sql = "UPDATE course_info SET status = ? WHERE course_code = ?";
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-
-        try {
-            conn = DBUtils.getConnection();
-            pstmt = conn.prepareStatement(sql);
-            pstmt.setString(1, statusToSet);
-            pstmt.setString(2, courseCode);
-
-            return pstmt.executeUpdate() > 0;
-        } catch (SQLException e) {
-            System.err.println("课程审核操作异常：" + e.getMessage());
-            e.printStackTrace();
-            return false;
-        } finally {
-            DBUtils.close(conn, pstmt, null); // 确保关闭
+        boolean updated = courseRepository.updateStatus(courseCode, statusToSet);
+        if (updated) {
+            // 课程状态变化后重新从数据库加载名额
+            seatEngine.invalidate(courseCode);
+            catalogCache.invalidateCatalog();
+            detailCache.invalidate(courseCode);
         }
+        return updated;
     }
 
     /**
      * 获取所有待审核的课程列表
      */
     public List<Course> getPendingCourses() {
-        List<Course> courses = new ArrayList<>();
-        Connection conn = null;
-        Statement stmt = null;
-        ResultSet rs = null;
-
-        String sql = "SELECT c.*, u.user_name AS teacher_name " +
-                "FROM course_info c " +
-                "JOIN user_info u ON c.teacher_id = u.user_id " +
-                "WHERE c.status = 'Pending'";
-
-        try {
-            conn = DBUtils.getConnection();
-            stmt = conn.createStatement();
-            rs = stmt.executeQuery(sql);
-
-            while (rs.next()) {
-                Course course = new Course(
-                        rs.getString("course_code"),
-                        rs.getString("course_name"),
-                        rs.getDouble("credit"),
-                        rs.getInt("capacity_limit"),
-                        rs.getInt("current_selected"),
-                        rs.getString("teacher_name"),
-                        rs.getString("schedule_time")
-                );
-                course.setStatus(rs.getString("status"));
-                course.setClassHour(rs.getInt("class_hour"));
-                course.setClassroom(rs.getString("classroom"));
-                course.setCourseType(rs.getString("course_type"));
-                courses.add(course);
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        } finally {
-            DBUtils.close(conn, stmt, rs);
-        }
-        return courses;
+        return courseRepository.findByStatus("Pending");
     }
-    // 延续 package service; 中的 CourseService.java 类
-
-    // 需要一个新的 DTO 来封装统计结果，或者扩展 Course DTO
-    // 为了简化，我们直接返回一个 Map 或 List<Object[]>，或者创建一个 StatsCourse DTO
 
     /**
      * 查询课程选课统计数据 (查询视图 v_course_stats)
      */
     public List<Course> getCourseStatistics() {
-        List<Course> courses = new ArrayList<>();
-        Connection conn = null;
-        Statement stmt = null;
-        ResultSet rs = null;
-
-        // 假设 v_course_stats 视图包含 course_code, course_name, teacher_name, capacity_limit, current_selected, saturation_rate
-        String sql = "SELECT * FROM v_course_stats";
-
-        try {
-            conn = DBUtils.getConnection();
-            stmt = conn.createStatement();
-            rs = stmt.executeQuery(sql);
-
-            while (rs.next()) {
-                Course course = new Course(
-                    rs.getString("course_code"),       // 1. 课程代码
-                    rs.getString("course_name"),       // 2. 课程名称
-                    rs.getDouble("credit"),            // 3. 学分 (注意：getDouble不是getInt!)
-                    rs.getInt("capacity_limit"),       // 4. 容量
-                    rs.getInt("current_selected"),     // 5. 已选人数
-                    rs.getString("teacher_name"),      // 6. 教师姓名
-                    rs.getString("schedule_time")      // 7. 上课时间
-                );
-                courses.add(course);
-                // ... 将 rs 结果封装到 Course 或新的 Stats DTO 中
-                // ... courses.add(...)
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        } finally {
-            DBUtils.close(conn, stmt, rs); // 确保关闭
-        }
-        return courses;
+        return courseRepository.findStatistics();
     }
+
     public List<User> getStudentsByCourse(String courseCode) {
         List<User> students = new ArrayList<>();
-        
-            // 修复SQL：添加状态筛选，只查询选课状态为'Selected'的记录
-        String sql = "SELECT u.user_id, u.user_name, u.department, sr.selection_time " +
-                    "FROM selection_record sr " +
-                    "JOIN user_info u ON sr.student_id = u.user_id " +
-                    "WHERE sr.course_code = ? AND sr.status = 'Selected' " +
-                    "ORDER BY sr.selection_time DESC";
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-        
-        try {
-            conn = DBUtils.getConnection();
-            pstmt = conn.prepareStatement(sql);
-            pstmt.setString(1, courseCode);
-            rs = pstmt.executeQuery();
-            
-            // 添加查询调试
-            System.out.println("执行SQL: " + sql.replace("?", "'" + courseCode + "'"));
-            
-            int count = 0;
-            while (rs.next()) {
-                count++;
-                User student = new User(
-                    rs.getString("user_id"),
-                    rs.getString("user_name"),
-                    "Student"
-                );
-                student.setDepartment(rs.getString("department"));
-                students.add(student);
-                
-                // 调试输出
-                System.out.println("找到学生: " + student.getUserId() + " - " + student.getUserName());
-            }
-            
-            System.out.println("总共找到 " + count + " 名学生");
-            
-        } catch (SQLException e) {
-            System.err.println("查询选课学生失败: " + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            DBUtils.close(conn, pstmt, rs);
+        for (Object[] row : selectionRepository.findStudents(courseCode)) {
+            User student = new User((String) row[0], (String) row[1], "Student");
+            student.setDepartment((String) row[2]);
+            students.add(student);
+
+            // 调试输出
+            System.out.println("找到学生: " + student.getUserId() + " - " + student.getUserName());
         }
+        System.out.println("总共找到 " + students.size() + " 名学生");
         return students;
     }
-        /**
+
+    /**
      * 获取课程学生名单（包含选课时间）
      * 返回Object数组列表：[userId, userName, department, selectionTime]
      */
     public List<Object[]> getStudentsWithSelectionTime(String courseCode) {
-        List<Object[]> result = new ArrayList<>();
-        
-        String sql = "SELECT u.user_id, u.user_name, u.department, sr.selection_time " +
-                    "FROM selection_record sr " +
-                    "JOIN user_info u ON sr.student_id = u.user_id " +
-                    "WHERE sr.course_code = ? AND sr.status = 'Selected' " +
-                    "ORDER BY sr.selection_time DESC";
-        
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-        
-        try {
-            conn = DBUtils.getConnection();
-            pstmt = conn.prepareStatement(sql);
-            pstmt.setString(1, courseCode);
-            rs = pstmt.executeQuery();
-            
-            while (rs.next()) {
-                Object[] row = new Object[4];
-                row[0] = rs.getString("user_id");
-                row[1] = rs.getString("user_name");
-                row[2] = rs.getString("department");
-                row[3] = rs.getTimestamp("selection_time");
-                result.add(row);
-            }
-        } catch (SQLException e) {
-            System.err.println("查询选课学生失败: " + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            DBUtils.close(conn, pstmt, rs);
-        }
-        return result;
+        return selectionRepository.findStudents(courseCode);
     }
+
     // 检查学生是否已经选了某门课
     public boolean isCourseSelected(String studentId, String courseCode) {
-        String sql = "SELECT COUNT(*) FROM selection_record WHERE student_id = ? AND course_code = ?";
-        
-        try (Connection conn = DBUtils.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, studentId);
-            pstmt.setString(2, courseCode);
-            
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt(1) > 0; // 如果计数大于0，表示已经选了
-            }
-        } catch (SQLException e) {
-            System.err.println("检查选课记录失败：" + e.getMessage());
-            e.printStackTrace();
-        }
-        return false;
+        return selectionRepository.exists(studentId, courseCode);
     }
+
     public List<Course> getStudentSelectedCourses(String studentId) {
-    List<Course> courses = new ArrayList<>();
-    
-    // 查询学生已选且未退课的课程
-    String sql = "SELECT c.*, u.user_name AS teacher_name " +
-                 "FROM course_info c " +
-                 "JOIN user_info u ON c.teacher_id = u.user_id " +
-                 "JOIN selection_record sr ON c.course_code = sr.course_code " +
-                 "WHERE sr.student_id = ? AND sr.status = 'Selected' " +
-                 "AND c.status = 'Published' " +
-                 "ORDER BY c.schedule_time";
-    
-    Connection conn = null;
-    PreparedStatement pstmt = null;
-    ResultSet rs = null;
-    
-    try {
-        conn = DBUtils.getConnection();
-        pstmt = conn.prepareStatement(sql);
-        pstmt.setString(1, studentId);
-        rs = pstmt.executeQuery();
-        
-        while (rs.next()) {
-            Course course = new Course(
-                rs.getString("course_code"),
-                rs.getString("course_name"),
-                rs.getDouble("credit"),
-                rs.getInt("capacity_limit"),
-                rs.getInt("current_selected"),
-                rs.getString("teacher_name"),
-                rs.getString("schedule_time")
-            );
-            course.setStatus(rs.getString("status"));
-            course.setClassHour(rs.getInt("class_hour"));
-            course.setClassroom(rs.getString("classroom"));
-            course.setCourseType(rs.getString("course_type"));
-            courses.add(course);
-        }
-    } catch (SQLException e) {
-        System.err.println("查询学生已选课程失败: " + e.getMessage());
-        e.printStackTrace();
-    } finally {
-        DBUtils.close(conn, pstmt, rs);
+        return selectionRepository.findSelectedCourses(studentId);
     }
-    return courses;
-}
 
-/**
- * 获取学生已选课程总数和总学分
- */
+    /**
+     * 获取学生已选课程总数和总学分
+     */
     public Map<String, Object> getStudentCourseStats(String studentId) {
-        Map<String, Object> stats = new HashMap<>();
-        
-        String sql = "SELECT COUNT(*) as course_count, SUM(c.credit) as total_credits " +
-                    "FROM selection_record sr " +
-                    "JOIN course_info c ON sr.course_code = c.course_code " +
-                    "WHERE sr.student_id = ? AND sr.status = 'Selected'";
-        
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-        
-        try {
-            conn = DBUtils.getConnection();
-            pstmt = conn.prepareStatement(sql);
-            pstmt.setString(1, studentId);
-            rs = pstmt.executeQuery();
-            
-            if (rs.next()) {
-                stats.put("courseCount", rs.getInt("course_count"));
-                stats.put("totalCredits", rs.getDouble("total_credits"));
-            }
-        } catch (SQLException e) {
-            System.err.println("查询学生课程统计失败: " + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            DBUtils.close(conn, pstmt, rs);
-        }
-        return stats;
+        return selectionRepository.findStats(studentId);
+    }
+
+    /**
+     * 学生主界面数据（已选课程、学分统计、周课表），一次查询得到
+     * 取代 getStudentSelectedCourses + getStudentCourseStats 两次查询；统计口径不变（含已下架课程），
+     * 列表和课表只包含已发布课程
+     * @return 查询失败返回 null
+     */
+    public StudentDashboard getStudentDashboard(String studentId) {
+        return selectionRepository.findDashboard(studentId);
     }
+
     //学生退课功能的实现
     public String dropCourse(String studentId, String courseCode) {
-        String sql = "UPDATE selection_record SET status = 'Dropped' WHERE student_id = ? AND course_code = ? AND status = 'Selected'";
-        Connection conn = null;
-        PreparedStatement pstmt = null;
+        SelectionRepository.DropResult result = selectionRepository.drop(studentId, courseCode,
+                prerequisiteGraph::findUnmetPrerequisite);
+        if (!result.isDropped()) {
+            return result.getMessage();
+        }
+        if (result.getPromotedStudentId() == null) {
+            // 名额没有被递补，同步释放内存计数
+            seatEngine.release(courseCode);
+            catalogCache.adjustSeats(courseCode, -1);
+        } else {
+            System.out.println("课程 " + courseCode + " 候补学生 " + result.getPromotedStudentId() + " 已自动选上");
+        }
+        return result.getMessage();
+    }
 
+    /**
+     * 为尚未计算上课时间位图的课程补算位图（旧数据迁移用，可重复执行）
+     * @return 更新的课程数
+     */
+    public int backfillScheduleMasks() {
+        return courseRepository.backfillScheduleMasks();
+    }
+
+    /**
+     * 设置课程的直接先修课（整体替换），会形成环的设置将被拒绝
+     * @return 结果消息
+     */
+    public String updatePrerequisites(String courseCode, List<String> prereqCodes) {
+        if (prerequisiteGraph.wouldCreateCycle(courseCode, prereqCodes)) {
+            return "失败：先修关系形成循环依赖";
+        }
         try {
-            conn = DBUtils.getConnection();
-            pstmt = conn.prepareStatement(sql);
-            pstmt.setString(1, studentId);
-            pstmt.setString(2, courseCode);
-            int rows = pstmt.executeUpdate();
-            return rows > 0 ? "退课成功" : "退课失败：未找到选课记录";
-        } catch (SQLException e) {
-            return "退课失败：" + e.getMessage();
+            return prerequisiteRepository.replace(courseCode, prereqCodes);
         } finally {
-            DBUtils.close(conn, pstmt, null);
+            // 无论成功与否都重新加载，保证与数据库一致
+            prerequisiteGraph.invalidate();
+            detailCache.invalidate(courseCode);
         }
     }
-}
\ No newline at end of file
+}
@@ -1,11 +1,10 @@
 package service;
 
 import model.OperationLog;
-import util.DBUtils;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import repository.LogRepository;
+import repository.Repositories;
+import util.LogSpillStore;
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -14,57 +13,86 @@ import java.util.List;
  */
 public class LogService {
 
+    // 本地预写文件（所有 LogService 实例共享），启动后台回放
+    private static final LogSpillStore spillStore = LogSpillStore.getInstance();
+    static {
+        spillStore.startReplay(LogService::replaySpilled);
+    }
+
+    // 数据访问（MySQL 或内存存储引擎，见 Repositories）
+    private final LogRepository logRepository = Repositories.get().logs();
+
     /**
      * 获取所有操作日志（按时间倒序）
      */
     public List<OperationLog> getAllOperationLogs() {
-        List<OperationLog> logs = new ArrayList<>();
-        String sql = "SELECT * FROM operation_log ORDER BY operation_time DESC";
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
+        return logRepository.findAll();
+    }
 
-        try {
-            conn = DBUtils.getConnection();
-            pstmt = conn.prepareStatement(sql);
-            rs = pstmt.executeQuery();
+    /**
+     * 分页查询操作日志（按时间倒序，键集分页）
+     * 以上一页最后一条日志的 (operation_time, log_id) 作为游标，翻页代价与页码无关。
+     * @param operatorId 操作人ID，为空时不过滤
+     * @param operationType 操作类型，为空时不过滤
+     * @param from 起始时间（含），可为 null
+     * @param to 截止时间（不含），可为 null
+     * @param after 上一页的最后一条日志，查询第一页时传 null
+     * @param pageSize 每页条数
+     */
+    public List<OperationLog> getOperationLogsPage(String operatorId, String operationType,
+                                                   Timestamp from, Timestamp to,
+                                                   OperationLog after, int pageSize) {
+        return logRepository.findPage(operatorId, operationType, from, to, after, pageSize);
+    }
 
-            while (rs.next()) {
-                OperationLog log = new OperationLog(
-                        rs.getInt("log_id"),
-                        rs.getString("operator_id"),
-                        rs.getString("operation_type"),
-                        rs.getString("operation_content"),
-                        rs.getTimestamp("operation_time")
-                );
-                logs.add(log);
-            }
-        } catch (SQLException e) {
-            System.err.println("查询操作日志失败：" + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            DBUtils.close(conn, pstmt, rs);
-        }
-        return logs;
+    /**
+     * 查询所有出现过的操作类型（用于筛选下拉框）
+     */
+    public List<String> getOperationTypes() {
+        return logRepository.findOperationTypes();
     }
+
     public void logOperation(String operatorId, String operationType, String operationContent) {
-        String sql = "INSERT INTO operation_log (operator_id, operation_type, operation_content, operation_time) " +
-                     "VALUES (?, ?, ?, NOW())";
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        
-        try {
-            conn = DBUtils.getConnection();
-            pstmt = conn.prepareStatement(sql);
-            pstmt.setString(1, operatorId);
-            pstmt.setString(2, operationType);
-            pstmt.setString(3, operationContent);
-            pstmt.executeUpdate();
-        } catch (SQLException e) {
-            System.err.println("记录操作日志失败：" + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            DBUtils.close(conn, pstmt, null);
+        List<OperationLog> logs = new ArrayList<>();
+        logs.add(new OperationLog(0, operatorId, operationType, operationContent,
+                new Timestamp(System.currentTimeMillis())));
+        if (!logOperations(logs)) {
+            System.err.println("记录操作日志失败：" + operationType + " - " + operationContent);
+        }
+    }
+
+    /**
+     * 批量写入操作日志（一条多行 INSERT），保留每条日志产生时的时间
+     * 数据库不可用时写入本地预写文件，数据库恢复后由后台线程回放
+     * @return 是否已写入数据库或本地预写文件
+     */
+    public boolean logOperations(List<OperationLog> logs) {
+        if (logs.isEmpty()) {
+            return true;
+        }
+        // 数据库刚失败过：直接写本地文件，不再阻塞在获取连接上
+        if (spillStore.isDbBackoff()) {
+            return spillStore.append(logs);
+        }
+        if (logRepository.insert(logs, null, null)) {
+            spillStore.markDbUp();
+            return true;
+        }
+        spillStore.markDbDown();
+        System.err.println("数据库不可用，" + logs.size() + " 条操作日志已写入本地预写文件");
+        return spillStore.append(logs);
+    }
+
+    /**
+     * 回放本地预写文件中的日志（INSERT IGNORE + 唯一键 (source_id, source_seq)，重复回放不会重复写入）
+     */
+    private static boolean replaySpilled(String sourceId, List<LogSpillStore.Record> records) {
+        List<OperationLog> logs = new ArrayList<>();
+        List<Long> seqs = new ArrayList<>();
+        for (LogSpillStore.Record record : records) {
+            logs.add(record.log);
+            seqs.add(record.seq);
         }
+        return Repositories.get().logs().insert(logs, sourceId, seqs);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,335 @@
+package service;
+
+import repository.Repositories;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 课程先修关系图（进程内缓存）
+ * 1. 从 course_prerequisite 一次性加载全部先修关系，计算传递闭包（A 需要 B、B 需要 C，则 A 也需要 C）
+ * 2. 每门课程的全部先修课用位图表示，位序号按拓扑顺序分配（越基础的课程序号越小）
+ * 3. 检测先修关系中的环，环上的边不参与闭包计算并打印警告
+ * 4. 每个学生已修读完成的课程集合单独缓存，判断通过时不再访问数据库；
+ *    缓存可能落后于其他客户端录入的成绩，因此判定"未完成"时先重新查询一次再拒绝
+ * 先修关系变化时调用 invalidate()；其他客户端修改的情况由定期比对表指纹发现。
+ */
+public class PrerequisiteGraph {
+
+    private static final PrerequisiteGraph INSTANCE = new PrerequisiteGraph();
+
+    // 距上次校验超过该时间时，比对一次 course_prerequisite 指纹
+    private static final long CHECK_INTERVAL_MS = 30_000;
+    // 学生已完成课程缓存的有效期
+    private static final long COMPLETED_TTL_MS = 5 * 60_000;
+
+    private volatile Snapshot snapshot;
+    private volatile long checkedAt;
+    private final ConcurrentHashMap<String, CompletedCourses> completedCache = new ConcurrentHashMap<>();
+
+    private PrerequisiteGraph() {}
+
+    public static PrerequisiteGraph getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 一次加载得到的不可变先修关系图
+     */
+    private static final class Snapshot {
+        final String fingerprint;
+        // 课程代码 -> 位序号（拓扑顺序）
+        final Map<String, Integer> index;
+        final String[] codes;
+        final String[] names;
+        // 位序号 -> 全部先修课（传递闭包）
+        final BitSet[] closure;
+        // 课程代码 -> 直接先修课
+        final Map<String, List<String>> direct;
+
+        Snapshot(String fingerprint, Map<String, Integer> index, String[] codes, String[] names,
+                 BitSet[] closure, Map<String, List<String>> direct) {
+            this.fingerprint = fingerprint;
+            this.index = index;
+            this.codes = codes;
+            this.names = names;
+            this.closure = closure;
+            this.direct = direct;
+        }
+
+        BitSet toBits(Collection<String> courseCodes) {
+            BitSet bits = new BitSet(codes.length);
+            for (String code : courseCodes) {
+                Integer i = index.get(code);
+                if (i != null) {
+                    bits.set(i);
+                }
+            }
+            return bits;
+        }
+    }
+
+    /**
+     * 学生已修读完成的课程（课程代码集合 + 针对某个快照的位图）
+     */
+    private static final class CompletedCourses {
+        final Set<String> codes;
+        final long loadedAt;
+        volatile Snapshot bitsFor;
+        volatile BitSet bits;
+
+        CompletedCourses(Set<String> codes) {
+            this.codes = codes;
+            this.loadedAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * 查找学生未修读完成的先修课（包括间接先修课），不访问数据库（缓存过期时除外）
+     * @return 最基础的一门未完成先修课名称；全部完成或先修关系加载失败时返回 null
+     */
+    public String findUnmetPrerequisite(String studentId, String courseCode) {
+        Snapshot s = current();
+        if (s == null) {
+            return null;
+        }
+        Integer i = s.index.get(courseCode);
+        if (i == null || s.closure[i].isEmpty()) {
+            return null;
+        }
+        CompletedCourses completed = getCachedCompleted(studentId);
+        boolean fromCache = completed != null;
+        if (!fromCache) {
+            completed = loadCompleted(studentId);
+        }
+        if (completed == null) {
+            return null;
+        }
+        String unmet = firstUnmet(s, i, bitsOf(s, completed));
+        if (unmet != null && fromCache) {
+            // 缓存的已完成课程可能已过时（如其他客户端刚把课程标记为已完成），拒绝之前以数据库为准
+            completed = loadCompleted(studentId);
+            if (completed == null) {
+                return null;
+            }
+            unmet = firstUnmet(s, i, bitsOf(s, completed));
+        }
+        return unmet;
+    }
+
+    private BitSet bitsOf(Snapshot s, CompletedCourses completed) {
+        BitSet done = completed.bits;
+        if (completed.bitsFor != s || done == null) {
+            done = s.toBits(completed.codes);
+            completed.bits = done;
+            completed.bitsFor = s;
+        }
+        return done;
+    }
+
+    /**
+     * 根据给定的已完成课程查找未完成的先修课（调用方已查询过学生选课记录时使用）
+     */
+    public String findUnmetPrerequisite(Set<String> completedCodes, String courseCode) {
+        Snapshot s = current();
+        if (s == null) {
+            return null;
+        }
+        Integer i = s.index.get(courseCode);
+        if (i == null || s.closure[i].isEmpty()) {
+            return null;
+        }
+        return firstUnmet(s, i, s.toBits(completedCodes));
+    }
+
+    private String firstUnmet(Snapshot s, int courseIndex, BitSet done) {
+        BitSet missing = (BitSet) s.closure[courseIndex].clone();
+        missing.andNot(done);
+        int first = missing.nextSetBit(0);
+        return first < 0 ? null : s.names[first];
+    }
+
+    /**
+     * 某门课程的全部先修课代码（包括间接先修课，按从基础到高级排序）
+     */
+    public List<String> getAllPrerequisites(String courseCode) {
+        Snapshot s = current();
+        if (s == null) {
+            return Collections.emptyList();
+        }
+        Integer i = s.index.get(courseCode);
+        if (i == null) {
+            return Collections.emptyList();
+        }
+        List<String> result = new ArrayList<>();
+        BitSet bits = s.closure[i];
+        for (int b = bits.nextSetBit(0); b >= 0; b = bits.nextSetBit(b + 1)) {
+            result.add(s.codes[b]);
+        }
+        return result;
+    }
+
+    /**
+     * 如果把 courseCode 的直接先修课设置为 prereqCodes，是否会形成环
+     */
+    public boolean wouldCreateCycle(String courseCode, List<String> prereqCodes) {
+        Snapshot s = current();
+        Map<String, List<String>> edges = new HashMap<>(s == null ? Collections.emptyMap() : s.direct);
+        edges.put(courseCode, prereqCodes);
+        // 从新的先修课出发沿先修关系向下搜索，能回到 courseCode 即成环
+        Set<String> visited = new HashSet<>();
+        List<String> stack = new ArrayList<>(prereqCodes);
+        while (!stack.isEmpty()) {
+            String code = stack.remove(stack.size() - 1);
+            if (code.equals(courseCode)) {
+                return true;
+            }
+            if (visited.add(code)) {
+                stack.addAll(edges.getOrDefault(code, Collections.emptyList()));
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 先修关系已修改：丢弃整个图，下次使用时重新加载
+     */
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    private Snapshot current() {
+        Snapshot s = snapshot;
+        long now = System.currentTimeMillis();
+        if (s != null && now - checkedAt < CHECK_INTERVAL_MS) {
+            return s;
+        }
+        synchronized (this) {
+            s = snapshot;
+            if (s != null && now - checkedAt < CHECK_INTERVAL_MS) {
+                return s;
+            }
+            String fingerprint = loadFingerprint();
+            if (s != null && (fingerprint == null || fingerprint.equals(s.fingerprint))) {
+                // 未变化（或指纹查询失败时继续使用旧图）
+                checkedAt = now;
+                return s;
+            }
+            if (fingerprint != null) {
+                Snapshot loaded = load(fingerprint);
+                if (loaded != null) {
+                    snapshot = loaded;
+                    checkedAt = now;
+                    return loaded;
+                }
+            }
+            return s;
+        }
+    }
+
+    /**
+     * 缓存中未过期的已完成课程，没有时返回 null
+     */
+    private CompletedCourses getCachedCompleted(String studentId) {
+        CompletedCourses cached = completedCache.get(studentId);
+        if (cached != null && System.currentTimeMillis() - cached.loadedAt < COMPLETED_TTL_MS) {
+            return cached;
+        }
+        return null;
+    }
+
+    /**
+     * 从数据库查询学生已完成课程并放入缓存
+     * @return 查询失败返回 null
+     */
+    private CompletedCourses loadCompleted(String studentId) {
+        Set<String> codes = Repositories.get().selections().findCompletedCodes(studentId);
+        if (codes == null) {
+            return null;
+        }
+        CompletedCourses loaded = new CompletedCourses(codes);
+        completedCache.put(studentId, loaded);
+        return loaded;
+    }
+
+    /**
+     * 先修关系指纹：任意增删改都会改变指纹（MySQL 为行数 + 各行 CRC32 的异或）
+     */
+    private String loadFingerprint() {
+        return Repositories.get().prerequisites().fingerprint();
+    }
+
+    private Snapshot load(String fingerprint) {
+        List<String[]> rows = Repositories.get().prerequisites().findAll();
+        if (rows == null) {
+            return null;
+        }
+        Map<String, List<String>> direct = new LinkedHashMap<>();
+        Map<String, String> names = new HashMap<>();
+        for (String[] row : rows) {
+            direct.computeIfAbsent(row[0], k -> new ArrayList<>()).add(row[1]);
+            names.put(row[1], row[2]);
+        }
+        return build(fingerprint, direct, names);
+    }
+
+    private Snapshot build(String fingerprint, Map<String, List<String>> direct, Map<String, String> names) {
+        // 1. 深度优先后序遍历分配位序号：先修课总是先于依赖它的课程编号；遇到回边即为环
+        Map<String, Integer> index = new HashMap<>();
+        Set<String> onPath = new HashSet<>();
+        Set<String> cyclicEdges = new HashSet<>();
+        List<String> order = new ArrayList<>();
+        for (String code : direct.keySet()) {
+            visit(code, direct, index, onPath, cyclicEdges, order);
+        }
+        for (String edge : cyclicEdges) {
+            System.err.println("【先修关系成环】已忽略先修关系: " + edge);
+        }
+
+        // 2. 按拓扑顺序计算传递闭包：closure(c) = ∪ (p ∪ closure(p))
+        int n = order.size();
+        String[] codes = order.toArray(new String[0]);
+        String[] courseNames = new String[n];
+        BitSet[] closure = new BitSet[n];
+        for (int i = 0; i < n; i++) {
+            courseNames[i] = names.getOrDefault(codes[i], codes[i]);
+            BitSet bits = new BitSet(n);
+            for (String prereq : direct.getOrDefault(codes[i], Collections.emptyList())) {
+                if (cyclicEdges.contains(codes[i] + " -> " + prereq)) {
+                    continue;
+                }
+                int p = index.get(prereq);
+                bits.set(p);
+                bits.or(closure[p]);
+            }
+            closure[i] = bits;
+        }
+        return new Snapshot(fingerprint, index, codes, courseNames, closure, direct);
+    }
+
+    private void visit(String code, Map<String, List<String>> direct, Map<String, Integer> index,
+                       Set<String> onPath, Set<String> cyclicEdges, List<String> order) {
+        if (index.containsKey(code)) {
+            return;
+        }
+        onPath.add(code);
+        for (String prereq : direct.getOrDefault(code, Collections.emptyList())) {
+            if (onPath.contains(prereq)) {
+                cyclicEdges.add(code + " -> " + prereq);
+            } else {
+                visit(prereq, direct, index, onPath, cyclicEdges, order);
+            }
+        }
+        onPath.remove(code);
+        index.put(code, order.size());
+        order.add(code);
+    }
+}
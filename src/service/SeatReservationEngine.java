@@ -0,0 +1,167 @@
+package service;
+
+import model.Course;
+import repository.Repositories;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 选课名额预占引擎（进程内）
+ * 每门课程维护一个原子计数器（以 course_info.current_selected 为初值），
+ * 选课前先用 CAS 预占名额：已满的课程直接拒绝，不再进入存储过程争抢行锁；
+ * 存储过程执行结果再回写计数器（失败则释放名额，判定已满则与数据库对账）。
+ * 注意：数据库仍是唯一权威，本引擎只负责拦截明显无望的请求。
+ */
+public class SeatReservationEngine {
+
+    private static final SeatReservationEngine INSTANCE = new SeatReservationEngine();
+
+    // 计数器判定已满时，若距上次对账超过该时间，先对账再拒绝（其他客户端可能已退课）
+    private static final long STALE_MS = 10_000;
+
+    private final ConcurrentHashMap<String, CourseSeats> seats = new ConcurrentHashMap<>();
+
+    private SeatReservationEngine() {}
+
+    public static SeatReservationEngine getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 单门课程的名额状态
+     */
+    private static final class CourseSeats {
+        volatile int capacity;
+        final AtomicInteger selected;
+        volatile long reconciledAt;
+
+        CourseSeats(int capacity, int selected) {
+            this.capacity = capacity;
+            this.selected = new AtomicInteger(selected);
+            this.reconciledAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * 预占一个名额
+     * @return true 表示预占成功（可以继续调用存储过程），false 表示课程已满
+     */
+    public boolean tryReserve(String courseCode) {
+        CourseSeats s = getOrLoad(courseCode);
+        if (s == null) {
+            // 课程信息加载失败时不拦截，交给存储过程判断
+            return true;
+        }
+        if (casIncrement(s)) {
+            return true;
+        }
+        // 计数器显示已满：数据较旧时对账一次再决定
+        if (System.currentTimeMillis() - s.reconciledAt > STALE_MS) {
+            reconcile(courseCode);
+            return casIncrement(s);
+        }
+        return false;
+    }
+
+    private boolean casIncrement(CourseSeats s) {
+        while (true) {
+            int current = s.selected.get();
+            if (current >= s.capacity) {
+                return false;
+            }
+            if (s.selected.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 释放一个名额（选课失败回滚预占，或退课成功）
+     */
+    public void release(String courseCode) {
+        CourseSeats s = seats.get(courseCode);
+        if (s == null) {
+            return;
+        }
+        while (true) {
+            int current = s.selected.get();
+            if (current <= 0 || s.selected.compareAndSet(current, current - 1)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 课程是否已满（仅依据内存计数，不访问数据库）
+     */
+    public boolean isFull(String courseCode) {
+        CourseSeats s = seats.get(courseCode);
+        return s != null && s.selected.get() >= s.capacity;
+    }
+
+    /**
+     * 当前内存中的已选人数，未加载时返回 -1
+     */
+    public int getSelectedCount(String courseCode) {
+        CourseSeats s = seats.get(courseCode);
+        return s == null ? -1 : s.selected.get();
+    }
+
+    /**
+     * 用已查询到的课程列表批量播种/刷新计数器（不额外访问数据库）
+     */
+    public void seed(List<Course> courses) {
+        long now = System.currentTimeMillis();
+        for (Course course : courses) {
+            CourseSeats s = seats.computeIfAbsent(course.getCourseCode(),
+                    k -> new CourseSeats(course.getCapacityLimit(), course.getCurrentSelected()));
+            s.capacity = course.getCapacityLimit();
+            s.selected.set(course.getCurrentSelected());
+            s.reconciledAt = now;
+        }
+    }
+
+    /**
+     * 与 course_info 表对账：以数据库中的容量和已选人数覆盖内存计数
+     */
+    public void reconcile(String courseCode) {
+        int[] row = loadFromDb(courseCode);
+        if (row == null) {
+            seats.remove(courseCode);
+            return;
+        }
+        CourseSeats s = seats.computeIfAbsent(courseCode, k -> new CourseSeats(row[0], row[1]));
+        s.capacity = row[0];
+        s.selected.set(row[1]);
+        s.reconciledAt = System.currentTimeMillis();
+    }
+
+    /**
+     * 清除某门课程的计数（课程下线、容量调整等场景）
+     */
+    public void invalidate(String courseCode) {
+        seats.remove(courseCode);
+    }
+
+    private CourseSeats getOrLoad(String courseCode) {
+        CourseSeats s = seats.get(courseCode);
+        if (s != null) {
+            return s;
+        }
+        int[] row = loadFromDb(courseCode);
+        if (row == null) {
+            return null;
+        }
+        return seats.computeIfAbsent(courseCode, k -> new CourseSeats(row[0], row[1]));
+    }
+
+    /**
+     * 查询课程容量和已选人数
+     * @return int[2]：[0]=capacity_limit，[1]=current_selected；课程不存在或查询失败返回 null
+     */
+    private int[] loadFromDb(String courseCode) {
+        return Repositories.get().courses().findSeats(courseCode);
+    }
+}
@@ -0,0 +1,247 @@
+package service;
+
+import repository.SelectionRepository;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+/**
+ * 选课请求调度器（准入控制 + 公平排队 + 过载保护）
+ * 1. 全局并发上限和单门课程并发上限，超出的请求按先来先服务排队（公平信号量，每个请求只排一次队直到超时）
+ * 2. 排队期间由后台定时任务回调当前排队位置，供界面显示
+ * 3. 排队人数超过上限或等待超时时直接拒绝，并给出建议的重试等待时间，
+ *    避免请求堆积在数据库行锁上
+ * 注意：这里的并发上限和排队都只在本进程内生效，每个客户端各自一份，只能限制本客户端自己发出的请求。
+ * 所有客户端合计的单课程并发上限由数据库端的选课名额锁保证（见 JdbcSelectionRepository）。
+ */
+public class SelectionScheduler {
+
+    private static final SelectionScheduler INSTANCE = new SelectionScheduler(
+            Integer.getInteger("selection.maxConcurrent", 8),
+            Integer.getInteger("selection.maxPerCourse", 2),
+            Integer.getInteger("selection.maxQueue", 200),
+            Long.getLong("selection.maxWaitMs", 15000L));
+
+    // 被拒绝时返回给调用方的消息前缀（与数据访问层的繁忙消息一致，界面统一识别）
+    public static final String BUSY_PREFIX = SelectionRepository.BUSY_PREFIX;
+
+    // 排队位置回调间隔
+    private static final long POLL_MS = 200;
+    // 定时回调排队位置的线程（所有调度器共享）
+    private static final ScheduledExecutorService POSITION_TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "selection-queue-position");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final int maxConcurrent;
+    private final int maxPerCourse;
+    private final int maxQueue;
+    private final long maxWaitMs;
+
+    private final Semaphore global;
+    // 课程代码 -> 单课程信号量；没有请求在使用时移除，避免课程越来越多时无限增长
+    private final ConcurrentHashMap<String, CourseGate> perCourse = new ConcurrentHashMap<>();
+
+    // 排队号：issued 为已发出的号，admitted 为已放行的号，两者之差即为排队位置
+    private final AtomicLong issued = new AtomicLong();
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    // 单次请求平均耗时（指数滑动平均，毫秒），用于估算重试等待时间
+    private volatile double avgServiceMs = 200;
+
+    private final AtomicLong shedCount = new AtomicLong();
+
+    SelectionScheduler(int maxConcurrent, int maxPerCourse, int maxQueue, long maxWaitMs) {
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.global = new Semaphore(this.maxConcurrent, true);
+        this.maxPerCourse = Math.max(1, maxPerCourse);
+        this.maxQueue = maxQueue;
+        this.maxWaitMs = maxWaitMs;
+    }
+
+    public static SelectionScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 单门课程的信号量及正在使用它的请求数（排队中和执行中）
+     */
+    private static final class CourseGate {
+        final Semaphore semaphore;
+        int users;
+
+        CourseGate(int permits) {
+            this.semaphore = new Semaphore(permits, true);
+        }
+    }
+
+    private Semaphore enterCourse(String courseCode) {
+        // compute 在同一个键上是原子的，引用计数与移除不会交错
+        return perCourse.compute(courseCode, (k, gate) -> {
+            if (gate == null) {
+                gate = new CourseGate(maxPerCourse);
+            }
+            gate.users++;
+            return gate;
+        }).semaphore;
+    }
+
+    private void leaveCourse(String courseCode) {
+        perCourse.computeIfPresent(courseCode, (k, gate) -> --gate.users == 0 ? null : gate);
+    }
+
+    /**
+     * 在调度器控制下执行一次选课请求
+     * @param courseCode 课程代码（用于单课程并发控制）；为 null 时只受全局并发限制（如批量选课）
+     * @param task 实际的选课操作
+     * @param positionListener 排队位置回调（可为 null），参数为前面还有多少个请求
+     * @return task 的返回消息；被拒绝时返回以 BUSY_PREFIX 开头的提示（包含建议重试秒数）
+     */
+    public String submit(String courseCode, Callable<String> task, IntConsumer positionListener) {
+        return submit(courseCode, task, positionListener, Function.identity());
+    }
+
+    /**
+     * 在调度器控制下执行任意返回类型的请求（如批量选课）
+     * @param fallback 被拒绝或任务异常时，把提示消息转换为返回值
+     */
+    public <T> T submit(String courseCode, Callable<T> task, IntConsumer positionListener,
+                        Function<String, T> fallback) {
+        // 检查排队人数和占用排队名额必须是一次原子操作，否则并发请求会一起越过上限
+        while (true) {
+            int current = waiting.get();
+            if (current >= maxQueue) {
+                return fallback.apply(shed());
+            }
+            if (waiting.compareAndSet(current, current + 1)) {
+                break;
+            }
+        }
+
+        long ticket = issued.incrementAndGet();
+        PositionReporter reporter = positionListener == null ? null : new PositionReporter(ticket, positionListener);
+        ScheduledFuture<?> reporting = reporter == null ? null
+                : POSITION_TIMER.scheduleAtFixedRate(reporter, POLL_MS, POLL_MS, TimeUnit.MILLISECONDS);
+        Semaphore courseSemaphore = courseCode == null ? null : enterCourse(courseCode);
+        boolean courseAcquired = courseSemaphore == null;
+        boolean globalAcquired = false;
+        long deadline = System.currentTimeMillis() + maxWaitMs;
+
+        try {
+            if (!courseAcquired) {
+                courseAcquired = acquire(courseSemaphore, deadline);
+            }
+            if (courseAcquired) {
+                globalAcquired = acquire(global, deadline);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (reporting != null) {
+                reporting.cancel(false);
+                reporter.stop();
+            }
+            waiting.decrementAndGet();
+            admitted.incrementAndGet();
+        }
+
+        if (!courseAcquired || !globalAcquired) {
+            if (courseSemaphore != null) {
+                if (courseAcquired) {
+                    courseSemaphore.release();
+                }
+                leaveCourse(courseCode);
+            }
+            return fallback.apply(shed());
+        }
+
+        if (positionListener != null) {
+            positionListener.accept(0);
+        }
+        long start = System.currentTimeMillis();
+        try {
+            return task.call();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return fallback.apply("选课失败：系统异常：" + e.getMessage());
+        } finally {
+            long elapsed = System.currentTimeMillis() - start;
+            avgServiceMs = avgServiceMs * 0.8 + elapsed * 0.2;
+            global.release();
+            if (courseSemaphore != null) {
+                courseSemaphore.release();
+                leaveCourse(courseCode);
+            }
+        }
+    }
+
+    /**
+     * 在公平信号量上一直等到截止时间：只排一次队，不会因为中途超时重新排到队尾
+     */
+    private boolean acquire(Semaphore semaphore, long deadline) throws InterruptedException {
+        long remaining = deadline - System.currentTimeMillis();
+        return remaining > 0 && semaphore.tryAcquire(remaining, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 定时回调排队位置；请求放行或被拒绝后不再回调
+     */
+    private final class PositionReporter implements Runnable {
+        private final long ticket;
+        private final IntConsumer listener;
+        private boolean stopped;
+
+        PositionReporter(long ticket, IntConsumer listener) {
+            this.ticket = ticket;
+            this.listener = listener;
+        }
+
+        @Override
+        public synchronized void run() {
+            if (!stopped) {
+                listener.accept(getPosition(ticket));
+            }
+        }
+
+        // 与 run 互斥：stop 返回后不会再有排队位置回调（之后的"已放行"回调不会被覆盖）
+        synchronized void stop() {
+            stopped = true;
+        }
+    }
+
+    private int getPosition(long ticket) {
+        return (int) Math.max(1, ticket - admitted.get());
+    }
+
+    private String shed() {
+        shedCount.incrementAndGet();
+        return BUSY_PREFIX + "当前选课人数过多，请在 " + getRetryAfterSeconds() + " 秒后重试";
+    }
+
+    /**
+     * 建议的重试等待时间（秒）：按当前排队人数和平均处理耗时估算
+     */
+    public int getRetryAfterSeconds() {
+        double seconds = (waiting.get() + 1) * avgServiceMs / maxConcurrent / 1000.0;
+        return (int) Math.max(1, Math.min(60, Math.ceil(seconds)));
+    }
+
+    /**
+     * 调度器状态（调试用）
+     */
+    public String stats() {
+        return "waiting=" + waiting.get() + ", admitted=" + admitted.get()
+                + ", shed=" + shedCount.get() + String.format(", avgServiceMs=%.1f", avgServiceMs);
+    }
+}
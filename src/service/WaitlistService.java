@@ -0,0 +1,40 @@
+package service;
+
+import repository.Repositories;
+import repository.WaitlistRepository;
+import java.util.List;
+
+/**
+ * 课程候补队列相关操作
+ * 课程已满时学生可以加入候补队列（先来先得），有学生退课时
+ * 在退课事务中把队首符合条件的学生直接转为已选（见 SelectionRepository.drop），
+ * 学生无需反复点击选课按钮重试。
+ */
+public class WaitlistService {
+
+    // 数据访问（MySQL 或内存存储引擎，见 Repositories）
+    private final WaitlistRepository waitlistRepository = Repositories.get().waitlists();
+
+    /**
+     * 加入课程候补队列
+     * @return 结果消息（成功时包含当前排队位置）
+     */
+    public String joinWaitlist(String studentId, String courseCode) {
+        return waitlistRepository.join(studentId, courseCode);
+    }
+
+    /**
+     * 退出课程候补队列
+     */
+    public boolean leaveWaitlist(String studentId, String courseCode) {
+        return waitlistRepository.leave(studentId, courseCode);
+    }
+
+    /**
+     * 查询学生正在候补的课程
+     * 返回Object数组列表：[courseCode, courseName, position, enqueueTime]
+     */
+    public List<Object[]> getStudentWaitlist(String studentId) {
+        return waitlistRepository.findByStudent(studentId);
+    }
+}
@@ -1,7 +1,7 @@
 package util;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableModel;
 import java.io.*;
 import java.text.SimpleDateFormat;
 import java.util.Date;
@@ -59,7 +59,7 @@ public class CSVExporter {
      * 实际导出表格数据到CSV文件
      */
     private static boolean exportTableToCSV(JTable table, File file) {
-        DefaultTableModel model = (DefaultTableModel) table.getModel();
+        TableModel model = table.getModel();
         
         try (OutputStreamWriter writer = new OutputStreamWriter(
                 new FileOutputStream(file),
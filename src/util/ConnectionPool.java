@@ -0,0 +1,356 @@
+package util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 有界 JDBC 连接池（由 DBUtils 持有，不直接对外暴露）
+ * 1. 最小/最大连接数，借出超时
+ * 2. 空闲连接回收、借出前校验
+ * 3. 泄漏检测：借出超过阈值未归还时打印借出时的调用栈
+ * 4. 每个物理连接附带一个预编译语句缓存（见 StatementCache）
+ * 业务代码调用 Connection.close() 时连接会归还到池中，而不是真正断开
+ */
+class ConnectionPool {
+
+    private final String url;
+    private final String user;
+    private final String password;
+
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutMs;
+    private final long idleTimeoutMs;
+    private final long validationIdleMs;
+    private final int validationTimeoutSec;
+    private final long leakDetectionMs;
+    private final int statementCacheSize;
+
+    // 空闲连接（后进先出，热连接优先复用）
+    private final LinkedBlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+    // 已借出的连接（用于泄漏检测）
+    private final Set<PooledEntry> borrowed = ConcurrentHashMap.newKeySet();
+    // 借出许可，数量即最大连接数
+    private final Semaphore permits;
+    // 当前物理连接总数
+    private final AtomicInteger totalCount = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed = false;
+
+    ConnectionPool(String url, String user, String password, Properties props) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = intProp(props, "db.pool.minSize", 2);
+        this.maxSize = Math.max(1, intProp(props, "db.pool.maxSize", 10));
+        this.borrowTimeoutMs = longProp(props, "db.pool.borrowTimeoutMs", 5000);
+        this.idleTimeoutMs = longProp(props, "db.pool.idleTimeoutMs", 300000);
+        this.validationIdleMs = longProp(props, "db.pool.validationIdleMs", 1000);
+        this.validationTimeoutSec = intProp(props, "db.pool.validationTimeoutSec", 2);
+        this.leakDetectionMs = longProp(props, "db.pool.leakDetectionMs", 30000);
+        this.statementCacheSize = intProp(props, "db.pool.statementCacheSize", 32);
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        // 后台预热到最小连接数，避免数据库不可用时阻塞类加载
+        housekeeper.execute(this::fillToMinimum);
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 10, 10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 从池中借出一个连接，超过 borrowTimeoutMs 仍无可用连接时抛出 SQLTimeoutException
+     */
+    Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("连接池已关闭");
+        }
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTimeoutException("获取数据库连接超时（" + borrowTimeoutMs + "ms），当前连接数: "
+                        + totalCount.get() + "/" + maxSize);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("等待数据库连接时被中断", e);
+        }
+
+        try {
+            PooledEntry entry;
+            while ((entry = idle.pollFirst()) != null) {
+                if (isUsable(entry)) {
+                    break;
+                }
+                destroy(entry);
+            }
+            if (entry == null) {
+                entry = create();
+            }
+            entry.borrowedAt = System.currentTimeMillis();
+            entry.borrowStack = leakDetectionMs > 0 ? new Throwable("连接借出位置") : null;
+            entry.leakReported = false;
+            borrowed.add(entry);
+            return entry.lend();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 归还连接：重置事务状态后放回空闲队列，状态异常的连接直接销毁
+     */
+    private void giveBack(PooledEntry entry) {
+        if (!borrowed.remove(entry)) {
+            return;
+        }
+        try {
+            if (closed || !resetState(entry)) {
+                destroy(entry);
+            } else {
+                entry.lastUsedAt = System.currentTimeMillis();
+                idle.offerFirst(entry);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean resetState(PooledEntry entry) {
+        try {
+            Connection raw = entry.raw;
+            if (raw.isClosed()) {
+                return false;
+            }
+            if (entry.statements != null) {
+                entry.statements.reclaimLeaked();
+            }
+            if (!raw.getAutoCommit()) {
+                raw.rollback();
+                raw.setAutoCommit(true);
+            }
+            raw.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            System.err.println("重置数据库连接状态失败，丢弃该连接: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 借出前校验：刚归还不久的连接跳过校验，空闲较久的连接用 isValid 探活
+     */
+    private boolean isUsable(PooledEntry entry) {
+        if (System.currentTimeMillis() - entry.lastUsedAt < validationIdleMs) {
+            return true;
+        }
+        try {
+            return entry.raw.isValid(validationTimeoutSec);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledEntry create() throws SQLException {
+        Connection raw = DriverManager.getConnection(url, user, password);
+        totalCount.incrementAndGet();
+        System.out.println("数据库连接池新建连接，当前连接数: " + totalCount.get() + "/" + maxSize);
+        return new PooledEntry(raw);
+    }
+
+    private void destroy(PooledEntry entry) {
+        totalCount.decrementAndGet();
+        if (entry.statements != null) {
+            entry.statements.closeAll();
+        }
+        try {
+            entry.raw.close();
+        } catch (SQLException e) {
+            System.err.println("关闭物理连接失败: " + e.getMessage());
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!closed && totalCount.get() < minSize && permits.tryAcquire()) {
+            try {
+                PooledEntry entry = create();
+                entry.lastUsedAt = System.currentTimeMillis();
+                idle.offerLast(entry);
+            } catch (SQLException e) {
+                System.err.println("连接池预热失败: " + e.getMessage());
+                return;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * 定时维护：回收超时空闲连接、补足最小连接数、报告疑似泄漏
+     */
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+
+        if (idleTimeoutMs > 0) {
+            Iterator<PooledEntry> it = idle.descendingIterator();
+            while (it.hasNext() && totalCount.get() > minSize) {
+                PooledEntry entry = it.next();
+                if (now - entry.lastUsedAt > idleTimeoutMs && idle.remove(entry)) {
+                    destroy(entry);
+                }
+            }
+        }
+
+        fillToMinimum();
+
+        if (leakDetectionMs > 0) {
+            for (PooledEntry entry : borrowed) {
+                if (!entry.leakReported && now - entry.borrowedAt > leakDetectionMs) {
+                    entry.leakReported = true;
+                    System.err.println("【连接泄漏警告】连接已借出 " + (now - entry.borrowedAt)
+                            + "ms 仍未归还，借出位置如下：");
+                    if (entry.borrowStack != null) {
+                        entry.borrowStack.printStackTrace();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 关闭连接池：关闭所有空闲连接，已借出的连接在归还时关闭
+     */
+    void shutdown() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            destroy(entry);
+        }
+    }
+
+    /**
+     * 连接池状态（用于调试输出）
+     */
+    String stats() {
+        return "total=" + totalCount.get() + ", idle=" + idle.size()
+                + ", borrowed=" + borrowed.size() + ", max=" + maxSize
+                + ", " + StatementCache.stats();
+    }
+
+    private static int intProp(Properties props, String key, int defaultValue) {
+        return (int) longProp(props, key, defaultValue);
+    }
+
+    private static long longProp(Properties props, String key, long defaultValue) {
+        String value = props.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("连接池配置项 " + key + " 格式错误，使用默认值 " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * 池中的一条物理连接
+     */
+    private final class PooledEntry {
+        final Connection raw;
+        // 预编译语句缓存，statementCacheSize 为 0 时不启用
+        final StatementCache statements;
+        volatile long lastUsedAt;
+        volatile long borrowedAt;
+        volatile Throwable borrowStack;
+        volatile boolean leakReported;
+
+        PooledEntry(Connection raw) {
+            this.raw = raw;
+            this.statements = statementCacheSize > 0 ? new StatementCache(statementCacheSize) : null;
+        }
+
+        /**
+         * 每次借出生成一个新的代理，归还后旧代理失效，防止业务代码继续使用已归还的连接
+         */
+        Connection lend() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new LeaseHandler(this));
+        }
+    }
+
+    /**
+     * 连接代理：拦截 close() 归还连接，prepareStatement/prepareCall(String) 走语句缓存，
+     * 其余调用转发给物理连接
+     */
+    private final class LeaseHandler implements InvocationHandler {
+        private final PooledEntry entry;
+        private volatile boolean returned = false;
+
+        LeaseHandler(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        giveBack(entry);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || entry.raw.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + entry.raw + "]";
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("连接已归还连接池，不能继续使用");
+            }
+            if (entry.statements != null && args != null && args.length == 1 && args[0] instanceof String) {
+                if ("prepareStatement".equals(name)) {
+                    return entry.statements.prepare(entry.raw, (Connection) proxy, (String) args[0]);
+                }
+                if ("prepareCall".equals(name)) {
+                    return entry.statements.prepareCall(entry.raw, (Connection) proxy, (String) args[0]);
+                }
+            }
+            try {
+                return method.invoke(entry.raw, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -1,11 +1,12 @@
 package util;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -18,7 +19,12 @@ public class DBUtils {
     private static String URL;
     private static String USER;
     private static String PASSWORD;
+    // 连接池（在静态块中根据配置文件创建）
+    private static ConnectionPool pool;
+    // JVM 退出时在关闭连接池之前执行的任务（如写完异步日志）
+    private static final List<Runnable> shutdownTasks = new CopyOnWriteArrayList<>();
     static {
+        Runtime.getRuntime().addShutdownHook(new Thread(DBUtils::runShutdownTasks, "db-shutdown"));
         try {
             // 关键：读取「JAR包同级目录」的dbconfig.properties
             Properties props = new Properties();
@@ -32,6 +38,9 @@ public class DBUtils {
 
             // 加载MySQL驱动
             Class.forName("com.mysql.cj.jdbc.Driver");
+
+            // 创建连接池（连接池参数见 dbconfig.properties 中的 db.pool.* 配置项）
+            pool = new ConnectionPool(URL, USER, PASSWORD, props);
         } catch (FileNotFoundException e) {
             // 配置文件找不到时的提示（方便用户排查）
             System.err.println("未找到dbconfig.properties配置文件，请确认文件和JAR包在同一目录！");
@@ -45,20 +54,15 @@ public class DBUtils {
         }
     }
     /**
-     * 获取数据库连接
+     * 获取数据库连接（从连接池借出，调用 close() 即归还连接池）
      */
     public static Connection getConnection() {
         Connection conn = null;
         try {
-            // 1. 加载 JDBC 驱动（现代 JDBC 驱动通常会自动加载，但显式调用更保险）
-            Class.forName("com.mysql.jdbc.Driver");
-
-            // 2. 建立连接
-            conn = DriverManager.getConnection(URL, USER, PASSWORD);
-            System.out.println("数据库连接成功!");
-        } catch (ClassNotFoundException e) {
-            System.err.println("错误：未找到 MySQL JDBC 驱动。请检查 jar 包是否正确导入。");
-            e.printStackTrace();
+            if (pool == null) {
+                throw new SQLException("连接池未初始化，请检查dbconfig.properties和MySQL驱动");
+            }
+            conn = pool.borrow();
         } catch (SQLException e) {
             System.err.println("错误：数据库连接失败，请检查 URL, 用户名和密码。");
             e.printStackTrace();
@@ -66,6 +70,33 @@ public class DBUtils {
         return conn;
     }
 
+    /**
+     * 注册 JVM 退出时的收尾任务，这些任务在连接池关闭之前执行，仍可使用数据库连接
+     */
+    public static void addShutdownTask(Runnable task) {
+        shutdownTasks.add(task);
+    }
+
+    private static void runShutdownTasks() {
+        for (Runnable task : shutdownTasks) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * 连接池状态（调试用）
+     */
+    public static String getPoolStats() {
+        return pool == null ? "连接池未初始化" : pool.stats();
+    }
+
     /**
      * 关闭资源，避免资源泄漏
      */
@@ -0,0 +1,214 @@
+package util;
+
+import model.OperationLog;
+import service.LogService;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 异步操作日志管道（由 LogUtil 持有）
+ * 多个线程把日志放入有界队列，单个后台写线程按条数或时间攒批，用一条多行 INSERT 写入数据库。
+ * 队列满时的处理策略由系统属性 log.overflowPolicy 指定：
+ *   block - 调用线程等待队列空出位置（默认）
+ *   drop  - 丢弃该条日志并计数
+ *   spill - 写入本地预写文件（见 LogSpillStore），数据库可用时自动回放
+ * 数据库不可用时由 LogService 自动改写本地预写文件。
+ */
+class LogPipeline {
+
+    enum OverflowPolicy { BLOCK, DROP, SPILL }
+
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final OverflowPolicy overflowPolicy;
+    private final BlockingQueue<OperationLog> queue;
+    private final LogService logService;
+    private final Thread writer;
+
+    // 已入队但尚未写完的日志数（用于 flush 等待）
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private volatile boolean closed = false;
+    // flush 请求：写线程不再等待攒批，立即写出
+    private volatile boolean flushRequested = false;
+
+    LogPipeline(LogService logService) {
+        this.logService = logService;
+        this.batchSize = Math.max(1, Integer.getInteger("log.batchSize", 100));
+        this.flushIntervalMs = Math.max(10, Long.getLong("log.flushIntervalMs", 500L));
+        this.overflowPolicy = parsePolicy(System.getProperty("log.overflowPolicy", "block"));
+        this.queue = new ArrayBlockingQueue<>(Math.max(batchSize, Integer.getInteger("log.queueCapacity", 10000)));
+
+        this.writer = new Thread(this::runWriter, "log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    private static OverflowPolicy parsePolicy(String value) {
+        try {
+            return OverflowPolicy.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("日志溢出策略 " + value + " 无效，使用默认值 block");
+            return OverflowPolicy.BLOCK;
+        }
+    }
+
+    /**
+     * 提交一条日志（不等待写入数据库）
+     */
+    void submit(String operatorId, String operationType, String operationContent) {
+        // 记录产生日志的时间，而不是写入数据库的时间
+        OperationLog entry = new OperationLog(0, operatorId, operationType, operationContent,
+                new Timestamp(System.currentTimeMillis()));
+        if (closed) {
+            writeNow(entry);
+            return;
+        }
+        pending.incrementAndGet();
+        if (queue.offer(entry)) {
+            return;
+        }
+        switch (overflowPolicy) {
+            case BLOCK:
+                try {
+                    queue.put(entry);
+                    return;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped.incrementAndGet();
+                    break;
+                }
+            case SPILL:
+                if (LogSpillStore.getInstance().append(List.of(entry))) {
+                    spilled.incrementAndGet();
+                } else {
+                    dropped.incrementAndGet();
+                }
+                break;
+            default:
+                dropped.incrementAndGet();
+                break;
+        }
+        pending.decrementAndGet();
+    }
+
+    /**
+     * 等待队列中已有的日志全部写入（最多等待 timeoutMs）
+     * @return true 表示已全部写入
+     */
+    boolean flush(long timeoutMs) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        flushRequested = true;
+        try {
+            while (pending.get() > 0) {
+                if (System.currentTimeMillis() >= deadline || !writer.isAlive()) {
+                    return false;
+                }
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            flushRequested = false;
+        }
+    }
+
+    /**
+     * 关闭管道：停止接收新日志并写完队列中剩余的日志（JVM 退出时调用）
+     */
+    void shutdown(long timeoutMs) {
+        flush(timeoutMs);
+        closed = true;
+        // 超时未写完的日志直接在当前线程写入
+        List<OperationLog> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            writeBatch(rest);
+        }
+    }
+
+    private void runWriter() {
+        List<OperationLog> batch = new ArrayList<>(batchSize);
+        while (!closed) {
+            try {
+                // 等待第一条日志，然后在 flushIntervalMs 内尽量攒满一批（有 flush 请求时立即写出）
+                OperationLog first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + flushIntervalMs;
+                while (true) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (batch.size() >= batchSize || remaining <= 0 || flushRequested) {
+                        break;
+                    }
+                    OperationLog next = queue.poll(Math.min(remaining, 50), TimeUnit.MILLISECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+            } catch (InterruptedException e) {
+                queue.drainTo(batch, batchSize - batch.size());
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<OperationLog> batch) {
+        try {
+            if (logService.logOperations(batch)) {
+                written.addAndGet(batch.size());
+                batches.incrementAndGet();
+            } else {
+                onWriteFailed(batch);
+            }
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            onWriteFailed(batch);
+        } finally {
+            pending.addAndGet(-batch.size());
+        }
+    }
+
+    private void writeNow(OperationLog entry) {
+        pending.incrementAndGet();
+        writeBatch(List.of(entry));
+    }
+
+    /**
+     * 数据库和本地预写文件都写入失败：打印到标准错误（与 logSync 失败时一致）
+     */
+    private void onWriteFailed(List<OperationLog> batch) {
+        for (OperationLog entry : batch) {
+            System.err.println("【日志记录失败】" + entry.getOperationTime() +
+                    " - " + entry.getOperatorId() + " - " + entry.getOperationType() + " - " + entry.getOperationContent());
+        }
+        dropped.addAndGet(batch.size());
+    }
+
+    /**
+     * 管道状态（调试用）
+     */
+    String stats() {
+        return "queued=" + queue.size() + ", written=" + written.get() + ", batches=" + batches.get()
+                + ", dropped=" + dropped.get() + ", spilled=" + spilled.get() + ", policy=" + overflowPolicy;
+    }
+}
@@ -0,0 +1,511 @@
+package util;
+
+import model.OperationLog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 操作日志本地预写文件（数据库不可用时的兜底）
+ * 1. 写不进数据库的日志追加到与 dbconfig.properties 同目录的段文件（内存映射，只追加）
+ *    段文件名为 operation_log-<起始序号>.seg，写满后滚动到新段
+ * 2. 每条记录：[int 长度][long 序号][long 时间][操作人][类型][内容]，字符串为 [int 字节数][UTF-8]；
+ *    长度字段最后写入，写到一半崩溃的记录长度为 0，读取时视为段尾
+ * 3. 数据库恢复后按序号分批回放到 operation_log，每批成功后推进检查点（operation_log.ckpt）；
+ *    回放使用 (source_id, source_seq) 唯一键 + INSERT IGNORE，检查点落后时重复回放也不会产生重复日志
+ * 4. 数据库写入失败后进入退避期（5 秒起，最长 60 秒），期间日志直接写本地文件，不再阻塞在连接上
+ */
+public class LogSpillStore {
+
+    /**
+     * 把一批预写记录写入数据库
+     */
+    public interface Replayer {
+        boolean replay(String sourceId, List<Record> records);
+    }
+
+    /**
+     * 一条预写记录
+     */
+    public static final class Record {
+        public final long seq;
+        public final OperationLog log;
+
+        Record(long seq, OperationLog log) {
+            this.seq = seq;
+            this.log = log;
+        }
+    }
+
+    private static final LogSpillStore INSTANCE = new LogSpillStore(Paths.get("."));
+
+    private static final int MAGIC = 0x4C4F4753; // "LOGS"
+    private static final int HEADER_BYTES = 16;
+    private static final String SEGMENT_PREFIX = "operation_log-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_FILE = "operation_log.ckpt";
+    private static final int REPLAY_BATCH = 200;
+    private static final long MIN_BACKOFF_MS = 5_000;
+    private static final long MAX_BACKOFF_MS = 60_000;
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final Object lock = new Object();
+
+    // 本客户端的唯一标识（与序号一起构成 operation_log 中的幂等键）
+    private String sourceId;
+    // 已回放到数据库的最大序号
+    private long checkpoint;
+    // 下一条记录的序号
+    private long nextSeq;
+    // 起始序号 -> 段文件
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+
+    // 当前写入的段
+    private FileChannel activeChannel;
+    private MappedByteBuffer active;
+    private long activeStartSeq;
+
+    private volatile long backoffUntil = 0;
+    private long backoffMs = MIN_BACKOFF_MS;
+    private volatile Replayer replayer;
+    private ScheduledExecutorService replayExecutor;
+
+    LogSpillStore(Path dir) {
+        this.dir = dir;
+        this.segmentBytes = Math.max(64 * 1024, Integer.getInteger("log.spill.segmentBytes", 4 * 1024 * 1024));
+        try {
+            loadCheckpoint();
+            scanSegments();
+        } catch (IOException e) {
+            System.err.println("读取日志预写文件失败: " + e.getMessage());
+        }
+    }
+
+    public static LogSpillStore getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 设置回放方式并启动后台回放（每 10 秒检查一次）
+     */
+    public synchronized void startReplay(Replayer replayer) {
+        this.replayer = replayer;
+        if (replayExecutor != null) {
+            return;
+        }
+        replayExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "log-spill-replay");
+            t.setDaemon(true);
+            return t;
+        });
+        replayExecutor.scheduleWithFixedDelay(this::replayQuietly, 1, 10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 数据库写入成功后调用：结束退避，有未回放的记录时立即在后台回放
+     */
+    public void markDbUp() {
+        boolean wasDown = backoffUntil != 0;
+        synchronized (lock) {
+            backoffUntil = 0;
+            backoffMs = MIN_BACKOFF_MS;
+        }
+        if (wasDown && hasPending() && replayExecutor != null) {
+            replayExecutor.execute(this::replayQuietly);
+        }
+    }
+
+    /**
+     * 数据库写入失败后调用：进入退避期，退避时间逐次翻倍
+     */
+    public void markDbDown() {
+        synchronized (lock) {
+            backoffUntil = System.currentTimeMillis() + backoffMs;
+            backoffMs = Math.min(MAX_BACKOFF_MS, backoffMs * 2);
+        }
+    }
+
+    /**
+     * 是否处于退避期（此时应直接写本地文件，不去连接数据库）
+     */
+    public boolean isDbBackoff() {
+        return backoffUntil != 0 && System.currentTimeMillis() < backoffUntil;
+    }
+
+    /**
+     * 是否有尚未回放的记录
+     */
+    public boolean hasPending() {
+        synchronized (lock) {
+            return nextSeq - 1 > checkpoint;
+        }
+    }
+
+    /**
+     * 追加一批日志并刷到磁盘
+     * @return 是否写入成功
+     */
+    public boolean append(List<OperationLog> logs) {
+        synchronized (lock) {
+            try {
+                for (OperationLog log : logs) {
+                    byte[] body = encode(log);
+                    int recordBytes = 4 + 8 + body.length;
+                    if (recordBytes > segmentBytes - HEADER_BYTES) {
+                        System.err.println("日志过长，无法写入预写文件: " + log.getOperationType());
+                        continue;
+                    }
+                    if (active == null || active.remaining() < recordBytes + 4) {
+                        rollSegment();
+                    }
+                    int start = active.position();
+                    active.position(start + 4);
+                    active.putLong(nextSeq);
+                    active.put(body);
+                    int end = active.position();
+                    // 最后写长度，未写完整的记录长度为 0
+                    active.putInt(start, 8 + body.length);
+                    active.position(end);
+                    nextSeq++;
+                }
+                if (active != null) {
+                    active.force();
+                }
+                return true;
+            } catch (IOException e) {
+                System.err.println("写入日志预写文件失败: " + e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 回放未写入数据库的记录（由后台线程调用）
+     * @return 本次回放的记录数
+     */
+    public int replay() {
+        Replayer r = replayer;
+        if (r == null || isDbBackoff() || !hasPending()) {
+            return 0;
+        }
+        int total = 0;
+        for (Path segment : sealedAndActiveSegments()) {
+            List<Record> records;
+            try {
+                records = readSegment(segment);
+            } catch (IOException e) {
+                System.err.println("读取日志预写文件失败: " + segment + " - " + e.getMessage());
+                continue;
+            }
+            List<Record> batch = new ArrayList<>(REPLAY_BATCH);
+            for (Record record : records) {
+                if (record.seq <= checkpoint) {
+                    continue;
+                }
+                batch.add(record);
+                if (batch.size() >= REPLAY_BATCH) {
+                    if (!replayBatch(r, batch)) {
+                        return total;
+                    }
+                    total += batch.size();
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                if (!replayBatch(r, batch)) {
+                    return total;
+                }
+                total += batch.size();
+            }
+        }
+        purgeReplayedSegments();
+        if (total > 0) {
+            System.out.println("已从本地预写文件回放 " + total + " 条操作日志");
+        }
+        return total;
+    }
+
+    private void replayQuietly() {
+        try {
+            replay();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private boolean replayBatch(Replayer r, List<Record> batch) {
+        if (!r.replay(sourceId, batch)) {
+            markDbDown();
+            return false;
+        }
+        synchronized (lock) {
+            checkpoint = Math.max(checkpoint, batch.get(batch.size() - 1).seq);
+            try {
+                saveCheckpoint();
+            } catch (IOException e) {
+                // 检查点落后只会导致重复回放，由唯一键去重
+                System.err.println("保存日志回放检查点失败: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private List<Path> sealedAndActiveSegments() {
+        synchronized (lock) {
+            return new ArrayList<>(segments.values());
+        }
+    }
+
+    /**
+     * 删除已全部回放的段；当前段已全部回放时关闭它，下次写入时新建
+     */
+    private void purgeReplayedSegments() {
+        synchronized (lock) {
+            List<Long> starts = new ArrayList<>(segments.keySet());
+            for (int i = 0; i < starts.size(); i++) {
+                long start = starts.get(i);
+                boolean isActive = active != null && start == activeStartSeq;
+                long lastSeq = i + 1 < starts.size() ? starts.get(i + 1) - 1 : nextSeq - 1;
+                if (lastSeq > checkpoint) {
+                    continue;
+                }
+                if (isActive) {
+                    closeActive();
+                }
+                try {
+                    Files.deleteIfExists(segments.get(start));
+                    segments.remove(start);
+                } catch (IOException e) {
+                    // 仍被映射的文件在部分系统上无法立即删除，下次回放时再试
+                    System.err.println("删除已回放的日志预写文件失败: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        closeActive();
+        if (!Files.exists(dir.resolve(CHECKPOINT_FILE))) {
+            saveCheckpoint();
+        }
+        Path path = dir.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSeq, SEGMENT_SUFFIX));
+        activeChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        active = activeChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        active.putInt(0, MAGIC);
+        active.putInt(4, 1);
+        active.position(HEADER_BYTES);
+        activeStartSeq = nextSeq;
+        segments.put(nextSeq, path);
+    }
+
+    private void closeActive() {
+        if (active != null) {
+            active.force();
+            active = null;
+        }
+        if (activeChannel != null) {
+            try {
+                activeChannel.close();
+            } catch (IOException e) {
+                System.err.println("关闭日志预写文件失败: " + e.getMessage());
+            }
+            activeChannel = null;
+        }
+    }
+
+    /**
+     * 启动时扫描已有段文件，恢复下一个序号，并把最后一个未写满的段重新作为当前段
+     */
+    private void scanSegments() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                try {
+                    long start = Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length()));
+                    segments.put(start, path);
+                } catch (NumberFormatException e) {
+                    System.err.println("忽略无法识别的日志预写文件: " + name);
+                }
+            }
+        }
+        nextSeq = checkpoint + 1;
+        for (Path path : segments.values()) {
+            List<Record> records = readSegment(path);
+            if (!records.isEmpty()) {
+                nextSeq = Math.max(nextSeq, records.get(records.size() - 1).seq + 1);
+            }
+        }
+        if (!segments.isEmpty() && nextSeq - 1 > checkpoint) {
+            System.out.println("发现 " + (nextSeq - 1 - checkpoint) + " 条未回放的本地操作日志，将在数据库可用时写入");
+        }
+        reopenLastSegment();
+    }
+
+    /**
+     * 把最后一个段重新映射为当前段，从最后一条完整记录之后继续写入
+     * （段大小与当前配置不同或文件头无法识别时不续写，下次写入时新建段；写满时由 append 滚动）
+     */
+    private void reopenLastSegment() throws IOException {
+        if (segments.isEmpty()) {
+            return;
+        }
+        Map.Entry<Long, Path> last = segments.lastEntry();
+        byte[] data = Files.readAllBytes(last.getValue());
+        ByteBuffer buf = ByteBuffer.wrap(data);
+        if (data.length != segmentBytes || buf.getInt(0) != MAGIC) {
+            return;
+        }
+        int end = readRecords(buf, new ArrayList<>());
+        activeChannel = FileChannel.open(last.getValue(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        active = activeChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        // 清掉崩溃时写了一半的记录：新记录比它短时，残留的字节会被读成下一条记录的长度
+        int dirtyEnd = data.length;
+        while (dirtyEnd > end && data[dirtyEnd - 1] == 0) {
+            dirtyEnd--;
+        }
+        for (int i = end; i < dirtyEnd; i++) {
+            active.put(i, (byte) 0);
+        }
+        active.position(end);
+        activeStartSeq = last.getKey();
+    }
+
+    /**
+     * 读取一个段文件中的全部完整记录
+     */
+    private List<Record> readSegment(Path path) throws IOException {
+        List<Record> records = new ArrayList<>();
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (buf.remaining() < HEADER_BYTES || buf.getInt(0) != MAGIC) {
+            return records;
+        }
+        readRecords(buf, records);
+        return records;
+    }
+
+    /**
+     * 从文件头之后依次读取完整记录
+     * @return 最后一条完整记录之后的位置（续写的起点）
+     */
+    private static int readRecords(ByteBuffer buf, List<Record> records) {
+        buf.position(HEADER_BYTES);
+        while (buf.remaining() >= 4) {
+            int length = buf.getInt(buf.position());
+            if (length <= 8 || length > buf.remaining() - 4) {
+                break; // 段尾或未写完整的记录
+            }
+            buf.position(buf.position() + 4);
+            ByteBuffer body = buf.slice();
+            body.limit(length);
+            buf.position(buf.position() + length);
+            long seq = body.getLong();
+            records.add(new Record(seq, decode(body)));
+        }
+        return buf.position();
+    }
+
+    private static byte[] encode(OperationLog log) {
+        byte[][] fields = {bytes(log.getOperatorId()), bytes(log.getOperationType()), bytes(log.getOperationContent())};
+        int size = 8;
+        for (byte[] field : fields) {
+            size += 4 + (field == null ? 0 : field.length);
+        }
+        ByteBuffer buf = ByteBuffer.allocate(size);
+        Timestamp time = log.getOperationTime();
+        buf.putLong(time == null ? System.currentTimeMillis() : time.getTime());
+        for (byte[] field : fields) {
+            if (field == null) {
+                buf.putInt(-1);
+            } else {
+                buf.putInt(field.length);
+                buf.put(field);
+            }
+        }
+        return buf.array();
+    }
+
+    private static OperationLog decode(ByteBuffer body) {
+        long time = body.getLong();
+        String operatorId = readString(body);
+        String type = readString(body);
+        String content = readString(body);
+        return new OperationLog(0, operatorId, type, content, new Timestamp(time));
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String readString(ByteBuffer buf) {
+        int length = buf.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] data = new byte[length];
+        buf.get(data);
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    private void loadCheckpoint() throws IOException {
+        Path path = dir.resolve(CHECKPOINT_FILE);
+        Properties props = new Properties();
+        if (Files.exists(path)) {
+            try (InputStream in = Files.newInputStream(path)) {
+                props.load(in);
+            }
+        }
+        sourceId = props.getProperty("sourceId");
+        try {
+            checkpoint = Long.parseLong(props.getProperty("replayedSeq", "0"));
+        } catch (NumberFormatException e) {
+            checkpoint = 0;
+        }
+        if (sourceId == null || sourceId.isEmpty()) {
+            // 首次写入预写文件时才保存（见 rollSegment）
+            sourceId = UUID.randomUUID().toString();
+        }
+    }
+
+    /**
+     * 检查点先写临时文件再原子替换，避免写到一半断电
+     */
+    private void saveCheckpoint() throws IOException {
+        Properties props = new Properties();
+        props.setProperty("sourceId", sourceId);
+        props.setProperty("replayedSeq", String.valueOf(checkpoint));
+        Path tmp = dir.resolve(CHECKPOINT_FILE + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            props.store(out, "operation log replay checkpoint");
+        }
+        try {
+            Files.move(tmp, dir.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.move(tmp, dir.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
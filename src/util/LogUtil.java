@@ -14,6 +14,12 @@ public class LogUtil {
     
     // 静态的 LogService 实例
     private static final LogService logService = new LogService();
+
+    // 异步日志管道（有界队列 + 单个批量写线程），JVM 退出前写完队列中的日志
+    private static final LogPipeline pipeline = new LogPipeline(logService);
+    static {
+        DBUtils.addShutdownTask(() -> pipeline.shutdown(3000));
+    }
     
     /**
      * 同步记录日志（会阻塞当前线程直到日志记录完成）
@@ -30,11 +36,25 @@ public class LogUtil {
     
     /**
      * 异步记录日志（推荐使用，不阻塞主线程）
+     * 日志进入队列后由后台线程批量写入数据库
      */
     public static void logAsync(String operatorId, String operationType, String operationContent) {
-        new Thread(() -> {
-            logSync(operatorId, operationType, operationContent);
-        }).start();
+        pipeline.submit(operatorId, operationType, operationContent);
+    }
+
+    /**
+     * 等待已提交的异步日志写入数据库（如退出登录前），最多等待 timeoutMs 毫秒
+     * @return true 表示已全部写入
+     */
+    public static boolean flush(long timeoutMs) {
+        return pipeline.flush(timeoutMs);
+    }
+
+    /**
+     * 异步日志管道状态（调试用）
+     */
+    public static String getPipelineStats() {
+        return pipeline.stats();
     }
     
     /**
@@ -0,0 +1,187 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 上课时间位图（星期 × 节次，可选周次范围）
+ * 解析规则与学生端课表一致："周一1-2节"、"周二3、4节"、"周三5,6节"、"周四7-8"，
+ * 并扩展支持任意节次范围（"周一1-4节"）、多段时间（"周一1-2节 周三3-4节"）和周次（"1-16周"、"单周"）。
+ * 位布局：bitIndex = day * 12 + (period - 1)，周一至周五放在 lo，周六、周日放在 hi；
+ * 两门课是否冲突只需对位图做一次按位与。
+ */
+public final class ScheduleMask {
+
+    public static final int DAYS = 7;
+    public static final int PERIODS = 12;
+    private static final int LO_DAYS = 5;
+
+    public static final ScheduleMask EMPTY = new ScheduleMask(0L, 0L, 0);
+
+    private static final String[][] DAY_TOKENS = {
+            {"周一", "星期一"}, {"周二", "星期二"}, {"周三", "星期三"}, {"周四", "星期四"},
+            {"周五", "星期五"}, {"周六", "星期六"}, {"周日", "周天", "星期日", "星期天"}
+    };
+    // 周次：1-16周、第3周、3-10周单 等；"周"后面紧跟星期时是下一段的"周三"等，不是周次（如"周一1-2 周三3-4"）
+    private static final Pattern WEEK_RANGE =
+            Pattern.compile("第?\\s*(\\d+)\\s*(?:[-~到至]\\s*(\\d+))?\\s*周(?![一二三四五六日天])");
+    // 节次：1-2、1~4、3、4（逗号/顿号分隔的离散节次）
+    private static final Pattern PERIOD_RANGE = Pattern.compile("(\\d+)(?:\\s*[-~到至]\\s*(\\d+))?");
+
+    // 按 schedule_time 文本缓存解析结果（同一时间字符串只解析一次）
+    private static final ConcurrentHashMap<String, ScheduleMask> CACHE = new ConcurrentHashMap<>();
+
+    private final long lo;
+    private final long hi;
+    // 周次位图，bit w 表示第 w 周；0 表示不限周次（全部周）
+    private final int weeks;
+
+    public ScheduleMask(long lo, long hi, int weeks) {
+        this.lo = lo;
+        this.hi = hi;
+        this.weeks = weeks;
+    }
+
+    /**
+     * 解析上课时间字符串（带缓存）
+     */
+    public static ScheduleMask parse(String scheduleTime) {
+        if (scheduleTime == null || scheduleTime.trim().isEmpty()) {
+            return EMPTY;
+        }
+        return CACHE.computeIfAbsent(scheduleTime.trim(), ScheduleMask::doParse);
+    }
+
+    private static ScheduleMask doParse(String timeStr) {
+        try {
+            // 1. 先提取周次，并从字符串中去掉，避免把周次当成节次
+            int weeks = 0;
+            Matcher wm = WEEK_RANGE.matcher(timeStr);
+            StringBuffer rest = new StringBuffer();
+            while (wm.find()) {
+                int from = Integer.parseInt(wm.group(1));
+                int to = wm.group(2) != null ? Integer.parseInt(wm.group(2)) : from;
+                for (int w = Math.max(1, from); w <= Math.min(31, to); w++) {
+                    weeks |= 1 << w;
+                }
+                wm.appendReplacement(rest, " ");
+            }
+            wm.appendTail(rest);
+            String text = rest.toString();
+            if (text.contains("单周") || text.contains("双周")) {
+                int parity = text.contains("单周") ? 1 : 0;
+                int base = weeks == 0 ? ~1 : weeks; // 未写周次范围时按全部周处理
+                weeks = 0;
+                for (int w = 1; w <= 31; w++) {
+                    if ((base & (1 << w)) != 0 && w % 2 == parity) {
+                        weeks |= 1 << w;
+                    }
+                }
+            }
+
+            // 2. 按星期切分，每段中的数字都视为节次
+            List<int[]> dayPositions = new ArrayList<>();
+            for (int day = 0; day < DAYS; day++) {
+                for (String token : DAY_TOKENS[day]) {
+                    int idx = text.indexOf(token);
+                    while (idx >= 0) {
+                        dayPositions.add(new int[]{idx, day, token.length()});
+                        idx = text.indexOf(token, idx + token.length());
+                    }
+                }
+            }
+            dayPositions.sort((a, b) -> Integer.compare(a[0], b[0]));
+
+            long lo = 0L;
+            long hi = 0L;
+            for (int i = 0; i < dayPositions.size(); i++) {
+                int[] pos = dayPositions.get(i);
+                int start = pos[0] + pos[2];
+                int end = i + 1 < dayPositions.size() ? dayPositions.get(i + 1)[0] : text.length();
+                Matcher pm = PERIOD_RANGE.matcher(text.substring(start, end));
+                while (pm.find()) {
+                    int from = Integer.parseInt(pm.group(1));
+                    int to = pm.group(2) != null ? Integer.parseInt(pm.group(2)) : from;
+                    for (int p = Math.max(1, from); p <= Math.min(PERIODS, to); p++) {
+                        int bit = bitIndex(pos[1], p);
+                        if (pos[1] < LO_DAYS) {
+                            lo |= 1L << bit;
+                        } else {
+                            hi |= 1L << (bit - LO_DAYS * PERIODS);
+                        }
+                    }
+                }
+            }
+            return (lo == 0L && hi == 0L) ? EMPTY : new ScheduleMask(lo, hi, weeks);
+        } catch (RuntimeException e) {
+            System.err.println("解析课程时间失败 [" + timeStr + "]: " + e.getMessage());
+            return EMPTY;
+        }
+    }
+
+    private static int bitIndex(int day, int period) {
+        return day * PERIODS + (period - 1);
+    }
+
+    /**
+     * 是否与另一时间段冲突（节次有交集且周次有交集）
+     */
+    public boolean intersects(ScheduleMask other) {
+        if ((lo & other.lo) == 0L && (hi & other.hi) == 0L) {
+            return false;
+        }
+        return weeks == 0 || other.weeks == 0 || (weeks & other.weeks) != 0;
+    }
+
+    /**
+     * 合并两个时间段（用于计算学生已占用的时间）
+     * 合并后的周次取并集；任一方不限周次则结果不限周次
+     */
+    public ScheduleMask or(ScheduleMask other) {
+        int mergedWeeks = (weeks == 0 || other.weeks == 0) ? 0 : (weeks | other.weeks);
+        return new ScheduleMask(lo | other.lo, hi | other.hi, mergedWeeks);
+    }
+
+    /**
+     * 某天某节是否有课
+     * @param day 星期（0=周一 ... 6=周日）
+     * @param period 节次（1-12）
+     */
+    public boolean hasSlot(int day, int period) {
+        if (day < 0 || day >= DAYS || period < 1 || period > PERIODS) {
+            return false;
+        }
+        int bit = bitIndex(day, period);
+        return day < LO_DAYS ? (lo & (1L << bit)) != 0 : (hi & (1L << (bit - LO_DAYS * PERIODS))) != 0;
+    }
+
+    public boolean isEmpty() {
+        return lo == 0L && hi == 0L;
+    }
+
+    public long getLo() { return lo; }
+    public long getHi() { return hi; }
+    public int getWeeks() { return weeks; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ScheduleMask)) return false;
+        ScheduleMask that = (ScheduleMask) o;
+        return lo == that.lo && hi == that.hi && weeks == that.weeks;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(lo) * 31 * 31 + Long.hashCode(hi) * 31 + weeks;
+    }
+
+    @Override
+    public String toString() {
+        return "ScheduleMask{lo=" + Long.toHexString(lo) + ", hi=" + Long.toHexString(hi)
+                + ", weeks=" + Integer.toHexString(weeks) + '}';
+    }
+}
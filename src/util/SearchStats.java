@@ -0,0 +1,105 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 课程搜索统计（本地汇总，定时写入操作日志）
+ * 边输入边搜索时每次按键都可能产生一次搜索，调用方只记录用户发起、且条件已稳定的搜索（不含中间前缀和刷新列表）；
+ * 不再每次搜索写一条日志，而是按用户汇总搜索次数、无结果次数和热门关键词，每隔 search.statsFlushMs 毫秒（默认 60 秒）
+ * 为每个有搜索的用户写一条"搜索课程"日志；JVM 退出前写出剩余的统计。
+ */
+public final class SearchStats {
+
+    private static final long FLUSH_INTERVAL_MS = Math.max(1000, Long.getLong("search.statsFlushMs", 60_000L));
+    // 每条日志最多列出的关键词数
+    private static final int TOP_KEYWORDS = 5;
+
+    // 用户编号 -> 本周期的统计
+    private static final Map<String, UserStats> stats = new HashMap<>();
+
+    private static final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "search-stats-flush");
+        t.setDaemon(true);
+        return t;
+    });
+
+    static {
+        flusher.scheduleWithFixedDelay(SearchStats::flush, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        DBUtils.addShutdownTask(SearchStats::flush);
+    }
+
+    private static final class UserStats {
+        final String userName;
+        int searches;
+        int emptyResults;
+        final Map<String, Integer> keywords = new HashMap<>();
+
+        UserStats(String userName) {
+            this.userName = userName;
+        }
+    }
+
+    private SearchStats() {}
+
+    /**
+     * 记录一次搜索（只在内存中计数）
+     * @param keyword 关键词，为空表示只用了筛选条件
+     * @param resultCount 结果课程数
+     */
+    public static synchronized void record(String userId, String userName, String keyword, int resultCount) {
+        UserStats s = stats.computeIfAbsent(userId, k -> new UserStats(userName));
+        s.searches++;
+        if (resultCount == 0) {
+            s.emptyResults++;
+        }
+        if (keyword != null && !keyword.isEmpty()) {
+            s.keywords.merge(keyword, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * 把本周期的统计写入操作日志（异步）并清零
+     */
+    public static void flush() {
+        Map<String, UserStats> snapshot;
+        synchronized (SearchStats.class) {
+            if (stats.isEmpty()) {
+                return;
+            }
+            snapshot = new LinkedHashMap<>(stats);
+            stats.clear();
+        }
+        for (Map.Entry<String, UserStats> entry : snapshot.entrySet()) {
+            UserStats s = entry.getValue();
+            LogUtil.log(entry.getKey(), "搜索课程", "学生 " + s.userName + " 搜索课程 " + s.searches + " 次"
+                    + "（无结果 " + s.emptyResults + " 次）" + topKeywords(s.keywords));
+        }
+    }
+
+    // "，关键词: 高数(3), java(2)"；没有关键词时返回空串
+    private static String topKeywords(Map<String, Integer> keywords) {
+        if (keywords.isEmpty()) {
+            return "";
+        }
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(keywords.entrySet());
+        entries.sort((a, b) -> Integer.compare(b.getValue(), a.getValue()));
+        StringBuilder sb = new StringBuilder("，关键词: ");
+        for (int i = 0; i < Math.min(TOP_KEYWORDS, entries.size()); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(entries.get(i).getKey()).append('(').append(entries.get(i).getValue()).append(')');
+        }
+        if (entries.size() > TOP_KEYWORDS) {
+            sb.append(" 等 ").append(entries.size()).append(" 个");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,218 @@
+package util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个物理连接上的预编译语句缓存（LRU，按 SQL 文本索引）
+ * 业务代码对缓存语句调用 close() 时只清空参数并放回缓存，
+ * 下次 prepareStatement/prepareCall 同一 SQL 时直接复用，省去客户端分配和服务端解析
+ */
+class StatementCache {
+
+    // 全局命中/未命中计数（所有连接共享）
+    static final AtomicLong HITS = new AtomicLong();
+    static final AtomicLong MISSES = new AtomicLong();
+
+    private final int maxSize;
+    private final Map<String, CachedStatement> cache;
+
+    StatementCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.cache = new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() > StatementCache.this.maxSize) {
+                    eldest.getValue().evict();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 获取 PreparedStatement（缓存命中则复用）
+     */
+    synchronized PreparedStatement prepare(Connection raw, Connection owner, String sql) throws SQLException {
+        return (PreparedStatement) checkout(raw, owner, sql, false);
+    }
+
+    /**
+     * 获取 CallableStatement（缓存命中则复用）
+     */
+    synchronized CallableStatement prepareCall(Connection raw, Connection owner, String sql) throws SQLException {
+        return (CallableStatement) checkout(raw, owner, sql, true);
+    }
+
+    private Object checkout(Connection raw, Connection owner, String sql, boolean callable) throws SQLException {
+        String key = (callable ? "C:" : "P:") + sql;
+        CachedStatement cached = cache.get(key);
+        if (cached != null && !cached.inUse) {
+            HITS.incrementAndGet();
+        } else if (cached != null) {
+            // 同一连接上同一 SQL 正在使用中（如嵌套调用），退化为不缓存的普通语句
+            MISSES.incrementAndGet();
+            return callable ? raw.prepareCall(sql) : raw.prepareStatement(sql);
+        } else {
+            MISSES.incrementAndGet();
+            PreparedStatement stmt = callable ? raw.prepareCall(sql) : raw.prepareStatement(sql);
+            cached = new CachedStatement(stmt);
+            cache.put(key, cached);
+        }
+        cached.inUse = true;
+        return cached.lend(owner, callable);
+    }
+
+    /**
+     * 物理连接关闭时释放所有缓存语句
+     */
+    synchronized void closeAll() {
+        List<CachedStatement> all = new ArrayList<>(cache.values());
+        cache.clear();
+        for (CachedStatement cached : all) {
+            cached.evict();
+        }
+    }
+
+    /**
+     * 连接归还时调用：业务代码忘记关闭的语句无法再安全复用，直接关闭并移出缓存
+     */
+    synchronized void reclaimLeaked() {
+        cache.values().removeIf(cached -> {
+            if (cached.inUse) {
+                cached.evicted = true;
+                cached.inUse = false;
+                cached.closeQuietly();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    synchronized int size() {
+        return cache.size();
+    }
+
+    static String stats() {
+        long hits = HITS.get();
+        long misses = MISSES.get();
+        long total = hits + misses;
+        return "stmtHits=" + hits + ", stmtMisses=" + misses
+                + (total > 0 ? String.format(", hitRate=%.1f%%", hits * 100.0 / total) : "");
+    }
+
+    /**
+     * 缓存中的一条语句
+     */
+    private final class CachedStatement {
+        final PreparedStatement stmt;
+        boolean inUse;
+        boolean evicted;
+
+        CachedStatement(PreparedStatement stmt) {
+            this.stmt = stmt;
+        }
+
+        Object lend(Connection owner, boolean callable) {
+            Class<?> type = callable ? CallableStatement.class : PreparedStatement.class;
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                    new StatementHandler(this, owner));
+        }
+
+        /**
+         * 归还到缓存：清空参数；若已被淘汰则真正关闭
+         */
+        void release() {
+            synchronized (StatementCache.this) {
+                inUse = false;
+                if (evicted) {
+                    closeQuietly();
+                    return;
+                }
+            }
+            try {
+                stmt.clearParameters();
+                stmt.clearWarnings();
+            } catch (SQLException e) {
+                synchronized (StatementCache.this) {
+                    cache.values().remove(this);
+                }
+                closeQuietly();
+            }
+        }
+
+        /**
+         * 被 LRU 淘汰：空闲则立即关闭，使用中则等归还时关闭
+         */
+        void evict() {
+            evicted = true;
+            if (!inUse) {
+                closeQuietly();
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                stmt.close();
+            } catch (SQLException e) {
+                System.err.println("关闭缓存语句失败: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 语句代理：拦截 close() 归还缓存，其余调用转发给真实语句
+     */
+    private static final class StatementHandler implements InvocationHandler {
+        private final CachedStatement cached;
+        private final Connection owner;
+        private boolean closed = false;
+
+        StatementHandler(CachedStatement cached, Connection owner) {
+            this.cached = cached;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        cached.release();
+                    }
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("语句已关闭");
+            }
+            try {
+                return method.invoke(cached.stmt, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -3,6 +3,7 @@ package view;
 import util.LogUtil;
 import model.User;
 import model.Course;
+import service.AsyncService;
 import service.CourseService;
 import service.UserService;
 import util.CSVExporter;
@@ -15,17 +16,38 @@ import java.awt.event.ActionListener;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class AdminMainFrame extends JFrame {
 
     private final CourseService courseService = new CourseService();
     private final UserService userService = new UserService();
+    // 服务调用在后台执行，窗口关闭时取消
+    private final UiTasks tasks = new UiTasks(this);
     private final User admin;
     private JTabbedPane tabbedPane;
     private JTable statisticsTable;
+    private DefaultTableModel statisticsModel;
+    // 启动时后台预取的统计数据，统计报表页创建时直接显示
+    private List<Course> lastStatistics;
+    private SkeletonPanel auditSkeleton;
+    private SkeletonPanel statisticsSkeleton;
+    // 标签页第一次选中时才创建，各页数据按优先级在后台加载
+    private final StartupQueue startupQueue = new StartupQueue();
+    // 登录时预热的待审核课程查询（只在首次加载时使用）
+    private CompletableFuture<List<Course>> warmedPending;
 
     public AdminMainFrame(User admin) {
+        this(admin, null);
+    }
+
+    /**
+     * 构造函数：使用登录时预热的数据（待审核课程、选课统计）初始化界面
+     */
+    AdminMainFrame(User admin, MainFrameBootstrap bootstrap) {
         this.admin = admin;
+        this.warmedPending = bootstrap != null ? bootstrap.getPendingCourses() : null;
+        CompletableFuture<List<Course>> warmedStatistics = bootstrap != null ? bootstrap.getStatistics() : null;
         setTitle("选课系统 - 教务管理员 - 欢迎：" + admin.getUserName());
         setSize(900, 700);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -38,14 +60,38 @@ public class AdminMainFrame extends JFrame {
         createMenuBar();
         
         tabbedPane = new JTabbedPane();
+        LazyTabs lazyTabs = new LazyTabs(tabbedPane);
 
-        tabbedPane.addTab("课程开设审核", createAuditPanel());
-        tabbedPane.addTab("选课统计报表", createStatisticsPanel());
-        tabbedPane.addTab("用户数据维护", createUserMaintenancePanel());
+        // 审核页默认选中，立即创建（待审核课程优先加载）
+        lazyTabs.addTab("课程开设审核", this::createAuditPanel);
+        lazyTabs.addTab("选课统计报表", this::createStatisticsPanel);
+        lazyTabs.addTab("用户数据维护", this::createUserMaintenancePanel);
 
         add(tabbedPane, BorderLayout.CENTER);
+
+        // 统计报表的数据在审核页之后预取（登录时已预热完成的直接使用）
+        lastStatistics = MainFrameBootstrap.resultNow(warmedStatistics);
+        if (lastStatistics == null) {
+            startupQueue.add("statistics", 1, () -> tasks.submit(warmedStatistics, courseService::getCourseStatistics,
+                    stats -> {
+                        lastStatistics = stats;
+                        if (statisticsModel != null) {
+                            showStatistics(statisticsModel, stats);
+                        }
+                    }, null));
+        }
+        // 最后在后台补算旧课程的上课时间位图（用于选课时间冲突检测）
+        // （失败时由 backfillScheduleMasks 输出错误信息，补算了课程时记录操作日志）
+        startupQueue.add("backfill", 2, () -> AsyncService.run(() -> {
+            int count = courseService.backfillScheduleMasks();
+            if (count > 0) {
+                LogUtil.log(admin.getUserId(), "补算上课时间位图", "补算了 " + count + " 门课程的上课时间位图");
+            }
+        }));
+
         setLocationRelativeTo(null);
         setVisible(true);
+        startupQueue.start();
     }
 
     /**
@@ -70,7 +116,7 @@ public class AdminMainFrame extends JFrame {
         logoutItem.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                handleLogout();
+                handleLogout(logoutItem);
             }
         });
         
@@ -130,41 +176,40 @@ public class AdminMainFrame extends JFrame {
                 return;
             }
             
-            // 【关键修改】使用validatePassword方法验证旧密码
-            boolean oldPasswordCorrect = userService.validatePassword(admin.getUserId(), oldPassword);
-            
-            if (!oldPasswordCorrect) {
-                JOptionPane.showMessageDialog(this, "当前密码错误", "验证失败", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
-            
-            // 更新密码 - 需要在UserService中添加updateAdminPassword方法
-            boolean success = userService.updateAdminPassword(admin.getUserId(), newPassword);
-            
-            if (success) {
-                // 记录日志
-                LogUtil.log(admin.getUserId(), "修改密码", 
-                           "管理员 " + admin.getUserName() + " 修改密码成功");
-                
-                JOptionPane.showMessageDialog(this, 
-                    "密码修改成功！\n" +
-                    "请记住新密码，下次登录时使用。",
-                    "修改成功", JOptionPane.INFORMATION_MESSAGE);
-            } else {
-                LogUtil.log(admin.getUserId(), "修改密码失败", 
-                           "管理员 " + admin.getUserName() + " 修改密码失败");
-                
-                JOptionPane.showMessageDialog(this, 
-                    "密码修改失败，请稍后重试",
-                    "修改失败", JOptionPane.ERROR_MESSAGE);
-            }
+            // 【关键修改】使用validatePassword方法验证旧密码（后台执行）
+            tasks.submit(() -> userService.validatePassword(admin.getUserId(), oldPassword), oldPasswordCorrect -> {
+                if (!oldPasswordCorrect) {
+                    JOptionPane.showMessageDialog(this, "当前密码错误", "验证失败", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                // 更新密码
+                tasks.submit(() -> userService.updateAdminPassword(admin.getUserId(), newPassword), success -> {
+                    if (success) {
+                        // 记录日志
+                        LogUtil.log(admin.getUserId(), "修改密码", 
+                                   "管理员 " + admin.getUserName() + " 修改密码成功");
+                        
+                        JOptionPane.showMessageDialog(this, 
+                            "密码修改成功！\n" +
+                            "请记住新密码，下次登录时使用。",
+                            "修改成功", JOptionPane.INFORMATION_MESSAGE);
+                    } else {
+                        LogUtil.log(admin.getUserId(), "修改密码失败", 
+                                   "管理员 " + admin.getUserName() + " 修改密码失败");
+                        
+                        JOptionPane.showMessageDialog(this, 
+                            "密码修改失败，请稍后重试",
+                            "修改失败", JOptionPane.ERROR_MESSAGE);
+                    }
+                });
+            });
         }
     }
     
     /**
      * 退出登录
      */
-    private void handleLogout() {
+    private void handleLogout(Component logoutItem) {
         int confirm = JOptionPane.showConfirmDialog(this,
             "确定要退出登录吗？",
             "确认退出", JOptionPane.YES_NO_OPTION);
@@ -172,24 +217,29 @@ public class AdminMainFrame extends JFrame {
         if (confirm == JOptionPane.YES_OPTION) {
             // 记录登出日志
             LogUtil.logLogout(admin.getUserId(), admin.getUserName());
-            
-            // 关闭当前窗口
-            this.dispose();
-            
-            // 重新打开登录窗口
-            EventQueue.invokeLater(new Runnable() {
-                @Override
-                public void run() {
-                    try {
-                        new LoginFrame();
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                }
-            });
+            // 登出前等待本次会话的日志写入数据库（在后台等待，不阻塞界面），完成后再关闭窗口
+            tasks.submit(() -> LogUtil.flush(2000), flushed -> closeAndShowLogin(), error -> closeAndShowLogin(),
+                    logoutItem);
         }
     }
 
+    private void closeAndShowLogin() {
+        // 关闭当前窗口
+        this.dispose();
+        
+        // 重新打开登录窗口
+        EventQueue.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    new LoginFrame();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        });
+    }
+
     // ===================================
     // 课程审核面板 (Audit Panel)
     // ===================================
@@ -199,27 +249,36 @@ public class AdminMainFrame extends JFrame {
         DefaultTableModel model = new DefaultTableModel(null, columns);
         JTable table = new JTable(model);
 
-        // 刷新待审核数据
-        refreshAuditTableData(model);
+        // 刷新待审核数据（启动队列中优先加载，加载完成前显示骨架占位；登录时已预热完成的直接填入）
+        auditSkeleton = new SkeletonPanel(new JScrollPane(table));
+        CompletableFuture<List<Course>> warmed = warmedPending;
+        warmedPending = null;
+        List<Course> pendingCourses = MainFrameBootstrap.resultNow(warmed);
+        if (pendingCourses != null) {
+            showPendingCourses(model, pendingCourses);
+        } else {
+            startupQueue.add("audit", 0, () -> tasks.submit(warmed, courseService::getPendingCourses,
+                    courses -> showPendingCourses(model, courses), null));
+        }
         JButton approveBtn = new JButton("通过 (发布)");
         JButton rejectBtn = new JButton("驳回");
 
         // 绑定审核事件
-        approveBtn.addActionListener(e -> handleAuditAction(table, model, "Published"));
-        rejectBtn.addActionListener(e -> handleAuditAction(table, model, "Rejected"));
+        approveBtn.addActionListener(e -> handleAuditAction(table, model, "Published", approveBtn, rejectBtn));
+        rejectBtn.addActionListener(e -> handleAuditAction(table, model, "Rejected", approveBtn, rejectBtn));
 
         JPanel buttonPanel = new JPanel();
         buttonPanel.add(approveBtn);
         buttonPanel.add(rejectBtn);
 
-        panel.add(new JScrollPane(table), BorderLayout.CENTER);
+        panel.add(auditSkeleton, BorderLayout.CENTER);
         panel.add(buttonPanel, BorderLayout.SOUTH);
 
         return panel;
     }
 
     // 在 handleAuditAction 方法中添加
-    private void handleAuditAction(JTable table, DefaultTableModel model, String action) {
+    private void handleAuditAction(JTable table, DefaultTableModel model, String action, JButton... buttons) {
         int selectedRow = table.getSelectedRow();
         if (selectedRow == -1) {
             JOptionPane.showMessageDialog(this, "请选择要审核的课程。", "错误", JOptionPane.ERROR_MESSAGE);
@@ -228,32 +287,37 @@ public class AdminMainFrame extends JFrame {
         String courseCode = (String) model.getValueAt(selectedRow, 0);
         String courseName = (String) model.getValueAt(selectedRow, 1);
 
-        boolean success = courseService.auditCourse(courseCode, action);
-
-        // 【添加日志】课程审核
-        if (success) {
-            String actionText = "Published".equals(action) ? "审核通过" : "审核驳回";
-            LogUtil.log(admin.getUserId(), "课程审核", 
-                       "管理员 " + admin.getUserName() + " " + actionText + 
-                       "课程：" + courseName + "(" + courseCode + ")");
+        tasks.submit(() -> courseService.auditCourse(courseCode, action), success -> {
+            // 【添加日志】课程审核
+            if (success) {
+                String actionText = "Published".equals(action) ? "审核通过" : "审核驳回";
+                LogUtil.log(admin.getUserId(), "课程审核", 
+                           "管理员 " + admin.getUserName() + " " + actionText + 
+                           "课程：" + courseName + "(" + courseCode + ")");
             
-            JOptionPane.showMessageDialog(this, "课程：" + courseCode + " 已审核" + 
-                ("Published".equals(action) ? "通过并发布" : "驳回") + "。", "成功", JOptionPane.INFORMATION_MESSAGE);
+                JOptionPane.showMessageDialog(this, "课程：" + courseCode + " 已审核" + 
+                    ("Published".equals(action) ? "通过并发布" : "驳回") + "。", "成功", JOptionPane.INFORMATION_MESSAGE);
             
-            refreshAuditTableData(model);
-        } else {
-            LogUtil.log(admin.getUserId(), "课程审核失败", 
-                       "管理员 " + admin.getUserName() + " 审核课程 " + 
-                       courseName + "(" + courseCode + ") 失败");
+                refreshAuditTableData(model);
+            } else {
+                LogUtil.log(admin.getUserId(), "课程审核失败", 
+                           "管理员 " + admin.getUserName() + " 审核课程 " + 
+                           courseName + "(" + courseCode + ") 失败");
             
-            JOptionPane.showMessageDialog(this, "审核失败。", "失败", JOptionPane.ERROR_MESSAGE);
-        }
+                JOptionPane.showMessageDialog(this, "审核失败。", "失败", JOptionPane.ERROR_MESSAGE);
+            }
+        }, buttons);
     }
 
     // 刷新审核表格数据
     private void refreshAuditTableData(DefaultTableModel model) {
+        tasks.submit(courseService::getPendingCourses, pendingCourses -> showPendingCourses(model, pendingCourses));
+    }
+
+    // 把待审核课程填入表格
+    private void showPendingCourses(DefaultTableModel model, List<Course> pendingCourses) {
+        auditSkeleton.showContent();
         model.setRowCount(0); // 清空表格
-        List<Course> pendingCourses = courseService.getPendingCourses();
         for (Course course : pendingCourses) {
             Object[] row = {
                     course.getCourseCode(),
@@ -277,9 +341,15 @@ public class AdminMainFrame extends JFrame {
         String[] columns = {"课程代码", "课程名称", "授课教师", "学分", "上课时间", "容量", "已选人数", "饱和度 (%)"};
         DefaultTableModel model = new DefaultTableModel(null, columns);
         statisticsTable = new JTable(model); // 保存引用
+        statisticsModel = model;
+        statisticsSkeleton = new SkeletonPanel(new JScrollPane(statisticsTable));
 
-        // 修改2：重新写数据填充逻辑
-        refreshStatisticsTableData(model);
+        // 修改2：数据在启动时已开始预取，到达前显示骨架占位
+        if (lastStatistics != null) {
+            showStatistics(model, lastStatistics);
+        } else {
+            startupQueue.promote("statistics");
+        }
 
         // 修改3：优化导出按钮
         JButton exportBtn = new JButton("导出报表");
@@ -287,50 +357,57 @@ public class AdminMainFrame extends JFrame {
 
         // 添加刷新按钮
         JButton refreshBtn = new JButton("刷新数据");
-        refreshBtn.addActionListener(e -> {
-            refreshStatisticsTableData(model);
-            JOptionPane.showMessageDialog(this, "数据已刷新！", "提示", JOptionPane.INFORMATION_MESSAGE);
-        });
+        refreshBtn.addActionListener(e -> refreshStatisticsTableData(model, () ->
+                JOptionPane.showMessageDialog(this, "数据已刷新！", "提示", JOptionPane.INFORMATION_MESSAGE), refreshBtn));
 
         JPanel topPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         topPanel.add(refreshBtn);
         topPanel.add(exportBtn);
 
-        panel.add(new JScrollPane(statisticsTable), BorderLayout.CENTER);
+        panel.add(statisticsSkeleton, BorderLayout.CENTER);
         panel.add(topPanel, BorderLayout.NORTH);
 
         return panel;
     }
 
-    // 新增方法：刷新统计表格数据
-    private void refreshStatisticsTableData(DefaultTableModel model) {
+    // 新增方法：刷新统计表格数据（后台查询，完成后执行 onLoaded）
+    private void refreshStatisticsTableData(DefaultTableModel model, Runnable onLoaded, JButton... buttons) {
+        tasks.submit(courseService::getCourseStatistics, stats -> {
+            lastStatistics = stats;
+            showStatistics(model, stats);
+            if (onLoaded != null) {
+                onLoaded.run();
+            }
+        }, buttons);
+    }
+
+    // 把统计数据填入表格
+    private void showStatistics(DefaultTableModel model, List<Course> stats) {
+        statisticsSkeleton.showContent();
         model.setRowCount(0); // 清空表格
-        List<Course> stats = courseService.getCourseStatistics();
-        
         if (stats == null || stats.isEmpty()) {
             // 添加提示行
             model.addRow(new Object[]{"暂无数据", "", "", "", "", "", "", ""});
-            return;
-        }
-        
-        for (Course course : stats) {
-            // 计算饱和度百分比
-            double saturation = 0.0;
-            if (course.getCapacityLimit() > 0) {
-                saturation = (course.getCurrentSelected() * 100.0) / course.getCapacityLimit();
+        } else {
+            for (Course course : stats) {
+                // 计算饱和度百分比
+                double saturation = 0.0;
+                if (course.getCapacityLimit() > 0) {
+                    saturation = (course.getCurrentSelected() * 100.0) / course.getCapacityLimit();
+                }
+                
+                Object[] row = {
+                    course.getCourseCode(),
+                    course.getCourseName(),
+                    course.getTeacherName(),
+                    course.getCredit(),           // 学分
+                    course.getScheduleTime(),     // 上课时间
+                    course.getCapacityLimit(),
+                    course.getCurrentSelected(),
+                    String.format("%.2f%%", saturation)  // 格式化百分比
+                };
+                model.addRow(row);
             }
-            
-            Object[] row = {
-                course.getCourseCode(),
-                course.getCourseName(),
-                course.getTeacherName(),
-                course.getCredit(),           // 学分
-                course.getScheduleTime(),     // 上课时间
-                course.getCapacityLimit(),
-                course.getCurrentSelected(),
-                String.format("%.2f%%", saturation)  // 格式化百分比
-            };
-            model.addRow(row);
         }
     }
 
@@ -370,24 +447,25 @@ public class AdminMainFrame extends JFrame {
             LogUtil.log(admin.getUserId(), "导出完整数据", 
                        "管理员 " + admin.getUserName() + " 导出所有课程完整数据");
             
-            List<Course> allCourses = courseService.getCourseStatistics();
-            if (allCourses == null || allCourses.isEmpty()) {
-                JOptionPane.showMessageDialog(this,
-                    "没有可导出的课程数据！",
-                    "提示",
-                    JOptionPane.WARNING_MESSAGE);
-                return;
-            }
-            
-            boolean success = CSVExporter.exportCoursesToCSV(allCourses, defaultFileName + "_完整数据");
-            if (success) {
-                JOptionPane.showMessageDialog(this,
-                    " 课程数据导出成功！\n" +
-                    "共导出 " + allCourses.size() + " 门课程。\n" +
-                    "文件包含完整的课程信息，包括学分和上课时间。",
-                    "导出成功",
-                    JOptionPane.INFORMATION_MESSAGE);
-            }
+            tasks.submit(courseService::getCourseStatistics, allCourses -> {
+                if (allCourses == null || allCourses.isEmpty()) {
+                    JOptionPane.showMessageDialog(this,
+                        "没有可导出的课程数据！",
+                        "提示",
+                        JOptionPane.WARNING_MESSAGE);
+                    return;
+                }
+                
+                boolean success = CSVExporter.exportCoursesToCSV(allCourses, defaultFileName + "_完整数据");
+                if (success) {
+                    JOptionPane.showMessageDialog(this,
+                        " 课程数据导出成功！\n" +
+                        "共导出 " + allCourses.size() + " 门课程。\n" +
+                        "文件包含完整的课程信息，包括学分和上课时间。",
+                        "导出成功",
+                        JOptionPane.INFORMATION_MESSAGE);
+                }
+            });
         }
     }
 
@@ -6,7 +6,6 @@ import util.LogUtil;
 import util.CSVExporter;  // 导入CSV导出工具类
 import javax.swing.*;
 import java.sql.*; 
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.text.SimpleDateFormat;
 import java.util.List;
@@ -17,7 +16,9 @@ import java.util.List;
 public class CourseStudentsFrame extends JFrame {
     
     private final CourseService courseService = new CourseService();
-    private DefaultTableModel tableModel;
+    // 服务调用在后台执行，窗口关闭时取消
+    private final UiTasks tasks = new UiTasks(this);
+    private ListTableModel<Object[]> tableModel;
     private JTable studentTable;  // 将表格定义为成员变量以便导出
     
     public CourseStudentsFrame(String courseCode, String courseName, String teacherId) {
@@ -44,12 +45,15 @@ public class CourseStudentsFrame extends JFrame {
         
         // 2. 表格模型（学号、姓名、院系）
         String[] columnNames = {"学号", "姓名", "院系", "选课时间"};
-        tableModel = new DefaultTableModel(null, columnNames) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // 不可编辑
+        // 直接包装查询结果（学号、姓名、院系、选课时间），选课时间在显示时才格式化；不可编辑
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        tableModel = new ListTableModel<>(columnNames, (row, column) -> {
+            if (column == 3) {
+                return row[3] instanceof Timestamp ? sdf.format((Timestamp) row[3]) : "";
             }
-        };
+            return row[column];
+        });
+        tableModel.setEmptyText("暂无学生选课");
         studentTable = new JTable(tableModel);  // 保存为成员变量
         
         // 3. 底部按钮面板
@@ -71,32 +75,9 @@ public class CourseStudentsFrame extends JFrame {
     
     // 加载学生数据
     private void loadStudentData(String courseCode) {
-        tableModel.setRowCount(0);
-        
-        // 调用新方法获取包含时间的数据
-        List<Object[]> studentData = courseService.getStudentsWithSelectionTime(courseCode);
-        
-        if (studentData == null || studentData.isEmpty()) {
-            tableModel.addRow(new Object[]{"暂无学生选课", "", "", ""});
-            return;
-        }
-        
-        for (Object[] row : studentData) {
-            // 格式化时间
-            String timeStr = "";
-            if (row[3] != null && row[3] instanceof Timestamp) {
-                Timestamp ts = (Timestamp) row[3];
-                SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-                timeStr = sdf.format(ts);
-            }
-            
-            tableModel.addRow(new Object[]{
-                row[0],  // userId
-                row[1],  // userName
-                row[2],  // department
-                timeStr  // 格式化后的时间
-            });
-        }
+        // 调用新方法获取包含时间的数据（后台执行）
+        tasks.submit(() -> courseService.getStudentsWithSelectionTime(courseCode),
+                studentData -> tableModel.updateRows(studentData, row -> row[0]));
     }
     
     // 导出学生名单 - 使用已有的 CSVExporter
@@ -0,0 +1,43 @@
+package view;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 延迟创建的标签页
+ * 标签页先放一个骨架占位，第一次被选中时才调用对应的创建方法替换为真正的面板
+ * （第一个加入的标签页默认选中，因此会立即创建）。
+ */
+final class LazyTabs {
+
+    private final JTabbedPane tabbedPane;
+    private final List<Supplier<? extends JComponent>> builders = new ArrayList<>();
+    private final List<Boolean> built = new ArrayList<>();
+
+    LazyTabs(JTabbedPane tabbedPane) {
+        this.tabbedPane = tabbedPane;
+        tabbedPane.addChangeListener(e -> ensureBuilt(tabbedPane.getSelectedIndex()));
+    }
+
+    /**
+     * 加入标签页，builder 在第一次选中时于 EDT 上调用
+     */
+    void addTab(String title, Supplier<? extends JComponent> builder) {
+        builders.add(builder);
+        built.add(false);
+        tabbedPane.addTab(title, new SkeletonPanel());
+    }
+
+    /**
+     * 创建第 index 个标签页（已创建时不做任何事）
+     */
+    void ensureBuilt(int index) {
+        if (index < 0 || index >= builders.size() || built.get(index)) {
+            return;
+        }
+        built.set(index, true);
+        tabbedPane.setComponentAt(index, builders.get(index).get());
+    }
+}
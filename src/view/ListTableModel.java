@@ -0,0 +1,188 @@
+package view;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * 直接包装服务层结果列表的表格模型
+ * 不再把每条记录复制成 Object[] 逐行 addRow（每行触发一次表格事件），而是：
+ * setRows 整体替换列表，只触发一次 fireTableDataChanged；
+ * updateRows 刷新时按主键比较新旧列表，只对增删的区间触发事件，选中行和滚动位置不丢失；
+ * appendRows 追加一页数据；
+ * 单元格内容在 getValueAt 时才由 CellFormatter 生成，只有可见的行才会被格式化。
+ * 只在 EDT 上使用。
+ */
+final class ListTableModel<T> extends AbstractTableModel {
+
+    /**
+     * 取某行某列的显示值（在绘制、排序、导出时按需调用）
+     */
+    interface CellFormatter<T> {
+        Object valueAt(T row, int column);
+    }
+
+    private final String[] columnNames;
+    private final CellFormatter<T> formatter;
+    private Class<?>[] columnClasses;
+    private int editableColumn = -1;
+    // 没有数据时显示在第一列的提示（如"暂无已选课程"），为 null 时显示空表
+    private String emptyText;
+
+    private List<T> rows = Collections.emptyList();
+    // rows 是否是本模型自己创建的列表（追加时不修改服务层返回的列表）
+    private boolean ownsRows = false;
+
+    ListTableModel(String[] columnNames, CellFormatter<T> formatter) {
+        this.columnNames = columnNames.clone();
+        this.formatter = formatter;
+    }
+
+    /**
+     * 设置各列的类型（用于排序和渲染），不设置时都按 Object 处理
+     */
+    void setColumnClasses(Class<?>... columnClasses) {
+        this.columnClasses = columnClasses.clone();
+    }
+
+    /**
+     * 设置唯一可编辑的列（如"操作"按钮列）
+     */
+    void setEditableColumn(int column) {
+        this.editableColumn = column;
+    }
+
+    void setEmptyText(String emptyText) {
+        this.emptyText = emptyText;
+        fireTableDataChanged();
+    }
+
+    /**
+     * 取模型第 row 行的记录；提示行返回 null
+     */
+    T getRow(int row) {
+        return row >= 0 && row < rows.size() ? rows.get(row) : null;
+    }
+
+    /**
+     * 当前的全部记录（不含提示行，只读）
+     */
+    List<T> getRows() {
+        return Collections.unmodifiableList(rows);
+    }
+
+    /**
+     * 整体替换数据，只触发一次表格刷新（选中状态会被清除）
+     * 直接使用传入的列表，调用方之后不应再修改它
+     */
+    void setRows(List<T> newRows) {
+        rows = newRows == null ? Collections.emptyList() : newRows;
+        ownsRows = false;
+        fireTableDataChanged();
+    }
+
+    /**
+     * 刷新数据：按主键找出新旧列表相同的开头和结尾，只对中间增删的行触发插入/删除事件，
+     * 其余行触发一次更新事件；不在变动区间内的选中行保持选中
+     */
+    void updateRows(List<T> newRows, Function<? super T, ?> keyOf) {
+        List<T> oldRows = rows;
+        if (newRows == null || newRows.isEmpty() || oldRows.isEmpty()) {
+            // 提示行和数据行之间切换，直接整体刷新
+            setRows(newRows);
+            return;
+        }
+        int oldSize = oldRows.size();
+        int newSize = newRows.size();
+        int min = Math.min(oldSize, newSize);
+        int prefix = 0;
+        while (prefix < min && sameKey(keyOf, oldRows.get(prefix), newRows.get(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < min - prefix
+                && sameKey(keyOf, oldRows.get(oldSize - 1 - suffix), newRows.get(newSize - 1 - suffix))) {
+            suffix++;
+        }
+
+        rows = newRows;
+        ownsRows = false;
+        // 中间区间：较短的部分视为原地更新，多出的部分插入或删除
+        int changedOld = oldSize - prefix - suffix;
+        int changedNew = newSize - prefix - suffix;
+        int common = Math.min(changedOld, changedNew);
+        if (changedNew > changedOld) {
+            fireTableRowsInserted(prefix + common, prefix + changedNew - 1);
+        } else if (changedOld > changedNew) {
+            fireTableRowsDeleted(prefix + common, prefix + changedOld - 1);
+        }
+        // 主键相同的行内容也可能变化（如已选人数），统一触发一次更新
+        fireTableRowsUpdated(0, newSize - 1);
+    }
+
+    /**
+     * 在末尾追加数据（分页加载下一页）
+     */
+    void appendRows(List<T> moreRows) {
+        if (moreRows == null || moreRows.isEmpty()) {
+            return;
+        }
+        if (rows.isEmpty()) {
+            setRows(new ArrayList<>(moreRows));
+            ownsRows = true;
+            return;
+        }
+        if (!ownsRows) {
+            rows = new ArrayList<>(rows);
+            ownsRows = true;
+        }
+        int first = rows.size();
+        rows.addAll(moreRows);
+        fireTableRowsInserted(first, rows.size() - 1);
+    }
+
+    private static <T> boolean sameKey(Function<? super T, ?> keyOf, T a, T b) {
+        return Objects.equals(keyOf.apply(a), keyOf.apply(b));
+    }
+
+    private boolean showsEmptyText() {
+        return rows.isEmpty() && emptyText != null;
+    }
+
+    @Override
+    public int getRowCount() {
+        return showsEmptyText() ? 1 : rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return columnClasses != null && column < columnClasses.length ? columnClasses[column] : Object.class;
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return column == editableColumn && !showsEmptyText();
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        if (showsEmptyText()) {
+            // 其余列返回 null：数值列的渲染器无法格式化空字符串
+            return column == 0 ? emptyText : null;
+        }
+        return formatter.valueAt(rows.get(row), column);
+    }
+}
@@ -10,6 +10,8 @@ import java.awt.event.ActionListener;
 public class LoginFrame extends JFrame {
 
     private final UserService userService = new UserService();
+    // 服务调用在后台执行，窗口关闭时取消
+    private final UiTasks tasks = new UiTasks(this);
 
     private JTextField accountField = new JTextField(15);
     private JPasswordField passwordField = new JPasswordField(15);
@@ -40,47 +42,51 @@ public class LoginFrame extends JFrame {
             String account = accountField.getText();
             String password = new String(passwordField.getPassword());
 
-            // 调用业务逻辑服务
-            User user = userService.login(account, password);
+            // 调用业务逻辑服务（后台执行，登录期间禁用登录按钮）
+            tasks.submit(() -> userService.login(account, password), user -> {
+                if (user != null) {
+                    // 角色已确定，立即在后台预热主界面首屏数据，与下面的登录收尾步骤同时进行
+                    MainFrameBootstrap bootstrap = MainFrameBootstrap.start(user);
 
-            if (user != null) {
-                // ✅【添加日志】登录成功
-                LogUtil.logLogin(user.getUserId(), user.getUserName(), true);
+                    // ✅【添加日志】登录成功
+                    LogUtil.logLogin(user.getUserId(), user.getUserName(), true);
                 
-                JOptionPane.showMessageDialog(LoginFrame.this, user.getUserName() + "，欢迎您！");
+                    JOptionPane.showMessageDialog(LoginFrame.this, user.getUserName() + "，欢迎您！");
 
-                // 登录成功，关闭登录窗口
-                LoginFrame.this.dispose();
+                    // 登录成功，关闭登录窗口
+                    LoginFrame.this.dispose();
 
-                // 【核心步骤】根据角色跳转到不同的主界面
-                openMainFrame(user);
+                    // 【核心步骤】根据角色跳转到不同的主界面
+                    openMainFrame(user, bootstrap);
 
-            } else {
-                // ✅【添加日志】登录失败
-                LogUtil.logLogin(account, "未知用户", false);
+                } else {
+                    // ✅【添加日志】登录失败
+                    LogUtil.logLogin(account, "未知用户", false);
                 
-                JOptionPane.showMessageDialog(LoginFrame.this, "账号或密码错误！", "登录失败", JOptionPane.ERROR_MESSAGE);
-            }
+                    JOptionPane.showMessageDialog(LoginFrame.this, "账号或密码错误！", "登录失败", JOptionPane.ERROR_MESSAGE);
+                }
+            }, loginButton);
         }
     }
 
     /**
-     * 根据用户角色跳转到不同的主界面
+     * 根据用户角色跳转到不同的主界面，并把登录时预热的数据交给主界面
      */
-    private void openMainFrame(User user) {
+    private void openMainFrame(User user, MainFrameBootstrap bootstrap) {
         String role = user.getRole();
         JFrame mainFrame = null;
 
         if ("Student".equals(role)) {
-            mainFrame = new StudentMainFrame(user);
+            mainFrame = new StudentMainFrame(user, bootstrap);
         } else if ("Teacher".equals(role)) {
-            mainFrame = new TeacherMainFrame(user);
+            mainFrame = new TeacherMainFrame(user, bootstrap);
         } else if ("EduAdmin".equals(role)) {
-            mainFrame = new AdminMainFrame(user);
+            mainFrame = new AdminMainFrame(user, bootstrap);
         } else if ("SysAdmin".equals(role)) {
-            mainFrame = new AdminMainFrame(user);
+            mainFrame = new AdminMainFrame(user, bootstrap);
             mainFrame.setTitle("选课系统 - 系统管理员 - 欢迎：" + user.getUserName());
         } else {
+            bootstrap.cancel();
             JOptionPane.showMessageDialog(null, "角色信息异常！", "登录失败", JOptionPane.ERROR_MESSAGE);
             return;
         }
@@ -0,0 +1,94 @@
+package view;
+
+import model.Course;
+import model.StudentDashboard;
+import model.User;
+import service.AsyncService;
+import service.CourseService;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * 登录后的数据预热
+ * 登录验证通过、角色确定后，立即在后台并行加载该角色主界面首屏需要的数据，
+ * 与欢迎提示、登录日志等登录收尾步骤同时进行：
+ * 学生 - 课程目录和已选课程（主界面数据）；教师 - 自己的课程；教务/系统管理员 - 待审核课程和选课统计。
+ * 主界面创建时直接使用这些结果：已完成的在窗口第一次显示前填入，未完成的完成后再填入，不再重复查询。
+ */
+final class MainFrameBootstrap {
+
+    private final CourseService courseService = new CourseService();
+
+    private CompletableFuture<List<Course>> catalog;
+    private CompletableFuture<StudentDashboard> dashboard;
+    private CompletableFuture<List<Course>> teacherCourses;
+    private CompletableFuture<List<Course>> pendingCourses;
+    private CompletableFuture<List<Course>> statistics;
+
+    private MainFrameBootstrap() {}
+
+    /**
+     * 按用户角色开始预热（立即返回）
+     */
+    static MainFrameBootstrap start(User user) {
+        MainFrameBootstrap bootstrap = new MainFrameBootstrap();
+        CourseService courseService = bootstrap.courseService;
+        String role = user.getRole();
+        if ("Student".equals(role)) {
+            bootstrap.catalog = prefetch(courseService::getPublishedCourses);
+            bootstrap.dashboard = prefetch(() -> courseService.getStudentDashboard(user.getUserId()));
+        } else if ("Teacher".equals(role)) {
+            bootstrap.teacherCourses = prefetch(() -> courseService.getCoursesByTeacher(user.getUserId()));
+        } else if ("EduAdmin".equals(role) || "SysAdmin".equals(role)) {
+            bootstrap.pendingCourses = prefetch(courseService::getPendingCourses);
+            bootstrap.statistics = prefetch(courseService::getCourseStatistics);
+        }
+        return bootstrap;
+    }
+
+    // 线程池已满时不预热，由主界面自己查询
+    private static <T> CompletableFuture<T> prefetch(Supplier<T> call) {
+        try {
+            return AsyncService.call(call);
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    // 以下各项没有预热时返回 null
+    CompletableFuture<List<Course>> getCatalog() { return catalog; }
+    CompletableFuture<StudentDashboard> getDashboard() { return dashboard; }
+    CompletableFuture<List<Course>> getTeacherCourses() { return teacherCourses; }
+    CompletableFuture<List<Course>> getPendingCourses() { return pendingCourses; }
+    CompletableFuture<List<Course>> getStatistics() { return statistics; }
+
+    /**
+     * 取消尚未开始的预热（登录后没有打开主界面时）
+     */
+    void cancel() {
+        cancel(catalog);
+        cancel(dashboard);
+        cancel(teacherCourses);
+        cancel(pendingCourses);
+        cancel(statistics);
+    }
+
+    private static void cancel(CompletableFuture<?> future) {
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+
+    /**
+     * 预热已成功完成时返回结果（可在 EDT 上直接使用），未完成、失败或没有预热时返回 null
+     */
+    static <T> T resultNow(CompletableFuture<T> future) {
+        if (future == null || !future.isDone() || future.isCompletedExceptionally()) {
+            return null;
+        }
+        return future.join();
+    }
+}
@@ -4,20 +4,50 @@ import model.OperationLog;
 import service.LogService;
 import util.DBUtils;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * 系统操作日志查看窗口
+ * 日志按页从数据库加载（键集分页），滚动到表格底部时自动加载下一页
  */
 public class OperationLogFrame extends JFrame {
+    // 每页加载的日志条数
+    private static final int PAGE_SIZE = 200;
+
     private final LogService logService = new LogService();
-    private DefaultTableModel tableModel;
+    // 服务调用在后台执行，窗口关闭时取消
+    private final UiTasks tasks = new UiTasks(this);
+    private ListTableModel<OperationLog> tableModel;
+    private JTable logTable;
+    private JScrollPane scrollPane;
+
+    // 筛选条件
+    private JTextField operatorField;
+    private JComboBox<String> typeCombo;
+    private JTextField fromField;
+    private JTextField toField;
+    private JLabel statusLabel;
+
+    // 分页状态：当前查询条件、最后一条已加载的日志（下一页的游标）
+    private String queryOperator;
+    private String queryType;
+    private Timestamp queryFrom;
+    private Timestamp queryTo;
+    private OperationLog lastLoaded;
+    private boolean hasMore = true;
+    private boolean loading = false;
+    // 每次重新查询加 1，丢弃旧查询迟到的结果
+    private int queryGeneration = 0;
+
     public OperationLogFrame() {
         setTitle("系统操作日志");
         setSize(900, 600);
@@ -35,44 +65,155 @@ public class OperationLogFrame extends JFrame {
     private void initUI() {
         // 表格列：日志ID、操作人ID、操作类型、操作内容、操作时间
         String[] columnNames = {"日志ID", "操作人ID", "操作类型", "操作内容", "操作时间"};
-        tableModel = new DefaultTableModel(null, columnNames) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // 日志只读，不可编辑
+        // 直接包装已加载的日志列表，翻页时追加到末尾（日志只读，不可编辑）
+        tableModel = new ListTableModel<>(columnNames, (log, column) -> {
+            switch (column) {
+                case 0: return log.getLogId();
+                case 1: return log.getOperatorId();
+                case 2: return log.getOperationType();
+                case 3: return log.getOperationContent();
+                default: return log.getOperationTime();
             }
-        };
-        JTable logTable = new JTable(tableModel);
+        });
+        logTable = new JTable(tableModel);
         // 设置列宽自适应
         logTable.getColumnModel().getColumn(3).setPreferredWidth(300); // 操作内容列加宽
 
+        // 筛选条件
+        operatorField = new JTextField(8);
+        typeCombo = new JComboBox<>();
+        typeCombo.setEditable(true);
+        typeCombo.addItem("");
+        tasks.submit(logService::getOperationTypes, types -> {
+            for (String type : types) {
+                typeCombo.addItem(type);
+            }
+        });
+        fromField = new JTextField(8);
+        toField = new JTextField(8);
+        fromField.setToolTipText("格式：yyyy-MM-dd");
+        toField.setToolTipText("格式：yyyy-MM-dd（含当天）");
+
+        JButton searchBtn = new JButton("查询");
+        searchBtn.addActionListener(e -> loadLogData());
+
         // 刷新按钮
         JButton refreshBtn = new JButton("刷新日志");
         refreshBtn.addActionListener(e -> loadLogData());
 
         JPanel topPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        topPanel.add(new JLabel("操作人ID:"));
+        topPanel.add(operatorField);
+        topPanel.add(new JLabel("操作类型:"));
+        topPanel.add(typeCombo);
+        topPanel.add(new JLabel("日期从:"));
+        topPanel.add(fromField);
+        topPanel.add(new JLabel("至:"));
+        topPanel.add(toField);
+        topPanel.add(searchBtn);
         topPanel.add(refreshBtn);
 
+        statusLabel = new JLabel(" ");
+        JPanel bottomPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        bottomPanel.add(statusLabel);
+
+        // 滚动到接近底部时加载下一页
+        scrollPane = new JScrollPane(logTable);
+        scrollPane.getVerticalScrollBar().addAdjustmentListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                loadNextPageIfNeeded();
+            }
+        });
+
         // 布局
         add(topPanel, BorderLayout.NORTH);
-        add(new JScrollPane(logTable), BorderLayout.CENTER);
+        add(scrollPane, BorderLayout.CENTER);
+        add(bottomPanel, BorderLayout.SOUTH);
     }
 
-    // 加载日志数据
+    // 按当前筛选条件重新加载日志数据（只加载第一页）
     private void loadLogData() {
-        tableModel.setRowCount(0);
-        List<OperationLog> logs = logService.getAllOperationLogs();
-        
+        Timestamp from;
+        Timestamp to;
+        try {
+            from = parseDate(fromField.getText(), false);
+            to = parseDate(toField.getText(), true);
+        } catch (DateTimeParseException e) {
+            JOptionPane.showMessageDialog(this, "日期格式错误，请输入 yyyy-MM-dd", "提示", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        queryOperator = operatorField.getText();
+        Object type = typeCombo.getSelectedItem();
+        queryType = type == null ? null : type.toString();
+        queryFrom = from;
+        queryTo = to;
+        lastLoaded = null;
+        hasMore = true;
+        loading = false;
+        queryGeneration++;
+        tableModel.setRows(new ArrayList<>());
+
         // 【添加日志】加载日志数据
-        LogUtil.log("用户", "加载操作日志", "加载操作日志，共 " + logs.size() + " 条记录");
-
-        for (OperationLog log : logs) {
-            tableModel.addRow(new Object[]{
-                    log.getLogId(),
-                    log.getOperatorId(),
-                    log.getOperationType(),
-                    log.getOperationContent(),
-                    log.getOperationTime()
-            });
+        LogUtil.log("用户", "加载操作日志", "查询操作日志，操作人：" + queryOperator + "，类型：" + queryType);
+        loadNextPage();
+    }
+
+    /**
+     * 日期文本转为时间戳；截止日期按当天结束（次日零点，不含）处理
+     */
+    private Timestamp parseDate(String text, boolean endOfDay) {
+        if (text == null || text.trim().isEmpty()) {
+            return null;
         }
+        LocalDate date = LocalDate.parse(text.trim());
+        return Timestamp.valueOf((endOfDay ? date.plusDays(1) : date).atStartOfDay());
+    }
+
+    private void loadNextPageIfNeeded() {
+        JScrollBar bar = scrollPane.getVerticalScrollBar();
+        // 距离底部不足一屏时预取下一页
+        if (bar.getValue() + bar.getVisibleAmount() * 2 >= bar.getMaximum()) {
+            loadNextPage();
+        }
+    }
+
+    // 在后台加载下一页，加载完成后追加到表格末尾
+    private void loadNextPage() {
+        if (loading || !hasMore) {
+            return;
+        }
+        loading = true;
+        statusLabel.setText("正在加载...");
+        final int generation = queryGeneration;
+        final OperationLog after = lastLoaded;
+        final String operator = queryOperator;
+        final String type = queryType;
+        final Timestamp from = queryFrom;
+        final Timestamp to = queryTo;
+
+        tasks.submit(() -> logService.getOperationLogsPage(operator, type, from, to, after, PAGE_SIZE), logs -> {
+            if (generation != queryGeneration) {
+                return; // 查询条件已改变，丢弃旧结果
+            }
+            loading = false;
+            tableModel.appendRows(logs);
+            if (!logs.isEmpty()) {
+                lastLoaded = logs.get(logs.size() - 1);
+            }
+            hasMore = logs.size() == PAGE_SIZE;
+            statusLabel.setText("已加载 " + tableModel.getRowCount() + " 条记录"
+                    + (hasMore ? "，滚动到底部加载更多" : "，已全部加载"));
+            // 第一页不足以填满表格时继续加载
+            if (hasMore) {
+                SwingUtilities.invokeLater(() -> loadNextPageIfNeeded());
+            }
+        }, error -> {
+            if (generation != queryGeneration) {
+                return;
+            }
+            loading = false;
+            error.printStackTrace();
+            statusLabel.setText("加载失败：" + error.getMessage());
+        });
     }
-}
\ No newline at end of file
+}
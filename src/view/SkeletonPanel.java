@@ -0,0 +1,78 @@
+package view;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * 加载占位面板
+ * 数据到达之前显示灰色的骨架条（模拟表格行的轮廓），数据到达后调用 showContent 切换到真正的内容；
+ * 不带内容时用作尚未创建的标签页的占位。
+ */
+final class SkeletonPanel extends JPanel {
+
+    private static final String SKELETON = "skeleton";
+    private static final String CONTENT = "content";
+    private static final Color BAR_COLOR = new Color(0xE6E6E6);
+    private static final int ROW_HEIGHT = 28;
+
+    private final CardLayout cards = new CardLayout();
+    private boolean showingContent = false;
+
+    /**
+     * 只有骨架（标签页占位）
+     */
+    SkeletonPanel() {
+        this(null);
+    }
+
+    /**
+     * 先显示骨架，showContent 后显示 content
+     */
+    SkeletonPanel(JComponent content) {
+        setLayout(cards);
+        add(new Bars(), SKELETON);
+        if (content != null) {
+            add(content, CONTENT);
+        }
+        cards.show(this, SKELETON);
+    }
+
+    void showContent() {
+        if (!showingContent) {
+            showingContent = true;
+            cards.show(this, CONTENT);
+        }
+    }
+
+    // 骨架：一条表头和若干长短不一的行
+    private static final class Bars extends JComponent {
+        private static final int[] ROW_WIDTHS = {90, 75, 85, 60, 80, 70};
+
+        Bars() {
+            setOpaque(true);
+            setBackground(Color.WHITE);
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2 = (Graphics2D) g.create();
+            try {
+                g2.setColor(getBackground());
+                g2.fillRect(0, 0, getWidth(), getHeight());
+                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                int margin = 16;
+                int width = getWidth() - margin * 2;
+                g2.setColor(BAR_COLOR.darker());
+                g2.fillRoundRect(margin, margin, width, ROW_HEIGHT - 10, 8, 8);
+                g2.setColor(BAR_COLOR);
+                int y = margin + ROW_HEIGHT;
+                for (int i = 0; y + ROW_HEIGHT <= getHeight() - margin; i++, y += ROW_HEIGHT) {
+                    int w = width * ROW_WIDTHS[i % ROW_WIDTHS.length] / 100;
+                    g2.fillRoundRect(margin, y, w, ROW_HEIGHT - 12, 8, 8);
+                }
+            } finally {
+                g2.dispose();
+            }
+        }
+    }
+}
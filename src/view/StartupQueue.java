@@ -0,0 +1,95 @@
+package view;
+
+import javax.swing.*;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * 主界面的启动加载队列
+ * 登录后各标签页的初始查询不再在构造函数里同时发出，而是按优先级排队：
+ * 当前可见标签页的数据最先加载，其余的在后台依次加载，同时进行的加载不超过 startup.parallelLoads 个（默认 2）。
+ * 用户提前切换到某个标签页时，可以把它的加载提到队首。只在 EDT 上使用。
+ */
+final class StartupQueue {
+
+    private static final int PARALLEL_LOADS = Math.max(1, Integer.getInteger("startup.parallelLoads", 2));
+
+    private static final class Job {
+        final String name;
+        final int priority;
+        final long seq;
+        final Supplier<CompletableFuture<?>> start;
+
+        Job(String name, int priority, long seq, Supplier<CompletableFuture<?>> start) {
+            this.name = name;
+            this.priority = priority;
+            this.seq = seq;
+            this.start = start;
+        }
+    }
+
+    // 优先级数值小的先执行，相同优先级按加入顺序
+    private final PriorityQueue<Job> pending = new PriorityQueue<>(
+            Comparator.<Job>comparingInt(job -> job.priority).thenComparingLong(job -> job.seq));
+    private long seq = 0;
+    private int running = 0;
+    private boolean started = false;
+
+    /**
+     * 加入一个加载任务
+     * @param name 任务名（用于 promote）
+     * @param priority 优先级，数值越小越先执行
+     * @param start 在 EDT 上启动加载，返回加载完成时结束的 future（通常是 UiTasks.submit 的返回值）
+     */
+    void add(String name, int priority, Supplier<CompletableFuture<?>> start) {
+        pending.add(new Job(name, priority, seq++, start));
+        drain();
+    }
+
+    /**
+     * 开始执行队列（窗口显示之后调用，之前加入的任务先排队）
+     */
+    void start() {
+        started = true;
+        drain();
+    }
+
+    /**
+     * 把尚未开始的任务提到队首（已开始或已完成的任务忽略）
+     */
+    void promote(String name) {
+        for (Job job : pending) {
+            if (job.name.equals(name)) {
+                pending.remove(job);
+                pending.add(new Job(job.name, Integer.MIN_VALUE, job.seq, job.start));
+                drain();
+                return;
+            }
+        }
+    }
+
+    private void drain() {
+        while (started && running < PARALLEL_LOADS && !pending.isEmpty()) {
+            Job job = pending.poll();
+            running++;
+            CompletableFuture<?> future;
+            try {
+                future = job.start.get();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                future = null;
+            }
+            if (future == null) {
+                running--;
+                continue;
+            }
+            // 完成（含失败、取消）后在 EDT 上开始下一个任务
+            future.whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+                running--;
+                drain();
+            }));
+        }
+    }
+}
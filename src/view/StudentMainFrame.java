@@ -2,41 +2,107 @@ package view;
 
 import model.User;
 import model.Course;
+import model.StudentDashboard;
+import service.CourseFacetIndex;
+import service.CourseSearchIndex;
 import service.CourseService;
+import service.SelectionScheduler;
 import service.UserService;
+import service.WaitlistService;
 import util.LogUtil;
+import util.SearchStats;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.TableRowSorter;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.sql.Timestamp;
+import java.text.SimpleDateFormat;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class StudentMainFrame extends JFrame {
 
     // 依赖项
     private final CourseService courseService = new CourseService();
     private final UserService userService = new UserService();
+    private final WaitlistService waitlistService = new WaitlistService();
+    // 服务调用在后台执行，窗口关闭时取消
+    private final UiTasks tasks = new UiTasks(this);
     private final User student; // 当前登录的学生对象
 
     // 主界面组件
     private JTabbedPane tabbedPane;
+    // 标签页第一次选中时才创建，各页数据按优先级在后台加载
+    private LazyTabs lazyTabs;
+    private final StartupQueue startupQueue = new StartupQueue();
     
     // 第一个标签页：选课功能组件
     private JTable courseTable;
-    private DefaultTableModel courseTableModel;
-    private TableRowSorter<DefaultTableModel> courseSorter;
+    private ListTableModel<Course> courseTableModel;
+    private TableRowSorter<ListTableModel<Course>> courseSorter;
     private JTextField searchField;
     private JComboBox<String> filterCombo;
     private JComboBox<String> creditCombo;
     private JComboBox<String> teacherCombo;
+    private JComboBox<String> typeCombo;
+    private JComboBox<String> weekdayCombo;
+    private JCheckBox seatsOnlyCheck;
+    private JLabel searchStatusLabel;
+    // 边输入边搜索：停止输入 SEARCH_DEBOUNCE_MS 毫秒后才搜索
+    private static final int SEARCH_DEBOUNCE_MS = Integer.getInteger("search.debounceMs", 250);
+    private Timer searchDebounce;
+    // 搜索统计只记录用户停下来的搜索：结果出来后 SEARCH_SETTLE_MS 毫秒内没有新的搜索才记录（边输入边搜索的中间前缀不记录）
+    private static final int SEARCH_SETTLE_MS = Integer.getInteger("search.statsSettleMs", 1500);
+    private Timer searchSettle;
+    private Runnable pendingSearchStat;
+    // 搜索序号（只在 EDT 上递增），后台搜索完成时序号已变说明结果过期，直接丢弃
+    private volatile long searchGeneration = 0;
+    private CompletableFuture<?> searchTask;
+    // 程序更新筛选下拉框时不触发搜索
+    private boolean updatingFacets = false;
+    private JButton selectBtn;
+    private JLabel queueStatusLabel; // 选课排队状态
     
     // 第二个标签页：课表功能组件
     private JTable selectedCourseTable;
-    private DefaultTableModel selectedCourseTableModel;
+    // 表格尚未显示时预取详情的行数
+    private static final int PREFETCH_ROWS = 20;
+    private ListTableModel<Course> selectedCourseTableModel;
+    // 已选课程页下方的候补课程表格：[courseCode, courseName, position, enqueueTime]
+    private JTable waitlistTable;
+    private ListTableModel<Object[]> waitlistTableModel;
     private List<Course> allCourses = new ArrayList<>();
+
+    // 课表页和已选课程页共用一份主界面数据，创建一次后原地更新
+    private JLabel courseCountValue;
+    private JLabel totalCreditsValue;
+    private JLabel remainingCreditsValue;
+    private JLabel averageCreditsValue;
+    private JLabel scheduleInfoLabel;
+    // 周课表：按上课时间位图增量更新，自绘组件只重绘变化的格子
+    private final WeeklyScheduleModel scheduleModel = new WeeklyScheduleModel();
+    private WeeklyScheduleView scheduleView;
+    private static final double MAX_CREDITS = 30;
+    // 合并刷新：DASHBOARD_COALESCE_MS 毫秒内的多次刷新请求只查询一次
+    private static final int DASHBOARD_COALESCE_MS = Integer.getInteger("dashboard.coalesceMs", 200);
+    private Timer dashboardTimer;
+    // 最近一次查询结果；课表、已选课程标签页创建时直接显示
+    private StudentDashboard lastDashboard;
+    private SkeletonPanel courseTableSkeleton;
+    private SkeletonPanel scheduleSkeleton;
+    private SkeletonPanel selectedTableSkeleton;
+    // 查询进行中又有刷新请求时，查询完成后再查一次（只在 EDT 上读写）
+    private boolean dashboardLoading = false;
+    private boolean dashboardPending = false;
     
     // 表格列名
     private static final String[] COURSE_COLUMNS = {
@@ -47,15 +113,33 @@ public class StudentMainFrame extends JFrame {
             "课程代码", "课程名称", "学分", "授课教师", "上课时间", "上课地点", "操作"
     };
 
+    private static final String[] WAITLIST_COLUMNS = {
+            "课程代码", "课程名称", "排队位置", "加入时间"
+    };
+
     /**
      * 构造函数：初始化界面
      */
     public StudentMainFrame(User student) {
+        this(student, null);
+    }
+
+    /**
+     * 构造函数：使用登录时预热的数据（课程目录、已选课程）初始化界面
+     */
+    StudentMainFrame(User student, MainFrameBootstrap bootstrap) {
         this.student = student;
         setTitle("选课系统 - 学生端 - 欢迎：" + student.getUserName());
         setSize(950, 700);  // 增大窗口尺寸
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLocationRelativeTo(null);
+        // 关闭窗口时记下尚未记录的最后一次搜索（退出前由 SearchStats 写出）
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                recordSettledSearch();
+            }
+        });
 
         // 【添加日志】学生进入系统
         LogUtil.log(student.getUserId(), "进入学生系统", 
@@ -69,20 +153,38 @@ public class StudentMainFrame extends JFrame {
         // 创建标签页
         tabbedPane = new JTabbedPane();
         
-        // 1. 可选课程标签页（原来的选课功能）
-        tabbedPane.addTab("可选课程", createCourseSelectionPanel());
+        lazyTabs = new LazyTabs(tabbedPane);
+        
+        // 1. 可选课程标签页（原来的选课功能，默认选中，立即创建）
+        lazyTabs.addTab("可选课程", this::createCourseSelectionPanel);
         
         // 2. 我的课表标签页（新增功能）
-        tabbedPane.addTab("我的课表", createMySchedulePanel());
+        lazyTabs.addTab("我的课表", this::createMySchedulePanel);
         
         // 3. 已选课程标签页（新增功能）
-        tabbedPane.addTab("已选课程", createSelectedCoursesPanel());
+        lazyTabs.addTab("已选课程", this::createSelectedCoursesPanel);
 
         add(tabbedPane, BorderLayout.CENTER);
         
-        // 初始加载数据
-        loadAllCourseData();
+        // 初始加载数据：先加载可见的课程目录，再在后台加载课表和已选课程（数据到达前显示骨架占位）
+        // 登录时已预热完成的数据在窗口显示前直接填入，未完成的等待预热结果，不再重复查询
+        CompletableFuture<List<Course>> warmedCatalog = bootstrap != null ? bootstrap.getCatalog() : null;
+        CompletableFuture<StudentDashboard> warmedDashboard = bootstrap != null ? bootstrap.getDashboard() : null;
+        List<Course> catalog = MainFrameBootstrap.resultNow(warmedCatalog);
+        if (catalog != null) {
+            showAllCourses(catalog);
+        } else {
+            startupQueue.add("catalog", 0, () -> loadAllCourseData(warmedCatalog));
+        }
+        StudentDashboard dashboard = MainFrameBootstrap.resultNow(warmedDashboard);
+        if (dashboard != null) {
+            applyDashboard(dashboard);
+        } else {
+            startupQueue.add("dashboard", 1,
+                    () -> lastDashboard != null || dashboardLoading ? null : loadDashboard(warmedDashboard));
+        }
         setVisible(true);
+        startupQueue.start();
     }
     
     /**
@@ -107,7 +209,7 @@ public class StudentMainFrame extends JFrame {
         logoutItem.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                handleLogout();
+                handleLogout(logoutItem);
             }
         });
         
@@ -168,40 +270,39 @@ private void showChangePasswordDialog() {
             return;
         }
         
-        // 【关键修改】使用新的validatePassword方法验证旧密码
-        boolean oldPasswordCorrect = userService.validatePassword(student.getUserId(), oldPassword);
-        
-        if (!oldPasswordCorrect) {
-            JOptionPane.showMessageDialog(this, "当前密码错误", "验证失败", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-        
-        // 更新密码
-        boolean success = userService.updateStudentPassword(student.getUserId(), newPassword);
-        
-        if (success) {
-            // 记录日志
-            LogUtil.log(student.getUserId(), "修改密码", 
-                       "学生 " + student.getUserName() + " 修改密码成功");
+        // 【关键修改】使用新的validatePassword方法验证旧密码（后台执行）
+        tasks.submit(() -> userService.validatePassword(student.getUserId(), oldPassword), oldPasswordCorrect -> {
+            if (!oldPasswordCorrect) {
+                JOptionPane.showMessageDialog(this, "当前密码错误", "验证失败", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            // 更新密码
+            tasks.submit(() -> userService.updateStudentPassword(student.getUserId(), newPassword), success -> {
+                if (success) {
+                    // 记录日志
+                    LogUtil.log(student.getUserId(), "修改密码", 
+                               "学生 " + student.getUserName() + " 修改密码成功");
             
-            JOptionPane.showMessageDialog(this, 
-                "密码修改成功！\n" +
-                "请记住新密码，下次登录时使用。",
-                "修改成功", JOptionPane.INFORMATION_MESSAGE);
-        } else {
-            LogUtil.log(student.getUserId(), "修改密码失败", 
-                       "学生 " + student.getUserName() + " 修改密码失败");
+                    JOptionPane.showMessageDialog(this, 
+                        "密码修改成功！\n" +
+                        "请记住新密码，下次登录时使用。",
+                        "修改成功", JOptionPane.INFORMATION_MESSAGE);
+                } else {
+                    LogUtil.log(student.getUserId(), "修改密码失败", 
+                               "学生 " + student.getUserName() + " 修改密码失败");
             
-            JOptionPane.showMessageDialog(this, 
-                "密码修改失败，请稍后重试",
-                "修改失败", JOptionPane.ERROR_MESSAGE);
-        }
+                    JOptionPane.showMessageDialog(this, 
+                        "密码修改失败，请稍后重试",
+                        "修改失败", JOptionPane.ERROR_MESSAGE);
+                }
+            });
+        });
     }
 }
     /**
      * 退出登录
      */
-    private void handleLogout() {
+    private void handleLogout(Component logoutItem) {
         int confirm = JOptionPane.showConfirmDialog(this,
             "确定要退出登录吗？",
             "确认退出", JOptionPane.YES_NO_OPTION);
@@ -209,23 +310,31 @@ private void showChangePasswordDialog() {
         if (confirm == JOptionPane.YES_OPTION) {
             // 记录登出日志
             LogUtil.logLogout(student.getUserId(), student.getUserName());
-            
-            // 关闭当前窗口
-            this.dispose();
-            
-            // 重新打开登录窗口
-            EventQueue.invokeLater(new Runnable() {
-                @Override
-                public void run() {
-                    try {
-                        new LoginFrame();
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                }
-            });
+            // 登出前写出搜索统计，并等待本次会话的日志写入数据库（在后台等待，不阻塞界面），完成后再关闭窗口
+            recordSettledSearch();
+            tasks.submit(() -> {
+                SearchStats.flush();
+                return LogUtil.flush(2000);
+            }, flushed -> closeAndShowLogin(), error -> closeAndShowLogin(), logoutItem);
         }
     }
+
+    private void closeAndShowLogin() {
+        // 关闭当前窗口
+        this.dispose();
+        
+        // 重新打开登录窗口
+        EventQueue.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    new LoginFrame();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        });
+    }
     
     /**
      * 显示关于对话框
@@ -250,19 +359,23 @@ private void showChangePasswordDialog() {
         panel.add(searchPanel, BorderLayout.NORTH);
         
         // 2. 课程表格
-        courseTableModel = new DefaultTableModel(null, COURSE_COLUMNS) {
-            @Override
-            public Class<?> getColumnClass(int columnIndex) {
-                if (columnIndex == 2) return Double.class; // 学分列
-                if (columnIndex == 5 || columnIndex == 6 || columnIndex == 7) return Integer.class;
-                return String.class;
+        // 表格直接包装课程列表，单元格在显示时才取值（表格不可编辑）
+        courseTableModel = new ListTableModel<>(COURSE_COLUMNS, (course, column) -> {
+            switch (column) {
+                case 0: return course.getCourseCode();
+                case 1: return course.getCourseName();
+                case 2: return course.getCredit();
+                case 3: return course.getTeacherName();
+                case 4: return course.getScheduleTime();
+                case 5: return course.getCapacityLimit();
+                case 6: return course.getCurrentSelected();
+                default: return course.getRemainingCapacity();
             }
-            
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // 表格不可编辑
-            }
-        };
+        });
+        // 学分列按数值、容量/已选/剩余列按整数排序
+        courseTableModel.setColumnClasses(String.class, String.class, Double.class, String.class, String.class,
+                Integer.class, Integer.class, Integer.class);
+        courseTableModel.setEmptyText("无符合条件的课程");
         courseTable = new JTable(courseTableModel);
         courseSorter = new TableRowSorter<>(courseTableModel);
         courseTable.setRowSorter(courseSorter);
@@ -275,12 +388,16 @@ private void showChangePasswordDialog() {
         courseTable.getColumnModel().getColumn(4).setPreferredWidth(120);
         
         JScrollPane scrollPane = new JScrollPane(courseTable);
-        panel.add(scrollPane, BorderLayout.CENTER);
+        // 课程目录加载完成前显示骨架占位
+        courseTableSkeleton = new SkeletonPanel(scrollPane);
+        panel.add(courseTableSkeleton, BorderLayout.CENTER);
         
         // 3. 按钮面板
         JPanel buttonPanel = new JPanel();
-        JButton selectBtn = new JButton("选课");
+        selectBtn = new JButton("选课");
         JButton refreshBtn = new JButton("刷新");
+        queueStatusLabel = new JLabel(" ");
+        queueStatusLabel.setForeground(Color.GRAY);
         
         selectBtn.addActionListener(new ActionListener() {
             @Override
@@ -292,13 +409,14 @@ private void showChangePasswordDialog() {
         refreshBtn.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                loadAllCourseData();
-                displayCourses(allCourses);
+                // 与数据库同步课程目录（只拉取有变化的课程）
+                tasks.submit(courseService::refreshPublishedCourses, courses -> loadAllCourseData(), refreshBtn);
             }
         });
         
         buttonPanel.add(selectBtn);
         buttonPanel.add(refreshBtn);
+        buttonPanel.add(queueStatusLabel);
         panel.add(buttonPanel, BorderLayout.SOUTH);
         
         return panel;
@@ -323,7 +441,7 @@ private void showChangePasswordDialog() {
         
         // 学分筛选
         panel.add(new JLabel("学分筛选:"));
-        creditCombo = new JComboBox<>(new String[]{"全部", "1学分", "2学分", "3学分", "4学分", "5学分以上"});
+        creditCombo = new JComboBox<>(new String[]{"全部"});
         panel.add(creditCombo);
         
         // 教师筛选
@@ -331,6 +449,55 @@ private void showChangePasswordDialog() {
         teacherCombo = new JComboBox<>(new String[]{"全部教师"});
         panel.add(teacherCombo);
         
+        // 类型、星期、余量筛选
+        panel.add(new JLabel("类型:"));
+        typeCombo = new JComboBox<>(new String[]{"全部类型"});
+        panel.add(typeCombo);
+        panel.add(new JLabel("星期:"));
+        weekdayCombo = new JComboBox<>(new String[]{"全部星期"});
+        panel.add(weekdayCombo);
+        seatsOnlyCheck = new JCheckBox("只看有余量");
+        panel.add(seatsOnlyCheck);
+        
+        // 输入关键词或修改筛选条件后自动搜索
+        searchDebounce = new Timer(SEARCH_DEBOUNCE_MS, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                handleSearch(true);
+            }
+        });
+        searchDebounce.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                searchDebounce.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                searchDebounce.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                searchDebounce.restart();
+            }
+        });
+        ActionListener filterListener = new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (!updatingFacets) {
+                    handleSearch(true);
+                }
+            }
+        };
+        filterCombo.addActionListener(filterListener);
+        creditCombo.addActionListener(filterListener);
+        teacherCombo.addActionListener(filterListener);
+        typeCombo.addActionListener(filterListener);
+        weekdayCombo.addActionListener(filterListener);
+        seatsOnlyCheck.addActionListener(filterListener);
+        
         // 按钮
         JButton searchBtn = new JButton("搜索");
         JButton resetBtn = new JButton("重置");
@@ -338,7 +505,7 @@ private void showChangePasswordDialog() {
         searchBtn.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                handleSearch();
+                handleSearch(true);
             }
         });
         
@@ -352,151 +519,236 @@ private void showChangePasswordDialog() {
         panel.add(searchBtn);
         panel.add(resetBtn);
         
+        searchStatusLabel = new JLabel(" ");
+        panel.add(searchStatusLabel);
+        
         return panel;
     }
 
     /**
-     * 加载所有课程数据并缓存
+     * 加载所有课程数据并缓存（后台查询），完成后显示到表格并更新筛选下拉框
      */
-    private void loadAllCourseData() {
-        allCourses = courseService.getPublishedCourses();
+    private CompletableFuture<?> loadAllCourseData() {
+        return loadAllCourseData(null);
+    }
+
+    /**
+     * 同上，warmed 为登录时预热的课程目录查询（为 null 时重新查询）
+     */
+    private CompletableFuture<?> loadAllCourseData(CompletableFuture<List<Course>> warmed) {
+        return tasks.submit(warmed, courseService::getPublishedCourses, this::showAllCourses, null);
+    }
+
+    /**
+     * 显示课程目录并更新筛选下拉框
+     */
+    private void showAllCourses(List<Course> courses) {
+        allCourses = courses;
+        displayCourses(allCourses);
         
         // 【添加日志】查看课程列表
         LogUtil.log(student.getUserId(), "查看课程列表", 
                    "学生 " + student.getUserName() + " 查看可选课程，共 " + allCourses.size() + " 门");
         
-        // 更新教师筛选下拉框
-        updateTeacherFilter();
+        // 更新筛选下拉框（各取值的课程数，目录已在缓存中）
+        tasks.submit(() -> courseService.filterPublishedCourses("", CourseSearchIndex.Field.ALL,
+                new EnumMap<>(CourseFacetIndex.Facet.class), false), facets -> {
+            if (facets != null) {
+                updateFacetCombos(facets);
+            }
+        });
     }
 
     /**
-     * 更新教师筛选下拉框（去重）
+     * 用筛选结果中的课程数刷新筛选下拉框，显示为"王老师 (12)"，保留当前选择
      */
-    private void updateTeacherFilter() {
-        List<String> teachers = new ArrayList<>();
-        teachers.add("全部教师");
-        
-        for (Course course : allCourses) {
-            String teacher = course.getTeacherName();
-            if (teacher != null && !teacher.isEmpty() && !teachers.contains(teacher)) {
-                teachers.add(teacher);
+    private void updateFacetCombos(CourseFacetIndex.Result facets) {
+        updatingFacets = true;
+        try {
+            updateFacetCombo(creditCombo, "全部", facets.getCounts(CourseFacetIndex.Facet.CREDIT));
+            updateFacetCombo(teacherCombo, "全部教师", facets.getCounts(CourseFacetIndex.Facet.TEACHER));
+            updateFacetCombo(typeCombo, "全部类型", facets.getCounts(CourseFacetIndex.Facet.TYPE));
+            updateFacetCombo(weekdayCombo, "全部星期", facets.getCounts(CourseFacetIndex.Facet.WEEKDAY));
+        } finally {
+            updatingFacets = false;
+        }
+    }
+
+    private static void updateFacetCombo(JComboBox<String> combo, String allItem, Map<String, Integer> counts) {
+        String selected = facetValue(combo);
+        DefaultComboBoxModel<String> model = new DefaultComboBoxModel<>();
+        model.addElement(allItem);
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            String item = entry.getKey() + " (" + entry.getValue() + ")";
+            model.addElement(item);
+            if (entry.getKey().equals(selected)) {
+                model.setSelectedItem(item);
             }
         }
-        
-        teacherCombo.setModel(new DefaultComboBoxModel<>(teachers.toArray(new String[0])));
+        combo.setModel(model);
+    }
+
+    // 下拉框选中的筛选值（去掉课程数）；选中"全部"时返回 null
+    private static String facetValue(JComboBox<String> combo) {
+        if (combo.getSelectedIndex() <= 0) {
+            return null;
+        }
+        String item = (String) combo.getSelectedItem();
+        int idx = item.lastIndexOf(" (");
+        return idx >= 0 ? item.substring(0, idx) : item;
     }
 
     /**
      * 将课程列表显示到表格
+     * 表格直接使用课程列表，按课程代码与上次结果比较，只对增删的行触发表格事件，刷新后选中行不丢失
      */
     private void displayCourses(List<Course> courses) {
-        courseTableModel.setRowCount(0);
-        
-        for (Course course : courses) {
-            Object[] rowData = new Object[] {
-                    course.getCourseCode(),
-                    course.getCourseName(),
-                    course.getCredit(),
-                    course.getTeacherName(),
-                    course.getScheduleTime(),
-                    course.getCapacityLimit(),
-                    course.getCurrentSelected(),
-                    course.getRemainingCapacity()
-            };
-            courseTableModel.addRow(rowData);
-        }
-
-        if (courses.isEmpty()) {
-            courseTableModel.addRow(new Object[]{"无符合条件的课程", "", "", "", "", "", "", ""});
-        }
+        courseTableModel.updateRows(courses, Course::getCourseCode);
+        courseTableSkeleton.showContent();
     }
 
     /**
-     * 处理搜索按钮点击事件
+     * 搜索课程（搜索按钮、输入关键词、修改筛选条件时调用）
+     * 在 EDT 上读取搜索条件，在后台线程查询；新的搜索开始后，尚未完成的旧搜索会被取消，
+     * 即使旧搜索已经在执行，完成时也会因为序号过期而丢弃结果
+     * @param userInitiated 是否由用户的搜索操作发起；选课、退课、重置后的刷新不计入搜索统计
      */
-    private void handleSearch() {
+    private void handleSearch(boolean userInitiated) {
+        searchDebounce.stop();
+        if (userInitiated && searchSettle != null) {
+            // 新的搜索还没出结果，上一次搜索先不记录，等这次的结果替换它
+            searchSettle.stop();
+        }
         String keyword = searchField.getText().trim().toLowerCase();
         String filterType = (String) filterCombo.getSelectedItem();
-        String creditFilter = (String) creditCombo.getSelectedItem();
-        String teacherFilter = (String) teacherCombo.getSelectedItem();
-        
-        List<Course> filteredCourses = new ArrayList<>();
-        
-        for (Course course : allCourses) {
-            boolean matches = true;
-            
-            // 1. 关键词搜索
-            if (!keyword.isEmpty()) {
-                boolean keywordMatch = false;
-                switch (filterType) {
-                    case "课程名称":
-                        keywordMatch = course.getCourseName().toLowerCase().contains(keyword);
-                        break;
-                    case "课程代码":
-                        keywordMatch = course.getCourseCode().toLowerCase().contains(keyword);
-                        break;
-                    case "授课教师":
-                        keywordMatch = course.getTeacherName().toLowerCase().contains(keyword);
-                        break;
-                    default: // "全部"
-                        keywordMatch = course.getCourseName().toLowerCase().contains(keyword) ||
-                                      course.getCourseCode().toLowerCase().contains(keyword) ||
-                                      course.getTeacherName().toLowerCase().contains(keyword);
-                        break;
-                }
-                matches = matches && keywordMatch;
+        CourseSearchIndex.Field field = toSearchField(filterType);
+        
+        // 1. 关键词（倒排索引，结果按相关度排序）+ 2. 学分/教师/类型/星期/余量筛选（位图求交）
+        Map<CourseFacetIndex.Facet, String> selections = new EnumMap<>(CourseFacetIndex.Facet.class);
+        putSelection(selections, CourseFacetIndex.Facet.CREDIT, creditCombo);
+        putSelection(selections, CourseFacetIndex.Facet.TEACHER, teacherCombo);
+        putSelection(selections, CourseFacetIndex.Facet.TYPE, typeCombo);
+        putSelection(selections, CourseFacetIndex.Facet.WEEKDAY, weekdayCombo);
+        boolean onlyWithSeats = seatsOnlyCheck.isSelected();
+        
+        long generation = ++searchGeneration;
+        if (searchTask != null) {
+            searchTask.cancel(false);
+        }
+        searchStatusLabel.setText("搜索中...");
+        searchTask = tasks.submit(() -> {
+            if (generation != searchGeneration) {
+                return null;
             }
-            
-            // 2. 学分筛选
-            if (!"全部".equals(creditFilter) && matches) {
-                double courseCredit = course.getCredit();
-                switch (creditFilter) {
-                    case "1学分":
-                        matches = courseCredit == 1.0;
-                        break;
-                    case "2学分":
-                        matches = courseCredit == 2.0;
-                        break;
-                    case "3学分":
-                        matches = courseCredit == 3.0;
-                        break;
-                    case "4学分":
-                        matches = courseCredit == 4.0;
-                        break;
-                    case "5学分以上":
-                        matches = courseCredit >= 5.0;
-                        break;
-                }
+            CourseFacetIndex.Result result = courseService.filterPublishedCourses(keyword, field, selections, onlyWithSeats);
+            if (result == null || generation != searchGeneration) {
+                return null;
             }
-            
-            // 3. 教师筛选
-            if (!"全部教师".equals(teacherFilter) && matches) {
-                matches = course.getTeacherName().equals(teacherFilter);
+            return new SearchResult(result, courseService.getPublishedCourses(result.getCourseCodes()));
+        }, searchResult -> {
+            if (generation != searchGeneration) {
+                return;
+            }
+            if (searchResult == null) {
+                searchStatusLabel.setText("加载课程数据失败，请稍后重试");
+                return;
             }
+            // 显示筛选结果
+            List<Course> filteredCourses = searchResult.courses;
+            displayCourses(filteredCourses);
+            updateFacetCombos(searchResult.facets);
+            searchStatusLabel.setText("找到 " + filteredCourses.size() + " 门课程");
             
-            if (matches) {
-                filteredCourses.add(course);
+            // 【搜索统计】本地汇总，定时写入日志（见 SearchStats）；等搜索条件稳定后再记录
+            if (userInitiated) {
+                int resultCount = filteredCourses.size();
+                scheduleSearchStat(() -> SearchStats.record(student.getUserId(), student.getUserName(),
+                        keyword, resultCount));
+            }
+        }, error -> {
+            if (generation == searchGeneration) {
+                error.printStackTrace();
+                searchStatusLabel.setText("搜索失败：" + error.getMessage());
             }
+        });
+    }
+
+    /**
+     * 记下一次用户搜索，SEARCH_SETTLE_MS 毫秒内又有新的用户搜索时被新的搜索替换
+     */
+    private void scheduleSearchStat(Runnable stat) {
+        if (searchSettle == null) {
+            searchSettle = new Timer(SEARCH_SETTLE_MS, e -> recordSettledSearch());
+            searchSettle.setRepeats(false);
+        }
+        pendingSearchStat = stat;
+        searchSettle.restart();
+    }
+
+    /**
+     * 记录尚未记录的最后一次用户搜索（只在 EDT 上调用）
+     */
+    private void recordSettledSearch() {
+        if (searchSettle != null) {
+            searchSettle.stop();
+        }
+        Runnable stat = pendingSearchStat;
+        pendingSearchStat = null;
+        if (stat != null) {
+            stat.run();
+        }
+    }
+
+    // 一次搜索的结果：筛选结果（含各取值的课程数）和命中的课程
+    private static final class SearchResult {
+        final CourseFacetIndex.Result facets;
+        final List<Course> courses;
+
+        SearchResult(CourseFacetIndex.Result facets, List<Course> courses) {
+            this.facets = facets;
+            this.courses = courses;
+        }
+    }
+
+    private static void putSelection(Map<CourseFacetIndex.Facet, String> selections,
+                                     CourseFacetIndex.Facet facet, JComboBox<String> combo) {
+        String value = facetValue(combo);
+        if (value != null) {
+            selections.put(facet, value);
+        }
+    }
+
+    // "搜索类型"下拉框选项 -> 搜索范围
+    private static CourseSearchIndex.Field toSearchField(String filterType) {
+        switch (filterType) {
+            case "课程名称":
+                return CourseSearchIndex.Field.NAME;
+            case "课程代码":
+                return CourseSearchIndex.Field.CODE;
+            case "授课教师":
+                return CourseSearchIndex.Field.TEACHER;
+            default: // "全部"
+                return CourseSearchIndex.Field.ALL;
         }
-        
-        // 显示筛选结果
-        displayCourses(filteredCourses);
-        
-        // 【添加日志】搜索课程
-        LogUtil.log(student.getUserId(), "搜索课程", 
-                   "学生 " + student.getUserName() + " 搜索课程，关键词: " + keyword + 
-                   ", 类型: " + filterType + ", 找到 " + filteredCourses.size() + " 门课程");
     }
 
     /**
      * 处理重置按钮点击事件
      */
     private void handleReset() {
-        searchField.setText("");
-        filterCombo.setSelectedIndex(0);
-        creditCombo.setSelectedIndex(0);
-        teacherCombo.setSelectedIndex(0);
-        displayCourses(allCourses);
+        updatingFacets = true;
+        try {
+            searchField.setText("");
+            filterCombo.setSelectedIndex(0);
+            creditCombo.setSelectedIndex(0);
+            teacherCombo.setSelectedIndex(0);
+            typeCombo.setSelectedIndex(0);
+            weekdayCombo.setSelectedIndex(0);
+            seatsOnlyCheck.setSelected(false);
+        } finally {
+            updatingFacets = false;
+        }
+        handleSearch(false);
         
         // 【添加日志】重置搜索
         LogUtil.log(student.getUserId(), "重置搜索", "学生 " + student.getUserName() + " 重置搜索条件");
@@ -512,92 +764,235 @@ private void showChangePasswordDialog() {
             JOptionPane.showMessageDialog(this, "请先在表格中选择一门课程。", "操作失败", JOptionPane.WARNING_MESSAGE);
             return;
         }
+
+        // 选中多门课程时走批量选课
+        if (courseTable.getSelectedRowCount() > 1) {
+            handleBatchSelectCourses();
+            return;
+        }
         
         // 由于可能有排序，需要转换行索引
         int modelRow = courseTable.convertRowIndexToModel(selectedRow);
+        if (courseTableModel.getRow(modelRow) == null) {
+            // 选中的是"无符合条件的课程"提示行
+            JOptionPane.showMessageDialog(this, "请先在表格中选择一门课程。", "操作失败", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
         String courseCode = (String) courseTableModel.getValueAt(modelRow, 0);
         String courseName = (String) courseTableModel.getValueAt(modelRow, 1);
         
-        // 检查是否已经选了这门课
-        if (isCourseAlreadySelected(courseCode)) {
-            JOptionPane.showMessageDialog(this, 
-                "您已经选择了课程《" + courseName + "》，不能重复选课！",
-                "重复选课", JOptionPane.WARNING_MESSAGE);
+        // 检查是否已经选了这门课（后台查询）
+        tasks.submit(() -> isCourseAlreadySelected(courseCode), selected -> {
+            if (selected) {
+                JOptionPane.showMessageDialog(this, 
+                    "您已经选择了课程《" + courseName + "》，不能重复选课！",
+                    "重复选课", JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            
+            int confirm = JOptionPane.showConfirmDialog(this,
+                    "确定要选择课程：《" + courseName + "》吗？",
+                    "确认选课", JOptionPane.YES_NO_OPTION);
+            
+            if (confirm == JOptionPane.YES_OPTION) {
+                submitSelectCourse(courseCode, courseName);
+            }
+        }, selectBtn);
+    }
+
+    /**
+     * 提交选课请求
+     * 选课请求可能需要排队，在后台执行，排队位置实时显示在状态栏
+     */
+    private void submitSelectCourse(String courseCode, String courseName) {
+        queueStatusLabel.setText("正在提交选课请求...");
+        tasks.submit(() -> courseService.selectCourse(student.getUserId(), courseCode,
+                position -> SwingUtilities.invokeLater(() -> queueStatusLabel.setText(position > 0
+                        ? "选课排队中，前面还有约 " + position + " 个请求..."
+                        : "正在处理选课请求..."))), result -> {
+            queueStatusLabel.setText(" ");
+            showSelectResult(courseCode, courseName, result);
+        }, error -> {
+            queueStatusLabel.setText(" ");
+            error.printStackTrace();
+            JOptionPane.showMessageDialog(this, "选课失败：" + error.getMessage(),
+                    "选课失败", JOptionPane.ERROR_MESSAGE);
+        }, selectBtn);
+    }
+
+    /**
+     * 显示单门课程的选课结果
+     */
+    private void showSelectResult(String courseCode, String courseName, String result) {
+        if (result.startsWith(SelectionScheduler.BUSY_PREFIX)) {
+            // 系统繁忙：不算选课失败，提示稍后重试
+            JOptionPane.showMessageDialog(this, result, "请稍后重试", JOptionPane.WARNING_MESSAGE);
+        } else if (result.contains("成功")) {
+            LogUtil.log(student.getUserId(), "选课成功", 
+                "选择课程：" + courseName + "(" + courseCode + ")");
+            JOptionPane.showMessageDialog(this, result, "选课结果", JOptionPane.INFORMATION_MESSAGE);
+            
+            // 【关键修复】刷新所有页面的数据
+            refreshAllData();
+            
+            // 自动切换到课表页面
+            tabbedPane.setSelectedIndex(1);
+            
+        } else if (result.contains("容量已满")) {
+            // 课程已满：提供加入候补队列，不必反复重试
+            LogUtil.log(student.getUserId(), "选课失败", 
+                "尝试选择课程：" + courseName + "，原因：" + result);
+            int confirm = JOptionPane.showConfirmDialog(this,
+                    result + "\n是否加入《" + courseName + "》的候补队列？有同学退课时将按排队顺序自动为你选上。",
+                    "课程已满", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
+            if (confirm == JOptionPane.YES_OPTION) {
+                tasks.submit(() -> waitlistService.joinWaitlist(student.getUserId(), courseCode), waitResult -> {
+                    if (waitResult.contains("候补队列")) {
+                        LogUtil.log(student.getUserId(), "加入候补",
+                            "候补课程：" + courseName + "(" + courseCode + ")");
+                        JOptionPane.showMessageDialog(this, waitResult, "候补结果", JOptionPane.INFORMATION_MESSAGE);
+                        refreshWaitlist();
+                    } else {
+                        JOptionPane.showMessageDialog(this, waitResult, "候补失败", JOptionPane.ERROR_MESSAGE);
+                    }
+                });
+            }
+        } else {
+            LogUtil.log(student.getUserId(), "选课失败", 
+                "尝试选择课程：" + courseName + "，原因：" + result);
+            JOptionPane.showMessageDialog(this, result, "选课失败", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * 批量选课：一次提交表格中选中的多门课程
+     */
+    private void handleBatchSelectCourses() {
+        List<String> courseCodes = new ArrayList<>();
+        Map<String, String> courseNames = new LinkedHashMap<>();
+        for (int row : courseTable.getSelectedRows()) {
+            int modelRow = courseTable.convertRowIndexToModel(row);
+            String courseCode = (String) courseTableModel.getValueAt(modelRow, 0);
+            courseCodes.add(courseCode);
+            courseNames.put(courseCode, (String) courseTableModel.getValueAt(modelRow, 1));
+        }
+
+        String[] options = {"全部成功才提交", "能选几门选几门", "取消"};
+        int choice = JOptionPane.showOptionDialog(this,
+                "确定要一次选择以下 " + courseCodes.size() + " 门课程吗？\n" + String.join("、", courseNames.values()),
+                "批量选课", JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE,
+                null, options, options[0]);
+        if (choice != 0 && choice != 1) {
             return;
         }
-        
-        int confirm = JOptionPane.showConfirmDialog(this,
-                "确定要选择课程：《" + courseName + "》吗？",
-                "确认选课", JOptionPane.YES_NO_OPTION);
-        
-        if (confirm == JOptionPane.YES_OPTION) {
-            String result = courseService.selectCourse(student.getUserId(), courseCode);
-            
-            // 记录选课日志
-            if (result.contains("成功")) {
-                LogUtil.log(student.getUserId(), "选课成功", 
-                    "选择课程：" + courseName + "(" + courseCode + ")");
-                JOptionPane.showMessageDialog(this, result, "选课结果", JOptionPane.INFORMATION_MESSAGE);
-                
-                // 【关键修复】刷新所有页面的数据
+
+        boolean allOrNothing = choice == 0;
+        tasks.submit(() -> courseService.selectCourses(student.getUserId(), courseCodes, allOrNothing), results -> {
+            StringBuilder message = new StringBuilder();
+            int successCount = 0;
+            for (Map.Entry<String, String> entry : results.entrySet()) {
+                String name = courseNames.get(entry.getKey());
+                message.append("《").append(name).append("》：").append(entry.getValue()).append("\n");
+                if (entry.getValue().contains("成功")) {
+                    successCount++;
+                }
+            }
+
+            LogUtil.log(student.getUserId(), "批量选课",
+                    "批量选择 " + courseCodes.size() + " 门课程，成功 " + successCount + " 门：" + results);
+
+            JOptionPane.showMessageDialog(this, message.toString(), "批量选课结果",
+                    successCount > 0 ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.ERROR_MESSAGE);
+
+            if (successCount > 0) {
                 refreshAllData();
-                
-                // 自动切换到课表页面
                 tabbedPane.setSelectedIndex(1);
-                
-            } else {
-                LogUtil.log(student.getUserId(), "选课失败", 
-                    "尝试选择课程：" + courseName + "，原因：" + result);
-                JOptionPane.showMessageDialog(this, result, "选课失败", JOptionPane.ERROR_MESSAGE);
             }
-        }
+        }, selectBtn);
     }
 
     /**
      * 刷新所有页面的数据
+     * 可选课程按当前搜索条件重新筛选（课程目录缓存已按选课/退课结果更新名额），
+     * 课表和已选课程合并为一次查询，原地更新
      */
     private void refreshAllData() {
-        // 1. 刷新"可选课程"页面
-        loadAllCourseData();
-        displayCourses(allCourses);
-        
-        // 2. 刷新"我的课表"页面
-        refreshSchedulePanel();
+        // 1. 刷新"可选课程"页面（按原条件重新筛选，不计入搜索统计）
+        handleSearch(false);
         
-        // 3. 刷新"已选课程"页面
-        loadSelectedCourses();
+        // 2. 刷新"我的课表"和"已选课程"页面（退课可能让候补学生转正，候补位置一并刷新）
+        requestDashboardRefresh();
+        refreshWaitlist();
         
         // 记录日志
         LogUtil.log(student.getUserId(), "刷新数据", "刷新所有页面数据");
     }
     
     /**
-     * 刷新课表面板数据
+     * 请求刷新课表和已选课程（合并刷新）
+     * 短时间内的多次请求（如连续选课、退课）只触发一次查询；查询进行中的请求在查询完成后再合并执行一次
      */
-    private void refreshSchedulePanel() {
-        // 获取当前选中的标签页索引
-        int currentTab = tabbedPane.getSelectedIndex();
-        
-        // 如果课表面板存在，刷新它
-        if (tabbedPane.getTabCount() > 1) {
-            Component schedulePanel = tabbedPane.getComponentAt(1);
-            if (schedulePanel instanceof JPanel) {
-                // 重新创建课表面板
-                tabbedPane.setComponentAt(1, createMySchedulePanel());
-            }
+    private void requestDashboardRefresh() {
+        if (dashboardTimer == null) {
+            dashboardTimer = new Timer(DASHBOARD_COALESCE_MS, e -> loadDashboard());
+            dashboardTimer.setRepeats(false);
         }
-        
-        // 如果已选课程面板存在，刷新它
-        if (tabbedPane.getTabCount() > 2) {
-            Component selectedPanel = tabbedPane.getComponentAt(2);
-            if (selectedPanel instanceof JPanel) {
-                // 重新创建已选课程面板
-                tabbedPane.setComponentAt(2, createSelectedCoursesPanel());
+        if (dashboardLoading) {
+            dashboardPending = true;
+        } else {
+            dashboardTimer.restart();
+        }
+    }
+
+    /**
+     * 查询主界面数据并更新课表和已选课程（由 requestDashboardRefresh 调用）
+     */
+    private CompletableFuture<?> loadDashboard() {
+        return loadDashboard(null);
+    }
+
+    /**
+     * 同上，warmed 为登录时预热的查询（为 null 时重新查询）
+     */
+    private CompletableFuture<?> loadDashboard(CompletableFuture<StudentDashboard> warmed) {
+        dashboardLoading = true;
+        return tasks.submit(warmed, () -> courseService.getStudentDashboard(student.getUserId()), dashboard -> {
+            if (dashboard != null) {
+                applyDashboard(dashboard);
+            } else if (scheduleInfoLabel != null) {
+                scheduleInfoLabel.setText("课表加载失败，请稍后刷新");
             }
+            finishDashboardLoad();
+        }, error -> {
+            error.printStackTrace();
+            if (scheduleInfoLabel != null) {
+                scheduleInfoLabel.setText("课表加载失败：" + error.getMessage());
+            }
+            finishDashboardLoad();
+        });
+    }
+
+    private void finishDashboardLoad() {
+        dashboardLoading = false;
+        if (dashboardPending) {
+            dashboardPending = false;
+            requestDashboardRefresh();
+        }
+    }
+
+    /**
+     * 用查询结果原地更新统计信息、周课表和已选课程表格（尚未创建的标签页在创建时再显示）
+     */
+    private void applyDashboard(StudentDashboard dashboard) {
+        lastDashboard = dashboard;
+        scheduleModel.setCourses(dashboard.getSelectedCourses());
+        if (scheduleView != null) {
+            updateStats(dashboard);
+            updateWeeklySchedule(dashboard);
+        }
+        if (selectedCourseTableModel != null) {
+            updateSelectedCourses(dashboard.getSelectedCourses());
         }
-        
-        // 恢复原来的标签页
-        tabbedPane.setSelectedIndex(currentTab);
     }
 
     /**
@@ -611,6 +1006,11 @@ private void showChangePasswordDialog() {
         }
 
         int modelRow = selectedCourseTable.convertRowIndexToModel(selectedRow);
+        if (selectedCourseTableModel.getRow(modelRow) == null) {
+            // 选中的是"暂无已选课程"提示行
+            JOptionPane.showMessageDialog(this, "请先选择要退选的课程。", "提示", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
         String courseCode = (String) selectedCourseTableModel.getValueAt(modelRow, 0);
         String courseName = (String) selectedCourseTableModel.getValueAt(modelRow, 1);
 
@@ -619,21 +1019,21 @@ private void showChangePasswordDialog() {
                 "确认退课", JOptionPane.YES_NO_OPTION);
 
         if (confirm == JOptionPane.YES_OPTION) {
-            String result = courseService.dropCourse(student.getUserId(), courseCode);
-
-            if (result.contains("成功")) {
-                LogUtil.log(student.getUserId(), "退课成功", 
-                        "学生 " + student.getUserName() + " 成功退选课程：" + courseName + "(" + courseCode + ")");
-                JOptionPane.showMessageDialog(this, result, "退课成功", JOptionPane.INFORMATION_MESSAGE);
+            tasks.submit(() -> courseService.dropCourse(student.getUserId(), courseCode), result -> {
+                if (result.contains("成功")) {
+                    LogUtil.log(student.getUserId(), "退课成功", 
+                            "学生 " + student.getUserName() + " 成功退选课程：" + courseName + "(" + courseCode + ")");
+                    JOptionPane.showMessageDialog(this, result, "退课成功", JOptionPane.INFORMATION_MESSAGE);
                 
-                // 【关键修复】刷新所有数据
-                refreshAllData();
+                    // 【关键修复】刷新所有数据
+                    refreshAllData();
                 
-            } else {
-                LogUtil.log(student.getUserId(), "退课失败", 
-                        "学生 " + student.getUserName() + " 退课失败：" + courseName + "，原因：" + result);
-                JOptionPane.showMessageDialog(this, result, "退课失败", JOptionPane.ERROR_MESSAGE);
-            }
+                } else {
+                    LogUtil.log(student.getUserId(), "退课失败", 
+                            "学生 " + student.getUserName() + " 退课失败：" + courseName + "，原因：" + result);
+                    JOptionPane.showMessageDialog(this, result, "退课失败", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         }
     }
 
@@ -651,45 +1051,60 @@ private void showChangePasswordDialog() {
         JPanel panel = new JPanel(new BorderLayout());
         
         // 1. 统计信息面板
-        JPanel statsPanel = createStatsPanel();
-        panel.add(statsPanel, BorderLayout.NORTH);
+        panel.add(createStatsPanel(), BorderLayout.NORTH);
         
         // 2. 周课表视图
-        JPanel schedulePanel = createWeeklySchedulePanel();
-        panel.add(schedulePanel, BorderLayout.CENTER);
+        panel.add(createWeeklySchedulePanel(), BorderLayout.CENTER);
+        
+        // 统计信息、周课表和已选课程共用一次查询结果（启动队列中尚未开始时提前加载）
+        if (lastDashboard != null) {
+            updateStats(lastDashboard);
+            updateWeeklySchedule(lastDashboard);
+        } else {
+            startupQueue.promote("dashboard");
+        }
         
         return panel;
     }
 
     /**
-     * 创建统计信息面板
+     * 创建统计信息面板（数值由 updateStats 填写）
      */
     private JPanel createStatsPanel() {
         JPanel panel = new JPanel(new GridLayout(1, 4, 10, 0));
         panel.setBorder(BorderFactory.createTitledBorder("学习概况"));
         panel.setPreferredSize(new Dimension(0, 100));
         
-        // 获取统计信息（简化版）
-        List<Course> selectedCourses = courseService.getStudentSelectedCourses(student.getUserId());
-        int courseCount = selectedCourses.size();
-        double totalCredits = 0;
-        for (Course course : selectedCourses) {
-            totalCredits += course.getCredit();
-        }
+        courseCountValue = new JLabel("-", SwingConstants.CENTER);
+        totalCreditsValue = new JLabel("-", SwingConstants.CENTER);
+        remainingCreditsValue = new JLabel("-", SwingConstants.CENTER);
+        averageCreditsValue = new JLabel("-", SwingConstants.CENTER);
         
         // 创建统计卡片
-        panel.add(createStatCard("已选课程", courseCount + "门", Color.decode("#4CAF50")));
-        panel.add(createStatCard("总学分", String.format("%.1f", totalCredits) + "学分", Color.decode("#2196F3")));
-        panel.add(createStatCard("剩余学分", String.format("%.1f", 30 - totalCredits) + "学分", Color.decode("#FF9800")));
-        panel.add(createStatCard("平均学分", String.format("%.1f", courseCount > 0 ? totalCredits / courseCount : 0) + "学分", Color.decode("#9C27B0")));
+        panel.add(createStatCard("已选课程", courseCountValue, Color.decode("#4CAF50")));
+        panel.add(createStatCard("总学分", totalCreditsValue, Color.decode("#2196F3")));
+        panel.add(createStatCard("剩余学分", remainingCreditsValue, Color.decode("#FF9800")));
+        panel.add(createStatCard("平均学分", averageCreditsValue, Color.decode("#9C27B0")));
         
         return panel;
     }
 
+    /**
+     * 更新统计信息
+     */
+    private void updateStats(StudentDashboard dashboard) {
+        int courseCount = dashboard.getCourseCount();
+        double totalCredits = dashboard.getTotalCredits();
+        courseCountValue.setText(courseCount + "门");
+        totalCreditsValue.setText(String.format("%.1f", totalCredits) + "学分");
+        remainingCreditsValue.setText(String.format("%.1f", MAX_CREDITS - totalCredits) + "学分");
+        averageCreditsValue.setText(String.format("%.1f", courseCount > 0 ? totalCredits / courseCount : 0) + "学分");
+    }
+
     /**
      * 创建统计卡片
      */
-    private JPanel createStatCard(String title, String value, Color color) {
+    private JPanel createStatCard(String title, JLabel valueLabel, Color color) {
         JPanel card = new JPanel(new BorderLayout());
         card.setBorder(BorderFactory.createCompoundBorder(
             BorderFactory.createLineBorder(color, 2),
@@ -701,7 +1116,6 @@ private void showChangePasswordDialog() {
         titleLabel.setFont(new Font("微软雅黑", Font.PLAIN, 12));
         titleLabel.setForeground(Color.GRAY);
         
-        JLabel valueLabel = new JLabel(value, SwingConstants.CENTER);
         valueLabel.setFont(new Font("微软雅黑", Font.BOLD, 16));
         valueLabel.setForeground(color);
         
@@ -712,187 +1126,34 @@ private void showChangePasswordDialog() {
     }
 
     /**
-     * 创建基于实际课程时间的课表面板
+     * 创建周课表面板（内容由 updateWeeklySchedule 更新）
      */
     private JPanel createWeeklySchedulePanel() {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBorder(BorderFactory.createTitledBorder("本周课表（时间网格视图）"));
         
-        // 获取学生已选课程
-        List<Course> selectedCourses = courseService.getStudentSelectedCourses(student.getUserId());
-        
-        // 创建课表网格 - 7行6列（6个时间段）
-        JPanel gridPanel = new JPanel(new GridLayout(7, 6, 1, 1));
-        gridPanel.setBorder(BorderFactory.createLineBorder(Color.GRAY));
-        
-        // 表头行
-        String[] timeSlots = {"时间", "周一", "周二", "周三", "周四", "周五"};
-        String[] periods = {
-            "1-2节\n8:00-10:00", 
-            "3-4节\n10:10-12:10", 
-            "午休", 
-            "5-6节\n14:00-16:00", 
-            "7-8节\n16:10-18:10", 
-            "9-10节\n19:00-21:00"
-        };
-        
-        // 添加表头
-        for (int i = 0; i < 6; i++) {
-            JLabel header = new JLabel(timeSlots[i], SwingConstants.CENTER);
-            header.setBorder(BorderFactory.createLineBorder(Color.GRAY));
-            header.setBackground(Color.LIGHT_GRAY);
-            header.setOpaque(true);
-            gridPanel.add(header);
-        }
-        
-        // 初始化课表数据
-        String[][] scheduleGrid = new String[6][5]; // 6个时间段 × 5天
+        scheduleView = new WeeklyScheduleView(scheduleModel);
+        scheduleSkeleton = new SkeletonPanel(scheduleView);
+        panel.add(scheduleSkeleton, BorderLayout.CENTER);
         
-        // 填充课表数据
-        for (Course course : selectedCourses) {
-            int[] timeInfo = parseScheduleTime(course.getScheduleTime());
-            int day = timeInfo[0];      // 星期几 (0-4)
-            int period = timeInfo[1];   // 时间段 (0-5)
-            
-            if (day >= 0 && day < 5 && period >= 0 && period < 6) {
-                String courseName = course.getCourseName();
-                if (courseName.length() > 4) {
-                    courseName = courseName.substring(0, Math.min(4, courseName.length()));
-                }
-                scheduleGrid[period][day] = courseName;
-            }
-        }
-        
-        // 创建课表格子
-        for (int period = 0; period < 6; period++) {
-            // 时间标签
-            JLabel timeLabel = new JLabel("<html><center>" + periods[period].replace("\n", "<br>") + "</center></html>", SwingConstants.CENTER);
-            timeLabel.setBorder(BorderFactory.createLineBorder(Color.GRAY));
-            timeLabel.setBackground(Color.decode("#F5F5F5"));
-            timeLabel.setOpaque(true);
-            gridPanel.add(timeLabel);
-            
-            // 周一到周五的课程格子
-            for (int day = 0; day < 5; day++) {
-                JLabel cell = new JLabel("", SwingConstants.CENTER);
-                cell.setBorder(BorderFactory.createLineBorder(Color.GRAY));
-                cell.setOpaque(true);
-                
-                String courseName = scheduleGrid[period][day];
-                if (courseName != null && !courseName.isEmpty()) {
-                    cell.setText("<html><center>" + courseName + "</center></html>");
-                    cell.setBackground(Color.decode("#C8E6C9")); // 浅绿色表示有课
-                    cell.setForeground(Color.DARK_GRAY);
-                    cell.setToolTipText("点击查看详情");
-                } else if (period == 2) { // 午休
-                    cell.setText("午休");
-                    cell.setBackground(Color.decode("#FFF3E0"));
-                } else {
-                    cell.setBackground(Color.WHITE);
-                }
-                
-                gridPanel.add(cell);
-            }
-        }
-        
-        panel.add(gridPanel, BorderLayout.CENTER);
-        
-        // 添加统计信息
+        // 添加统计信息和图例
         JPanel infoPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-        infoPanel.add(new JLabel("已选课程: " + selectedCourses.size() + "门"));
-        infoPanel.add(new JLabel(" | 课表显示: " + countCoursesOnSchedule(scheduleGrid) + "门"));
+        scheduleInfoLabel = new JLabel("正在加载课表...");
+        infoPanel.add(scheduleInfoLabel);
+        infoPanel.add(createLegendItem("有课", WeeklyScheduleView.COURSE_COLOR));
+        infoPanel.add(createLegendItem("时间冲突", WeeklyScheduleView.CONFLICT_COLOR));
         panel.add(infoPanel, BorderLayout.SOUTH);
         
         return panel;
     }
-    
-    /**
-     * 解析课程时间字符串，返回星期和时间段
-     * 格式示例："周一1-2节"、"周二3-4节"、"周三5-6节"、"周四7-8节"、"周五9-10节"
-     * 
-     * @param scheduleTime 课程时间字符串
-     * @return int[2] 数组，[0]=星期几(0-4)，[1]=时间段(0-5)
-     */
-    private int[] parseScheduleTime(String scheduleTime) {
-        // 默认值：不在课表上显示（-1表示无效）
-        int[] result = new int[]{-1, -1};
-        
-        if (scheduleTime == null || scheduleTime.trim().isEmpty()) {
-            return result;
-        }
-        
-        try {
-            String timeStr = scheduleTime.trim();
-            
-            // 1. 提取星期几
-            if (timeStr.contains("周一")) {
-                result[0] = 0; // 周一
-            } else if (timeStr.contains("周二")) {
-                result[0] = 1; // 周二
-            } else if (timeStr.contains("周三")) {
-                result[0] = 2; // 周三
-            } else if (timeStr.contains("周四")) {
-                result[0] = 3; // 周四
-            } else if (timeStr.contains("周五")) {
-                result[0] = 4; // 周五
-            } else if (timeStr.contains("周六")) {
-                result[0] = 5; // 周六
-            } else if (timeStr.contains("周日")) {
-                result[0] = 6; // 周日
-            }
-            
-            // 2. 提取时间段（节次）
-            if (timeStr.contains("1-2节") || timeStr.contains("1、2节") || timeStr.contains("1,2节")) {
-                result[1] = 0; // 第1-2节（8:00-10:00）
-            } else if (timeStr.contains("3-4节") || timeStr.contains("3、4节") || timeStr.contains("3,4节")) {
-                result[1] = 1; // 第3-4节（10:10-12:10）
-            } else if (timeStr.contains("5-6节") || timeStr.contains("5、6节") || timeStr.contains("5,6节")) {
-                result[1] = 3; // 第5-6节（14:00-16:00）（注意：索引3对应午休之后）
-            } else if (timeStr.contains("7-8节") || timeStr.contains("7、8节") || timeStr.contains("7,8节")) {
-                result[1] = 4; // 第7-8节（16:10-18:10）
-            } else if (timeStr.contains("9-10节") || timeStr.contains("9、10节") || timeStr.contains("9,10节")) {
-                result[1] = 5; // 第9-10节（19:00-21:00）
-            } else if (timeStr.contains("11-12节")) {
-                result[1] = 6; // 第11-12节（如果有的话）
-            }
-            
-            // 3. 处理其他格式（如果上面的没匹配到）
-            if (result[1] == -1) {
-                // 尝试匹配 "1-2" 这样的格式（不带"节"字）
-                if (timeStr.contains("1-2") || timeStr.matches(".*1\\s*[-~]\\s*2.*")) {
-                    result[1] = 0;
-                } else if (timeStr.contains("3-4") || timeStr.matches(".*3\\s*[-~]\\s*4.*")) {
-                    result[1] = 1;
-                } else if (timeStr.contains("5-6") || timeStr.matches(".*5\\s*[-~]\\s*6.*")) {
-                    result[1] = 3;
-                } else if (timeStr.contains("7-8") || timeStr.matches(".*7\\s*[-~]\\s*8.*")) {
-                    result[1] = 4;
-                } else if (timeStr.contains("9-10") || timeStr.matches(".*9\\s*[-~]\\s*10.*")) {
-                    result[1] = 5;
-                }
-            }
-            
-        } catch (Exception e) {
-            System.err.println("解析课程时间失败 [" + scheduleTime + "]: " + e.getMessage());
-            e.printStackTrace();
-        }
-        
-        return result;
-    }
-    
+
     /**
-     * 计算课表上显示的课程数量
+     * 显示周课表及其统计（课表内容已由 applyDashboard 更新到 scheduleModel，只重绘选课/退课涉及的时间格）
      */
-    private int countCoursesOnSchedule(String[][] scheduleGrid) {
-        int count = 0;
-        for (int i = 0; i < 6; i++) {
-            for (int j = 0; j < 5; j++) {
-                if (scheduleGrid[i][j] != null && !scheduleGrid[i][j].isEmpty()) {
-                    count++;
-                }
-            }
-        }
-        return count;
+    private void updateWeeklySchedule(StudentDashboard dashboard) {
+        scheduleSkeleton.showContent();
+        scheduleInfoLabel.setText("已选课程: " + dashboard.getCourseCount() + "门"
+                + " | 课表显示: " + scheduleView.getVisibleCourseCount() + "门");
     }
 
     /**
@@ -919,12 +1180,19 @@ private void showChangePasswordDialog() {
         JPanel panel = new JPanel(new BorderLayout());
         
         // 1. 表格
-        selectedCourseTableModel = new DefaultTableModel(null, SELECTED_COURSE_COLUMNS) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return column == 6; // 只有操作列可编辑
+        selectedCourseTableModel = new ListTableModel<>(SELECTED_COURSE_COLUMNS, (course, column) -> {
+            switch (column) {
+                case 0: return course.getCourseCode();
+                case 1: return course.getCourseName();
+                case 2: return course.getCredit();
+                case 3: return course.getTeacherName();
+                case 4: return course.getScheduleTime();
+                case 5: return course.getClassroom();
+                default: return "查看详情";
             }
-        };
+        });
+        selectedCourseTableModel.setEditableColumn(6); // 只有操作列可编辑
+        selectedCourseTableModel.setEmptyText("暂无已选课程");
         selectedCourseTable = new JTable(selectedCourseTableModel);
         
         // 设置列宽
@@ -938,7 +1206,10 @@ private void showChangePasswordDialog() {
         selectedCourseTable.getColumn("操作").setCellEditor(new ButtonEditor(new JCheckBox(), selectedCourseTable, student));
         
         JScrollPane scrollPane = new JScrollPane(selectedCourseTable);
-        panel.add(scrollPane, BorderLayout.CENTER);
+        // 滚动时预取新出现的行的课程详情
+        scrollPane.getViewport().addChangeListener(e -> prefetchVisibleCourseDetails());
+        selectedTableSkeleton = new SkeletonPanel(scrollPane);
+        panel.add(selectedTableSkeleton, BorderLayout.CENTER);
         
         // 2. 按钮面板
         JPanel buttonPanel = new JPanel();
@@ -955,42 +1226,148 @@ private void showChangePasswordDialog() {
         refreshBtn.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                loadSelectedCourses();
+                requestDashboardRefresh();
+                refreshWaitlist();
             }
         });
         
         buttonPanel.add(dropBtn);
         buttonPanel.add(refreshBtn);
+
+        // 3. 候补课程在已选课程下方显示
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.add(createWaitlistPanel(), BorderLayout.CENTER);
+        southPanel.add(buttonPanel, BorderLayout.SOUTH);
+        panel.add(southPanel, BorderLayout.SOUTH);
+        
+        // 已选课程数据随课表一起加载
+        if (lastDashboard != null) {
+            updateSelectedCourses(lastDashboard.getSelectedCourses());
+        } else {
+            startupQueue.promote("dashboard");
+        }
+        refreshWaitlist();
+
+        return panel;
+    }
+
+    /**
+     * 创建"我的候补"面板：正在候补的课程及排队位置，可退出候补
+     */
+    private JPanel createWaitlistPanel() {
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.setBorder(BorderFactory.createTitledBorder("我的候补"));
+
+        // 加入时间在显示时才格式化；不可编辑
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        waitlistTableModel = new ListTableModel<>(WAITLIST_COLUMNS, (row, column) -> {
+            if (column == 2) {
+                return "第 " + row[2] + " 位";
+            }
+            if (column == 3) {
+                return row[3] instanceof Timestamp ? sdf.format((Timestamp) row[3]) : "";
+            }
+            return row[column];
+        });
+        waitlistTableModel.setEmptyText("暂无候补课程");
+        waitlistTable = new JTable(waitlistTableModel);
+        waitlistTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+
+        JScrollPane scrollPane = new JScrollPane(waitlistTable);
+        scrollPane.setPreferredSize(new Dimension(0, 110));
+        panel.add(scrollPane, BorderLayout.CENTER);
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        JButton leaveBtn = new JButton("退出候补");
+        leaveBtn.addActionListener(e -> handleLeaveWaitlist(leaveBtn));
+        buttonPanel.add(leaveBtn);
         panel.add(buttonPanel, BorderLayout.SOUTH);
-        
-        // 加载已选课程数据
-        loadSelectedCourses();
-        
         return panel;
     }
 
     /**
-     * 加载已选课程数据
+     * 重新查询正在候补的课程（"已选课程"页尚未创建时不查询）
      */
-    private void loadSelectedCourses() {
-        selectedCourseTableModel.setRowCount(0);
-        List<Course> selectedCourses = courseService.getStudentSelectedCourses(student.getUserId());
-        
-        for (Course course : selectedCourses) {
-            Object[] rowData = new Object[] {
-                course.getCourseCode(),
-                course.getCourseName(),
-                course.getCredit(),
-                course.getTeacherName(),
-                course.getScheduleTime(),
-                course.getClassroom(),
-                "查看详情"
-            };
-            selectedCourseTableModel.addRow(rowData);
+    private void refreshWaitlist() {
+        if (waitlistTableModel == null) {
+            return;
         }
-        
-        if (selectedCourses.isEmpty()) {
-            selectedCourseTableModel.addRow(new Object[]{"暂无已选课程", "", "", "", "", "", ""});
+        tasks.submit(() -> waitlistService.getStudentWaitlist(student.getUserId()),
+                rows -> waitlistTableModel.updateRows(rows, row -> row[0]));
+    }
+
+    /**
+     * 退出选中课程的候补队列
+     */
+    private void handleLeaveWaitlist(Component leaveBtn) {
+        int selectedRow = waitlistTable.getSelectedRow();
+        Object[] entry = selectedRow == -1 ? null : waitlistTableModel.getRow(waitlistTable.convertRowIndexToModel(selectedRow));
+        if (entry == null) {
+            // 没有选中，或选中的是"暂无候补课程"提示行
+            JOptionPane.showMessageDialog(this, "请先选择要退出候补的课程。", "提示", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        String courseCode = (String) entry[0];
+        String courseName = (String) entry[1];
+
+        int confirm = JOptionPane.showConfirmDialog(this,
+                "确定要退出《" + courseName + "》的候补队列吗？退出后再次加入将重新排队。",
+                "确认退出候补", JOptionPane.YES_NO_OPTION);
+        if (confirm != JOptionPane.YES_OPTION) {
+            return;
+        }
+
+        tasks.submit(() -> waitlistService.leaveWaitlist(student.getUserId(), courseCode), left -> {
+            if (left) {
+                LogUtil.log(student.getUserId(), "退出候补",
+                        "退出候补课程：" + courseName + "(" + courseCode + ")");
+                JOptionPane.showMessageDialog(this, "已退出《" + courseName + "》的候补队列。",
+                        "退出候补", JOptionPane.INFORMATION_MESSAGE);
+            } else {
+                // 可能已经候补转正，或在其他窗口退出过
+                JOptionPane.showMessageDialog(this, "退出候补失败：你已不在该课程的候补队列中。",
+                        "退出候补", JOptionPane.WARNING_MESSAGE);
+            }
+            refreshAllData();
+        }, leaveBtn);
+    }
+
+    /**
+     * 更新已选课程表格（按课程代码比较，只对增删的行触发表格事件）
+     */
+    private void updateSelectedCourses(List<Course> selectedCourses) {
+        selectedCourseTableModel.updateRows(selectedCourses, Course::getCourseCode);
+        selectedTableSkeleton.showContent();
+        if (!selectedCourses.isEmpty()) {
+            prefetchVisibleCourseDetails();
+        }
+    }
+
+    /**
+     * 在后台预取已选课程表格中可见行的课程详情，点击"查看详情"时可直接从缓存显示
+     */
+    private void prefetchVisibleCourseDetails() {
+        int rowCount = selectedCourseTable.getRowCount();
+        if (rowCount == 0) {
+            return;
+        }
+        Rectangle visible = selectedCourseTable.getVisibleRect();
+        int first = 0;
+        int last = Math.min(rowCount, PREFETCH_ROWS) - 1;
+        // 表格尚未显示时可见区域为空，按前 PREFETCH_ROWS 行预取
+        if (!visible.isEmpty()) {
+            first = Math.max(0, selectedCourseTable.rowAtPoint(visible.getLocation()));
+            int end = selectedCourseTable.rowAtPoint(new Point(visible.x, visible.y + visible.height - 1));
+            last = end < 0 ? rowCount - 1 : end;
+        }
+        List<String> codes = new ArrayList<>();
+        for (int row = first; row <= last; row++) {
+            int modelRow = selectedCourseTable.convertRowIndexToModel(row);
+            Course course = selectedCourseTableModel.getRow(modelRow);
+            if (course != null) {
+                codes.add(course.getCourseCode());
+            }
         }
+        courseService.prefetchCourseDetails(codes);
     }
 }
\ No newline at end of file
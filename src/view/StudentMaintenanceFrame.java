@@ -4,13 +4,14 @@ import model.User;
 import service.UserService;
 import util.LogUtil;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.util.List;
 
 public class StudentMaintenanceFrame extends JFrame {
     private final UserService userService = new UserService();
-    private DefaultTableModel model;
+    // 服务调用在后台执行，窗口关闭时取消
+    private final UiTasks tasks = new UiTasks(this);
+    private ListTableModel<User> model;
     private JTable studentTable;
 
     public StudentMaintenanceFrame() {
@@ -32,7 +33,13 @@ public class StudentMaintenanceFrame extends JFrame {
     private void initUI() {
         // 表格模型（学号、姓名、院系）
         String[] columns = {"学号", "姓名", "院系"};
-        model = new DefaultTableModel(null, columns);
+        model = new ListTableModel<>(columns, (s, column) -> {
+            switch (column) {
+                case 0: return s.getUserId();
+                case 1: return s.getUserName();
+                default: return s.getDepartment();
+            }
+        });
         studentTable = new JTable(model);
         studentTable.getSelectionModel().setSelectionMode(ListSelectionModel.SINGLE_SELECTION); // 单选
 
@@ -57,15 +64,11 @@ public class StudentMaintenanceFrame extends JFrame {
     }
 
     private void loadStudentData() {
-        model.setRowCount(0);
-        List<User> students = userService.getAllStudents();
-        
-        // 【添加日志】加载学生数据
-        LogUtil.log("管理员", "加载学生数据", "加载学生列表，共 " + students.size() + " 名学生");
-
-        for (User s : students) {
-            model.addRow(new Object[]{s.getUserId(), s.getUserName(), s.getDepartment()});
-        }
+        tasks.submit(userService::getAllStudents, students -> {
+            // 【添加日志】加载学生数据
+            LogUtil.log("管理员", "加载学生数据", "加载学生列表，共 " + students.size() + " 名学生");
+            model.updateRows(students, User::getUserId);
+        });
     }
 
     // 添加学生对话框
@@ -106,19 +109,20 @@ public class StudentMaintenanceFrame extends JFrame {
             User student = new User(userId, userName, "Student");
             student.setDepartment(department);
             
-            boolean success = userService.addStudent(student, account, password);
+            tasks.submit(() -> userService.addStudent(student, account, password), success -> {
             
-            // 【添加日志】添加学生
-            if (success) {
-                LogUtil.log("管理员", "添加学生成功", 
-                           "添加学生：" + userName + "(" + userId + ")，院系：" + department + "，账号：" + account);
-                JOptionPane.showMessageDialog(this, "添加成功");
-                loadStudentData();
-            } else {
-                LogUtil.log("管理员", "添加学生失败", 
-                           "尝试添加学生：" + userName + "(" + userId + ") 失败，可能学号或账号重复");
-                JOptionPane.showMessageDialog(this, "添加失败（可能学号或账号重复）");
-            }
+                // 【添加日志】添加学生
+                if (success) {
+                    LogUtil.log("管理员", "添加学生成功", 
+                               "添加学生：" + userName + "(" + userId + ")，院系：" + department + "，账号：" + account);
+                    JOptionPane.showMessageDialog(this, "添加成功");
+                    loadStudentData();
+                } else {
+                    LogUtil.log("管理员", "添加学生失败", 
+                               "尝试添加学生：" + userName + "(" + userId + ") 失败，可能学号或账号重复");
+                    JOptionPane.showMessageDialog(this, "添加失败（可能学号或账号重复）");
+                }
+            });
         }
     }
 
@@ -152,21 +156,22 @@ public class StudentMaintenanceFrame extends JFrame {
             User updatedStudent = new User(userId, nameField.getText().trim(), "Student");
             updatedStudent.setDepartment(deptField.getText().trim());
 
-            boolean success = userService.updateStudent(updatedStudent);
+            tasks.submit(() -> userService.updateStudent(updatedStudent), success -> {
             
-            // 【添加日志】修改学生信息
-            if (success) {
-                LogUtil.log("管理员", "修改学生信息", 
-                           "修改学生 " + userId + " 的信息，" + 
-                           "原姓名：" + userName + "，新姓名：" + nameField.getText().trim() + "，" +
-                           "新院系：" + deptField.getText().trim());
-                JOptionPane.showMessageDialog(this, "修改成功");
-                loadStudentData();
-            } else {
-                LogUtil.log("管理员", "修改学生信息失败", 
-                           "修改学生 " + userId + " 的信息失败");
-                JOptionPane.showMessageDialog(this, "修改失败", "操作失败", JOptionPane.ERROR_MESSAGE);
-            }
+                // 【添加日志】修改学生信息
+                if (success) {
+                    LogUtil.log("管理员", "修改学生信息", 
+                               "修改学生 " + userId + " 的信息，" + 
+                               "原姓名：" + userName + "，新姓名：" + nameField.getText().trim() + "，" +
+                               "新院系：" + deptField.getText().trim());
+                    JOptionPane.showMessageDialog(this, "修改成功");
+                    loadStudentData();
+                } else {
+                    LogUtil.log("管理员", "修改学生信息失败", 
+                               "修改学生 " + userId + " 的信息失败");
+                    JOptionPane.showMessageDialog(this, "修改失败", "操作失败", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         }
     }
 
@@ -186,19 +191,20 @@ public class StudentMaintenanceFrame extends JFrame {
                 "危险操作确认", JOptionPane.YES_NO_OPTION);
 
         if (confirm == JOptionPane.YES_OPTION) {
-            boolean success = userService.deleteStudent(userId);
+            tasks.submit(() -> userService.deleteStudent(userId), success -> {
             
-            // 【添加日志】删除学生
-            if (success) {
-                LogUtil.log("管理员", "删除学生成功", 
-                           "删除学生：" + userName + "(" + userId + ")");
-                JOptionPane.showMessageDialog(this, "删除成功");
-                loadStudentData();
-            } else {
-                LogUtil.log("管理员", "删除学生失败", 
-                           "删除学生：" + userName + "(" + userId + ") 失败");
-                JOptionPane.showMessageDialog(this, "删除失败（可能有关联选课记录）", "操作失败", JOptionPane.ERROR_MESSAGE);
-            }
+                // 【添加日志】删除学生
+                if (success) {
+                    LogUtil.log("管理员", "删除学生成功", 
+                               "删除学生：" + userName + "(" + userId + ")");
+                    JOptionPane.showMessageDialog(this, "删除成功");
+                    loadStudentData();
+                } else {
+                    LogUtil.log("管理员", "删除学生失败", 
+                               "删除学生：" + userName + "(" + userId + ") 失败");
+                    JOptionPane.showMessageDialog(this, "删除失败（可能有关联选课记录）", "操作失败", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         }
     }
 }
\ No newline at end of file
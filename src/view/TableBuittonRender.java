@@ -1,6 +1,7 @@
 package view;
 
 import model.User;
+import service.AsyncService;
 import service.CourseService;
 import util.LogUtil;
 import javax.swing.*;
@@ -96,24 +97,24 @@ class ButtonEditor extends DefaultCellEditor {
      * 显示课程详情对话框
      */
     private void showCourseDetailDialog(String courseCode, String courseName) {
-        // 获取课程详细信息
-        java.util.List<model.Course> allCourses = courseService.getPublishedCourses();
-        model.Course courseDetail = null;
-        
-        for (model.Course course : allCourses) {
-            if (course.getCourseCode().equals(courseCode)) {
-                courseDetail = course;
-                break;
-            }
-        }
-        
+        // 获取课程详细信息（通常已在后台预取到缓存中；未命中时在后台查询，不阻塞界面）
+        AsyncService.call(() -> courseService.getCourseDetail(courseCode))
+                .whenComplete((courseDetail, error) -> SwingUtilities.invokeLater(() -> {
+                    if (error != null) {
+                        error.printStackTrace();
+                    }
+                    showCourseDetailDialog(courseCode, courseName, error == null ? courseDetail : null);
+                }));
+    }
+
+    private void showCourseDetailDialog(String courseCode, String courseName, model.Course courseDetail) {
         if (courseDetail == null) {
             JOptionPane.showMessageDialog(table, "未找到课程详细信息", "错误", JOptionPane.ERROR_MESSAGE);
             return;
         }
         
         // 创建详情面板
-        JPanel panel = new JPanel(new GridLayout(8, 2, 10, 10));
+        JPanel panel = new JPanel(new GridLayout(10, 2, 10, 10));
         panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
         
         panel.add(new JLabel("课程代码:"));
@@ -132,6 +133,14 @@ class ButtonEditor extends DefaultCellEditor {
         panel.add(new JLabel(courseDetail.getCapacityLimit() + "人"));
         panel.add(new JLabel("已选人数:"));
         panel.add(new JLabel(courseDetail.getCurrentSelected() + "人"));
+        panel.add(new JLabel("先修课程:"));
+        panel.add(new JLabel(courseDetail.getPrerequisiteNames().isEmpty()
+                ? "无" : String.join("、", courseDetail.getPrerequisiteNames())));
+        panel.add(new JLabel("课程简介:"));
+        JLabel descLabel = new JLabel(courseDetail.getDescription() != null && !courseDetail.getDescription().isEmpty()
+                ? courseDetail.getDescription() : "暂无");
+        descLabel.setToolTipText(courseDetail.getDescription());
+        panel.add(descLabel);
         
         JOptionPane.showMessageDialog(table, panel, "课程详情 - " + courseName, JOptionPane.INFORMATION_MESSAGE);
         
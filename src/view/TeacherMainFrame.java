@@ -11,17 +11,22 @@ import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class TeacherMainFrame extends JFrame {
 
     private final CourseService courseService = new CourseService();
     private final UserService userService = new UserService();
+    // 服务调用在后台执行，窗口关闭时取消
+    private final UiTasks tasks = new UiTasks(this);
     private final User teacher;
     private JTabbedPane tabbedPane;
 
     // “我的课程” 面板组件
     private JTable myCourseTable;
     private DefaultTableModel myCourseTableModel;
+    // 登录时预热的课程查询（只在首次加载时使用）
+    private CompletableFuture<List<Course>> warmedCourses;
     private final String[] MY_COURSE_COLUMNS = {"代码", "名称", "学分", "状态", "容量", "已选", "时间", "地点"};
 
     /**
@@ -29,7 +34,15 @@ public class TeacherMainFrame extends JFrame {
      * @param teacher 登录成功的教师用户信息
      */
     public TeacherMainFrame(User teacher) {
+        this(teacher, null);
+    }
+
+    /**
+     * 构造函数：使用登录时预热的课程数据初始化教师主界面
+     */
+    TeacherMainFrame(User teacher, MainFrameBootstrap bootstrap) {
         this.teacher = teacher;
+        this.warmedCourses = bootstrap != null ? bootstrap.getTeacherCourses() : null;
         setTitle("选课系统 - 教师端 - 欢迎：" + teacher.getUserName() + " (工号: " + teacher.getUserId() + ")");
         setSize(900, 650);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -75,7 +88,7 @@ public class TeacherMainFrame extends JFrame {
         logoutItem.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                handleLogout();
+                handleLogout(logoutItem);
             }
         });
         
@@ -135,41 +148,40 @@ private void showChangePasswordDialog() {
             return;
         }
         
-        // 【关键修改】使用新的validatePassword方法验证旧密码
-        boolean oldPasswordCorrect = userService.validatePassword(teacher.getUserId(), oldPassword);
-        
-        if (!oldPasswordCorrect) {
-            JOptionPane.showMessageDialog(this, "当前密码错误", "验证失败", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-        
-        // 更新密码 - 需要先在UserService中添加updateTeacherPassword方法
-        boolean success = userService.updateTeacherPassword(teacher.getUserId(), newPassword);
-        
-        if (success) {
-            // 记录日志
-            LogUtil.log(teacher.getUserId(), "修改密码", 
-                       "教师 " + teacher.getUserName() + " 修改密码成功");
+        // 【关键修改】使用新的validatePassword方法验证旧密码（后台执行）
+        tasks.submit(() -> userService.validatePassword(teacher.getUserId(), oldPassword), oldPasswordCorrect -> {
+            if (!oldPasswordCorrect) {
+                JOptionPane.showMessageDialog(this, "当前密码错误", "验证失败", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            // 更新密码 - 需要先在UserService中添加updateTeacherPassword方法
+            tasks.submit(() -> userService.updateTeacherPassword(teacher.getUserId(), newPassword), success -> {
+                if (success) {
+                    // 记录日志
+                    LogUtil.log(teacher.getUserId(), "修改密码", 
+                               "教师 " + teacher.getUserName() + " 修改密码成功");
             
-            JOptionPane.showMessageDialog(this, 
-                "密码修改成功！\n" +
-                "请记住新密码，下次登录时使用。",
-                "修改成功", JOptionPane.INFORMATION_MESSAGE);
-        } else {
-            LogUtil.log(teacher.getUserId(), "修改密码失败", 
-                       "教师 " + teacher.getUserName() + " 修改密码失败");
+                    JOptionPane.showMessageDialog(this, 
+                        "密码修改成功！\n" +
+                        "请记住新密码，下次登录时使用。",
+                        "修改成功", JOptionPane.INFORMATION_MESSAGE);
+                } else {
+                    LogUtil.log(teacher.getUserId(), "修改密码失败", 
+                               "教师 " + teacher.getUserName() + " 修改密码失败");
             
-            JOptionPane.showMessageDialog(this, 
-                "密码修改失败，请稍后重试",
-                "修改失败", JOptionPane.ERROR_MESSAGE);
-        }
+                    JOptionPane.showMessageDialog(this, 
+                        "密码修改失败，请稍后重试",
+                        "修改失败", JOptionPane.ERROR_MESSAGE);
+                }
+            });
+        });
     }
 }
     
     /**
      * 退出登录
      */
-    private void handleLogout() {
+    private void handleLogout(Component logoutItem) {
         int confirm = JOptionPane.showConfirmDialog(this,
             "确定要退出登录吗？",
             "确认退出", JOptionPane.YES_NO_OPTION);
@@ -177,23 +189,28 @@ private void showChangePasswordDialog() {
         if (confirm == JOptionPane.YES_OPTION) {
             // 记录登出日志
             LogUtil.logLogout(teacher.getUserId(), teacher.getUserName());
-            
-            // 关闭当前窗口
-            this.dispose();
-            
-            // 重新打开登录窗口
-            EventQueue.invokeLater(new Runnable() {
-                @Override
-                public void run() {
-                    try {
-                        new LoginFrame();
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                }
-            });
+            // 登出前等待本次会话的日志写入数据库（在后台等待，不阻塞界面），完成后再关闭窗口
+            tasks.submit(() -> LogUtil.flush(2000), flushed -> closeAndShowLogin(), error -> closeAndShowLogin(),
+                    logoutItem);
         }
     }
+
+    private void closeAndShowLogin() {
+        // 关闭当前窗口
+        this.dispose();
+        
+        // 重新打开登录窗口
+        EventQueue.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    new LoginFrame();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        });
+    }
     
 
 
@@ -233,8 +250,15 @@ private void showChangePasswordDialog() {
         bottomPanel.add(viewStudentButton);
         panel.add(bottomPanel, BorderLayout.SOUTH);
 
-        // 初始加载数据
-        loadMyCoursesData();
+        // 初始加载数据（登录时已预热完成的直接填入，否则等待预热结果或重新查询）
+        List<Course> courses = MainFrameBootstrap.resultNow(warmedCourses);
+        if (courses != null) {
+            showMyCourses(courses);
+        } else {
+            tasks.submit(warmedCourses, () -> courseService.getCoursesByTeacher(teacher.getUserId()),
+                    this::showMyCourses, null);
+        }
+        warmedCourses = null;
 
         return panel;
     }
@@ -243,10 +267,15 @@ private void showChangePasswordDialog() {
      * 加载该教师的课程数据并刷新表格
      */
     private void loadMyCoursesData() {
-        myCourseTableModel.setRowCount(0);
+        // 调用服务层方法获取数据（后台执行）
+        tasks.submit(() -> courseService.getCoursesByTeacher(teacher.getUserId()), this::showMyCourses);
+    }
 
-        // 调用服务层方法获取数据
-        List<Course> courses = courseService.getCoursesByTeacher(teacher.getUserId());
+    /**
+     * 把课程数据填入表格
+     */
+    private void showMyCourses(List<Course> courses) {
+        myCourseTableModel.setRowCount(0);
 
         //  【添加日志】查看课程列表
         LogUtil.log(teacher.getUserId(), "查看我的课程", 
@@ -400,41 +429,41 @@ private void showChangePasswordDialog() {
             newCourse.setCourseType(typeField.getText());
             newCourse.setDescription(descArea.getText());
 
-            // 4. 调用服务层提交申请
-            boolean success = courseService.applyForNewCourse(newCourse, teacher.getUserId());
-
-            //  【添加日志】开课申请
             String courseCode = codeField.getText();
             String courseName = nameField.getText();
-            
-            if (success) {
-                LogUtil.log(teacher.getUserId(), "开课申请提交", 
-                           "教师 " + teacher.getUserName() + " 申请开设课程：" + 
-                           courseName + "(" + courseCode + ")，学分：" + credit + "，容量：" + capacity + "，课时：" + hour);
+
+            // 4. 调用服务层提交申请（后台执行）
+            tasks.submit(() -> courseService.applyForNewCourse(newCourse, teacher.getUserId()), success -> {
+                //  【添加日志】开课申请
+                if (success) {
+                    LogUtil.log(teacher.getUserId(), "开课申请提交", 
+                               "教师 " + teacher.getUserName() + " 申请开设课程：" + 
+                               courseName + "(" + courseCode + ")，学分：" + credit + "，容量：" + capacity + "，课时：" + hour);
                 
-                JOptionPane.showMessageDialog(this, "课程申请提交成功！请等待教务员审核。", "成功", JOptionPane.INFORMATION_MESSAGE);
+                    JOptionPane.showMessageDialog(this, "课程申请提交成功！请等待教务员审核。", "成功", JOptionPane.INFORMATION_MESSAGE);
                 
-                // 成功后清空表单
-                codeField.setText(""); 
-                nameField.setText(""); 
-                creditField.setText(""); 
-                hourField.setText("");
-                timeField.setText(""); 
-                classroomField.setText(""); 
-                limitField.setText(""); 
-                typeField.setText("");
-                descArea.setText("");
-
-                // 切换到"我的课程"面板查看状态
-                tabbedPane.setSelectedIndex(0);
-                loadMyCoursesData();
-            } else {
-                LogUtil.log(teacher.getUserId(), "开课申请失败", 
-                           "教师 " + teacher.getUserName() + " 申请课程 " + 
-                           courseName + "(" + courseCode + ") 失败，可能代码重复");
+                    // 成功后清空表单
+                    codeField.setText(""); 
+                    nameField.setText(""); 
+                    creditField.setText(""); 
+                    hourField.setText("");
+                    timeField.setText(""); 
+                    classroomField.setText(""); 
+                    limitField.setText(""); 
+                    typeField.setText("");
+                    descArea.setText("");
+
+                    // 切换到"我的课程"面板查看状态
+                    tabbedPane.setSelectedIndex(0);
+                    loadMyCoursesData();
+                } else {
+                    LogUtil.log(teacher.getUserId(), "开课申请失败", 
+                               "教师 " + teacher.getUserName() + " 申请课程 " + 
+                               courseName + "(" + courseCode + ") 失败，可能代码重复");
                 
-                JOptionPane.showMessageDialog(this, "提交失败：课程代码可能已存在，请检查。", "失败", JOptionPane.ERROR_MESSAGE);
-            }
+                    JOptionPane.showMessageDialog(this, "提交失败：课程代码可能已存在，请检查。", "失败", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         } catch (Exception ex) {
             // 【添加日志】开课申请异常
             LogUtil.log(teacher.getUserId(), "开课申请异常", 
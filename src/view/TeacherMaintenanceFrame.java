@@ -4,7 +4,6 @@ import model.User;
 import service.UserService;
 import util.LogUtil;  // 导入日志工具类
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.util.List;
 
@@ -13,7 +12,9 @@ import java.util.List;
  */
 public class TeacherMaintenanceFrame extends JFrame {
     private final UserService userService = new UserService();
-    private DefaultTableModel tableModel;
+    // 服务调用在后台执行，窗口关闭时取消
+    private final UiTasks tasks = new UiTasks(this);
+    private ListTableModel<User> tableModel;
     private JTable teacherTable;
 
     public TeacherMaintenanceFrame() {
@@ -34,7 +35,14 @@ public class TeacherMaintenanceFrame extends JFrame {
     private void initUI() {
         // 1. 表格模型（工号、姓名、院系、联系方式）
         String[] columnNames = {"教师工号", "姓名", "所属学院", "联系方式"};
-        tableModel = new DefaultTableModel(null, columnNames);
+        tableModel = new ListTableModel<>(columnNames, (teacher, column) -> {
+            switch (column) {
+                case 0: return teacher.getUserId();
+                case 1: return teacher.getUserName();
+                case 2: return teacher.getDepartment();
+                default: return teacher.getContact();
+            }
+        });
         teacherTable = new JTable(tableModel);
         teacherTable.getSelectionModel().setSelectionMode(ListSelectionModel.SINGLE_SELECTION); // 单选
 
@@ -60,21 +68,11 @@ public class TeacherMaintenanceFrame extends JFrame {
 
     // 加载教师数据到表格
     private void loadTeacherData() {
-        tableModel.setRowCount(0); // 清空表格
-        List<User> teachers = userService.getAllTeachers();
-        
-        //   【添加日志】加载教师数据
-        LogUtil.log("管理员", "加载教师数据", "加载教师列表，共 " + teachers.size() + " 名教师");
-        
-        for (User teacher : teachers) {
-            // 从User对象中获取数据（需User类支持contact字段的getter）
-            tableModel.addRow(new Object[]{
-                    teacher.getUserId(),
-                    teacher.getUserName(),
-                    teacher.getDepartment(),
-                    teacher.getContact() // 需在User类中补充contact的getter/setter
-            });
-        }
+        tasks.submit(userService::getAllTeachers, teachers -> {
+            //   【添加日志】加载教师数据
+            LogUtil.log("管理员", "加载教师数据", "加载教师列表，共 " + teachers.size() + " 名教师");
+            tableModel.updateRows(teachers, User::getUserId);
+        });
     }
 
     // 新增教师对话框
@@ -121,20 +119,21 @@ public class TeacherMaintenanceFrame extends JFrame {
             teacher.setContact(contactField.getText().trim());
 
             // 调用服务层添加
-            boolean success = userService.addTeacher(teacher, account, password);
+            tasks.submit(() -> userService.addTeacher(teacher, account, password), success -> {
             
-            //   【添加日志】新增教师
-            if (success) {
-                LogUtil.log("管理员", "新增教师成功", 
-                           "新增教师：" + userName + "(" + userId + ")，学院：" + deptField.getText().trim() + 
-                           "，账号：" + account);
-                JOptionPane.showMessageDialog(this, "新增成功");
-                loadTeacherData(); // 刷新表格
-            } else {
-                LogUtil.log("管理员", "新增教师失败", 
-                           "尝试新增教师：" + userName + "(" + userId + ") 失败，可能工号或账号重复");
-                JOptionPane.showMessageDialog(this, "新增失败（可能工号或账号重复）", "操作失败", JOptionPane.ERROR_MESSAGE);
-            }
+                //   【添加日志】新增教师
+                if (success) {
+                    LogUtil.log("管理员", "新增教师成功", 
+                               "新增教师：" + userName + "(" + userId + ")，学院：" + deptField.getText().trim() + 
+                               "，账号：" + account);
+                    JOptionPane.showMessageDialog(this, "新增成功");
+                    loadTeacherData(); // 刷新表格
+                } else {
+                    LogUtil.log("管理员", "新增教师失败", 
+                               "尝试新增教师：" + userName + "(" + userId + ") 失败，可能工号或账号重复");
+                    JOptionPane.showMessageDialog(this, "新增失败（可能工号或账号重复）", "操作失败", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         }
     }
 
@@ -173,21 +172,22 @@ public class TeacherMaintenanceFrame extends JFrame {
             updatedTeacher.setDepartment(deptField.getText().trim());
             updatedTeacher.setContact(contactField.getText().trim());
 
-            boolean success = userService.updateTeacher(updatedTeacher);
+            tasks.submit(() -> userService.updateTeacher(updatedTeacher), success -> {
             
-            //   【添加日志】修改教师信息
-            if (success) {
-                LogUtil.log("管理员", "修改教师信息", 
-                           "修改教师 " + userId + " 的信息，" + 
-                           "原姓名：" + userName + "，新姓名：" + nameField.getText().trim() + "，" +
-                           "新学院：" + deptField.getText().trim());
-                JOptionPane.showMessageDialog(this, "修改成功");
-                loadTeacherData();
-            } else {
-                LogUtil.log("管理员", "修改教师信息失败", 
-                           "修改教师 " + userId + " 的信息失败");
-                JOptionPane.showMessageDialog(this, "修改失败", "操作失败", JOptionPane.ERROR_MESSAGE);
-            }
+                //   【添加日志】修改教师信息
+                if (success) {
+                    LogUtil.log("管理员", "修改教师信息", 
+                               "修改教师 " + userId + " 的信息，" + 
+                               "原姓名：" + userName + "，新姓名：" + nameField.getText().trim() + "，" +
+                               "新学院：" + deptField.getText().trim());
+                    JOptionPane.showMessageDialog(this, "修改成功");
+                    loadTeacherData();
+                } else {
+                    LogUtil.log("管理员", "修改教师信息失败", 
+                               "修改教师 " + userId + " 的信息失败");
+                    JOptionPane.showMessageDialog(this, "修改失败", "操作失败", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         }
     }
 
@@ -207,19 +207,20 @@ public class TeacherMaintenanceFrame extends JFrame {
                 "危险操作确认", JOptionPane.YES_NO_OPTION);
 
         if (confirm == JOptionPane.YES_OPTION) {
-            boolean success = userService.deleteTeacher(userId);
+            tasks.submit(() -> userService.deleteTeacher(userId), success -> {
             
-            //   【添加日志】删除教师
-            if (success) {
-                LogUtil.log("管理员", "删除教师成功", 
-                           "删除教师：" + userName + "(" + userId + ")");
-                JOptionPane.showMessageDialog(this, "删除成功");
-                loadTeacherData();
-            } else {
-                LogUtil.log("管理员", "删除教师失败", 
-                           "删除教师：" + userName + "(" + userId + ") 失败，可能有关联课程");
-                JOptionPane.showMessageDialog(this, "删除失败（可能存在关联课程）", "操作失败", JOptionPane.ERROR_MESSAGE);
-            }
+                //   【添加日志】删除教师
+                if (success) {
+                    LogUtil.log("管理员", "删除教师成功", 
+                               "删除教师：" + userName + "(" + userId + ")");
+                    JOptionPane.showMessageDialog(this, "删除成功");
+                    loadTeacherData();
+                } else {
+                    LogUtil.log("管理员", "删除教师失败", 
+                               "删除教师：" + userName + "(" + userId + ") 失败，可能有关联课程");
+                    JOptionPane.showMessageDialog(this, "删除失败（可能存在关联课程）", "操作失败", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         }
     }
 }
\ No newline at end of file
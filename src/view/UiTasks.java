@@ -0,0 +1,168 @@
+package view;
+
+import service.AsyncService;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 窗口的后台任务管理（每个窗口一个）
+ * 服务调用通过 AsyncService 在后台执行，结果回到 EDT 上交给回调；
+ * 执行期间窗口显示等待光标、相关按钮禁用、状态栏显示提示；窗口关闭时取消尚未完成的任务，
+ * 已关闭窗口不再收到回调。
+ */
+final class UiTasks {
+
+    private final Window window;
+    private final Set<CompletableFuture<?>> running = ConcurrentHashMap.newKeySet();
+    // 执行中的任务数（只在 EDT 上读写）
+    private int busyCount = 0;
+    private JLabel statusLabel;
+    private String idleStatus;
+    // 组件 -> 禁用它的任务数（多个任务可能共用一个按钮）
+    private final Map<Component, Integer> disabled = new HashMap<>();
+
+    UiTasks(Window window) {
+        this.window = window;
+        window.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                cancelAll();
+            }
+        });
+    }
+
+    /**
+     * 设置显示"正在加载..."的状态栏（可选）
+     */
+    void setStatusLabel(JLabel statusLabel) {
+        this.statusLabel = statusLabel;
+    }
+
+    /**
+     * 在后台执行服务调用，完成后在 EDT 上调用 onSuccess
+     * 调用失败时打印异常并弹出错误提示
+     * @param busyComponents 执行期间禁用的组件（如触发该操作的按钮）
+     */
+    <T> CompletableFuture<T> submit(Supplier<T> call, Consumer<T> onSuccess, Component... busyComponents) {
+        return submit(call, onSuccess, null, busyComponents);
+    }
+
+    /**
+     * 同上，onFailure 为 null 时使用默认的错误提示
+     */
+    <T> CompletableFuture<T> submit(Supplier<T> call, Consumer<T> onSuccess, Consumer<Throwable> onFailure,
+                                    Component... busyComponents) {
+        CompletableFuture<T> future;
+        try {
+            future = AsyncService.call(call);
+        } catch (RejectedExecutionException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        return attach(future, onSuccess, onFailure, busyComponents);
+    }
+
+    /**
+     * 使用已经开始的查询（如登录时预热的数据），完成后在 EDT 上调用 onSuccess；
+     * warmed 为 null 或预热失败时改为执行 call 重新查询
+     */
+    <T> CompletableFuture<T> submit(CompletableFuture<T> warmed, Supplier<T> call, Consumer<T> onSuccess,
+                                    Consumer<Throwable> onFailure, Component... busyComponents) {
+        if (warmed == null) {
+            return submit(call, onSuccess, onFailure, busyComponents);
+        }
+        CompletableFuture<T> future = warmed.handle((result, error) -> error == null
+                ? CompletableFuture.completedFuture(result) : AsyncService.call(call)).thenCompose(f -> f);
+        return attach(future, onSuccess, onFailure, busyComponents);
+    }
+
+    private <T> CompletableFuture<T> attach(CompletableFuture<T> future, Consumer<T> onSuccess,
+                                            Consumer<Throwable> onFailure, Component[] busyComponents) {
+        beginBusy(busyComponents);
+        running.add(future);
+        future.whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+            running.remove(future);
+            endBusy(busyComponents);
+            if (future.isCancelled() || !window.isDisplayable()) {
+                return;
+            }
+            if (error == null) {
+                if (onSuccess != null) {
+                    onSuccess.accept(result);
+                }
+            } else if (onFailure != null) {
+                onFailure.accept(unwrap(error));
+            } else {
+                showError(unwrap(error));
+            }
+        }));
+        return future;
+    }
+
+    /**
+     * 取消全部尚未完成的任务（窗口关闭、退出登录时）
+     * 未开始的任务不再执行，已在执行的任务执行完后丢弃结果
+     */
+    void cancelAll() {
+        for (CompletableFuture<?> future : running) {
+            future.cancel(false);
+        }
+        running.clear();
+    }
+
+    private void beginBusy(Component[] components) {
+        if (busyCount++ == 0) {
+            window.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+            if (statusLabel != null) {
+                idleStatus = statusLabel.getText();
+                statusLabel.setText("正在加载...");
+            }
+        }
+        for (Component c : components) {
+            if (disabled.merge(c, 1, Integer::sum) == 1) {
+                c.setEnabled(false);
+            }
+        }
+    }
+
+    private void endBusy(Component[] components) {
+        for (Component c : components) {
+            Integer count = disabled.get(c);
+            if (count == null || count <= 1) {
+                disabled.remove(c);
+                c.setEnabled(true);
+            } else {
+                disabled.put(c, count - 1);
+            }
+        }
+        if (--busyCount == 0) {
+            window.setCursor(Cursor.getDefaultCursor());
+            // 回调中已经改写了状态栏时不恢复
+            if (statusLabel != null && "正在加载...".equals(statusLabel.getText())) {
+                statusLabel.setText(idleStatus);
+            }
+        }
+    }
+
+    private void showError(Throwable error) {
+        error.printStackTrace();
+        String message = error instanceof RejectedExecutionException
+                ? "系统繁忙，请稍后重试。" : "操作失败：" + error.getMessage();
+        JOptionPane.showMessageDialog(window, message, "错误", JOptionPane.ERROR_MESSAGE);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
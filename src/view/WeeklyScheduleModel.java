@@ -0,0 +1,141 @@
+package view;
+
+import model.Course;
+import util.ScheduleMask;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 周课表数据（按上课时间位图组织）
+ * 每门课的上课时间只解析一次（ScheduleMask），按位图登记到各个时间格；
+ * setCourses 与上次的课程比较，只更新增加、删除或显示内容有变化的课程所占的时间格，
+ * 并把这些时间格的位图通知给监听者（课表组件据此只重绘受影响的格子）。
+ * 同一时间格可以有多门课程（如单双周轮换，或时间冲突）。只在 EDT 上使用。
+ */
+final class WeeklyScheduleModel {
+
+    /**
+     * 时间格变化监听
+     */
+    interface Listener {
+        /**
+         * @param changed 发生变化的时间格
+         */
+        void slotsChanged(ScheduleMask changed);
+    }
+
+    // 课程代码 -> 课程（保持加入顺序，同一格内的课程按此顺序显示）
+    private final Map<String, Course> courses = new LinkedHashMap<>();
+    private final Map<String, ScheduleMask> masks = new LinkedHashMap<>();
+    // 时间格 -> 课程，下标 day * PERIODS + (period - 1)
+    private final List<List<Course>> slots = new ArrayList<>(ScheduleMask.DAYS * ScheduleMask.PERIODS);
+    private final List<Listener> listeners = new ArrayList<>();
+
+    WeeklyScheduleModel() {
+        for (int i = 0; i < ScheduleMask.DAYS * ScheduleMask.PERIODS; i++) {
+            slots.add(new ArrayList<>());
+        }
+    }
+
+    void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 用新的已选课程列表更新课表，只改动有变化的课程所占的时间格
+     * @return 发生变化的时间格（没有变化时为 ScheduleMask.EMPTY）
+     */
+    ScheduleMask setCourses(List<Course> newCourses) {
+        Map<String, Course> incoming = new LinkedHashMap<>();
+        for (Course course : newCourses) {
+            incoming.put(course.getCourseCode(), course);
+        }
+
+        ScheduleMask changed = ScheduleMask.EMPTY;
+        // 1. 已退选或显示内容有变化的课程从原来的时间格移除
+        for (Course old : new ArrayList<>(courses.values())) {
+            Course current = incoming.get(old.getCourseCode());
+            if (current == null || !sameDisplay(old, current)) {
+                changed = changed.or(remove(old.getCourseCode()));
+            }
+        }
+        // 2. 新选的课程（含上一步移除的）登记到新的时间格
+        for (Course course : incoming.values()) {
+            if (!courses.containsKey(course.getCourseCode())) {
+                changed = changed.or(add(course));
+            }
+        }
+
+        if (!changed.isEmpty()) {
+            for (Listener listener : listeners) {
+                listener.slotsChanged(changed);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * 某天某节的课程（多于一门时不一定冲突，如单双周轮换，需再用 getMask 判断）
+     * @param day 星期（0=周一 ... 6=周日）
+     * @param period 节次（1-12）
+     */
+    List<Course> getCoursesAt(int day, int period) {
+        if (day < 0 || day >= ScheduleMask.DAYS || period < 1 || period > ScheduleMask.PERIODS) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(slots.get(index(day, period)));
+    }
+
+    /**
+     * 课程的上课时间位图；不在课表中时返回 ScheduleMask.EMPTY
+     */
+    ScheduleMask getMask(String courseCode) {
+        return masks.getOrDefault(courseCode, ScheduleMask.EMPTY);
+    }
+
+    private ScheduleMask add(Course course) {
+        ScheduleMask mask = ScheduleMask.parse(course.getScheduleTime());
+        courses.put(course.getCourseCode(), course);
+        masks.put(course.getCourseCode(), mask);
+        forEachSlot(mask, slot -> slots.get(slot).add(course));
+        return mask;
+    }
+
+    private ScheduleMask remove(String courseCode) {
+        Course course = courses.remove(courseCode);
+        ScheduleMask mask = masks.remove(courseCode);
+        forEachSlot(mask, slot -> slots.get(slot).remove(course));
+        return mask;
+    }
+
+    private interface SlotAction {
+        void apply(int slot);
+    }
+
+    private static void forEachSlot(ScheduleMask mask, SlotAction action) {
+        for (int day = 0; day < ScheduleMask.DAYS; day++) {
+            for (int period = 1; period <= ScheduleMask.PERIODS; period++) {
+                if (mask.hasSlot(day, period)) {
+                    action.apply(index(day, period));
+                }
+            }
+        }
+    }
+
+    private static int index(int day, int period) {
+        return day * ScheduleMask.PERIODS + period - 1;
+    }
+
+    // 课表格子和提示中显示的内容是否相同
+    private static boolean sameDisplay(Course a, Course b) {
+        return Objects.equals(a.getScheduleTime(), b.getScheduleTime())
+                && Objects.equals(a.getCourseName(), b.getCourseName())
+                && Objects.equals(a.getTeacherName(), b.getTeacherName())
+                && Objects.equals(a.getClassroom(), b.getClassroom());
+    }
+}
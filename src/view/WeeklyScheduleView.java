@@ -0,0 +1,264 @@
+package view;
+
+import model.Course;
+import util.ScheduleMask;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseEvent;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 周课表组件（一个组件自绘整张课表，代替 42 个 HTML 标签）
+ * 行为节次段（1-2、3-4、午休、5-6、7-8、9-10 节），列为周一至周五；
+ * 数据来自 WeeklyScheduleModel，时间格变化时只重绘受影响的格子。
+ * 一格有多门课程时并排显示各门课程（如单双周轮换、同一格内的不同节次）；
+ * 只有上课时间位图真正相交（ScheduleMask.intersects，含周次）的课程才算冲突，用红色标出，
+ * 鼠标悬停显示课程详情。
+ */
+final class WeeklyScheduleView extends JComponent implements WeeklyScheduleModel.Listener {
+
+    private static final String[] DAY_NAMES = {"周一", "周二", "周三", "周四", "周五"};
+    // 每行对应的节次，null 表示午休
+    private static final int[][] ROWS = {{1, 2}, {3, 4}, null, {5, 6}, {7, 8}, {9, 10}};
+    private static final String[][] ROW_LABELS = {
+            {"1-2节", "8:00-10:00"}, {"3-4节", "10:10-12:10"}, {"午休"},
+            {"5-6节", "14:00-16:00"}, {"7-8节", "16:10-18:10"}, {"9-10节", "19:00-21:00"}
+    };
+    private static final int HEADER_HEIGHT = 26;
+    private static final int TIME_COLUMN_WIDTH = 90;
+
+    static final Color COURSE_COLOR = Color.decode("#C8E6C9");
+    static final Color CONFLICT_COLOR = Color.decode("#FFCDD2");
+    private static final Color CONFLICT_BORDER = Color.decode("#E53935");
+    private static final Color LUNCH_COLOR = Color.decode("#FFF3E0");
+    private static final Color TIME_COLOR = Color.decode("#F5F5F5");
+    private static final Font CELL_FONT = new Font("微软雅黑", Font.PLAIN, 12);
+    private static final Font HEADER_FONT = new Font("微软雅黑", Font.BOLD, 12);
+
+    private final WeeklyScheduleModel model;
+
+    WeeklyScheduleView(WeeklyScheduleModel model) {
+        this.model = model;
+        model.addListener(this);
+        setOpaque(true);
+        setBackground(Color.WHITE);
+        setPreferredSize(new Dimension(600, 360));
+        // 注册后 getToolTipText(MouseEvent) 才会被调用
+        ToolTipManager.sharedInstance().registerComponent(this);
+    }
+
+    /**
+     * 课表上（周一至周五、1-10 节）能看到的课程数
+     */
+    int getVisibleCourseCount() {
+        Set<String> shown = new LinkedHashSet<>();
+        for (int row = 0; row < ROWS.length; row++) {
+            for (int day = 0; day < DAY_NAMES.length; day++) {
+                for (Course course : coursesInCell(row, day)) {
+                    shown.add(course.getCourseCode());
+                }
+            }
+        }
+        return shown.size();
+    }
+
+    @Override
+    public void slotsChanged(ScheduleMask changed) {
+        // 只重绘包含变化时间格的格子
+        for (int row = 0; row < ROWS.length; row++) {
+            if (ROWS[row] == null) {
+                continue;
+            }
+            for (int day = 0; day < DAY_NAMES.length; day++) {
+                for (int period : ROWS[row]) {
+                    if (changed.hasSlot(day, period)) {
+                        repaint(cellBounds(row, day));
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    // 一格内的课程（该行任意一节有课即算），按加入顺序去重
+    private Set<Course> coursesInCell(int row, int day) {
+        Set<Course> courses = new LinkedHashSet<>();
+        if (ROWS[row] != null) {
+            for (int period : ROWS[row]) {
+                courses.addAll(model.getCoursesAt(day, period));
+            }
+        }
+        return courses;
+    }
+
+    // 一格内与同格其他课程时间冲突的课程
+    private Set<Course> conflictsIn(Set<Course> courses) {
+        Set<Course> conflicting = new LinkedHashSet<>();
+        Course[] list = courses.toArray(new Course[0]);
+        for (int i = 0; i < list.length; i++) {
+            ScheduleMask mask = model.getMask(list[i].getCourseCode());
+            for (int j = i + 1; j < list.length; j++) {
+                if (mask.intersects(model.getMask(list[j].getCourseCode()))) {
+                    conflicting.add(list[i]);
+                    conflicting.add(list[j]);
+                }
+            }
+        }
+        return conflicting;
+    }
+
+    private Rectangle cellBounds(int row, int day) {
+        int cellWidth = (getWidth() - TIME_COLUMN_WIDTH) / DAY_NAMES.length;
+        int cellHeight = (getHeight() - HEADER_HEIGHT) / ROWS.length;
+        return new Rectangle(TIME_COLUMN_WIDTH + day * cellWidth, HEADER_HEIGHT + row * cellHeight,
+                cellWidth, cellHeight);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g2.setColor(getBackground());
+            g2.fillRect(0, 0, getWidth(), getHeight());
+            Rectangle clip = g2.getClipBounds();
+
+            // 表头行
+            int cellWidth = (getWidth() - TIME_COLUMN_WIDTH) / DAY_NAMES.length;
+            g2.setFont(HEADER_FONT);
+            paintBox(g2, new Rectangle(0, 0, TIME_COLUMN_WIDTH, HEADER_HEIGHT), Color.LIGHT_GRAY, "时间");
+            for (int day = 0; day < DAY_NAMES.length; day++) {
+                paintBox(g2, new Rectangle(TIME_COLUMN_WIDTH + day * cellWidth, 0, cellWidth, HEADER_HEIGHT),
+                        Color.LIGHT_GRAY, DAY_NAMES[day]);
+            }
+
+            int cellHeight = (getHeight() - HEADER_HEIGHT) / ROWS.length;
+            for (int row = 0; row < ROWS.length; row++) {
+                // 时间列
+                g2.setFont(CELL_FONT);
+                paintBox(g2, new Rectangle(0, HEADER_HEIGHT + row * cellHeight, TIME_COLUMN_WIDTH, cellHeight),
+                        TIME_COLOR, ROW_LABELS[row]);
+                for (int day = 0; day < DAY_NAMES.length; day++) {
+                    Rectangle cell = cellBounds(row, day);
+                    // 局部重绘时跳过不在重绘区域内的格子
+                    if (clip != null && !clip.intersects(cell)) {
+                        continue;
+                    }
+                    if (ROWS[row] == null) {
+                        paintBox(g2, cell, LUNCH_COLOR, "午休");
+                    } else {
+                        paintCourses(g2, cell, coursesInCell(row, day));
+                    }
+                }
+            }
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    private void paintCourses(Graphics2D g2, Rectangle cell, Set<Course> courses) {
+        if (courses.isEmpty()) {
+            paintBox(g2, cell, Color.WHITE);
+            return;
+        }
+        if (courses.size() == 1) {
+            Course course = courses.iterator().next();
+            String classroom = course.getClassroom();
+            if (classroom == null || classroom.isEmpty()) {
+                paintBox(g2, cell, COURSE_COLOR, course.getCourseName());
+            } else {
+                paintBox(g2, cell, COURSE_COLOR, course.getCourseName(), classroom);
+            }
+            return;
+        }
+        // 多门课程：把格子横向等分，每门课占一份；其中有时间冲突的课程标红，外面画红框
+        Set<Course> conflicting = conflictsIn(courses);
+        int count = courses.size();
+        int x = cell.x;
+        int i = 0;
+        for (Course course : courses) {
+            int right = cell.x + cell.width * (i + 1) / count;
+            paintBox(g2, new Rectangle(x, cell.y, right - x, cell.height),
+                    conflicting.contains(course) ? CONFLICT_COLOR : COURSE_COLOR, course.getCourseName());
+            x = right;
+            i++;
+        }
+        if (conflicting.isEmpty()) {
+            return;
+        }
+        g2.setColor(CONFLICT_BORDER);
+        g2.setStroke(new BasicStroke(2f));
+        g2.drawRect(cell.x + 1, cell.y + 1, cell.width - 2, cell.height - 2);
+        g2.setStroke(new BasicStroke(1f));
+    }
+
+    // 画一个带灰色边框的格子，文字逐行居中（超出宽度的部分截断为"..."）
+    private void paintBox(Graphics2D g2, Rectangle box, Color background, String... lines) {
+        g2.setColor(background);
+        g2.fillRect(box.x, box.y, box.width, box.height);
+        g2.setColor(Color.GRAY);
+        g2.drawRect(box.x, box.y, box.width - 1, box.height - 1);
+        if (lines.length == 0) {
+            return;
+        }
+        FontMetrics fm = g2.getFontMetrics();
+        int lineHeight = fm.getHeight();
+        int visibleLines = Math.max(1, Math.min(lines.length, (box.height - 4) / lineHeight));
+        int y = box.y + (box.height - visibleLines * lineHeight) / 2 + fm.getAscent();
+        g2.setColor(Color.DARK_GRAY);
+        for (int i = 0; i < visibleLines; i++) {
+            String text = fit(fm, lines[i], box.width - 6);
+            g2.drawString(text, box.x + (box.width - fm.stringWidth(text)) / 2, y);
+            y += lineHeight;
+        }
+    }
+
+    private static String fit(FontMetrics fm, String text, int width) {
+        if (text == null) {
+            return "";
+        }
+        if (fm.stringWidth(text) <= width) {
+            return text;
+        }
+        String ellipsis = "...";
+        int end = text.length();
+        while (end > 0 && fm.stringWidth(text.substring(0, end) + ellipsis) > width) {
+            end--;
+        }
+        return text.substring(0, end) + (end > 0 ? ellipsis : "");
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent e) {
+        int cellWidth = (getWidth() - TIME_COLUMN_WIDTH) / DAY_NAMES.length;
+        int cellHeight = (getHeight() - HEADER_HEIGHT) / ROWS.length;
+        if (cellWidth <= 0 || cellHeight <= 0 || e.getX() < TIME_COLUMN_WIDTH || e.getY() < HEADER_HEIGHT) {
+            return null;
+        }
+        int day = (e.getX() - TIME_COLUMN_WIDTH) / cellWidth;
+        int row = (e.getY() - HEADER_HEIGHT) / cellHeight;
+        if (day >= DAY_NAMES.length || row >= ROWS.length) {
+            return null;
+        }
+        Set<Course> courses = coursesInCell(row, day);
+        if (courses.isEmpty()) {
+            return null;
+        }
+        StringBuilder tip = new StringBuilder("<html>");
+        if (courses.size() > 1 && !conflictsIn(courses).isEmpty()) {
+            tip.append("<b>时间冲突</b><br>");
+        }
+        for (Course course : courses) {
+            tip.append(course.getCourseName()).append("（").append(course.getTeacherName())
+                    .append("，").append(course.getScheduleTime());
+            if (course.getClassroom() != null && !course.getClassroom().isEmpty()) {
+                tip.append("，").append(course.getClassroom());
+            }
+            tip.append("）<br>");
+        }
+        return tip.append("</html>").toString();
+    }
+
+}
@@ -0,0 +1,60 @@
+package util;
+
+/**
+ * ScheduleMask 解析测试（不依赖测试框架，直接运行 main，失败时抛出 AssertionError）
+ * 编译运行：javac -encoding UTF-8 -d out src/util/ScheduleMask.java test/util/ScheduleMaskTest.java
+ *           java -cp out util.ScheduleMaskTest
+ */
+public class ScheduleMaskTest {
+
+    public static void main(String[] args) {
+        // 不写"节"的多段时间：节次后面紧跟下一段的"周三"，不能当成周次
+        assertSlots("周一1-2 周三3-4", new int[][]{{0, 1}, {0, 2}, {2, 3}, {2, 4}}, 0);
+        assertSlots("周一1-2周三3-4", new int[][]{{0, 1}, {0, 2}, {2, 3}, {2, 4}}, 0);
+        assertSlots("周四7-8 周五1-2", new int[][]{{3, 7}, {3, 8}, {4, 1}, {4, 2}}, 0);
+        assertSlots("周六1-2 周日3-4", new int[][]{{5, 1}, {5, 2}, {6, 3}, {6, 4}}, 0);
+
+        // 周次仍然按周次解析
+        assertSlots("1-16周 周一1-2节", new int[][]{{0, 1}, {0, 2}}, range(1, 16));
+        assertSlots("周二3-4节 3-10周", new int[][]{{1, 3}, {1, 4}}, range(3, 10));
+        assertSlots("1-4周周三5-6节", new int[][]{{2, 5}, {2, 6}}, range(1, 4));
+
+        // 单双周不冲突，同一节次冲突
+        check(!ScheduleMask.parse("周一1-2节 单周").intersects(ScheduleMask.parse("周一1-2节 双周")), "单双周不应冲突");
+        check(ScheduleMask.parse("周一1-2 周三3-4").intersects(ScheduleMask.parse("周三4节")), "周三第4节应冲突");
+        check(!ScheduleMask.parse("周一1-2 周三3-4").intersects(ScheduleMask.parse("周一3-4节")), "周一3-4节不应冲突");
+
+        System.out.println("ScheduleMaskTest 全部通过");
+    }
+
+    private static void assertSlots(String text, int[][] expected, int expectedWeeks) {
+        ScheduleMask mask = ScheduleMask.parse(text);
+        int count = 0;
+        for (int day = 0; day < ScheduleMask.DAYS; day++) {
+            for (int period = 1; period <= ScheduleMask.PERIODS; period++) {
+                if (mask.hasSlot(day, period)) {
+                    count++;
+                }
+            }
+        }
+        check(count == expected.length, text + "：应有 " + expected.length + " 个时间格，实际 " + count + "（" + mask + "）");
+        for (int[] slot : expected) {
+            check(mask.hasSlot(slot[0], slot[1]), text + "：缺少星期" + (slot[0] + 1) + "第" + slot[1] + "节");
+        }
+        check(mask.getWeeks() == expectedWeeks, text + "：周次位图应为 " + expectedWeeks + "，实际 " + mask.getWeeks());
+    }
+
+    private static int range(int from, int to) {
+        int weeks = 0;
+        for (int w = from; w <= to; w++) {
+            weeks |= 1 << w;
+        }
+        return weeks;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}